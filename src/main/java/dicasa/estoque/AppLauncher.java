@@ -1,7 +1,11 @@
 package dicasa.estoque;
 
+import dicasa.estoque.controller.login.LoginController;
+import dicasa.estoque.exception.SemConexaoBancoException;
 import dicasa.estoque.navigation.ScreenNavigator;
+import dicasa.estoque.service.UsuarioService;
 import dicasa.estoque.util.Alerts;
+import dicasa.estoque.util.EtapasInicializacao;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -9,20 +13,20 @@ import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextArea;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.time.Duration;
 
 /**
  * Classe de execução do JavaFX
  */
+@Slf4j
 public class AppLauncher extends Application {
 //    private ConfigurableApplicationContext springContext;
 //
@@ -89,17 +93,27 @@ public class AppLauncher extends Application {
 //        stage.setTitle("Erro - Di Casa Estoque");
 //        stage.show();
 //    }
-private ConfigurableApplicationContext springContext;
+private volatile ConfigurableApplicationContext springContext;
+
     /**
-     //     * Carrega a tela inicial, a tela de Login
-     //     * @param primaryStage
-     //     * @throws Exception
-     //     */
+     * Orçamento usado quando app.inicializacao.orcamento não está configurado
+     */
+    private static final Duration ORCAMENTO_PADRAO = Duration.ofSeconds(8);
+
+    /**
+     * Carrega a tela inicial, a tela de Login, antes do Spring terminar de subir
+     * @param primaryStage
+     */
     @Override
     public void start(Stage primaryStage) {
         try {
-            // 1. Mostra uma tela de carregamento imediatamente
-            showLoadingScreen(primaryStage);
+            ScreenNavigator.aguardarSpringContext();
+
+            // 1. Mostra a tela de login imediatamente, sem esperar o Spring
+            EtapasInicializacao.medir("tela de login", () -> {
+                ScreenNavigator.initialScreen(primaryStage, this::criarControllerLogin);
+                return null;
+            });
 
             // 2. Inicializa o Spring em uma thread separada
             initializeSpringAsync(primaryStage);
@@ -110,101 +124,81 @@ private ConfigurableApplicationContext springContext;
     }
 
     /**
-     * Carrega a tela de carregamento enquanto a tela não abre
-     * @param stage
+     * Cria o controller da tela de login sem o Spring
+     * O serviço de usuário só é buscado no contexto quando o login é feito
+     * @param tipo classe do controller pedida pelo FXML
+     * @return o controller da tela de login
      */
-    private void showLoadingScreen(Stage stage) {
-        VBox loadingBox = new VBox(20);
-        loadingBox.setAlignment(Pos.CENTER);
-
-        ProgressIndicator progress = new ProgressIndicator();
-        Label label = new Label("Inicializando sistema...");
-
-        loadingBox.getChildren().addAll(progress, label);
-
-        Scene scene = new Scene(loadingBox, 400, 300);
-        stage.setScene(scene);
-        stage.setTitle("Di Casa - Estoque");
-        stage.show();
+    private Object criarControllerLogin(Class<?> tipo) {
+        if (tipo != LoginController.class) {
+            throw new IllegalArgumentException("Controller inesperado na tela de login: " + tipo.getName());
+        }
+        return new LoginController(() -> springContext.getBean(UsuarioService.class));
     }
 
     /**
-     * Função que faz a verificação da conexão com a internet
+     * Função que inicia o Spring enquanto a tela de login já está aberta
+     * A conexão com o banco é testada pelo pool de conexões durante a subida,
+     * e cada etapa tem o tempo registrado no log
      * @param primaryStage
      */
     private void initializeSpringAsync(Stage primaryStage) {
-        // Cria uma thread separada para inicializar o Spring
-        new Thread(() -> {
+        Thread inicializacao = new Thread(() -> {
             try {
-                // Verifica conexão antes de inicializar Spring
-                if (!checkNetworkConnection()) {
-                    Platform.runLater(() -> showNetworkErrorScreen(primaryStage, true));
-                    return;
-                }
+                ConfigurableApplicationContext context = EtapasInicializacao.medir("contexto Spring",
+                        () -> SpringApplication.run(EstoqueApplication.class));
+                this.springContext = context;
 
-                // Inicializa o Spring
-                this.springContext = SpringApplication.run(EstoqueApplication.class);
+                // Os beans são lazy, então o serviço do login é criado aqui para o primeiro clique não esperar
+                EtapasInicializacao.medir("serviços do login", () -> context.getBean(UsuarioService.class));
+                EtapasInicializacao.registrarResumo(context.getEnvironment().getProperty(
+                        "app.inicializacao.orcamento", Duration.class, ORCAMENTO_PADRAO));
 
-                // Se chegou aqui, Spring inicializou com sucesso
-                Platform.runLater(() -> {
-                    try {
-                        ScreenNavigator.setSpringContext(springContext);
-                        ScreenNavigator.initialScreen(primaryStage, springContext);
-                    } catch (Exception e) {
-                        showFallbackError(primaryStage, e);
-                    }
-                });
+                Platform.runLater(() -> ScreenNavigator.setSpringContext(context));
 
             } catch (Exception e) {
                 // Spring falhou ao inicializar
+                log.error("Erro ao iniciar o sistema", e);
                 Platform.runLater(() -> {
-                    if (e.getMessage().contains("Connection") ||
-                            e.getMessage().contains("connect") ||
-                            e.getMessage().contains("timeout")) {
-                        showNetworkErrorScreen(primaryStage, false);
+                    if (semConexaoBanco(e)) {
+                        showNetworkErrorScreen(primaryStage);
                     } else {
                         showSpringInitError(primaryStage, e);
                     }
                 });
             }
-        }).start();
+        }, "inicializacao-spring");
+        inicializacao.start();
     }
 
     /**
-     * Função que verifica se a conexão com a internet está funcionando
-     * @return true para certo e false para sem conexão
+     * Função que verifica se a falha foi na conexão com o banco, procurando na cadeia de causas
+     * @param e erro da inicialização
+     * @return true quando o pool não conseguiu conectar
      */
-    private boolean checkNetworkConnection() {
-        try {
-            URL url = new URL("https://www.google.com");
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setConnectTimeout(3000);
-            connection.setReadTimeout(3000);
-            connection.setRequestMethod("HEAD");
-            int responseCode = connection.getResponseCode();
-            return responseCode == 200;
-        } catch (Exception e) {
-            return false;
+    private static boolean semConexaoBanco(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SemConexaoBancoException) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
      * FUnção que carrega tela de erro de conexão
      * @param stage
-     * @param noInternet
      */
-    private void showNetworkErrorScreen(Stage stage, boolean noInternet) {
+    private void showNetworkErrorScreen(Stage stage) {
         VBox errorBox = new VBox(20);
         errorBox.setAlignment(Pos.CENTER);
         errorBox.setPadding(new Insets(40));
 
-        Label title = new Label(noInternet ? "🌐 Sem Conexão com a Internet" : "🔌 Erro de Conexão com o Servidor");
+        Label title = new Label("🔌 Erro de Conexão com o Servidor");
         title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
         Label message = new Label(
-                noInternet
-                        ? "Verifique sua conexão com a internet e tente novamente."
-                        : "Não foi possível conectar ao servidor. Verifique sua rede ou tente mais tarde."
+                "Não foi possível conectar ao servidor. Verifique sua conexão com a internet ou tente mais tarde."
         );
         message.setWrapText(true);
         message.setMaxWidth(400);
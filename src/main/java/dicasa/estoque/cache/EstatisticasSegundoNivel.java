@@ -0,0 +1,91 @@
+package dicasa.estoque.cache;
+
+import dicasa.estoque.models.dto.RegiaoCacheDTO;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Expõe os números do cache de segundo nível do Hibernate, região por região
+ * Depende de hibernate.generate_statistics; com as estatísticas desligadas a lista vem vazia
+ * No encerramento do programa o resumo vai para o log, para comparar a taxa de acerto entre as versões
+ * Criado já na subida, mesmo com a inicialização lazy, para o resumo sair sempre
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class EstatisticasSegundoNivel {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EstatisticasSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * @return acertos, faltas e tamanho de cada região, em ordem alfabética
+     */
+    public List<RegiaoCacheDTO> listarRegioes() {
+        Statistics estatisticas = estatisticas();
+        if (!estatisticas.isStatisticsEnabled()) {
+            return List.of();
+        }
+        String[] nomes = estatisticas.getSecondLevelCacheRegionNames();
+        Arrays.sort(nomes);
+
+        List<RegiaoCacheDTO> regioes = new ArrayList<>(nomes.length);
+        for (String nome : nomes) {
+            CacheRegionStatistics regiao = estatisticas.getCacheRegionStatistics(nome);
+            if (regiao != null) {
+                regioes.add(new RegiaoCacheDTO(
+                        nome,
+                        regiao.getHitCount(),
+                        regiao.getMissCount(),
+                        regiao.getPutCount(),
+                        regiao.getElementCountInMemory()));
+            }
+        }
+        return regioes;
+    }
+
+    /**
+     * Escreve no log o total de acertos do cache de entidades e do cache de consultas, e o resumo de cada região
+     */
+    public void registrarNoLog() {
+        Statistics estatisticas = estatisticas();
+        if (!estatisticas.isStatisticsEnabled()) {
+            return;
+        }
+        log.info("Cache de segundo nível: {} acertos, {} faltas; cache de consultas: {} acertos, {} faltas",
+                estatisticas.getSecondLevelCacheHitCount(), estatisticas.getSecondLevelCacheMissCount(),
+                estatisticas.getQueryCacheHitCount(), estatisticas.getQueryCacheMissCount());
+        for (RegiaoCacheDTO regiao : listarRegioes()) {
+            log.info("  {}: {} acertos, {} faltas ({}%), {} itens",
+                    regiao.regiao(), regiao.acertos(), regiao.faltas(),
+                    Math.round(regiao.taxaAcerto() * 100), regiao.itensEmMemoria());
+        }
+    }
+
+    @PreDestroy
+    public void aoEncerrar() {
+        try {
+            registrarNoLog();
+        } catch (RuntimeException e) {
+            // No encerramento a fábrica de sessões pode já estar fechada
+            log.debug("Estatísticas do cache indisponíveis no encerramento: {}", e.getMessage());
+        }
+    }
+
+    private Statistics estatisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,190 @@
+package dicasa.estoque.cache;
+
+import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
+import dicasa.estoque.util.EstoqueProdutoSavedEvent;
+import dicasa.estoque.util.ProductSavedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static dicasa.estoque.config.CacheConfig.CACHE_ESTOQUE_PRODUTOS;
+import static dicasa.estoque.config.CacheConfig.CACHE_ESTOQUE_PRODUTOS_INDICE;
+
+/**
+ * Cache da listagem de estoque, guardando cada produto separado pelo id
+ * A ordem da listagem fica em um índice à parte, então alterar um produto só
+ * descarta aquele produto e a próxima listagem busca no banco apenas o que falta
+ */
+@Component
+public class EstoqueProdutoCache {
+
+    private static final String CHAVE_INDICE = "todos";
+
+    private final Cache produtos;
+    private final Cache indice;
+    /** Visão direta do Caffeine, que altera as linhas sem contar acertos e faltas nas métricas */
+    private final ConcurrentMap<Object, Object> produtosSemEstatisticas;
+
+    /**
+     * Ordem da listagem, com os mesmos ids num conjunto para saber se um produto está nela sem percorrer a lista
+     */
+    private record Indice(List<Long> ids, Set<Long> conjunto) {
+        Indice(List<Long> ids) {
+            this(List.copyOf(ids), Set.copyOf(ids));
+        }
+    }
+
+    public EstoqueProdutoCache(CacheManager cacheManager) {
+        this.produtos = cacheManager.getCache(CACHE_ESTOQUE_PRODUTOS);
+        this.produtosSemEstatisticas = ((CaffeineCache) produtos).getNativeCache().asMap();
+        this.indice = cacheManager.getCache(CACHE_ESTOQUE_PRODUTOS_INDICE);
+    }
+
+    /**
+     * Devolve a listagem completa, indo ao banco só quando necessário
+     * @param buscarTodos consulta a listagem completa, usada quando não há índice
+     * @param buscarPorIds consulta só os produtos que saíram do cache
+     * @return a listagem na mesma ordem da última consulta completa
+     */
+    public List<EstoqueProdutoCompletoResponseDTO> listarTodos(
+            Supplier<List<EstoqueProdutoCompletoResponseDTO>> buscarTodos,
+            Function<List<Long>, List<EstoqueProdutoCompletoResponseDTO>> buscarPorIds) {
+        Indice ordem = indice.get(CHAVE_INDICE, Indice.class);
+        if (ordem == null) {
+            List<EstoqueProdutoCompletoResponseDTO> todos = buscarTodos.get();
+            guardar(todos);
+            return todos;
+        }
+        List<Long> ids = ordem.ids();
+
+        Map<Long, EstoqueProdutoCompletoResponseDTO> encontrados = new HashMap<>();
+        List<Long> faltando = new ArrayList<>();
+        for (Long id : ids) {
+            EstoqueProdutoCompletoResponseDTO dto = produtos.get(id, EstoqueProdutoCompletoResponseDTO.class);
+            if (dto != null) {
+                encontrados.put(id, dto);
+            } else {
+                faltando.add(id);
+            }
+        }
+
+        if (!faltando.isEmpty()) {
+            for (EstoqueProdutoCompletoResponseDTO dto : buscarPorIds.apply(faltando)) {
+                produtos.put(dto.idProduto(), dto);
+                encontrados.put(dto.idProduto(), dto);
+            }
+        }
+
+        // Produtos que não voltaram do banco foram excluídos e saem do índice
+        List<Long> idsAtuais = ids.stream().filter(encontrados::containsKey).toList();
+        if (idsAtuais.size() != ids.size()) {
+            indice.put(CHAVE_INDICE, new Indice(idsAtuais));
+        }
+        return idsAtuais.stream().map(encontrados::get).toList();
+    }
+
+    /**
+     * Ao alterar um estoque, troca no cache só a linha do produto dele pelos valores do evento
+     * Sem os valores no evento, descarta a linha e a próxima listagem busca no banco
+     * Roda antes dos listeners das telas, para que elas já recarreguem o valor novo
+     * A troca não conta acerto nem falta, para as métricas do cache só medirem as listagens
+     * @param event evento de EstoqueProduto alterado
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEstoqueProdutoSalvo(EstoqueProdutoSavedEvent event) {
+        Long idProduto = event.getIdProduto();
+        if (idProduto == null) {
+            return;
+        }
+        if (!event.temValores()) {
+            invalidar(List.of(idProduto));
+            return;
+        }
+        produtosSemEstatisticas.computeIfPresent(idProduto, (id, atual) ->
+                ((EstoqueProdutoCompletoResponseDTO) atual).comEstoque(
+                        event.getIdEstoqueProduto(),
+                        event.getQuantidade(),
+                        event.getQuantidadeMinima(),
+                        event.getEstoqueEmergencial()));
+    }
+
+    /**
+     * Ao salvar ou excluir um produto, descarta só ele
+     * Produto novo ou renomeado muda a ordem por nome, que só o banco monta igual à consulta,
+     * então o índice também sai e a próxima listagem vem inteira do banco
+     * @param event evento de Produto salvo
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleProdutoSalvo(ProductSavedEvent event) {
+        if (event.getProduto() == null || event.getProduto().getIdProduto() == null) {
+            return;
+        }
+        Long idProduto = event.getProduto().getIdProduto();
+        Object anterior = produtosSemEstatisticas.remove(idProduto);
+
+        Indice ordem = indice.get(CHAVE_INDICE, Indice.class);
+        String nome = event.getProduto().getNome();
+        // Sem nome é exclusão, e a próxima listagem já tira do índice quem não volta do banco
+        if (ordem == null || nome == null) {
+            return;
+        }
+        boolean mudouDeLugar = !ordem.conjunto().contains(idProduto)
+                || !(anterior instanceof EstoqueProdutoCompletoResponseDTO dto)
+                || !nome.equals(dto.nome());
+        if (mudouDeLugar) {
+            indice.evict(CHAVE_INDICE);
+        }
+    }
+
+    /**
+     * Descarta os produtos informados
+     * Dentro de uma transação, só descarta depois do commit, para que ninguém
+     * coloque de volta no cache um valor que ainda não foi gravado
+     * @param idsProduto produtos alterados
+     */
+    public void invalidar(Collection<Long> idsProduto) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(idsProduto);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(produtos::evict);
+                }
+            });
+            return;
+        }
+        idsProduto.forEach(produtos::evict);
+    }
+
+    /**
+     * Descarta todos os produtos e a ordem da listagem
+     * Usado quando alterações feitas em outros terminais podem ter passado sem aviso
+     */
+    public void invalidarTudo() {
+        produtos.clear();
+        indice.clear();
+    }
+
+    private void guardar(List<EstoqueProdutoCompletoResponseDTO> todos) {
+        todos.forEach(dto -> produtos.put(dto.idProduto(), dto));
+        indice.put(CHAVE_INDICE, new Indice(todos.stream().map(EstoqueProdutoCompletoResponseDTO::idProduto).toList()));
+    }
+}
@@ -0,0 +1,610 @@
+package dicasa.estoque.cache;
+
+import dicasa.estoque.models.dto.ResultadoBuscaDTO;
+import dicasa.estoque.models.dto.ResultadoBuscaDTO.Tipo;
+import dicasa.estoque.models.entities.EnderecoFornecedor;
+import dicasa.estoque.models.entities.Fornecedor;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.entities.TelefoneFornecedor;
+import dicasa.estoque.models.view.TextoPedidoView;
+import dicasa.estoque.repository.FornecedorRepository;
+import dicasa.estoque.repository.PedidoRepository;
+import dicasa.estoque.repository.ProdutoRepository;
+import dicasa.estoque.util.FornecedorSavedEvent;
+import dicasa.estoque.util.PedidoSavedEvent;
+import dicasa.estoque.util.ProductSavedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Índice de busca em disco (Lucene) com fornecedores, produtos e pedidos, usado pela busca global
+ * Cada registro vira um documento com os textos separados em campos de peso diferente:
+ * o nome pesa mais que CNPJ e telefone, que pesam mais que a cidade e a observação
+ * A busca não vai ao banco, então continua rápida mesmo com o banco lento ou longe
+ * O índice fica guardado na pasta do usuário entre uma execução e outra, é montado de novo em segundo plano
+ * ao abrir o programa e quando a escuta de outros terminais reconecta, e no resto do tempo é atualizado
+ * pelos eventos de fornecedor, produto e pedido salvos
+ */
+@Slf4j
+@Component
+public class IndiceBuscaGlobal {
+
+    private static final String CAMPO_CHAVE = "chave";
+    private static final String CAMPO_TIPO = "tipo";
+    private static final String CAMPO_ID = "id";
+    private static final String CAMPO_TITULO = "titulo";
+    private static final String CAMPO_DETALHE = "detalhe";
+    private static final String CAMPO_NOME = "nome";
+    private static final String CAMPO_DOCUMENTO = "documento";
+    private static final String CAMPO_RELACIONADO = "relacionado";
+    private static final String CAMPO_LOCAL = "local";
+    private static final String CAMPO_TEXTO = "texto";
+
+    /**
+     * Peso de cada campo pesquisável na pontuação
+     */
+    private static final Map<String, Float> PESOS = Map.of(
+            CAMPO_NOME, 4f,
+            CAMPO_DOCUMENTO, 3f,
+            CAMPO_RELACIONADO, 2f,
+            CAMPO_LOCAL, 1.5f,
+            CAMPO_TEXTO, 1f);
+
+    /**
+     * Palavras a partir desse tamanho também casam com um erro de digitação no nome
+     */
+    private static final int TAMANHO_MINIMO_APROXIMADO = 5;
+
+    /**
+     * Quantidade mínima de dígitos para buscar o termo como CNPJ, telefone ou número do pedido
+     */
+    private static final int MINIMO_DIGITOS = 3;
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final FornecedorRepository fornecedorRepository;
+    private final ProdutoRepository produtoRepository;
+    private final PedidoRepository pedidoRepository;
+    private final boolean habilitado;
+    private final Path caminho;
+
+    private final Analyzer analisador = new AnalisadorBusca();
+    private final ReentrantLock escrita = new ReentrantLock();
+    /**
+     * Pedidos de reconstrução que chegam antes de a anterior começar viram uma só
+     */
+    private final AtomicBoolean reconstrucaoPedida = new AtomicBoolean();
+
+    private Directory diretorio;
+    private IndexWriter escritor;
+    private SearcherManager buscadores;
+    private volatile boolean aberto;
+    /**
+     * Fica desligado enquanto o índice nunca foi montado, para as telas buscarem no banco em vez de não achar nada
+     */
+    private volatile boolean montado;
+
+    public IndiceBuscaGlobal(
+            FornecedorRepository fornecedorRepository,
+            ProdutoRepository produtoRepository,
+            PedidoRepository pedidoRepository,
+            @Value("${app.busca.indice.habilitado:true}") boolean habilitado,
+            @Value("${app.busca.indice.diretorio:${user.home}/.dicasa-estoque/indice}") String diretorio) {
+        this.fornecedorRepository = fornecedorRepository;
+        this.produtoRepository = produtoRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.habilitado = habilitado;
+        this.caminho = Path.of(diretorio);
+    }
+
+    /**
+     * Abre o índice guardado em disco
+     * Se não der para abrir (outra instância do programa usando a mesma pasta, por exemplo),
+     * a busca global fica indisponível e as telas voltam a buscar no banco
+     */
+    @PostConstruct
+    public void abrir() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            Files.createDirectories(caminho);
+            diretorio = FSDirectory.open(caminho);
+            IndexWriterConfig configuracao = new IndexWriterConfig(analisador)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            escritor = new IndexWriter(diretorio, configuracao);
+            buscadores = new SearcherManager(escritor, null);
+            aberto = true;
+            montado = escritor.getDocStats().numDocs > 0;
+            log.info("Índice de busca aberto em {} com {} documentos", caminho, escritor.getDocStats().numDocs);
+        } catch (IOException e) {
+            log.warn("Índice de busca indisponível em {}: {}", caminho, e.getMessage());
+            fechar();
+        }
+    }
+
+    /**
+     * O que foi gravado por outros terminais com este programa fechado não chegou ao índice,
+     * então ele é montado de novo em segundo plano, para não atrasar a abertura do programa
+     * Enquanto isso a busca responde com o índice da última execução; na primeira execução, fica indisponível
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconciliarAoIniciar() {
+        reconstruirEmSegundoPlano();
+    }
+
+    /**
+     * Agenda uma reconstrução numa thread própria e volta logo
+     */
+    public void reconstruirEmSegundoPlano() {
+        if (aberto && reconstrucaoPedida.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("indice-busca").start(() -> {
+                // Desligado antes de ler o banco: o que for alterado daqui em diante pede outra reconstrução
+                reconstrucaoPedida.set(false);
+                reconstruir();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void fechar() {
+        aberto = false;
+        montado = false;
+        try {
+            if (buscadores != null) {
+                buscadores.close();
+            }
+            if (escritor != null) {
+                escritor.close();
+            }
+            if (diretorio != null) {
+                diretorio.close();
+            }
+        } catch (IOException e) {
+            log.warn("Erro ao fechar o índice de busca: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return se o índice está aberto, já foi montado e pode responder às buscas
+     */
+    public boolean disponivel() {
+        return aberto && montado;
+    }
+
+    /**
+     * Busca o termo em fornecedores, produtos e pedidos ao mesmo tempo
+     * Cada palavra precisa aparecer em algum campo, inteira ou como começo de palavra, sem diferenciar acentos;
+     * um termo com números também é procurado no CNPJ, nos telefones e no número do pedido
+     * @param termo texto digitado
+     * @param tipo só esse tipo de resultado, ou nulo para todos
+     * @param limite quantidade máxima de resultados
+     * @return resultados do mais relevante para o menos relevante
+     */
+    public List<ResultadoBuscaDTO> buscar(String termo, Tipo tipo, int limite) {
+        if (!disponivel() || termo == null || termo.isBlank()) {
+            return List.of();
+        }
+        Query consulta = montarConsulta(termo, tipo);
+        if (consulta == null) {
+            return List.of();
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            IndexSearcher buscador = buscadores.acquire();
+            try {
+                TopDocs encontrados = buscador.search(consulta, limite);
+                StoredFields campos = buscador.storedFields();
+                List<ResultadoBuscaDTO> resultados = new ArrayList<>(encontrados.scoreDocs.length);
+                for (ScoreDoc encontrado : encontrados.scoreDocs) {
+                    Document documento = campos.document(encontrado.doc);
+                    resultados.add(new ResultadoBuscaDTO(
+                            Tipo.valueOf(documento.get(CAMPO_TIPO)),
+                            documento.getField(CAMPO_ID).numericValue().longValue(),
+                            documento.get(CAMPO_TITULO),
+                            documento.get(CAMPO_DETALHE),
+                            encontrado.score));
+                }
+                log.debug("Busca '{}': {} resultados em {} µs", termo, resultados.size(),
+                        (System.nanoTime() - inicio) / 1000);
+                return resultados;
+            } finally {
+                buscadores.release(buscador);
+            }
+        } catch (IOException e) {
+            log.warn("Erro ao consultar o índice de busca: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Mesma busca, devolvendo só os ids de um tipo, para as telas que carregam os registros do banco em seguida
+     * @param termo texto digitado
+     * @param tipo tipo dos registros
+     * @param limite quantidade máxima de ids
+     * @return ids do mais relevante para o menos relevante
+     */
+    public List<Long> buscarIds(String termo, Tipo tipo, int limite) {
+        return buscar(termo, tipo, limite).stream()
+                .map(ResultadoBuscaDTO::id)
+                .toList();
+    }
+
+    /**
+     * Apaga o índice e monta de novo com tudo que está no banco
+     * São três consultas, uma por tipo; as atualizações que chegarem enquanto isso esperam terminar
+     */
+    public void reconstruir() {
+        if (!aberto) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        escrita.lock();
+        try {
+            List<Document> documentos = new ArrayList<>();
+            fornecedorRepository.listarParaRelatorio()
+                    .forEach(fornecedor -> documentos.add(documentoFornecedor(fornecedor)));
+            produtoRepository.listarEstoques()
+                    .forEach(produto -> documentos.add(documentoProduto(
+                            produto.idProduto(), produto.nome(), produto.marca(), produto.tipo(), null)));
+            documentos.addAll(documentosPedidos(pedidoRepository.listarTextosParaIndice()).values());
+
+            escritor.deleteAll();
+            escritor.addDocuments(documentos);
+            confirmar();
+            montado = true;
+            log.info("Índice de busca montado com {} documentos em {} ms",
+                    documentos.size(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("Erro ao montar o índice de busca: {}", e.getMessage(), e);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Mantém o fornecedor atualizado no índice quando é cadastrado, editado ou excluído
+     * @param event evento de Fornecedor salvo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleFornecedorSalvo(FornecedorSavedEvent event) {
+        if (!aberto || event.getIdFornecedor() == null) {
+            return;
+        }
+        Long idFornecedor = event.getIdFornecedor();
+        // O mesmo evento é publicado na exclusão, então o banco diz se o fornecedor ainda existe
+        List<Fornecedor> encontrados = fornecedorRepository.listarParaRelatorioPorIds(List.of(idFornecedor));
+        escrever(() -> {
+            if (encontrados.isEmpty()) {
+                escritor.deleteDocuments(chave(Tipo.FORNECEDOR, idFornecedor));
+            } else {
+                atualizar(documentoFornecedor(encontrados.getFirst()));
+            }
+        });
+    }
+
+    /**
+     * Mantém o produto atualizado no índice quando é criado, renomeado ou excluído
+     * @param event evento de Produto salvo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleProdutoSalvo(ProductSavedEvent event) {
+        Produto produto = event.getProduto();
+        if (!aberto || produto == null || produto.getIdProduto() == null) {
+            return;
+        }
+        boolean existe = produtoRepository.existsById(produto.getIdProduto());
+        escrever(() -> {
+            if (existe) {
+                atualizar(documentoProduto(produto.getIdProduto(), produto.getNome(), produto.getMarca(),
+                        produto.getTipo(), produto.getObservacao()));
+            } else {
+                escritor.deleteDocuments(chave(Tipo.PRODUTO, produto.getIdProduto()));
+            }
+        });
+    }
+
+    /**
+     * Coloca no índice os pedidos gravados, com os produtos e fornecedores de cada um
+     * @param event evento com os ids dos pedidos
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handlePedidoSalvo(PedidoSavedEvent event) {
+        if (!aberto || event.getIdsPedido() == null || event.getIdsPedido().isEmpty()) {
+            return;
+        }
+        Map<Integer, Document> documentos = documentosPedidos(
+                pedidoRepository.listarTextosParaIndicePorIds(event.getIdsPedido()));
+        escrever(() -> {
+            for (Integer idPedido : new LinkedHashSet<>(event.getIdsPedido())) {
+                Document documento = documentos.get(idPedido);
+                if (documento == null) {
+                    escritor.deleteDocuments(chave(Tipo.PEDIDO, idPedido.longValue()));
+                } else {
+                    atualizar(documento);
+                }
+            }
+        });
+    }
+
+    /**
+     * Interface da alteração feita no índice, que pode falhar ao gravar no disco
+     */
+    @FunctionalInterface
+    private interface Alteracao {
+        void executar() throws IOException;
+    }
+
+    /**
+     * Aplica a alteração, grava no disco e deixa visível para as próximas buscas
+     * Uma falha no índice só é registrada no log, pois a gravação no banco já foi feita e não deve ser desfeita
+     */
+    private void escrever(Alteracao alteracao) {
+        escrita.lock();
+        try {
+            alteracao.executar();
+            confirmar();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Erro ao atualizar o índice de busca: {}", e.getMessage());
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    private void confirmar() throws IOException {
+        escritor.commit();
+        buscadores.maybeRefresh();
+    }
+
+    private void atualizar(Document documento) throws IOException {
+        escritor.updateDocument(new Term(CAMPO_CHAVE, documento.get(CAMPO_CHAVE)), documento);
+    }
+
+    private static Term chave(Tipo tipo, Long id) {
+        return new Term(CAMPO_CHAVE, tipo.name() + ":" + id);
+    }
+
+    private Query montarConsulta(String termo, Tipo tipo) {
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder();
+
+        List<String> palavras = analisar(termo);
+        if (!palavras.isEmpty()) {
+            BooleanQuery.Builder todasAsPalavras = new BooleanQuery.Builder();
+            for (String palavra : palavras) {
+                BooleanQuery.Builder emAlgumCampo = new BooleanQuery.Builder();
+                PESOS.forEach((campo, peso) -> {
+                    // A palavra inteira vale o dobro do começo de palavra
+                    emAlgumCampo.add(new BoostQuery(new TermQuery(new Term(campo, palavra)), peso * 2), Occur.SHOULD);
+                    emAlgumCampo.add(new BoostQuery(new PrefixQuery(new Term(campo, palavra)), peso), Occur.SHOULD);
+                });
+                if (palavra.length() >= TAMANHO_MINIMO_APROXIMADO) {
+                    emAlgumCampo.add(new BoostQuery(new FuzzyQuery(new Term(CAMPO_NOME, palavra), 1),
+                            PESOS.get(CAMPO_NOME) / 2), Occur.SHOULD);
+                }
+                todasAsPalavras.add(emAlgumCampo.build(), Occur.MUST);
+            }
+            consulta.add(todasAsPalavras.build(), Occur.SHOULD);
+        }
+
+        // CNPJ e telefone são guardados só com os dígitos, então "12.345.678/0001" também encontra
+        String digitos = somenteDigitos(termo);
+        if (digitos.length() >= MINIMO_DIGITOS) {
+            consulta.add(new BoostQuery(new PrefixQuery(new Term(CAMPO_DOCUMENTO, digitos)),
+                    PESOS.get(CAMPO_DOCUMENTO) * 2), Occur.SHOULD);
+        } else if (palavras.isEmpty()) {
+            return null;
+        }
+        consulta.setMinimumNumberShouldMatch(1);
+
+        if (tipo != null) {
+            consulta.add(new TermQuery(new Term(CAMPO_TIPO, tipo.name())), Occur.FILTER);
+        }
+        return consulta.build();
+    }
+
+    /**
+     * Separa o termo em palavras do mesmo jeito que os textos foram indexados: minúsculas e sem acento
+     */
+    private List<String> analisar(String termo) {
+        List<String> palavras = new ArrayList<>();
+        try (TokenStream fluxo = analisador.tokenStream(CAMPO_NOME, termo)) {
+            CharTermAttribute palavra = fluxo.addAttribute(CharTermAttribute.class);
+            fluxo.reset();
+            while (fluxo.incrementToken()) {
+                palavras.add(palavra.toString());
+            }
+            fluxo.end();
+        } catch (IOException e) {
+            log.warn("Erro ao separar o termo de busca '{}': {}", termo, e.getMessage());
+        }
+        return palavras;
+    }
+
+    private Document documentoFornecedor(Fornecedor fornecedor) {
+        EnderecoFornecedor endereco = fornecedor.getEnderecoFornecedor();
+        String titulo = primeiroPreenchido(fornecedor.getNomeFantasia(), fornecedor.getRazaoSocial());
+        String cidade = endereco == null ? null : juntar("/", endereco.getCidade(), endereco.getUf());
+
+        Document documento = novoDocumento(Tipo.FORNECEDOR, fornecedor.getIdFornecedor(), titulo, juntar(" · ",
+                Objects.equals(titulo, fornecedor.getRazaoSocial()) ? null : fornecedor.getRazaoSocial(),
+                fornecedor.getCnpj() == null ? null : "CNPJ " + fornecedor.getCnpj(),
+                cidade));
+        adicionarTexto(documento, CAMPO_NOME, fornecedor.getNomeFantasia(), fornecedor.getRazaoSocial());
+
+        List<String> documentos = new ArrayList<>();
+        documentos.add(somenteDigitos(fornecedor.getCnpj()));
+        if (fornecedor.getTelefones() != null) {
+            for (TelefoneFornecedor telefone : fornecedor.getTelefones()) {
+                String numero = somenteDigitos(telefone.getTelefone());
+                documentos.add(numero);
+                // O telefone também é encontrado sem o DDD
+                if (numero.length() >= 10) {
+                    documentos.add(numero.substring(2));
+                }
+            }
+        }
+        if (endereco != null) {
+            documentos.add(somenteDigitos(endereco.getCep()));
+            adicionarTexto(documento, CAMPO_LOCAL, endereco.getCidade(), endereco.getUf(), endereco.getBairro());
+            adicionarTexto(documento, CAMPO_TEXTO, endereco.getLogradouro(), endereco.getComplemento());
+        }
+        adicionarTexto(documento, CAMPO_DOCUMENTO, documentos.toArray(String[]::new));
+        return documento;
+    }
+
+    private Document documentoProduto(Long idProduto, String nome, String marca, String tipo, String observacao) {
+        Document documento = novoDocumento(Tipo.PRODUTO, idProduto, nome, juntar(" · ", marca, tipo));
+        adicionarTexto(documento, CAMPO_NOME, nome);
+        adicionarTexto(documento, CAMPO_RELACIONADO, marca);
+        adicionarTexto(documento, CAMPO_TEXTO, tipo, observacao);
+        return documento;
+    }
+
+    /**
+     * Junta as linhas de cada pedido num único documento, com todos os produtos e fornecedores dele
+     * @param linhas uma linha por item, ordenadas pelo pedido
+     * @return documento de cada pedido
+     */
+    private Map<Integer, Document> documentosPedidos(Collection<TextoPedidoView> linhas) {
+        Map<Integer, List<TextoPedidoView>> porPedido = linhas.stream()
+                .collect(Collectors.groupingBy(TextoPedidoView::getIdPedido, LinkedHashMap::new, Collectors.toList()));
+
+        Map<Integer, Document> documentos = new LinkedHashMap<>();
+        porPedido.forEach((idPedido, itens) -> {
+            TextoPedidoView pedido = itens.getFirst();
+            Set<String> fornecedores = new LinkedHashSet<>();
+            Set<String> produtos = new LinkedHashSet<>();
+            Set<String> razoesSociais = new HashSet<>();
+            for (TextoPedidoView item : itens) {
+                String fornecedor = primeiroPreenchido(item.getNomeFantasia(), item.getRazaoSocial());
+                if (fornecedor != null) {
+                    fornecedores.add(fornecedor);
+                }
+                if (item.getRazaoSocial() != null) {
+                    razoesSociais.add(item.getRazaoSocial());
+                }
+                if (item.getNomeProduto() != null) {
+                    produtos.add(item.getNomeProduto());
+                }
+            }
+
+            Document documento = novoDocumento(Tipo.PEDIDO, idPedido.longValue(), "Pedido #" + idPedido, juntar(" · ",
+                    pedido.getDataCompra() == null ? null : pedido.getDataCompra().format(FORMATO_DATA),
+                    String.join(", ", fornecedores)));
+            adicionarTexto(documento, CAMPO_DOCUMENTO, idPedido.toString());
+            adicionarTexto(documento, CAMPO_RELACIONADO, Stream.of(fornecedores, razoesSociais, produtos)
+                    .flatMap(Collection::stream)
+                    .toArray(String[]::new));
+            adicionarTexto(documento, CAMPO_TEXTO, pedido.getObservacao());
+            documentos.put(idPedido, documento);
+        });
+        return documentos;
+    }
+
+    private static Document novoDocumento(Tipo tipo, Long id, String titulo, String detalhe) {
+        Document documento = new Document();
+        documento.add(new StringField(CAMPO_CHAVE, tipo.name() + ":" + id, Field.Store.YES));
+        documento.add(new StringField(CAMPO_TIPO, tipo.name(), Field.Store.YES));
+        documento.add(new StoredField(CAMPO_ID, id));
+        documento.add(new StoredField(CAMPO_TITULO, titulo == null ? "" : titulo));
+        documento.add(new StoredField(CAMPO_DETALHE, detalhe == null ? "" : detalhe));
+        return documento;
+    }
+
+    private static void adicionarTexto(Document documento, String campo, String... valores) {
+        String texto = juntar(" ", valores);
+        if (texto != null) {
+            documento.add(new TextField(campo, texto, Field.Store.NO));
+        }
+    }
+
+    private static String juntar(String separador, String... valores) {
+        String texto = Stream.of(valores)
+                .filter(valor -> valor != null && !valor.isBlank())
+                .collect(Collectors.joining(separador));
+        return texto.isEmpty() ? null : texto;
+    }
+
+    private static String primeiroPreenchido(String... valores) {
+        return Stream.of(valores)
+                .filter(valor -> valor != null && !valor.isBlank())
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String somenteDigitos(String valor) {
+        return valor == null ? "" : valor.replaceAll("\\D", "");
+    }
+
+    /**
+     * Separa as palavras, passa para minúsculas e tira os acentos, para "São" e "sao" serem a mesma palavra
+     * Não reduz as palavras ao radical: nomes de fornecedor e produto são buscados como foram escritos
+     */
+    private static final class AnalisadorBusca extends Analyzer {
+        @Override
+        protected TokenStreamComponents createComponents(String campo) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            TokenStream fluxo = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            return new TokenStreamComponents(tokenizer, fluxo);
+        }
+
+        @Override
+        protected TokenStream normalize(String campo, TokenStream entrada) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+        }
+    }
+}
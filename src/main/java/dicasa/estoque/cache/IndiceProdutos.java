@@ -0,0 +1,407 @@
+package dicasa.estoque.cache;
+
+import dicasa.estoque.models.dto.ProdutoResumoDTO;
+import dicasa.estoque.models.view.NomeProdutoView;
+import dicasa.estoque.repository.ProdutoRepository;
+import dicasa.estoque.util.ProductSavedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static dicasa.estoque.util.TextoBuscaUtil.SIMILARIDADE_MINIMA;
+import static dicasa.estoque.util.TextoBuscaUtil.normalizar;
+import static dicasa.estoque.util.TextoBuscaUtil.normalizarFonetica;
+import static dicasa.estoque.util.TextoBuscaUtil.palavras;
+import static dicasa.estoque.util.TextoBuscaUtil.similaridade;
+import static dicasa.estoque.util.TextoBuscaUtil.trigramas;
+
+/**
+ * Índice em memória dos nomes de produto, usado nas sugestões enquanto o usuário digita
+ * As palavras ficam numa árvore de prefixos (com a grafia normal e a fonética) e os trigramas
+ * ficam em listas invertidas, então cada tecla é respondida sem ir ao banco
+ * É montado uma vez em segundo plano com id e nome de todos os produtos e depois só é atualizado pelos eventos
+ * de produto salvo, que também chegam dos outros terminais pelas notificações do banco
+ */
+@Slf4j
+@Component
+public class IndiceProdutos {
+
+    /**
+     * Quantidade máxima de candidatos por palavra, para que termos de uma letra não percorram o catálogo todo
+     */
+    private static final int LIMITE_CANDIDATOS = 5000;
+
+    /**
+     * Distância dada aos candidatos que só vieram pelos trigramas, depois de todos os da árvore
+     */
+    private static final int DISTANCIA_TRIGRAMA = Integer.MAX_VALUE;
+
+    private static final Comparator<Entrada> ORDEM_NOME = Comparator
+            .comparing(Entrada::nomeNormalizado)
+            .thenComparing(entrada -> entrada.produto().idProduto());
+
+    /**
+     * Menor distância primeiro, depois maior similaridade, nomes que começam com o termo, nomes mais curtos e ordem alfabética
+     * Escrito à mão porque roda milhares de vezes por tecla e a versão encadeada de Comparator custa bem mais
+     */
+    private static final Comparator<Resultado> ORDEM_RELEVANCIA = (a, b) -> {
+        int comparacao = Integer.compare(a.distancia(), b.distancia());
+        if (comparacao == 0) {
+            comparacao = Double.compare(b.similaridade(), a.similaridade());
+        }
+        if (comparacao == 0) {
+            comparacao = Boolean.compare(b.comecaComTermo(), a.comecaComTermo());
+        }
+        if (comparacao == 0) {
+            comparacao = Integer.compare(a.entrada().nomeNormalizado().length(), b.entrada().nomeNormalizado().length());
+        }
+        return comparacao != 0 ? comparacao : ORDEM_NOME.compare(a.entrada(), b.entrada());
+    };
+
+    private static final Comparator<Resultado> ORDEM_INVERSA = ORDEM_RELEVANCIA.reversed();
+
+    private final ProdutoRepository produtoRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Só uma montagem roda por vez
+     */
+    private final ReentrantLock montagem = new ReentrantLock();
+    /**
+     * Pedidos de montagem que chegam antes de a anterior começar viram uma só
+     */
+    private final AtomicBoolean montagemPedida = new AtomicBoolean();
+
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    private final TreeSet<Entrada> porNome = new TreeSet<>(ORDEM_NOME);
+    private final TrieNomes trie = new TrieNomes();
+    private final Map<String, Set<Long>> postingsTrigramas = new HashMap<>();
+    /**
+     * Produtos salvos enquanto uma montagem lia o banco, com o nome novo ou null se foram excluídos
+     * São aplicados no fim da montagem, senão ela os apagaria com a lista já lida
+     */
+    private final Map<Long, String> pendentes = new HashMap<>();
+    private volatile boolean montado;
+    private volatile boolean desatualizado;
+    private volatile boolean montando;
+
+    public IndiceProdutos(ProdutoRepository produtoRepository) {
+        this.produtoRepository = produtoRepository;
+    }
+
+    /**
+     * Busca os produtos pelo começo das palavras do nome, tolerando erros de digitação e grafias diferentes
+     * Com o termo vazio, devolve os primeiros produtos em ordem alfabética
+     * Enquanto o índice não foi montado não há sugestões; a montagem começa em segundo plano
+     * @param termo texto digitado
+     * @param limite quantidade máxima de sugestões
+     * @return sugestões, da mais relevante para a menos relevante
+     */
+    public List<ProdutoResumoDTO> buscar(String termo, int limite) {
+        if (!montado) {
+            montarEmSegundoPlano();
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<String> termos = palavras(termo);
+            if (termos.isEmpty()) {
+                return porNome.stream().limit(limite).map(Entrada::produto).toList();
+            }
+
+            // A busca exata pelo começo das palavras resolve quase toda digitação; a tolerante só roda se faltar sugestão
+            Map<Long, Integer> distancias = buscarNaArvore(termos, false);
+            if (distancias.size() < limite) {
+                distancias = buscarNaArvore(termos, true);
+            }
+            // Os trigramas só entram quando a árvore não achou nada, como palavras emendadas ou letras invertidas
+            Map<Long, Double> similares = distancias.isEmpty()
+                    ? buscarPorTrigramas(termo)
+                    : Map.of();
+
+            String primeiroTermo = normalizar(termos.get(0));
+            PriorityQueue<Resultado> melhores = new PriorityQueue<>(limite + 1, ORDEM_INVERSA);
+            distancias.forEach((id, distancia) ->
+                    manterMelhores(melhores, resultado(id, distancia, 1.0, primeiroTermo), limite));
+            similares.forEach((id, similaridade) ->
+                    manterMelhores(melhores, resultado(id, DISTANCIA_TRIGRAMA, similaridade, primeiroTermo), limite));
+
+            List<Resultado> resultados = new ArrayList<>(melhores);
+            resultados.sort(ORDEM_RELEVANCIA);
+            return resultados.stream().map(resultado -> resultado.entrada().produto()).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Acha o produto com o nome exato, sem diferenciar maiúsculas e acentos
+     * @param nome nome digitado
+     * @return o produto, ou null se nenhum tiver esse nome
+     */
+    public ProdutoResumoDTO buscarPorNome(String nome) {
+        String nomeNormalizado = normalizar(nome);
+        return buscar(nome, 10).stream()
+                .filter(produto -> normalizar(produto.nome()).equals(nomeNormalizado))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Mantém o índice atualizado quando um produto é criado, renomeado ou excluído
+     * @param event evento de Produto salvo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleProdutoSalvo(ProductSavedEvent event) {
+        if (event.getProduto() == null || event.getProduto().getIdProduto() == null || !(montado || montando)) {
+            return;
+        }
+        Long idProduto = event.getProduto().getIdProduto();
+        // O mesmo evento é publicado na exclusão, então o banco diz se o produto ainda existe
+        String nome = produtoRepository.existsById(idProduto) ? event.getProduto().getNome() : null;
+        lock.writeLock().lock();
+        try {
+            if (montando) {
+                pendentes.put(idProduto, nome);
+            }
+            if (montado) {
+                aplicar(idProduto, nome);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Começa a montar o índice numa thread própria, se ainda não foi montado, para ser chamado ao abrir a tela
+     * Assim a primeira tecla digitada não paga o custo de montar o índice
+     */
+    public void montarEmSegundoPlano() {
+        if (montagemPedida.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("indice-produtos").start(() -> {
+                montagem.lock();
+                try {
+                    montagemPedida.set(false);
+                    if (!montado || desatualizado) {
+                        montar();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Erro ao montar o índice de produtos: {}", e.getMessage(), e);
+                } finally {
+                    montagem.unlock();
+                }
+            });
+        }
+    }
+
+    /**
+     * Monta o índice de novo em segundo plano, para quando avisos de alteração podem ter se perdido
+     * As sugestões continuam vindo do índice antigo até a nova montagem terminar
+     */
+    public void remontarEmSegundoPlano() {
+        desatualizado = true;
+        montarEmSegundoPlano();
+    }
+
+    /**
+     * Monta o índice com id e nome de todos os produtos, na thread atual
+     * Se outra montagem estiver rodando, espera ela terminar; se a consulta falhar, o índice fica como estava
+     */
+    public void montar() {
+        montagem.lock();
+        try {
+            long inicio = System.nanoTime();
+            desatualizado = false;
+            lock.writeLock().lock();
+            try {
+                montando = true;
+                pendentes.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<NomeProdutoView> nomes = null;
+            try {
+                nomes = produtoRepository.listarNomes();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (nomes != null) {
+                        entradas.clear();
+                        porNome.clear();
+                        trie.limpar();
+                        postingsTrigramas.clear();
+                        nomes.forEach(produto -> adicionar(produto.getIdProduto(), produto.getNome()));
+                        montado = true;
+                    }
+                    if (montado) {
+                        pendentes.forEach(this::aplicar);
+                    }
+                    pendentes.clear();
+                    montando = false;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Índice de produtos montado com {} produtos em {} ms",
+                    nomes.size(), (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            montagem.unlock();
+        }
+    }
+
+    /**
+     * @param nome nome novo do produto, ou null se foi excluído
+     */
+    private void aplicar(Long idProduto, String nome) {
+        remover(idProduto);
+        if (nome != null) {
+            adicionar(idProduto, nome);
+        }
+    }
+
+    /**
+     * Mantém na fila só as melhores sugestões, sem ordenar todos os candidatos
+     */
+    private static void manterMelhores(PriorityQueue<Resultado> melhores, Resultado resultado, int limite) {
+        if (melhores.size() < limite) {
+            melhores.add(resultado);
+        } else if (ORDEM_RELEVANCIA.compare(resultado, melhores.peek()) < 0) {
+            melhores.poll();
+            melhores.add(resultado);
+        }
+    }
+
+    private Map<Long, Integer> buscarNaArvore(List<String> termos, boolean tolerante) {
+        Map<Long, Integer> distancias = null;
+        for (String termo : termos) {
+            Map<Long, Integer> daPalavra = new HashMap<>();
+            String normal = normalizar(termo);
+            String fonetica = normalizarFonetica(termo);
+            trie.buscarPorPrefixo(normal, tolerante ? tolerancia(normal) : 0, daPalavra, LIMITE_CANDIDATOS);
+            if (!fonetica.equals(normal)) {
+                trie.buscarPorPrefixo(fonetica, tolerante ? tolerancia(fonetica) : 0, daPalavra, LIMITE_CANDIDATOS);
+            }
+
+            // Todas as palavras digitadas precisam aparecer no nome; as distâncias são somadas
+            if (distancias == null) {
+                distancias = daPalavra;
+            } else {
+                Map<Long, Integer> anteriores = distancias;
+                distancias = new HashMap<>();
+                for (Map.Entry<Long, Integer> item : daPalavra.entrySet()) {
+                    Integer anterior = anteriores.get(item.getKey());
+                    if (anterior != null) {
+                        distancias.put(item.getKey(), anterior + item.getValue());
+                    }
+                }
+            }
+            if (distancias.isEmpty()) {
+                break;
+            }
+        }
+        return distancias;
+    }
+
+    private Map<Long, Double> buscarPorTrigramas(String termo) {
+        Set<String> trigramasTermo = trigramas(normalizarFonetica(termo));
+        Map<Long, Integer> emComum = new HashMap<>();
+        for (String trigrama : trigramasTermo) {
+            for (Long id : postingsTrigramas.getOrDefault(trigrama, Set.of())) {
+                emComum.merge(id, 1, Integer::sum);
+            }
+        }
+
+        // Quem divide menos de 30% dos trigramas do termo nunca chega à similaridade mínima, nem precisa ser comparado
+        int minimoEmComum = (int) Math.ceil(trigramasTermo.size() * SIMILARIDADE_MINIMA);
+        Map<Long, Double> similares = new HashMap<>();
+        emComum.forEach((id, quantidade) -> {
+            if (quantidade < minimoEmComum) {
+                return;
+            }
+            double similaridade = similaridade(trigramasTermo, entradas.get(id).trigramas());
+            if (similaridade >= SIMILARIDADE_MINIMA) {
+                similares.put(id, similaridade);
+            }
+        });
+        return similares;
+    }
+
+    private Resultado resultado(Long id, int distancia, double similaridade, String primeiroTermo) {
+        Entrada entrada = entradas.get(id);
+        return new Resultado(entrada, distancia, similaridade, entrada.nomeNormalizado().startsWith(primeiroTermo));
+    }
+
+    /**
+     * Quantos erros de digitação são aceitos: nenhum nas duas primeiras letras,
+     * um até cinco letras e dois a partir daí
+     */
+    private static int tolerancia(String termo) {
+        if (termo.length() <= 2) {
+            return 0;
+        }
+        return termo.length() <= 5 ? 1 : 2;
+    }
+
+    private void adicionar(Long idProduto, String nome) {
+        Set<String> palavrasIndexadas = new LinkedHashSet<>();
+        for (String palavra : palavras(nome)) {
+            palavrasIndexadas.add(normalizar(palavra));
+            palavrasIndexadas.add(normalizarFonetica(palavra));
+        }
+        Set<String> trigramasNome = trigramas(normalizarFonetica(nome));
+
+        Entrada entrada = new Entrada(
+                new ProdutoResumoDTO(idProduto, nome),
+                normalizar(nome),
+                Set.copyOf(palavrasIndexadas),
+                trigramasNome);
+        entradas.put(idProduto, entrada);
+        porNome.add(entrada);
+        palavrasIndexadas.forEach(palavra -> trie.adicionar(palavra, idProduto));
+        trigramasNome.forEach(trigrama ->
+                postingsTrigramas.computeIfAbsent(trigrama, t -> new HashSet<>()).add(idProduto));
+    }
+
+    private void remover(Long idProduto) {
+        Entrada entrada = entradas.remove(idProduto);
+        if (entrada == null) {
+            return;
+        }
+        porNome.remove(entrada);
+        entrada.palavras().forEach(palavra -> trie.remover(palavra, idProduto));
+        entrada.trigramas().forEach(trigrama -> {
+            Set<Long> ids = postingsTrigramas.get(trigrama);
+            if (ids != null) {
+                ids.remove(idProduto);
+            }
+        });
+    }
+
+    private record Entrada(
+            ProdutoResumoDTO produto,
+            String nomeNormalizado,
+            Set<String> palavras,
+            Set<String> trigramas) {
+    }
+
+    private record Resultado(
+            Entrada entrada,
+            int distancia,
+            double similaridade,
+            boolean comecaComTermo) {
+    }
+}
@@ -0,0 +1,143 @@
+package dicasa.estoque.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Árvore de prefixos das palavras dos nomes de produto
+ * Cada nó guarda os ids dos produtos que têm uma palavra terminando nele
+ * A busca aceita erros de digitação calculando a distância de edição enquanto desce a árvore,
+ * então só os ramos que ainda podem dar certo são visitados
+ */
+public class TrieNomes {
+
+    /**
+     * Os mapas só são criados quando usados, já que a maioria dos nós não tem filhos ou não termina palavra
+     */
+    private static final class No {
+        private Map<Character, No> filhos = Map.of();
+        private Set<Long> ids = Set.of();
+
+        private No filho(char letra) {
+            if (filhos.isEmpty()) {
+                filhos = new HashMap<>(4);
+            }
+            return filhos.computeIfAbsent(letra, c -> new No());
+        }
+
+        private void adicionarId(Long id) {
+            if (ids.isEmpty()) {
+                ids = new HashSet<>(4);
+            }
+            ids.add(id);
+        }
+    }
+
+    private final No raiz = new No();
+
+    public void adicionar(String palavra, Long id) {
+        No no = raiz;
+        for (int i = 0; i < palavra.length(); i++) {
+            no = no.filho(palavra.charAt(i));
+        }
+        no.adicionarId(id);
+    }
+
+    public void limpar() {
+        raiz.filhos = Map.of();
+        raiz.ids = Set.of();
+    }
+
+    public void remover(String palavra, Long id) {
+        No no = raiz;
+        for (int i = 0; i < palavra.length() && no != null; i++) {
+            no = no.filhos.get(palavra.charAt(i));
+        }
+        if (no != null && !no.ids.isEmpty()) {
+            no.ids.remove(id);
+        }
+    }
+
+    /**
+     * Busca as palavras que começam com o prefixo, aceitando até maxErros letras trocadas, faltando ou sobrando
+     * @param prefixo prefixo digitado, já normalizado
+     * @param maxErros distância de edição máxima
+     * @param resultado recebe o id do produto e a menor distância encontrada para ele
+     * @param limite para de buscar quando o resultado chega nesse tamanho
+     */
+    public void buscarPorPrefixo(String prefixo, int maxErros, Map<Long, Integer> resultado, int limite) {
+        if (prefixo.isEmpty()) {
+            return;
+        }
+        if (maxErros == 0) {
+            buscarExato(prefixo, resultado, limite);
+            return;
+        }
+        int[] linhaInicial = new int[prefixo.length() + 1];
+        for (int i = 0; i < linhaInicial.length; i++) {
+            linhaInicial[i] = i;
+        }
+        buscar(raiz, prefixo, linhaInicial, prefixo.length(), maxErros, resultado, limite);
+    }
+
+    /**
+     * Sem tolerância a erros basta descer pelas letras do prefixo e juntar a subárvore
+     */
+    private void buscarExato(String prefixo, Map<Long, Integer> resultado, int limite) {
+        No no = raiz;
+        for (int i = 0; i < prefixo.length() && no != null; i++) {
+            no = no.filhos.get(prefixo.charAt(i));
+        }
+        if (no != null) {
+            juntarSubarvore(no, resultado, limite);
+        }
+    }
+
+    private void juntarSubarvore(No no, Map<Long, Integer> resultado, int limite) {
+        for (Long id : no.ids) {
+            resultado.put(id, 0);
+        }
+        for (No filho : no.filhos.values()) {
+            if (resultado.size() >= limite) {
+                return;
+            }
+            juntarSubarvore(filho, resultado, limite);
+        }
+    }
+
+    /**
+     * @param linhaAnterior distâncias entre cada prefixo do termo e o caminho até este nó
+     * @param melhor menor distância entre o termo inteiro e algum prefixo do caminho até aqui
+     */
+    private void buscar(No no, String prefixo, int[] linhaAnterior, int melhor, int maxErros,
+                        Map<Long, Integer> resultado, int limite) {
+        if (melhor <= maxErros) {
+            for (Long id : no.ids) {
+                resultado.merge(id, melhor, Math::min);
+            }
+        }
+        if (resultado.size() >= limite) {
+            return;
+        }
+
+        int tamanho = prefixo.length();
+        for (Map.Entry<Character, No> filho : no.filhos.entrySet()) {
+            char letra = filho.getKey();
+            int[] linha = new int[tamanho + 1];
+            linha[0] = linhaAnterior[0] + 1;
+            int menorDaLinha = linha[0];
+            for (int i = 1; i <= tamanho; i++) {
+                int troca = linhaAnterior[i - 1] + (prefixo.charAt(i - 1) == letra ? 0 : 1);
+                linha[i] = Math.min(Math.min(linha[i - 1] + 1, linhaAnterior[i] + 1), troca);
+                menorDaLinha = Math.min(menorDaLinha, linha[i]);
+            }
+            int melhorDoFilho = Math.min(melhor, linha[tamanho]);
+            // Se nenhum prefixo do termo cabe mais no limite de erros, o ramo inteiro é descartado
+            if (menorDaLinha <= maxErros || melhorDoFilho <= maxErros) {
+                buscar(filho.getValue(), prefixo, linha, melhorDoFilho, maxErros, resultado, limite);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package dicasa.estoque.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuração dos caches em memória do programa
+ * Os caches são limitados em tamanho e expiram sozinhos, pois outros terminais
+ * também alteram o banco e não avisam este programa
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CACHE_ESTOQUE_PRODUTOS = "estoqueProdutos";
+    public static final String CACHE_ESTOQUE_PRODUTOS_INDICE = "estoqueProdutosIndice";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.estoque.tamanho-maximo:5000}") long tamanhoMaximo,
+            @Value("${app.cache.estoque.expiracao:PT10M}") Duration expiracao) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(CACHE_ESTOQUE_PRODUTOS, Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CACHE_ESTOQUE_PRODUTOS_INDICE, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,63 @@
+package dicasa.estoque.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dicasa.estoque.exception.SemConexaoBancoException;
+import dicasa.estoque.util.EtapasInicializacao;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Configuração da abertura do programa
+ * A primeira conexão do pool é aberta assim que o DataSource é criado, antes do Flyway e do Hibernate
+ * Isso testa a conexão com o banco de verdade, no lugar de testar a internet,
+ * e deixa a conexão pronta para o login
+ */
+@Configuration
+public class InicializacaoConfig {
+
+    /**
+     * Tempo máximo, em segundos, para o banco responder ao teste da conexão
+     */
+    private static final int TEMPO_VALIDACAO = 5;
+
+    @Bean
+    public static BeanPostProcessor aquecimentoPoolConexoes() {
+        return new AquecimentoPool();
+    }
+
+    /**
+     * Abre e valida uma conexão do pool
+     * Roda depois dos outros ajustes do DataSource, que não podem mais mudar depois que o pool inicia
+     */
+    private static class AquecimentoPool implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource dataSource) {
+                try {
+                    EtapasInicializacao.medir("pool de conexões", () -> {
+                        try (Connection conexao = dataSource.getConnection()) {
+                            if (!conexao.isValid(TEMPO_VALIDACAO)) {
+                                throw new SQLException("O banco não respondeu em " + TEMPO_VALIDACAO + "s");
+                            }
+                        }
+                        return null;
+                    });
+                } catch (Exception e) {
+                    throw new SemConexaoBancoException("Não foi possível conectar ao banco de dados", e);
+                }
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
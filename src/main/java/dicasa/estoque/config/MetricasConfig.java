@@ -0,0 +1,56 @@
+package dicasa.estoque.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Configuração das métricas do programa, publicadas pelo Actuator em /actuator/prometheus
+ * Os services marcados com @Timed("dicasa.servico") têm o tempo de cada método medido,
+ * com os percentis por classe e método definidos em management.metrics.distribution
+ * O pool de conexões, as estatísticas do Hibernate e os repositories são medidos pelo próprio Spring Boot
+ * Criada na subida, mesmo com a inicialização preguiçosa, para o registro já existir quando o pool e o Hibernate iniciam
+ */
+@Configuration
+@Lazy(false)
+public class MetricasConfig {
+
+    /**
+     * Mede os métodos das classes e métodos marcados com @Timed
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Identifica o terminal em todas as métricas, para separar os computadores da loja no Prometheus
+     */
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> tagsComuns(
+            @Value("${spring.application.name:dicasa-estoque}") String aplicacao,
+            @Value("${app.metricas.terminal:local}") String terminal) {
+        return registry -> registry.config().commonTags("application", aplicacao, "terminal", terminal);
+    }
+
+    /**
+     * Publica acertos, faltas e descartes dos caches do Caffeine em cache.gets e cache.evictions
+     * Registrado aqui porque a configuração de métricas de cache do Spring Boot é preguiçosa e nunca seria criada
+     */
+    @Bean
+    public MeterBinder metricasCaches(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().forEach(nome -> {
+            if (cacheManager.getCache(nome) instanceof CaffeineCache cache) {
+                CaffeineCacheMetrics.monitor(registry, cache.getNativeCache(), nome, "cache.manager", "cacheManager");
+            }
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package dicasa.estoque.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.UUID;
+
+/**
+ * Identifica as conexões deste terminal no banco pelo application_name do PostgreSQL
+ * Os gatilhos da migration V6 mandam esse nome junto com cada alteração, e o AlteracoesBancoListener
+ * ignora as que vieram deste terminal, que já publicou os próprios eventos ao gravar
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.notificacoes.habilitado", havingValue = "true", matchIfMissing = true)
+public class NotificacaoAlteracoesConfig {
+
+    /**
+     * Nome das conexões do pool, único a cada execução do programa
+     */
+    public static final String NOME_CONEXAO = "dicasa-estoque-" + UUID.randomUUID();
+
+    /**
+     * Coloca o nome nas conexões do pool antes da primeira ser aberta
+     * Roda antes do aquecimento do pool feito pelo InicializacaoConfig
+     */
+    @Bean
+    public static BeanPostProcessor nomeConexaoTerminal() {
+        return new NomeConexao();
+    }
+
+    private static class NomeConexao implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource dataSource) {
+                dataSource.addDataSourceProperty("ApplicationName", NOME_CONEXAO);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dicasa.estoque.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import dicasa.estoque.models.entities.EnderecoFornecedor;
+import dicasa.estoque.models.entities.Fornecedor;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.entities.TelefoneFornecedor;
+import dicasa.estoque.models.entities.Usuario;
+import dicasa.estoque.repository.FornecedorRepository;
+import dicasa.estoque.repository.ProdutoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Configuração do cache de segundo nível do Hibernate, feito com o Caffeine pela API JCache
+ * Guarda os dados que quase não mudam e são lidos o tempo todo: usuário, fornecedores com telefones e endereço, e produtos
+ * O estoque não entra, pois muda a cada retirada e é alterado direto no JDBC
+ * Cada região tem tamanho máximo e validade próprios, já que outros terminais também alteram o banco
+ * e não avisam este programa; os valores podem ser trocados em app.cache.segundo-nivel.[região].*
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.cache.segundo-nivel.habilitado", havingValue = "true", matchIfMissing = true)
+public class SegundoNivelCacheConfig {
+
+    private static final String PREFIXO_PROPRIEDADES = "app.cache.segundo-nivel.";
+
+    /**
+     * Limites padrão de cada região: quantidade máxima de itens e por quanto tempo valem
+     */
+    private static final Map<String, Limite> REGIOES = new LinkedHashMap<>();
+
+    static {
+        REGIOES.put(Usuario.REGIAO_CACHE, new Limite(200, Duration.ofMinutes(10)));
+        REGIOES.put(Fornecedor.REGIAO_CACHE, new Limite(2_000, Duration.ofMinutes(10)));
+        REGIOES.put(Fornecedor.REGIAO_CACHE_TELEFONES, new Limite(2_000, Duration.ofMinutes(10)));
+        REGIOES.put(TelefoneFornecedor.REGIAO_CACHE, new Limite(6_000, Duration.ofMinutes(10)));
+        REGIOES.put(EnderecoFornecedor.REGIAO_CACHE, new Limite(2_000, Duration.ofMinutes(10)));
+        REGIOES.put(Produto.REGIAO_CACHE, new Limite(10_000, Duration.ofMinutes(10)));
+        // As consultas valem menos tempo que as entidades, pois um cadastro feito em outro terminal
+        // só aparece na listagem quando o resultado guardado expira
+        REGIOES.put(FornecedorRepository.REGIAO_CACHE_CONSULTAS, new Limite(200, Duration.ofMinutes(2)));
+        REGIOES.put(ProdutoRepository.REGIAO_CACHE_CONSULTAS, new Limite(2_000, Duration.ofMinutes(2)));
+        REGIOES.put(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, new Limite(500, Duration.ofMinutes(2)));
+    }
+
+    /**
+     * Tamanho e validade de uma região
+     */
+    private record Limite(long tamanhoMaximo, Duration expiracao) {
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager segundoNivelCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        REGIOES.forEach((regiao, padrao) -> {
+            long tamanhoMaximo = environment.getProperty(
+                    PREFIXO_PROPRIEDADES + regiao + ".tamanho-maximo", Long.class, padrao.tamanhoMaximo());
+            Duration expiracao = environment.getProperty(
+                    PREFIXO_PROPRIEDADES + regiao + ".expiracao", Duration.class, padrao.expiracao());
+            criarRegiao(cacheManager, regiao, OptionalLong.of(tamanhoMaximo), OptionalLong.of(expiracao.toNanos()));
+            log.debug("Região {} do cache de segundo nível: {} itens por {}", regiao, tamanhoMaximo, expiracao);
+        });
+        // As marcas de atualização das tabelas não podem expirar nem ser descartadas,
+        // senão uma consulta guardada antes de uma alteração voltaria a ser usada
+        criarRegiao(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                OptionalLong.empty(), OptionalLong.empty());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer segundoNivelCacheHibernate(CacheManager segundoNivelCacheManager) {
+        return propriedades -> {
+            propriedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            propriedades.put(AvailableSettings.USE_QUERY_CACHE, true);
+            propriedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            propriedades.put(ConfigSettings.CACHE_MANAGER, segundoNivelCacheManager);
+            // Uma região esquecida aqui faria o Hibernate criar um cache sem limite; assim o programa nem sobe
+            propriedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // O resultado da consulta guarda as linhas completas, inclusive telefones e endereço buscados pelo grafo,
+            // então um acerto no cache não vira um SELECT por fornecedor
+            propriedades.put(AvailableSettings.QUERY_CACHE_LAYOUT, "FULL");
+        };
+    }
+
+    private static void criarRegiao(CacheManager cacheManager, String regiao, OptionalLong tamanhoMaximo, OptionalLong expiracao) {
+        if (cacheManager.getCache(regiao) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        configuracao.setMaximumSize(tamanhoMaximo);
+        configuracao.setExpireAfterWrite(expiracao);
+        configuracao.setStatisticsEnabled(true);
+        cacheManager.createCache(regiao, configuracao);
+    }
+}
@@ -0,0 +1,15 @@
+package dicasa.estoque.controller;
+
+/**
+ * Inteface das telas que o ScreenNavigator pode guardar e mostrar de novo sem ler o FXML
+ * Os controllers são singletons do Spring, então a tela volta como estava da última vez,
+ * e aqui ela atualiza o que pode ter mudado enquanto estava fora da tela
+ * A tela pode ser lida antes de ser aberta, então o initialize só monta os nodes, sem ir ao banco
+ */
+public interface TelaReutilizavel {
+    /**
+     * Chamado toda vez que a tela é exibida, inclusive a primeira
+     * As consultas daqui devem rodar pelo TarefasEmSegundoPlano, para a troca de tela não esperar o banco
+     */
+    void aoReexibir();
+}
@@ -16,6 +16,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
 import org.springframework.context.ApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
 
 import java.net.URL;
@@ -202,12 +203,19 @@ public class EditarEstoqueController implements Initializable, DataFormControlle
                     quantidade,
                     minimo,
                     emergencial,
-                    LocalDateTime.now()
+                    LocalDateTime.now(),
+                    estoqueEditado.versao()
             );
             EstoqueProduto estoqueSalvo = estoqueService.editarEstoque(estoqueAlterado);
             publicaEvento(estoqueSalvo);
             resetForm();
             ScreenNavigator.closeWindow(event);
+        } catch (OptimisticLockingFailureException e) {
+            messageError(
+                    "Erro ao cadastrar",
+                    "O estoque foi alterado em outro terminal. Feche e abra a edição novamente."
+            );
+            return;
         } catch (Exception e) {
             messageError(
                     "Erro ao cadastrar",
@@ -1,26 +1,230 @@
 package dicasa.estoque.controller.estoque;
 
-import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.controller.TelaReutilizavel;
+import dicasa.estoque.models.dto.MovimentacaoEstoqueResponseDTO;
+import dicasa.estoque.models.dto.ProdutoResumoDTO;
+import dicasa.estoque.service.MovimentacaoEstoqueService;
+import dicasa.estoque.service.ProdutoService;
+import dicasa.estoque.util.Alerts;
+import dicasa.estoque.util.TarefasEmSegundoPlano;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.util.StringConverter;
 import org.springframework.stereotype.Component;
 
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static dicasa.estoque.util.TableViewUtils.setupColumnInteger;
+import static dicasa.estoque.util.TableViewUtils.setupColumnString;
+
 /**
- * Classe que provavelmente não existirá mais
+ * Controller que gerencia a tela de histórico de movimentações do estoque
+ * Os dados vêm do livro de movimentações, carregados por página conforme o usuário pede mais linhas
  */
 @Component
-public class HistoricoEstoqueController {
-    @FXML
-    private ComboBox<String> produtoFilter;
+public class HistoricoEstoqueController implements TelaReutilizavel {
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final ProdutoResumoDTO TODOS_OS_PRODUTOS = new ProdutoResumoDTO(null, "Todos os produtos");
 
     @FXML
-    private TableView<Produto> produtoTableView;
+    private ComboBox<ProdutoResumoDTO> produtoFilter;
+    @FXML
+    private TableView<MovimentacaoEstoqueResponseDTO> movimentacaoTableView;
+    @FXML
+    private TableColumn<MovimentacaoEstoqueResponseDTO, String> tableColumnData;
+    @FXML
+    private TableColumn<MovimentacaoEstoqueResponseDTO, String> tableColumnProduto;
+    @FXML
+    private TableColumn<MovimentacaoEstoqueResponseDTO, String> tableColumnTipo;
+    @FXML
+    private TableColumn<MovimentacaoEstoqueResponseDTO, Integer> tableColumnQuantidade;
+    @FXML
+    private TableColumn<MovimentacaoEstoqueResponseDTO, Integer> tableColumnSaldo;
+    @FXML
+    private TableColumn<MovimentacaoEstoqueResponseDTO, String> tableColumnObservacao;
+    @FXML
+    private Button buttonCarregarMais;
+    @FXML
+    private Label labelTotal;
+
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final ProdutoService produtoService;
+    private final TarefasEmSegundoPlano tarefas;
 
+    private final ObservableList<MovimentacaoEstoqueResponseDTO> movimentacoes = FXCollections.observableArrayList();
+    /**
+     * Nomes usados por mais de um produto, exibidos com o código para o usuário saber qual escolher
+     */
+    private final Set<String> nomesRepetidos = new HashSet<>();
+    private Long cursor;
+    private Task<?> carregamento;
+
+    public HistoricoEstoqueController(
+            MovimentacaoEstoqueService movimentacaoEstoqueService,
+            ProdutoService produtoService,
+            TarefasEmSegundoPlano tarefas) {
+        this.movimentacaoEstoqueService = movimentacaoEstoqueService;
+        this.produtoService = produtoService;
+        this.tarefas = tarefas;
+    }
+
+    /**
+     * Prepara a tabela e o filtro de produtos, sem ir ao banco
+     * Os dados vêm em aoReexibir, quando a tela é exibida
+     */
     @FXML
     public void initialize() {
-        // Preencher os ComboBox programaticamente
-        produtoFilter.getItems().addAll("Todos os produtos", "Produto A", "Produto B", "Produto C");
-        produtoFilter.setValue("Todos os produtos");
+        configurarTabela();
+        configurarFiltroProduto();
+    }
+
+    /**
+     * Busca os produtos do filtro e volta para a primeira página sempre que a tela é exibida,
+     * já que novas movimentações entram no topo
+     */
+    @Override
+    public void aoReexibir() {
+        carregarProdutosDoFiltro();
+        recarregar();
+    }
+
+    private void configurarTabela() {
+        setupColumnString(tableColumnData, movimentacao -> movimentacao.dataMovimentacao().format(FORMATO_DATA));
+        setupColumnString(tableColumnProduto, MovimentacaoEstoqueResponseDTO::nomeProduto);
+        setupColumnString(tableColumnTipo, movimentacao -> movimentacao.tipo().name());
+        setupColumnInteger(tableColumnQuantidade, MovimentacaoEstoqueResponseDTO::quantidade);
+        setupColumnInteger(tableColumnSaldo, MovimentacaoEstoqueResponseDTO::saldoResultante);
+        setupColumnString(tableColumnObservacao, movimentacao ->
+                movimentacao.observacao() != null ? movimentacao.observacao() : "");
+        movimentacaoTableView.setItems(movimentacoes);
+    }
+
+    /**
+     * Prepara o filtro de produtos, que guarda o id de cada produto e mostra só o nome
+     */
+    private void configurarFiltroProduto() {
+        produtoFilter.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(ProdutoResumoDTO produto) {
+                if (produto == null) {
+                    return "";
+                }
+                return nomesRepetidos.contains(produto.nome())
+                        ? produto.nome() + " (cód. " + produto.idProduto() + ")"
+                        : produto.nome();
+            }
+
+            @Override
+            public ProdutoResumoDTO fromString(String texto) {
+                return produtoFilter.getValue();
+            }
+        });
+        produtoFilter.setItems(FXCollections.observableArrayList(TODOS_OS_PRODUTOS));
+        produtoFilter.setValue(TODOS_OS_PRODUTOS);
+        produtoFilter.valueProperty().addListener((obs, antigo, novo) -> recarregar());
+    }
+
+    /**
+     * Busca id e nome dos produtos fora da thread do JavaFX e preenche o filtro quando chegam
+     * O produto escolhido continua selecionado, pois a comparação é pelo id e nome
+     */
+    private void carregarProdutosDoFiltro() {
+        tarefas.executar(
+                "carregar produtos do histórico",
+                produtoService::listarNomes,
+                produtos -> {
+                    Set<String> nomes = new HashSet<>();
+                    nomesRepetidos.clear();
+                    for (ProdutoResumoDTO produto : produtos) {
+                        if (!nomes.add(produto.nome())) {
+                            nomesRepetidos.add(produto.nome());
+                        }
+                    }
+                    List<ProdutoResumoDTO> itens = new ArrayList<>(produtos.size() + 1);
+                    itens.add(TODOS_OS_PRODUTOS);
+                    itens.addAll(produtos);
+                    ProdutoResumoDTO selecionado = produtoFilter.getValue();
+                    produtoFilter.getItems().setAll(itens);
+                    produtoFilter.setValue(itens.contains(selecionado) ? selecionado : TODOS_OS_PRODUTOS);
+                },
+                erro -> Alerts.messageError("Erro no histórico", "Não foi possível carregar a lista de produtos."));
+    }
+
+    /**
+     * Volta para a primeira página com o filtro atual, descartando a página que ainda estava a caminho
+     */
+    private void recarregar() {
+        TarefasEmSegundoPlano.cancelar(carregamento);
+        cursor = null;
+        movimentacoes.clear();
+        carregarProximaPagina();
+    }
+
+    /**
+     * Busca a próxima página a partir da última linha exibida, fora da thread do JavaFX
+     * O botão fica desabilitado até a página chegar, para não pedir a mesma página duas vezes
+     */
+    private void carregarProximaPagina() {
+        Long idProduto = produtoSelecionado();
+        Long aPartirDe = cursor;
+        buttonCarregarMais.setDisable(true);
+        carregamento = tarefas.executar(
+                "carregar movimentações",
+                () -> movimentacaoEstoqueService.listarPagina(
+                        idProduto,
+                        aPartirDe,
+                        MovimentacaoEstoqueService.TAMANHO_PAGINA_PADRAO
+                ),
+                pagina -> {
+                    movimentacoes.addAll(pagina);
+                    if (!pagina.isEmpty()) {
+                        cursor = pagina.get(pagina.size() - 1).idMovimentacao();
+                    }
+                    buttonCarregarMais.setDisable(pagina.size() < MovimentacaoEstoqueService.TAMANHO_PAGINA_PADRAO);
+                    labelTotal.setText(movimentacoes.size() + " movimentação(ões) exibida(s)");
+                },
+                erro -> {
+                    buttonCarregarMais.setDisable(false);
+                    Alerts.messageError("Erro no histórico", "Não foi possível carregar as movimentações.");
+                });
+    }
+
+    private Long produtoSelecionado() {
+        ProdutoResumoDTO produto = produtoFilter.getValue();
+        return produto != null ? produto.idProduto() : null;
+    }
+
+    @FXML
+    public void onClickButtonCarregarMais(ActionEvent event) {
+        carregarProximaPagina();
+    }
+
+    /**
+     * Exporta o fechamento do mês atual direto do livro de movimentações
+     * @param event
+     */
+    @FXML
+    public void onClickButtonFechamentoMensal(ActionEvent event) {
+        String mensagem = movimentacaoEstoqueService.exportarFechamentoDoMes(YearMonth.now());
+        Alerts.showAlerts(
+                "Fechamento do mês",
+                null,
+                mensagem,
+                mensagem.contains("✅ CSV gerado em:") ? AlertType.CONFIRMATION : AlertType.ERROR
+        );
     }
 }
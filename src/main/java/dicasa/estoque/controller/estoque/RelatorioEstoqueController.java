@@ -1,15 +1,19 @@
 package dicasa.estoque.controller.estoque;
 
+import dicasa.estoque.controller.TelaReutilizavel;
 import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
 import dicasa.estoque.navigation.Rotas;
 import dicasa.estoque.navigation.ScreenNavigator;
 import dicasa.estoque.service.EstoqueService;
 import dicasa.estoque.util.Alerts;
+import dicasa.estoque.util.CarregadorPaginado;
 import dicasa.estoque.util.EstoqueProdutoSavedEvent;
+import dicasa.estoque.util.TarefasEmSegundoPlano;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -18,8 +22,8 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseEvent;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.net.URL;
 import java.util.List;
@@ -35,7 +39,7 @@ import static dicasa.estoque.util.TableViewUtils.*;
  * E ainda permite levar para uma janela que edita cada estoque individualmente
  */
 @Component
-public class RelatorioEstoqueController implements Initializable {
+public class RelatorioEstoqueController implements Initializable, TelaReutilizavel {
     @FXML
     public TextField textFieldBusca;
     @FXML
@@ -56,24 +60,37 @@ public class RelatorioEstoqueController implements Initializable {
     private TableColumn<EstoqueProdutoCompletoResponseDTO, EstoqueProdutoCompletoResponseDTO> tableColumnEditar;
 
     private final EstoqueService estoqueService;
+    private final TarefasEmSegundoPlano tarefas;
+    private CarregadorPaginado<EstoqueProdutoCompletoResponseDTO> paginacao;
+    private Task<String> exportacao;
+    private Task<List<EstoqueProdutoCompletoResponseDTO>> carregamento;
 
-    public RelatorioEstoqueController(EstoqueService estoqueService) {
+    public RelatorioEstoqueController(EstoqueService estoqueService, TarefasEmSegundoPlano tarefas) {
         this.estoqueService = estoqueService;
+        this.tarefas = tarefas;
     }
 
     /**
      * Função que roda ao inicializar a tela
-     * Ele prepara a tabela e carrega os itens do banco de dados
+     * Ele prepara a tabela, e os itens do banco de dados vêm em aoReexibir, quando a tela é exibida
      * @param url
      * @param resourceBundle
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         initializeNodes();
-        Platform.runLater(this::updateEstoqueTableView);
         configurarBuscaComEnter();
     }
 
+    /**
+     * As linhas alteradas já são trocadas pelos eventos, mas produtos novos
+     * só aparecem recarregando as páginas, o que é feito toda vez que a tela é exibida
+     */
+    @Override
+    public void aoReexibir() {
+        updateEstoqueTableView();
+    }
+
     /**
      * Função que configura a tabela para receber os dados do banco de dados
      */
@@ -84,17 +101,28 @@ public class RelatorioEstoqueController implements Initializable {
         setupColumnInteger(tableColumnQuantidadeMinima, EstoqueProdutoCompletoResponseDTO::quantidadeMinima);
         setupColumnString(tableColumnStatus, EstoqueProdutoCompletoResponseDTO::statusTexto);
         tableViewFillWidth(estoqueTableView);
+        paginacao = new CarregadorPaginado<>(
+                CarregadorPaginado.TAMANHO_PAGINA_PADRAO,
+                estoqueService::listarPaginaEstoques,
+                tarefas
+        );
+        paginacao.observarRolagem(estoqueTableView);
+        initEditButton();
     }
 
     /**
-     * Função que busca a lista de produtos com estoque no service e atualiza a lista
+     * Função que busca a primeira página de produtos com estoque no service, fora da thread do JavaFX, e atualiza a lista
+     * As páginas seguintes são buscadas conforme o usuário rola a tabela
      */
     public void updateEstoqueTableView(){
-        List<EstoqueProdutoCompletoResponseDTO> produtos = estoqueService.listarEstoques();
-        ObservableList<EstoqueProdutoCompletoResponseDTO> observableList =
-                FXCollections.observableList(produtos);
-        estoqueTableView.setItems(observableList);
-        initEditButton();
+        TarefasEmSegundoPlano.cancelar(carregamento);
+        estoqueTableView.setItems(paginacao.getItens());
+        carregamento = tarefas.executar(
+                "carregar estoque",
+                paginacao::buscarPrimeiraPagina,
+                paginacao::exibirPrimeiraPagina,
+                erro -> Alerts.messageError("Relatório de estoque", "Não foi possível carregar os estoques.")
+        );
     }
 
     /**
@@ -133,11 +161,22 @@ public class RelatorioEstoqueController implements Initializable {
 
     /**
      * Função que faz a ação ao clicar no botão de exportar a lista de produtos com estoque para o CSV
+     * A exportação roda em segundo plano; o botão mostra o andamento e a tela continua respondendo
      * @param event event da tela
      */
     @FXML
     public void onClickButtonExportar(ActionEvent event) {
-        String mensagem = estoqueService.exportarEstoquesEmCSV();
+        TarefasEmSegundoPlano.cancelar(exportacao);
+        exportacao = tarefas.executar(
+                "exportar estoque",
+                estoqueService::exportarEstoquesEmCSV,
+                this::mostrarResultadoExportacao,
+                erro -> Alerts.messageError("Exportar estoque para CSV", "Erro ao gerar CSV")
+        );
+        TarefasEmSegundoPlano.mostrarProgresso(exportacao, onClickButtonExportar, "Exportando...");
+    }
+
+    private void mostrarResultadoExportacao(String mensagem) {
         AlertType tipoAlerta;
         if (!mensagem.contains("✅ CSV gerado em:")) {
             tipoAlerta = AlertType.ERROR;
@@ -153,12 +192,70 @@ public class RelatorioEstoqueController implements Initializable {
     }
 
     /**
-     * Ao ser avisado sobre a alteração da tabela, ele vai atualizar a tabela com os valores novos
+     * Ao ser avisado sobre a alteração de um estoque, troca só a linha daquele produto pelos valores novos
+     * Roda depois do commit, para nunca mostrar um valor que foi desfeito
      * @param event evento de EstoqueProduto alterado
      */
-    @EventListener
+    @TransactionalEventListener(fallbackExecution = true)
     public void handleEstoqueProdutoEditado(EstoqueProdutoSavedEvent event){
-        Platform.runLater(this::updateEstoqueTableView);
+        Platform.runLater(() -> atualizarLinha(event));
+    }
+
+    /**
+     * Função que atualiza a linha do produto na tabela, mantendo a seleção e a rolagem
+     * Com os valores no evento não há consulta ao banco; sem eles busca só a linha desse produto
+     * Produto que não está nas páginas carregadas ou fora da busca atual é ignorado
+     * @param event evento de EstoqueProduto alterado
+     */
+    private void atualizarLinha(EstoqueProdutoSavedEvent event) {
+        if (estoqueTableView == null || event.getIdProduto() == null) {
+            return;
+        }
+        int indice = indiceDoProduto(event.getIdProduto());
+        if (indice < 0) {
+            return;
+        }
+        if (event.temValores()) {
+            EstoqueProdutoCompletoResponseDTO linha = estoqueTableView.getItems().get(indice);
+            substituirLinha(indice, linha.comEstoque(
+                    event.getIdEstoqueProduto(),
+                    event.getQuantidade(),
+                    event.getQuantidadeMinima(),
+                    event.getEstoqueEmergencial()
+            ));
+            return;
+        }
+        tarefas.executar(
+                "atualizar linha do estoque",
+                () -> estoqueService.buscarEstoqueDoProduto(event.getIdProduto()),
+                linha -> {
+                    // A lista pode ter mudado enquanto a consulta rodava
+                    int atual = indiceDoProduto(event.getIdProduto());
+                    if (atual >= 0 && linha != null) {
+                        substituirLinha(atual, linha);
+                    }
+                },
+                // O erro já fica no log; a linha é corrigida na próxima listagem
+                erro -> { }
+        );
+    }
+
+    private int indiceDoProduto(Long idProduto) {
+        List<EstoqueProdutoCompletoResponseDTO> itens = estoqueTableView.getItems();
+        for (int i = 0; i < itens.size(); i++) {
+            if (idProduto.equals(itens.get(i).idProduto())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void substituirLinha(int indice, EstoqueProdutoCompletoResponseDTO linha) {
+        boolean selecionada = estoqueTableView.getSelectionModel().isSelected(indice);
+        estoqueTableView.getItems().set(indice, linha);
+        if (selecionada) {
+            estoqueTableView.getSelectionModel().select(indice);
+        }
     }
 
     /**
@@ -176,18 +273,22 @@ public class RelatorioEstoqueController implements Initializable {
     }
 
     /**
-     * Função que carrega a lista de produtos pelo nome
+     * Função que carrega a lista de produtos pelo nome, fora da thread do JavaFX
+     * Uma carga ou busca anterior que ainda não terminou é cancelada, para não sobrescrever o resultado novo
      * @param nome do produto
      */
     private void buscarProdutosPorNome(String nome) {
-        try {
-            List<EstoqueProdutoCompletoResponseDTO> produtos = estoqueService.listarEstoquePorNome(nome);
-            ObservableList<EstoqueProdutoCompletoResponseDTO> observableList = FXCollections.observableList(produtos);
-            estoqueTableView.setItems(observableList);
-            initEditButton(); // Re-inicializa os botões de edição para os novos itens
-        } catch (Exception e) {
-            Alerts.messageError("Erro na busca","Ocorreu um erro ao buscar os produtos.");
-        }
+        TarefasEmSegundoPlano.cancelar(carregamento);
+        carregamento = tarefas.executar(
+                "buscar estoque por nome",
+                () -> estoqueService.listarEstoquePorNome(nome),
+                produtos -> {
+                    // Lista própria, para que os eventos de estoque possam trocar uma linha
+                    ObservableList<EstoqueProdutoCompletoResponseDTO> observableList = FXCollections.observableArrayList(produtos);
+                    estoqueTableView.setItems(observableList);
+                },
+                erro -> Alerts.messageError("Erro na busca","Ocorreu um erro ao buscar os produtos.")
+        );
     }
 
     /**
@@ -1,14 +1,17 @@
 package dicasa.estoque.controller.fornecedores;
 
+import dicasa.estoque.controller.TelaReutilizavel;
 import dicasa.estoque.models.dto.FornecedorResponseDTO;
 import dicasa.estoque.navigation.Rotas;
 import dicasa.estoque.service.FornecedorService;
 import dicasa.estoque.util.SpringFXManager;
+import dicasa.estoque.util.TarefasEmSegundoPlano;
 import dicasa.estoque.controller.fornecedores.CadastroFornecedorController;
 import dicasa.estoque.controller.fornecedores.EditarFornecedorController;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -19,15 +22,19 @@ import javafx.scene.Scene;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 import javafx.stage.Modality;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.net.URL;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
+@Slf4j
 @Component
-public class FornecedorController implements Initializable {
+public class FornecedorController implements Initializable, TelaReutilizavel {
 
     // Elementos do FXML
     @FXML private Label lblTitulo;
@@ -54,10 +61,13 @@ public class FornecedorController implements Initializable {
     @FXML private Button btnExportar;
 
     private final FornecedorService fornecedorService;
+    private final TarefasEmSegundoPlano tarefas;
     private ObservableList<FornecedorResponseDTO> fornecedoresData = FXCollections.observableArrayList();
+    private Task<List<FornecedorResponseDTO>> carregamento;
 
-    public FornecedorController(FornecedorService fornecedorService) {
+    public FornecedorController(FornecedorService fornecedorService, TarefasEmSegundoPlano tarefas) {
         this.fornecedorService = fornecedorService;
+        this.tarefas = tarefas;
     }
 
     @Override
@@ -65,15 +75,21 @@ public class FornecedorController implements Initializable {
         try {
             configurarComboBoxBusca();
             configurarTabela();
-            carregarFornecedores();
             configurarEventosDeLinha();
-            debugDados(); // Adicionado para debug
         } catch (Exception e) {
             e.printStackTrace();
             mostrarAlerta("Erro", "Erro ao inicializar tela: " + e.getMessage());
         }
     }
 
+    /**
+     * Carrega a lista toda vez que a tela é exibida; o initialize só monta a tabela
+     */
+    @Override
+    public void aoReexibir() {
+        carregarFornecedores();
+    }
+
     private void debugDados() {
         System.out.println("=== DEBUG DOS DADOS ===");
         System.out.println("Total de fornecedores na tabela: " + fornecedoresData.size());
@@ -99,7 +115,8 @@ public class FornecedorController implements Initializable {
                     "CNPJ",
                     "Cidade",
                     "Estado (UF)",
-                    "Telefone"
+                    "Telefone",
+                    "Todos os campos"
             );
             cbTipoBusca.setItems(opcoesBusca);
             cbTipoBusca.getSelectionModel().selectFirst();
@@ -174,17 +191,40 @@ public class FornecedorController implements Initializable {
     }
 
     private void carregarFornecedores() {
-        try {
-            System.out.println("Carregando fornecedores do service...");
-            List<FornecedorResponseDTO> fornecedores = fornecedorService.listarFornecedoresCompleto();
-            System.out.println("Total de fornecedores carregados: " + fornecedores.size());
-
-            fornecedoresData.setAll(fornecedores);
+        log.debug("Carregando fornecedores do service...");
+        carregarEmSegundoPlano(
+                "carregar fornecedores",
+                fornecedorService::listarFornecedoresCompleto,
+                fornecedores -> {
+                    log.debug("Total de fornecedores carregados: {}", fornecedores.size());
+                    debugDados(); // Adicionado para debug
+                },
+                "Erro ao carregar fornecedores: ");
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            mostrarAlerta("Erro", "Erro ao carregar fornecedores: " + e.getMessage());
-        }
+    /**
+     * Busca os fornecedores fora da thread do JavaFX e preenche a tabela quando chegam
+     * Uma carga ou busca anterior que ainda não terminou é cancelada, para não sobrescrever o resultado novo
+     */
+    private void carregarEmSegundoPlano(
+            String descricao,
+            Callable<List<FornecedorResponseDTO>> chamada,
+            Consumer<List<FornecedorResponseDTO>> depois,
+            String mensagemErro) {
+        TarefasEmSegundoPlano.cancelar(carregamento);
+        tabelaFornecedores.setPlaceholder(new ProgressIndicator());
+        carregamento = tarefas.executar(
+                descricao,
+                chamada,
+                fornecedores -> {
+                    fornecedoresData.setAll(fornecedores);
+                    tabelaFornecedores.setPlaceholder(new Label("Nenhum fornecedor encontrado."));
+                    depois.accept(fornecedores);
+                },
+                erro -> {
+                    tabelaFornecedores.setPlaceholder(new Label("Nenhum fornecedor encontrado."));
+                    mostrarAlerta("Erro", mensagemErro + erro.getMessage());
+                });
     }
 
     @FXML
@@ -200,10 +240,11 @@ public class FornecedorController implements Initializable {
             }
 
             // Usando o método do service para busca no banco
-            List<FornecedorResponseDTO> resultados = fornecedorService.buscarFornecedoresPorTermo(tipoBusca, termoBusca);
-            fornecedoresData.setAll(resultados);
-
-            System.out.println("Resultados da busca: " + resultados.size() + " fornecedores encontrados");
+            carregarEmSegundoPlano(
+                    "buscar fornecedores",
+                    () -> fornecedorService.buscarFornecedoresPorTermo(tipoBusca, termoBusca),
+                    resultados -> log.debug("Resultados da busca: {} fornecedores encontrados", resultados.size()),
+                    "Erro ao buscar fornecedores: ");
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -11,6 +11,7 @@ import javafx.fxml.Initializable;
 import javafx.geometry.Side;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.stereotype.Component;
 
 import java.net.URL;
@@ -66,15 +67,21 @@ public class LoginController implements Initializable {
     /** Menu de contexto para exibir sugestões de autocomplete */
     private ContextMenu autoCompleteMenu;
 
-    /** Serviço responsável pela autenticação e manipulação de dados de usuários. */
-    private final UsuarioService usuarioService;
+    /**
+     * Serviço responsável pela autenticação e manipulação de dados de usuários.
+     * Buscado só no momento do login, pois a tela abre antes do Spring terminar de subir.
+     */
+    private final ObjectFactory<UsuarioService> usuarioService;
+
+    /** Texto original do botão de login, restaurado depois da espera pelo sistema. */
+    private String textoButtonLogin;
 
     /**
      * Construtor com injeção do serviço de usuário.
      *
-     * @param usuarioService Serviço responsável pela autenticação e busca de usuários.
+     * @param usuarioService Fábrica do serviço responsável pela autenticação e busca de usuários.
      */
-    public LoginController(UsuarioService usuarioService) {
+    public LoginController(ObjectFactory<UsuarioService> usuarioService) {
         this.usuarioService = usuarioService;
     }
 
@@ -202,9 +209,16 @@ public class LoginController implements Initializable {
             return;
         }
 
+        // O login fica guardado até o sistema terminar de iniciar
+        if (!ScreenNavigator.isSpringContextPronto()) {
+            aguardarSistema(() -> onCLickButtonLogin(event));
+            return;
+        }
+
         // Determina qual campo de senha usar com base no estado do checkbox
         String senha = checkboxExibirSenha.isSelected() ? textFieldSenhaVisible.getText() : textFieldSenha.getText();
 
+        UsuarioService usuarioService = this.usuarioService.getObject();
         boolean login = usuarioService.login(textFieldUsuario.getText(), senha);
 
         if (login) {
@@ -242,9 +256,36 @@ public class LoginController implements Initializable {
      */
     @FXML
     public void onClickEsqueciSenha(ActionEvent event) {
+        if (!ScreenNavigator.isSpringContextPronto()) {
+            aguardarSistema(() -> onClickEsqueciSenha(event));
+            return;
+        }
         ScreenNavigator.loadLoginView(ESQUECI_SENHA, event);
     }
 
+    /**
+     * Bloqueia o botão e o link enquanto o sistema termina de iniciar
+     * e executa a ação pedida quando ele estiver pronto.
+     * Um segundo pedido durante a espera é ignorado.
+     *
+     * @param acao Ação executada quando o sistema estiver pronto.
+     */
+    private void aguardarSistema(Runnable acao) {
+        if (buttonLogin.isDisable()) return;
+
+        textoButtonLogin = buttonLogin.getText();
+        buttonLogin.setText("Conectando...");
+        buttonLogin.setDisable(true);
+        hyperlinkEsqueciSenha.setDisable(true);
+
+        ScreenNavigator.quandoSpringContextPronto(() -> {
+            buttonLogin.setText(textoButtonLogin);
+            buttonLogin.setDisable(false);
+            hyperlinkEsqueciSenha.setDisable(false);
+            acao.run();
+        });
+    }
+
     /**
      * Configura ações de teclado para campos de login
      */
@@ -1,18 +1,29 @@
 package dicasa.estoque.controller.main;
 
+import dicasa.estoque.cache.IndiceBuscaGlobal;
+import dicasa.estoque.cache.IndiceProdutos;
+import dicasa.estoque.models.dto.ResultadoBuscaDTO;
+import dicasa.estoque.models.dto.ProdutoResumoDTO;
 import dicasa.estoque.models.entities.EstoqueProduto;
 import dicasa.estoque.models.entities.Produto;
 import dicasa.estoque.models.view.AvisoEstoqueView;
+import dicasa.estoque.models.view.ItemRetiradaView;
+import dicasa.estoque.models.view.SaldoEstoqueView;
 import dicasa.estoque.navigation.ScreenNavigator;
 import dicasa.estoque.service.EstoqueService;
 import dicasa.estoque.service.ProdutoService;
 import dicasa.estoque.util.Alerts;
+import dicasa.estoque.util.TarefasEmSegundoPlano;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
-import javafx.scene.control.ComboBox;
+import javafx.geometry.Side;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
@@ -27,11 +38,11 @@ import org.springframework.stereotype.Component;
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 
-import javafx.util.StringConverter;
-
 import static dicasa.estoque.util.Alerts.messageError;
 import static dicasa.estoque.util.Constraints.textFieldRecebeApenasNumerosInteiros;
 import static dicasa.estoque.util.NumberValidatorUtil.ehUmNumeroInteiroPositivo;
@@ -47,9 +58,29 @@ public class MainController implements Initializable {
 
     private final ProdutoService produtoService;
     private final EstoqueService estoqueService;
+    private final IndiceProdutos indiceProdutos;
+    private final IndiceBuscaGlobal indiceBuscaGlobal;
+    private final TarefasEmSegundoPlano tarefas;
 
-    private final ObservableList<Produto> produtosDisponiveis = FXCollections.observableArrayList();
+    /**
+     * Quantidade de sugestões mostradas enquanto o nome do produto é digitado
+     */
+    private static final int LIMITE_SUGESTOES = 8;
+
+    /**
+     * Quantidade de resultados mostrados na busca global da barra de menu
+     */
+    private static final int LIMITE_RESULTADOS_BUSCA = 10;
+
+    private ContextMenu sugestoesProduto;
+    private ContextMenu resultadosBuscaGlobal;
+    private TextField buscaGlobalConfigurada;
+    private Produto produtoSelecionado;
+    private boolean selecionandoSugestao;
+    private Task<Produto> selecao;
+    private Task<SituacaoEstoque> atualizacao;
     private final ObservableList<AvisoEstoqueView> avisosEstoque = FXCollections.observableArrayList();
+    private final ObservableList<ItemRetiradaView> itensRetirada = FXCollections.observableArrayList();
     @FXML
     public MenuItem menuItemPrevisaoCompras;
     @FXML
@@ -87,7 +118,9 @@ public class MainController implements Initializable {
     private HBox menuRow;
 
     @FXML
-    private ComboBox<Produto> choiceProduto;
+    private TextField txtBuscaGlobal;
+    @FXML
+    private TextField txtBuscaProduto;
     @FXML
     private TextField txtQuantidadeSaida;
     @FXML
@@ -106,10 +139,34 @@ public class MainController implements Initializable {
     private TableColumn<AvisoEstoqueView, String> colunaQtdMinimo;
     @FXML
     private TableColumn<AvisoEstoqueView, String> colunaPrioridade;
+    @FXML
+    private TableView<ItemRetiradaView> tabelaItensRetirada;
+    @FXML
+    private TableColumn<ItemRetiradaView, String> colunaItemProduto;
+    @FXML
+    private TableColumn<ItemRetiradaView, Number> colunaItemQuantidade;
+    @FXML
+    private Button btnRetirar;
+    @FXML
+    private Button btnRetirarLista;
+
+    /**
+     * Produto selecionado lido de novo do banco junto com os produtos abaixo do mínimo
+     */
+    private record SituacaoEstoque(Produto selecionado, List<Produto> abaixoDoMinimo) {
+    }
 
-    public MainController(ProdutoService produtoService, EstoqueService estoqueService) {
+    public MainController(
+            ProdutoService produtoService,
+            EstoqueService estoqueService,
+            IndiceProdutos indiceProdutos,
+            IndiceBuscaGlobal indiceBuscaGlobal,
+            TarefasEmSegundoPlano tarefas) {
         this.produtoService = produtoService;
         this.estoqueService = estoqueService;
+        this.indiceProdutos = indiceProdutos;
+        this.indiceBuscaGlobal = indiceBuscaGlobal;
+        this.tarefas = tarefas;
     }
 
     /**
@@ -125,9 +182,39 @@ public class MainController implements Initializable {
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         configurarScrollPane();
+        configurarBuscaGlobal();
         inicializarSecaoSaidaProdutos();
+        configurarTabelaItensRetirada();
         configurarTabelaAvisos();
-        carregarAvisosEstoque();
+        atualizarProdutosEAvisos();
+    }
+
+    /**
+     * Atualiza o produto selecionado na seção de saída
+     * e os avisos apenas com os produtos abaixo do mínimo, sem carregar o catálogo inteiro
+     * As consultas rodam em segundo plano; a tela principal, sem a seção de saída, não consulta nada
+     */
+    private void atualizarProdutosEAvisos() {
+        if (txtBuscaProduto == null && tabelaAvisos == null) {
+            return;
+        }
+        TarefasEmSegundoPlano.cancelar(atualizacao);
+        Long idSelecionado = produtoSelecionado != null ? produtoSelecionado.getIdProduto() : null;
+        atualizacao = tarefas.executar(
+                "atualizar avisos de estoque",
+                () -> new SituacaoEstoque(
+                        idSelecionado != null ? produtoService.buscarPorId(idSelecionado).orElse(null) : null,
+                        produtoService.buscarAbaixoDoMinimo()),
+                situacao -> {
+                    // Busca de novo o produto selecionado para mostrar o saldo depois da retirada,
+                    // a menos que o usuário tenha escolhido outro enquanto a consulta rodava
+                    if (produtoSelecionado != null && produtoSelecionado.getIdProduto().equals(idSelecionado)) {
+                        produtoSelecionado = situacao.selecionado();
+                        atualizarEstoqueDisponivel(produtoSelecionado);
+                    }
+                    carregarAvisosEstoque(situacao.abaixoDoMinimo());
+                },
+                erro -> messageError("Erro na tela inicial", "Não foi possível carregar os avisos de estoque."));
     }
 
     @FXML
@@ -209,12 +296,11 @@ public class MainController implements Initializable {
     }
 
     private void inicializarSecaoSaidaProdutos() {
-        if (choiceProduto == null) {
+        if (txtBuscaProduto == null) {
             return;
         }
 
-        configurarComboBoxProduto();
-        carregarProdutosSaida();
+        configurarBuscaProduto();
         if (lblMensagemSaida != null) {
             lblMensagemSaida.setText("");
         }
@@ -227,14 +313,25 @@ public class MainController implements Initializable {
         }
     }
 
-    private void carregarAvisosEstoque() {
+    private void configurarTabelaItensRetirada() {
+        if (tabelaItensRetirada == null) {
+            return;
+        }
+
+        tabelaItensRetirada.setPlaceholder(new Label("Nenhum item na lista de retirada."));
+        colunaItemProduto.setCellValueFactory(cellData -> cellData.getValue().produtoProperty());
+        colunaItemQuantidade.setCellValueFactory(cellData -> cellData.getValue().quantidadeProperty());
+        tabelaItensRetirada.setItems(itensRetirada);
+    }
+
+    private void carregarAvisosEstoque(List<Produto> produtos) {
         if (tabelaAvisos == null) {
             return;
         }
 
         avisosEstoque.clear();
 
-        produtoService.buscarTodos().stream()
+        produtos.stream()
                 .filter(produto -> produto.getEstoqueProduto() != null)
                 .filter(produto -> produto.getEstoqueProduto().getQuantidade() < produto.getEstoqueProduto().getQuantidadeMinima())
                 .forEach(produto -> {
@@ -262,68 +359,151 @@ public class MainController implements Initializable {
                 });
     }
 
-    private void configurarComboBoxProduto() {
-        choiceProduto.setItems(produtosDisponiveis);
-        choiceProduto.setVisibleRowCount(5);
-        choiceProduto.setCellFactory(listView -> new javafx.scene.control.ListCell<>() {
-            @Override
-            protected void updateItem(Produto item, boolean empty) {
-                super.updateItem(item, empty);
-                setText(empty || item == null ? null : item.getNome());
-            }
-        });
-        choiceProduto.setButtonCell(new javafx.scene.control.ListCell<>() {
-            @Override
-            protected void updateItem(Produto item, boolean empty) {
-                super.updateItem(item, empty);
-                setText(empty || item == null ? "Selecione um produto" : item.getNome());
-            }
-        });
-        choiceProduto.setConverter(new StringConverter<>() {
-            @Override
-            public String toString(Produto produto) {
-                return produto != null ? produto.getNome() : "";
-            }
+    /**
+     * O campo da barra de menu busca fornecedores, produtos e pedidos a cada tecla, no índice local
+     * O controller é o mesmo para a tela principal e a inicial, então o campo só é configurado uma vez por tela carregada
+     */
+    private void configurarBuscaGlobal() {
+        if (txtBuscaGlobal == null || txtBuscaGlobal == buscaGlobalConfigurada) {
+            return;
+        }
+        buscaGlobalConfigurada = txtBuscaGlobal;
+        resultadosBuscaGlobal = new ContextMenu();
 
-            @Override
-            public Produto fromString(String nomeProduto) {
-                return produtosDisponiveis.stream()
-                        .filter(produto -> produto.getNome() != null)
-                        .filter(produto -> produto.getNome().equalsIgnoreCase(nomeProduto))
-                        .findFirst()
-                        .orElse(null);
+        txtBuscaGlobal.textProperty().addListener((obs, antigo, novo) -> mostrarResultadosBuscaGlobal(novo));
+        txtBuscaGlobal.setOnAction(event -> indiceBuscaGlobal.buscar(txtBuscaGlobal.getText(), null, 1).stream()
+                .findFirst()
+                .ifPresent(this::abrirResultadoBusca));
+        txtBuscaGlobal.focusedProperty().addListener((obs, antigo, focado) -> {
+            if (!focado) {
+                resultadosBuscaGlobal.hide();
             }
         });
     }
 
-    private void carregarProdutosSaida() {
-        if (choiceProduto == null) {
+    private void mostrarResultadosBuscaGlobal(String texto) {
+        List<ResultadoBuscaDTO> resultados = indiceBuscaGlobal.buscar(texto, null, LIMITE_RESULTADOS_BUSCA);
+        if (resultados.isEmpty()) {
+            resultadosBuscaGlobal.hide();
             return;
         }
 
-        Long produtoSelecionadoId = choiceProduto.getValue() != null ? choiceProduto.getValue().getIdProduto() : null;
+        resultadosBuscaGlobal.getItems().setAll(resultados.stream()
+                .map(resultado -> {
+                    String descricao = resultado.tipo().getDescricao() + ": " + resultado.titulo();
+                    if (!resultado.detalhe().isEmpty()) {
+                        descricao += " (" + resultado.detalhe() + ")";
+                    }
+                    MenuItem item = new MenuItem(descricao);
+                    item.setMnemonicParsing(false);
+                    item.setOnAction(event -> abrirResultadoBusca(resultado));
+                    return item;
+                })
+                .toList());
+        if (!resultadosBuscaGlobal.isShowing()) {
+            resultadosBuscaGlobal.show(txtBuscaGlobal, Side.BOTTOM, 0, 0);
+        }
+    }
 
-        produtosDisponiveis.setAll(produtoService.buscarTodos());
-        produtosDisponiveis.sort(Comparator.comparing(Produto::getNome, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+    /**
+     * Abre a tela do resultado escolhido; o pedido ainda não tem tela própria, então o resumo é mostrado num alerta
+     */
+    private void abrirResultadoBusca(ResultadoBuscaDTO resultado) {
+        resultadosBuscaGlobal.hide();
+        switch (resultado.tipo()) {
+            case FORNECEDOR -> ScreenNavigator.loadView(contentContainer, FORNECEDORES_VIEW);
+            case PRODUTO -> ScreenNavigator.loadView(contentContainer, PRODUTOS_VIEW);
+            case PEDIDO -> Alerts.showAlerts("Pedido", resultado.titulo(), resultado.detalhe(), Alert.AlertType.INFORMATION);
+        }
+    }
 
-        if (produtosDisponiveis.isEmpty()) {
-            choiceProduto.setValue(null);
+    /**
+     * O campo de produto sugere nomes a cada tecla, usando o índice em memória
+     * Enter escolhe a primeira sugestão
+     */
+    private void configurarBuscaProduto() {
+        indiceProdutos.montarEmSegundoPlano();
+        sugestoesProduto = new ContextMenu();
+        produtoSelecionado = null;
+
+        txtBuscaProduto.textProperty().addListener((obs, antigo, novo) -> {
+            if (selecionandoSugestao) {
+                return;
+            }
+            TarefasEmSegundoPlano.cancelar(selecao);
+            produtoSelecionado = null;
             atualizarEstoqueDisponivel(null);
+            mostrarSugestoes(novo);
+        });
+        txtBuscaProduto.setOnAction(event -> indiceProdutos.buscar(txtBuscaProduto.getText(), 1).stream()
+                .findFirst()
+                .ifPresent(this::selecionarProduto));
+        txtBuscaProduto.focusedProperty().addListener((obs, antigo, focado) -> {
+            if (!focado) {
+                sugestoesProduto.hide();
+            }
+        });
+    }
+
+    private void mostrarSugestoes(String texto) {
+        if (texto == null || texto.isBlank()) {
+            sugestoesProduto.hide();
             return;
         }
 
-        Produto produtoParaSelecionar = produtosDisponiveis.stream()
-                .filter(produto -> produtoSelecionadoId != null && produtoSelecionadoId.equals(produto.getIdProduto()))
-                .findFirst()
-                .orElse(produtosDisponiveis.get(0));
+        List<ProdutoResumoDTO> sugestoes = indiceProdutos.buscar(texto, LIMITE_SUGESTOES);
+        if (sugestoes.isEmpty()) {
+            sugestoesProduto.hide();
+            return;
+        }
 
-        choiceProduto.setValue(produtoParaSelecionar);
-        atualizarEstoqueDisponivel(produtoParaSelecionar);
+        sugestoesProduto.getItems().setAll(sugestoes.stream()
+                .map(sugestao -> {
+                    MenuItem item = new MenuItem(sugestao.nome());
+                    item.setMnemonicParsing(false);
+                    item.setOnAction(event -> selecionarProduto(sugestao));
+                    return item;
+                })
+                .toList());
+        if (!sugestoesProduto.isShowing()) {
+            sugestoesProduto.show(txtBuscaProduto, Side.BOTTOM, 0, 0);
+        }
     }
 
-    @FXML
-    public void onProdutoSelecionado() {
-        atualizarEstoqueDisponivel(choiceProduto != null ? choiceProduto.getValue() : null);
+    /**
+     * Carrega o produto escolhido com o estoque atual, já que o índice só guarda id e nome
+     * A consulta roda em segundo plano e é descartada se o usuário voltar a digitar antes dela terminar
+     */
+    private void selecionarProduto(ProdutoResumoDTO sugestao) {
+        sugestoesProduto.hide();
+        TarefasEmSegundoPlano.cancelar(selecao);
+        produtoSelecionado = null;
+
+        selecionandoSugestao = true;
+        try {
+            txtBuscaProduto.setText(sugestao.nome());
+            txtBuscaProduto.positionCaret(sugestao.nome().length());
+        } finally {
+            selecionandoSugestao = false;
+        }
+        if (lblEstoqueDisponivel != null) {
+            lblEstoqueDisponivel.setText("Carregando estoque...");
+        }
+        selecao = tarefas.executar(
+                "selecionar produto",
+                () -> produtoService.buscarPorId(sugestao.idProduto()).orElse(null),
+                produto -> {
+                    produtoSelecionado = produto;
+                    onProdutoSelecionado();
+                },
+                erro -> {
+                    atualizarEstoqueDisponivel(null);
+                    messageError("Erro ao carregar produto", "Não foi possível carregar o estoque de " + sugestao.nome() + ".");
+                });
+    }
+
+    private void onProdutoSelecionado() {
+        atualizarEstoqueDisponivel(produtoSelecionado);
         if (lblMensagemSaida != null) {
             lblMensagemSaida.setText("");
         }
@@ -344,27 +524,17 @@ public class MainController implements Initializable {
 
     @FXML
     public void onRetirarProduto(ActionEvent event) {
-        if (choiceProduto == null) {
+        if (txtBuscaProduto == null) {
             return;
         }
 
-        Produto produtoSelecionado = choiceProduto.getValue();
         if (produtoSelecionado == null) {
             messageError("Produto não selecionado", "Selecione um produto para registrar a saída.");
             return;
         }
 
-        int quantidade;
-        try {
-            String quantidadeTexto = txtQuantidadeSaida != null ? txtQuantidadeSaida.getText().trim() : "";
-            quantidade = ehUmNumeroInteiroPositivo(quantidadeTexto);
-        } catch (NumberFormatException e) {
-            messageError("Quantidade inválida", "Informe um número válido para a quantidade a ser retirada.");
-            return;
-        }
-
-        if (quantidade <= 0) {
-            messageError("Quantidade inválida", "A quantidade deve ser maior que zero.");
+        Integer quantidade = lerQuantidadeSaida();
+        if (quantidade == null) {
             return;
         }
 
@@ -389,20 +559,167 @@ public class MainController implements Initializable {
             return;
         }
 
+        Produto produto = produtoSelecionado;
+        Task<SaldoEstoqueView> retirada = tarefas.executar(
+                "retirar do estoque",
+                () -> estoqueService.retirarDoEstoque(produto.getIdProduto(), quantidade),
+                saldo -> {
+                    estoqueProduto.setQuantidade(saldo.getQuantidade());
+                    if (produtoSelecionado == produto) {
+                        atualizarEstoqueDisponivel(produto);
+                    }
+                    if (txtQuantidadeSaida != null) {
+                        txtQuantidadeSaida.clear();
+                    }
+                    atualizarProdutosEAvisos();
+                    if (lblMensagemSaida != null) {
+                        lblMensagemSaida.setText("Saída registrada com sucesso!");
+                    }
+                },
+                erro -> messageError("Erro ao registrar saída", erro.getMessage()));
+        bloquearRetiradasDurante(retirada, btnRetirar, "Retirando...");
+    }
+
+    /**
+     * Adiciona o produto selecionado à lista de retirada
+     * Se o produto já está na lista, soma a quantidade na mesma linha
+     */
+    @FXML
+    public void onAdicionarItemRetirada(ActionEvent event) {
+        if (txtBuscaProduto == null) {
+            return;
+        }
+
+        if (produtoSelecionado == null) {
+            messageError("Produto não selecionado", "Selecione um produto para adicionar à lista.");
+            return;
+        }
+
+        Integer quantidade = lerQuantidadeSaida();
+        if (quantidade == null) {
+            return;
+        }
+
+        EstoqueProduto estoqueProduto = produtoSelecionado.getEstoqueProduto();
+        if (estoqueProduto == null) {
+            messageError("Estoque não encontrado", "O produto selecionado não possui estoque cadastrado.");
+            return;
+        }
+
+        ItemRetiradaView item = itensRetirada.stream()
+                .filter(i -> i.getIdProduto().equals(produtoSelecionado.getIdProduto()))
+                .findFirst()
+                .orElse(null);
+        int total = quantidade + (item != null ? item.getQuantidade() : 0);
+
+        if (total > estoqueProduto.getQuantidade()) {
+            messageError("Quantidade excede estoque", "A quantidade na lista é maior que o estoque disponível.");
+            return;
+        }
+
+        if (item != null) {
+            item.setQuantidade(total);
+        } else {
+            itensRetirada.add(new ItemRetiradaView(produtoSelecionado.getIdProduto(), produtoSelecionado.getNome(), quantidade));
+        }
+
+        if (txtQuantidadeSaida != null) {
+            txtQuantidadeSaida.clear();
+        }
+        if (lblMensagemSaida != null) {
+            lblMensagemSaida.setText("");
+        }
+    }
+
+    @FXML
+    public void onRemoverItemRetirada(ActionEvent event) {
+        if (tabelaItensRetirada == null) {
+            return;
+        }
+
+        ItemRetiradaView selecionado = tabelaItensRetirada.getSelectionModel().getSelectedItem();
+        if (selecionado == null) {
+            messageError("Item não selecionado", "Selecione um item da lista para remover.");
+            return;
+        }
+        itensRetirada.remove(selecionado);
+    }
+
+    /**
+     * Retira todos os itens da lista de uma vez
+     * Se algum produto não tiver saldo suficiente, nenhuma retirada é feita
+     */
+    @FXML
+    public void onRetirarLista(ActionEvent event) {
+        if (itensRetirada.isEmpty()) {
+            messageError("Lista vazia", "Adicione ao menos um produto à lista de retirada.");
+            return;
+        }
+
+        boolean confirmada = Alerts.showConfirmation(
+                "Confirmar retirada",
+                "Deseja retirar os " + itensRetirada.size() + " produto(s) da lista?",
+                javafx.scene.control.Alert.AlertType.CONFIRMATION
+        );
+
+        if (!confirmada) {
+            return;
+        }
+
+        Map<Long, Integer> quantidadesPorProduto = new LinkedHashMap<>();
+        itensRetirada.forEach(item -> quantidadesPorProduto.put(item.getIdProduto(), item.getQuantidade()));
+
+        Task<List<SaldoEstoqueView>> retirada = tarefas.executar(
+                "retirar lista do estoque",
+                () -> estoqueService.retirarEmLote(quantidadesPorProduto),
+                saldos -> {
+                    itensRetirada.clear();
+                    atualizarProdutosEAvisos();
+                    if (lblMensagemSaida != null) {
+                        lblMensagemSaida.setText("Saída de " + quantidadesPorProduto.size() + " produto(s) registrada com sucesso!");
+                    }
+                },
+                erro -> messageError("Erro ao registrar saída", erro.getMessage()));
+        bloquearRetiradasDurante(retirada, btnRetirarLista, "Retirando...");
+    }
+
+    /**
+     * Mostra o andamento no botão clicado e desabilita os dois botões de retirada até o banco responder,
+     * para a mesma saída não ser registrada duas vezes
+     */
+    private void bloquearRetiradasDurante(Task<?> retirada, Button botao, String textoEmAndamento) {
+        if (botao != null) {
+            TarefasEmSegundoPlano.mostrarProgresso(retirada, botao, textoEmAndamento);
+        }
+        Button outro = botao == btnRetirar ? btnRetirarLista : btnRetirar;
+        if (outro != null) {
+            outro.setDisable(true);
+            retirada.runningProperty().addListener((obs, rodava, rodando) -> {
+                if (!rodando) {
+                    outro.setDisable(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Lê a quantidade digitada na seção de saída
+     * @return a quantidade, ou null se o valor for inválido (o erro já é exibido)
+     */
+    private Integer lerQuantidadeSaida() {
+        int quantidade;
         try {
-            EstoqueProduto estoqueAtualizado = estoqueService.retirarDoEstoque(produtoSelecionado.getIdProduto(), quantidade);
-            produtoSelecionado.setEstoqueProduto(estoqueAtualizado);
-            atualizarEstoqueDisponivel(produtoSelecionado);
-            if (txtQuantidadeSaida != null) {
-                txtQuantidadeSaida.clear();
-            }
-            carregarProdutosSaida();
-            carregarAvisosEstoque();
-            if (lblMensagemSaida != null) {
-                lblMensagemSaida.setText("Saída registrada com sucesso!");
-            }
-        } catch (Exception e) {
-            messageError("Erro ao registrar saída", e.getMessage());
+            String quantidadeTexto = txtQuantidadeSaida != null ? txtQuantidadeSaida.getText().trim() : "";
+            quantidade = ehUmNumeroInteiroPositivo(quantidadeTexto);
+        } catch (NumberFormatException e) {
+            messageError("Quantidade inválida", "Informe um número válido para a quantidade a ser retirada.");
+            return null;
+        }
+
+        if (quantidade <= 0) {
+            messageError("Quantidade inválida", "A quantidade deve ser maior que zero.");
+            return null;
         }
+        return quantidade;
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package dicasa.estoque.controller.perfil;
 
+import dicasa.estoque.controller.TelaReutilizavel;
 import dicasa.estoque.models.entities.Usuario;
 import dicasa.estoque.service.UsuarioService;
 import dicasa.estoque.util.EmailValidator;
@@ -25,7 +26,7 @@ import static dicasa.estoque.util.Constraints.textFieldEstaEmBranco;
  * Todas as operações são validadas e executadas através do {@link UsuarioService}.
  */
 @Component
-public class PerfilController implements Initializable {
+public class PerfilController implements Initializable, TelaReutilizavel {
 
     // ==================== CAMPOS FXML ====================
 
@@ -105,6 +106,18 @@ public class PerfilController implements Initializable {
         }
     }
 
+    /**
+     * Preenche de novo com os dados da sessão e limpa as senhas digitadas
+     * quando a tela guardada volta a ser exibida.
+     */
+    @Override
+    public void aoReexibir() {
+        passwordFieldSenhaAntiga.clear();
+        passwordFieldSenhaNova.clear();
+        passwordFieldConfirmarSenha.clear();
+        initialize(null, null);
+    }
+
     // ==================== ATUALIZAR PERFIL ====================
 
     /**
@@ -1,11 +1,14 @@
 package dicasa.estoque.controller.produtos;
 
+import dicasa.estoque.controller.TelaReutilizavel;
 import dicasa.estoque.csv.CSVPrevisaoComprasExporter;
 import dicasa.estoque.models.dto.PrevisaoCompraDTO;
-import dicasa.estoque.service.EstoqueService;
 import dicasa.estoque.service.FornecedorService;
+import dicasa.estoque.service.PrevisaoDemandaService;
+import dicasa.estoque.util.TarefasEmSegundoPlano;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -22,11 +25,13 @@ import java.util.stream.Collectors;
  * Exibe produtos com estoque baixo e sugere compras
  */
 @Component
-public class PrevisaoDeComprasController implements Initializable {
+public class PrevisaoDeComprasController implements Initializable, TelaReutilizavel {
 
-    private final EstoqueService estoqueService;
     private final FornecedorService fornecedorService;
     private final CSVPrevisaoComprasExporter csvExporter;
+    private final TarefasEmSegundoPlano tarefas;
+    private final PrevisaoDemandaService previsaoDemandaService;
+    private Task<List<PrevisaoCompraDTO>> carregamento;
 
     // Componentes FXML
     @FXML private ComboBox<String> cbUrgencia;
@@ -38,24 +43,33 @@ public class PrevisaoDeComprasController implements Initializable {
     private ObservableList<PrevisaoCompraDTO> produtosData = FXCollections.observableArrayList();
     private ObservableList<String> niveisUrgencia = FXCollections.observableArrayList("TODOS", "CRÍTICO", "ALTO", "MÉDIO", "BAIXO");
 
-    public PrevisaoDeComprasController(EstoqueService estoqueService,
-                                       FornecedorService fornecedorService,
-                                       CSVPrevisaoComprasExporter csvExporter) {
-        this.estoqueService = estoqueService;
+    public PrevisaoDeComprasController(FornecedorService fornecedorService,
+                                       CSVPrevisaoComprasExporter csvExporter,
+                                       TarefasEmSegundoPlano tarefas,
+                                       PrevisaoDemandaService previsaoDemandaService) {
         this.fornecedorService = fornecedorService;
         this.csvExporter = csvExporter;
+        this.tarefas = tarefas;
+        this.previsaoDemandaService = previsaoDemandaService;
     }
 
     /**
-     * Inicializa a tela com dados dos produtos e configurações
+     * Inicializa os filtros e as tabelas; a previsão é calculada em aoReexibir, quando a tela é exibida
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         configurarCombobox();
-        carregarDados();
         configurarTabelas();
     }
 
+    /**
+     * Refaz a previsão toda vez que a tela é exibida, já que o estoque pode ter mudado
+     */
+    @Override
+    public void aoReexibir() {
+        carregarDados(null);
+    }
+
     /**
      * Configura os ComboBox com opções de filtro
      */
@@ -78,43 +92,29 @@ public class PrevisaoDeComprasController implements Initializable {
     }
 
     /**
-     * Carrega os dados dos produtos do serviço de estoque
+     * Carrega a previsão de compras, calculada pelo consumo de cada produto, em segundo plano
+     * Se uma carga anterior ainda estiver rodando, ela é cancelada
+     * @param aoConcluir executado na tela depois que os dados chegam, pode ser null
      */
-    private void carregarDados() {
-        try {
-            var estoques = estoqueService.listarEstoques();
-
-            List<PrevisaoCompraDTO> previsoes = estoques.stream()
-                    .map(estoque -> {
-                        Integer quantidadeComprar = PrevisaoCompraDTO.calcularQuantidadeComprar(
-                                estoque.quantidade(),
-                                estoque.quantidadeMinima()
-                        );
-
-                        String urgencia = PrevisaoCompraDTO.determinarUrgencia(
-                                estoque.quantidade(),
-                                estoque.quantidadeMinima()
-                        );
-
-                        return new PrevisaoCompraDTO(
-                                estoque.idProduto(),
-                                estoque.nome(),
-                                estoque.tipo(),
-                                estoque.quantidade(),
-                                estoque.quantidadeMinima(),
-                                quantidadeComprar,
-                                urgencia,
-                                "Fornecedores disponíveis" // Placeholder - pode ser expandido
-                        );
-                    })
-                    .filter(previsao -> previsao.getQuantidadeComprar() > 0)
-                    .collect(Collectors.toList());
-
-            produtosData.setAll(previsoes);
-
-        } catch (Exception e) {
-            exibirAlertaErro("Erro ao carregar dados", "Não foi possível carregar os dados de previsão de compras.");
-        }
+    private void carregarDados(Runnable aoConcluir) {
+        TarefasEmSegundoPlano.cancelar(carregamento);
+        tabelaProdutos.setPlaceholder(new ProgressIndicator());
+        carregamento = tarefas.executar(
+                "carregar previsão de compras",
+                previsaoDemandaService::preverCompras,
+                previsoes -> {
+                    produtosData.setAll(previsoes);
+                    aplicarFiltros();
+                    tabelaProdutos.setPlaceholder(new Label("Nenhum produto precisa ser comprado."));
+                    if (aoConcluir != null) {
+                        aoConcluir.run();
+                    }
+                },
+                erro -> {
+                    tabelaProdutos.setPlaceholder(new Label("Não foi possível carregar os dados."));
+                    exibirAlertaErro("Erro ao carregar dados", "Não foi possível carregar os dados de previsão de compras.");
+                }
+        );
     }
 
     /**
@@ -139,8 +139,7 @@ public class PrevisaoDeComprasController implements Initializable {
      */
     @FXML
     void atualizarDados(ActionEvent event) {
-        carregarDados();
-        exibirMensagemSucesso("Dados atualizados com sucesso!");
+        carregarDados(() -> exibirMensagemSucesso("Dados atualizados com sucesso!"));
     }
 
     /**
@@ -1,12 +1,16 @@
 package dicasa.estoque.controller.produtos;
 
+import dicasa.estoque.controller.TelaReutilizavel;
 import dicasa.estoque.models.entities.Produto;
 import dicasa.estoque.navigation.Rotas;
 import dicasa.estoque.navigation.ScreenNavigator;
 import dicasa.estoque.service.ProdutoService;
+import dicasa.estoque.util.CarregadorPaginado;
 import dicasa.estoque.util.TableViewUtils;
+import dicasa.estoque.util.TarefasEmSegundoPlano;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
@@ -20,11 +24,14 @@ import org.springframework.stereotype.Controller;
 import java.util.List;
 
 @Controller
-public class ProdutoController {
+public class ProdutoController implements TelaReutilizavel {
 
     private final ProdutoService produtoService;
+    private final TarefasEmSegundoPlano tarefas;
 
     private final ObservableList<Produto> listaProdutos = FXCollections.observableArrayList();
+    private CarregadorPaginado<Produto> paginacao;
+    private Task<PrimeiraPagina> carregamento;
 
     @FXML private TextField txtBusca;
     @FXML private TableView<Produto> tabelaProdutos;
@@ -34,12 +41,19 @@ public class ProdutoController {
     @FXML private TableColumn<Produto, String> colunaTipo;
     @FXML private Label lblMensagem;
 
-    public ProdutoController(ProdutoService produtoService) {
+    /**
+     * Primeira página da listagem junto com o total de produtos, buscados na mesma tarefa
+     */
+    private record PrimeiraPagina(List<Produto> produtos, long total) {
+    }
+
+    public ProdutoController(ProdutoService produtoService, TarefasEmSegundoPlano tarefas) {
         this.produtoService = produtoService;
+        this.tarefas = tarefas;
     }
 
     /**
-     * Configura as colunas da tabela e carrega os produtos ao iniciar a tela.
+     * Configura as colunas da tabela ao iniciar a tela; os produtos vêm em aoReexibir, quando ela é exibida.
      */
     @FXML
     public void initialize() {
@@ -50,6 +64,15 @@ public class ProdutoController {
         TableViewUtils.tableViewFillHeight(tabelaProdutos);
         TableViewUtils.tableViewFillWidth(tabelaProdutos);
 
+        paginacao = new CarregadorPaginado<>(CarregadorPaginado.TAMANHO_PAGINA_PADRAO, produtoService::buscarPagina, tarefas);
+        paginacao.observarRolagem(tabelaProdutos);
+    }
+
+    /**
+     * Recarrega a lista toda vez que a tela é exibida
+     */
+    @Override
+    public void aoReexibir() {
         carregarProdutos();
     }
 
@@ -114,14 +137,19 @@ public class ProdutoController {
     }
 
     /**
-     * Atualiza a tabela com todos os produtos disponíveis.
+     * Atualiza a tabela com a primeira página de produtos, buscada fora da thread do JavaFX.
+     * As demais vêm conforme a rolagem.
      */
     private void carregarProdutos() {
-        listaProdutos.clear();
-        List<Produto> todosProdutos = produtoService.buscarTodos();
-        listaProdutos.addAll(todosProdutos);
-        tabelaProdutos.setItems(listaProdutos);
-
-        lblMensagem.setText("Total: " + todosProdutos.size() + " produto(s)");
+        TarefasEmSegundoPlano.cancelar(carregamento);
+        tabelaProdutos.setItems(paginacao.getItens());
+        carregamento = tarefas.executar(
+                "carregar produtos",
+                () -> new PrimeiraPagina(paginacao.buscarPrimeiraPagina(), produtoService.contarProdutos()),
+                pagina -> {
+                    paginacao.exibirPrimeiraPagina(pagina.produtos());
+                    lblMensagem.setText("Total: " + pagina.total() + " produto(s)");
+                },
+                erro -> lblMensagem.setText("Não foi possível carregar os produtos."));
     }
 }
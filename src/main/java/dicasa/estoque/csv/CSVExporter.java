@@ -1,63 +1,82 @@
 package dicasa.estoque.csv;
 
 import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
+import dicasa.estoque.models.dto.ResumoMovimentacaoDTO;
 import org.springframework.stereotype.Component;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Classe que pega os dados de uma tabela e gera um relatório em formato de CSV
  */
 @Component
 public class CSVExporter {
+
+    private final ExportadorCSV exportadorCSV;
+
+    public CSVExporter(ExportadorCSV exportadorCSV) {
+        this.exportadorCSV = exportadorCSV;
+    }
+
     /**
-     * pega a tabela de produtos e exporta em CSV
-     * @param produtos tabela de produtos com estoque que vai ser exportado
+     * pega os produtos com estoque e exporta em CSV, lendo um por vez
+     * @param produtos produtos com estoque que vão ser exportados, vindos direto do banco
      * @return mensagem que vai aparecer na tela após completar a ação
      */
-    public String exportarEstoqueEmCSV(List<EstoqueProdutoCompletoResponseDTO> produtos){
-        Path diretorioRelatorios = Paths.get("relatorios", "estoque_atual");
-        Path caminhoArquivo = diretorioRelatorios.resolve(
-                "estoque_" + LocalDateTime.now().toString().replaceAll("[:.]", "-") + ".csv"
-        );
-
+    public String exportarEstoqueEmCSV(Stream<EstoqueProdutoCompletoResponseDTO> produtos){
         try {
-            Files.createDirectories(diretorioRelatorios);
+            Path caminhoArquivo = exportadorCSV.exportar(
+                    Paths.get("relatorios", "estoque_atual"),
+                    "estoque_" + LocalDateTime.now().toString().replaceAll("[:.]", "-"),
+                    "ID Produto,Nome,Marca,Tipo,Data Criacao, Quantidade,Minima,Emergencial,Status Texto",
+                    produtos,
+                    (produto, linha) -> linha
+                            .campo(produto.idProduto())
+                            .campo(produto.nome())
+                            .campo(produto.marca())
+                            .campo(produto.tipo())
+                            .campo(produto.dataCriacao())
+                            .campo(produto.quantidade())
+                            .campo(produto.quantidadeMinima())
+                            .campo(produto.estoqueEmergencial())
+                            .campo(produto.statusTexto())
+            );
+            return "✅ CSV gerado em: " + caminhoArquivo.toAbsolutePath();
         } catch (IOException e) {
-            return "Erro ao criar diretório de relatórios";
+            return "Erro ao gerar CSV";
         }
+    }
 
-        try (FileWriter writer = new FileWriter(caminhoArquivo.toFile())) {
-            // Cabeçalho
-            writer.append("ID Produto,Nome,Marca,Tipo,Data Criacao, Quantidade,Minima,Emergencial,Status Texto\n");
-
-            // Linhas
-            for (EstoqueProdutoCompletoResponseDTO produto : produtos) {
-                writer.append(String.valueOf(produto.idProduto())).append(",")
-                        .append(escape(produto.nome())).append(",")
-                        .append(escape(produto.marca())).append(",")
-                        .append(escape(produto.tipo())).append(",")
-                        .append(escape(produto.dataCriacao())).append(",")
-                        .append(String.valueOf(produto.quantidade())).append(",")
-                        .append(String.valueOf(produto.quantidadeMinima())).append(",")
-                        .append(String.valueOf(produto.estoqueEmergencial())).append(",")
-                        .append(escape(produto.statusTexto())).append("\n");
-            }
-
+    /**
+     * pega o fechamento do mês, montado a partir do livro de movimentações, e exporta em CSV
+     * @param mes mês do fechamento
+     * @param resumos resumo de cada produto movimentado no mês
+     * @return mensagem que vai aparecer na tela após completar a ação
+     */
+    public String exportarFechamentoMensalEmCSV(YearMonth mes, List<ResumoMovimentacaoDTO> resumos){
+        try {
+            Path caminhoArquivo = exportadorCSV.exportar(
+                    Paths.get("relatorios", "fechamento_mensal"),
+                    "fechamento_" + mes,
+                    "ID Produto,Nome,Entradas,Saidas,Ajustes,Saldo do Periodo",
+                    resumos.stream(),
+                    (resumo, linha) -> linha
+                            .campo(resumo.idProduto())
+                            .campo(resumo.nomeProduto())
+                            .campo(resumo.entradas())
+                            .campo(resumo.saidas())
+                            .campo(resumo.ajustes())
+                            .campo(resumo.saldoDoPeriodo())
+            );
             return "✅ CSV gerado em: " + caminhoArquivo.toAbsolutePath();
         } catch (IOException e) {
             return "Erro ao gerar CSV";
         }
     }
-
-    private String escape(String s) {
-        if (s == null) return "";
-        return "\"" + s.replace("\"", "\"\"") + "\"";
-    }
 }
@@ -0,0 +1,88 @@
+package dicasa.estoque.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escreve as células de uma linha de CSV direto no Writer, sem montar uma String por célula
+ * Textos ficam entre aspas e as aspas internas são dobradas, como no Excel
+ */
+public class EscritorCSV {
+
+    private static final char SEPARADOR = ',';
+
+    private final Writer writer;
+    private boolean primeiraCelula = true;
+
+    public EscritorCSV(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Escreve uma célula de texto; null vira célula vazia
+     * @param valor texto da célula
+     * @return o próprio escritor, para encadear as células
+     */
+    public EscritorCSV campo(String valor) throws IOException {
+        separar();
+        if (valor == null) {
+            return this;
+        }
+        writer.write('"');
+        int inicio = 0;
+        for (int i = 0; i < valor.length(); i++) {
+            if (valor.charAt(i) == '"') {
+                writer.write(valor, inicio, i - inicio + 1);
+                writer.write('"');
+                inicio = i + 1;
+            }
+        }
+        writer.write(valor, inicio, valor.length() - inicio);
+        writer.write('"');
+        return this;
+    }
+
+    /**
+     * Escreve uma célula numérica, sem aspas
+     * @param valor número da célula
+     * @return o próprio escritor, para encadear as células
+     */
+    public EscritorCSV campo(long valor) throws IOException {
+        separar();
+        writer.write(Long.toString(valor));
+        return this;
+    }
+
+    /**
+     * Escreve uma célula numérica que pode não existir; null vira célula vazia
+     * @param valor número da célula
+     * @return o próprio escritor, para encadear as células
+     */
+    public EscritorCSV campo(Long valor) throws IOException {
+        return valor == null ? campo((String) null) : campo(valor.longValue());
+    }
+
+    /**
+     * Escreve um texto que já está no formato do CSV, como o cabeçalho
+     * @param linha linha pronta, sem a quebra de linha
+     */
+    public void linhaPronta(String linha) throws IOException {
+        writer.write(linha);
+        proximaLinha();
+    }
+
+    /**
+     * Termina a linha atual
+     */
+    public void proximaLinha() throws IOException {
+        writer.write('\n');
+        primeiraCelula = true;
+    }
+
+    private void separar() throws IOException {
+        if (!primeiraCelula) {
+            writer.write(SEPARADOR);
+        }
+        primeiraCelula = false;
+    }
+}
@@ -0,0 +1,103 @@
+package dicasa.estoque.csv;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Motor comum das exportações em CSV
+ * Consome as linhas de um Stream uma a uma e escreve num buffer UTF-8, então a memória usada
+ * não depende do tamanho do relatório; opcionalmente compacta o arquivo com gzip
+ */
+@Slf4j
+@Component
+public class ExportadorCSV {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    /**
+     * Marca de UTF-8 no começo do arquivo, para o Excel não abrir os acentos como Latin-1
+     */
+    private static final char BOM = '\uFEFF';
+
+    private final boolean compactar;
+
+    public ExportadorCSV(@Value("${app.exportacao.gzip:false}") boolean compactar) {
+        this.compactar = compactar;
+    }
+
+    /**
+     * Interface que escreve as células de um item na linha do CSV
+     * @param <T> tipo do item exportado
+     */
+    @FunctionalInterface
+    public interface EscritaDeLinha<T> {
+        void escrever(T item, EscritorCSV escritor) throws IOException;
+    }
+
+    /**
+     * Exporta as linhas para um arquivo novo no diretório
+     * O arquivo é escrito com outro nome e renomeado no fim, então um erro no meio não deixa relatório pela metade
+     * @param diretorio diretório do relatório, criado se não existir
+     * @param nomeArquivo nome do arquivo sem extensão
+     * @param cabecalho primeira linha do CSV
+     * @param linhas itens a exportar; o Stream não é fechado aqui
+     * @param escritaDeLinha como cada item vira uma linha
+     * @return caminho do arquivo gerado
+     * @throws IOException se não for possível criar ou escrever o arquivo
+     */
+    public <T> Path exportar(
+            Path diretorio,
+            String nomeArquivo,
+            String cabecalho,
+            Stream<T> linhas,
+            EscritaDeLinha<? super T> escritaDeLinha) throws IOException {
+        long inicio = System.nanoTime();
+        Files.createDirectories(diretorio);
+        Path arquivo = diretorio.resolve(nomeArquivo + (compactar ? ".csv.gz" : ".csv"));
+        Path parcial = diretorio.resolve(arquivo.getFileName() + ".parcial");
+
+        long quantidade = 0;
+        try (Writer writer = abrir(parcial)) {
+            EscritorCSV escritor = new EscritorCSV(writer);
+            writer.write(BOM);
+            escritor.linhaPronta(cabecalho);
+
+            Iterator<T> iterator = linhas.iterator();
+            while (iterator.hasNext()) {
+                escritaDeLinha.escrever(iterator.next(), escritor);
+                escritor.proximaLinha();
+                quantidade++;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(parcial);
+            throw e;
+        }
+        Files.move(parcial, arquivo, StandardCopyOption.REPLACE_EXISTING);
+
+        log.info("CSV {} exportado com {} linhas em {} ms",
+                arquivo.getFileName(), quantidade, (System.nanoTime() - inicio) / 1_000_000);
+        return arquivo;
+    }
+
+    private Writer abrir(Path arquivo) throws IOException {
+        OutputStream saida = Files.newOutputStream(arquivo);
+        if (compactar) {
+            saida = new GZIPOutputStream(saida, TAMANHO_BUFFER);
+        }
+        return new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+    }
+}
@@ -0,0 +1,15 @@
+package dicasa.estoque.exception;
+
+/**
+ * Exception que é usada quando o programa não consegue abrir a conexão com o banco ao iniciar
+ */
+public class SemConexaoBancoException extends RuntimeException {
+    /**
+     * Constructor com mensagem personalizada
+     * @param message texto que vai aparecer na mensagem
+     * @param cause erro do driver ou do pool de conexões
+     */
+    public SemConexaoBancoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
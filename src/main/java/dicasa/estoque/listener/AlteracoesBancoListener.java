@@ -0,0 +1,383 @@
+package dicasa.estoque.listener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dicasa.estoque.cache.EstoqueProdutoCache;
+import dicasa.estoque.cache.IndiceBuscaGlobal;
+import dicasa.estoque.cache.IndiceProdutos;
+import dicasa.estoque.models.entities.EnderecoFornecedor;
+import dicasa.estoque.models.entities.Fornecedor;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.entities.TelefoneFornecedor;
+import dicasa.estoque.repository.FornecedorRepository;
+import dicasa.estoque.repository.ProdutoRepository;
+import dicasa.estoque.util.EstoqueProdutoSavedEvent;
+import dicasa.estoque.util.FornecedorSavedEvent;
+import dicasa.estoque.util.PedidoSavedEvent;
+import dicasa.estoque.util.ProductSavedEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static dicasa.estoque.config.NotificacaoAlteracoesConfig.NOME_CONEXAO;
+
+/**
+ * Escuta as alterações feitas no banco por outros terminais e publica os mesmos eventos do Spring
+ * que este terminal publica ao gravar: ProductSavedEvent, EstoqueProdutoSavedEvent, FornecedorSavedEvent
+ * e PedidoSavedEvent
+ * Os gatilhos das migrations V6 e V8 avisam cada linha alterada pelo LISTEN/NOTIFY do PostgreSQL,
+ * então caches, índices e telas de todos os terminais atualizam só as linhas afetadas
+ * Usa uma conexão própria, fora do pool, que fica aberta enquanto o programa roda
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.notificacoes.habilitado", havingValue = "true", matchIfMissing = true)
+public class AlteracoesBancoListener {
+
+    /**
+     * Canal usado pelos gatilhos da migration V6
+     */
+    public static final String CANAL = "dicasa_estoque_alteracoes";
+
+    private static final String NOME_CONEXAO_NOTIFICACOES = "dicasa-estoque-notificacoes";
+
+    /**
+     * Sem avisos nesse intervalo, a conexão é testada; assim uma queda de rede não passa despercebida
+     */
+    private static final Duration INTERVALO_VERIFICACAO = Duration.ofSeconds(30);
+    private static final Duration ESPERA_RECONEXAO_INICIAL = Duration.ofSeconds(1);
+    private static final Duration ESPERA_RECONEXAO_MAXIMA = Duration.ofMinutes(1);
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final JdbcConnectionDetails conexaoBanco;
+    private final ProdutoRepository produtoRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<EstoqueProdutoCache> estoqueProdutoCache;
+    private final ObjectProvider<IndiceBuscaGlobal> indiceBuscaGlobal;
+    private final ObjectProvider<IndiceProdutos> indiceProdutos;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String url;
+    private final Duration espera;
+
+    private volatile boolean ativo;
+    private volatile Connection conexao;
+    private Thread escuta;
+
+    /**
+     * Aviso enviado pelo gatilho
+     * @param tabela tabela alterada
+     * @param operacao INSERT, UPDATE ou DELETE
+     * @param id id do produto, do fornecedor ou do pedido afetado
+     * @param origem application_name da conexão que fez a alteração
+     * @param idEstoqueProduto id do estoque, só nos avisos de estoque
+     * @param quantidade quantidade gravada, só nos avisos de estoque (migration V7)
+     * @param quantidadeMinima quantidade mínima gravada
+     * @param estoqueEmergencial estoque emergencial gravado
+     */
+    record Alteracao(
+            String tabela,
+            String operacao,
+            Long id,
+            String origem,
+            Long idEstoqueProduto,
+            Integer quantidade,
+            Integer quantidadeMinima,
+            Integer estoqueEmergencial) {
+    }
+
+    public AlteracoesBancoListener(
+            JdbcConnectionDetails conexaoBanco,
+            ProdutoRepository produtoRepository,
+            EntityManagerFactory entityManagerFactory,
+            ObjectProvider<EstoqueProdutoCache> estoqueProdutoCache,
+            ObjectProvider<IndiceBuscaGlobal> indiceBuscaGlobal,
+            ObjectProvider<IndiceProdutos> indiceProdutos,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.notificacoes.url:}") String url,
+            @Value("${app.notificacoes.espera:PT0.2S}") Duration espera) {
+        this.conexaoBanco = conexaoBanco;
+        this.produtoRepository = produtoRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.estoqueProdutoCache = estoqueProdutoCache;
+        this.indiceBuscaGlobal = indiceBuscaGlobal;
+        this.indiceProdutos = indiceProdutos;
+        this.eventPublisher = eventPublisher;
+        this.url = url == null || url.isBlank() ? conexaoBanco.getJdbcUrl() : url;
+        this.espera = espera;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        iniciar();
+    }
+
+    /**
+     * Abre a conexão, começa a escutar o canal e passa a tratar os avisos numa thread própria
+     * Se o banco não responder agora, a thread continua tentando
+     */
+    public synchronized void iniciar() {
+        if (ativo) {
+            return;
+        }
+        ativo = true;
+        try {
+            conectar();
+        } catch (SQLException e) {
+            log.warn("Não foi possível escutar as alterações de outros terminais agora; tentando de novo: {}", e.getMessage());
+        }
+        if (!ativo) {
+            return;
+        }
+        escuta = Thread.ofPlatform().daemon().name("notificacoes-banco").start(this::escutar);
+    }
+
+    @PreDestroy
+    public synchronized void parar() {
+        ativo = false;
+        if (escuta != null) {
+            escuta.interrupt();
+        }
+        fechar();
+    }
+
+    private void escutar() {
+        Duration esperaReconexao = ESPERA_RECONEXAO_INICIAL;
+        while (ativo) {
+            try {
+                if (conexao == null) {
+                    conectar();
+                    if (conexao == null) {
+                        return;
+                    }
+                    // Enquanto esteve desconectado, alterações podem ter passado sem aviso
+                    descartarTudo();
+                    esperaReconexao = ESPERA_RECONEXAO_INICIAL;
+                }
+                receber();
+            } catch (SQLException e) {
+                if (!ativo) {
+                    return;
+                }
+                log.warn("Conexão das notificações caiu, reconectando em {}s: {}", esperaReconexao.toSeconds(), e.getMessage());
+                fechar();
+                if (!dormir(esperaReconexao)) {
+                    return;
+                }
+                esperaReconexao = esperaReconexao.multipliedBy(2);
+                if (esperaReconexao.compareTo(ESPERA_RECONEXAO_MAXIMA) > 0) {
+                    esperaReconexao = ESPERA_RECONEXAO_MAXIMA;
+                }
+            }
+        }
+    }
+
+    private void conectar() throws SQLException {
+        Properties propriedades = new Properties();
+        if (conexaoBanco.getUsername() != null) {
+            propriedades.setProperty("user", conexaoBanco.getUsername());
+        }
+        if (conexaoBanco.getPassword() != null) {
+            propriedades.setProperty("password", conexaoBanco.getPassword());
+        }
+        propriedades.setProperty("ApplicationName", NOME_CONEXAO_NOTIFICACOES);
+
+        Connection nova = DriverManager.getConnection(url, propriedades);
+        if (!nova.isWrapperFor(PGConnection.class)) {
+            // Outros bancos, como o H2, não têm LISTEN/NOTIFY; as telas continuam atualizando pela validade dos caches
+            nova.close();
+            ativo = false;
+            log.warn("O banco não é PostgreSQL; alterações de outros terminais não serão escutadas");
+            return;
+        }
+        try (Statement statement = nova.createStatement()) {
+            statement.execute("LISTEN " + CANAL);
+        } catch (SQLException e) {
+            nova.close();
+            throw e;
+        }
+        conexao = nova;
+        log.info("Escutando alterações de outros terminais no canal {}", CANAL);
+    }
+
+    /**
+     * Espera os avisos e trata de uma vez os que chegarem juntos
+     */
+    private void receber() throws SQLException {
+        Connection atual = conexao;
+        PGConnection pgConnection = atual.unwrap(PGConnection.class);
+        PGNotification[] recebidas = pgConnection.getNotifications((int) INTERVALO_VERIFICACAO.toMillis());
+        if (recebidas == null || recebidas.length == 0) {
+            try (Statement statement = atual.createStatement()) {
+                statement.execute("SELECT 1");
+            }
+            return;
+        }
+
+        List<PGNotification> lote = new ArrayList<>(Arrays.asList(recebidas));
+        // Uma alteração em lote manda um aviso por linha; espera um pouco para tratar todos juntos
+        if (!espera.isZero() && !dormir(espera)) {
+            return;
+        }
+        PGNotification[] restantes = pgConnection.getNotifications();
+        if (restantes != null) {
+            lote.addAll(Arrays.asList(restantes));
+        }
+        tratar(lote);
+    }
+
+    private void tratar(List<PGNotification> lote) {
+        Set<Long> produtos = new LinkedHashSet<>();
+        // Do mesmo estoque vale o último aviso, que tem os valores mais novos
+        Map<Long, Alteracao> estoques = new LinkedHashMap<>();
+        Set<Long> fornecedores = new LinkedHashSet<>();
+        Set<Integer> pedidos = new LinkedHashSet<>();
+        for (PGNotification notificacao : lote) {
+            Alteracao alteracao = ler(notificacao.getParameter());
+            // As alterações deste terminal já publicaram os eventos ao gravar
+            if (alteracao == null || alteracao.id() == null || NOME_CONEXAO.equals(alteracao.origem())) {
+                continue;
+            }
+            switch (alteracao.tabela()) {
+                case "produto" -> produtos.add(alteracao.id());
+                case "estoque_produto" -> estoques.put(alteracao.id(), alteracao);
+                case "fornecedor", "telefone_fornecedor", "endereco_fornecedor" -> fornecedores.add(alteracao.id());
+                case "pedido", "pedido_produto" -> pedidos.add(alteracao.id().intValue());
+                default -> log.debug("Aviso de tabela não tratada: {}", alteracao.tabela());
+            }
+        }
+        if (produtos.isEmpty() && estoques.isEmpty() && fornecedores.isEmpty() && pedidos.isEmpty()) {
+            return;
+        }
+        log.debug("Alterações de outros terminais: {} produtos, {} estoques, {} fornecedores, {} pedidos",
+                produtos.size(), estoques.size(), fornecedores.size(), pedidos.size());
+
+        // O cache de segundo nível não sabe de alterações feitas fora deste programa
+        descartarDoCache(produtos, fornecedores);
+        produtos.forEach(id -> publicar(new ProductSavedEvent(this, produtoAtual(id))));
+        estoques.values().forEach(alteracao -> publicar(new EstoqueProdutoSavedEvent(
+                this,
+                alteracao.id(),
+                alteracao.idEstoqueProduto(),
+                alteracao.quantidade(),
+                alteracao.quantidadeMinima(),
+                alteracao.estoqueEmergencial())));
+        fornecedores.forEach(id -> publicar(new FornecedorSavedEvent(this, id)));
+        if (!pedidos.isEmpty()) {
+            publicar(new PedidoSavedEvent(this, List.copyOf(pedidos)));
+        }
+    }
+
+    private static Alteracao ler(String json) {
+        try {
+            return JSON.readValue(json, Alteracao.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Aviso de alteração inválido: {}", json);
+            return null;
+        }
+    }
+
+    private void descartarDoCache(Set<Long> produtos, Set<Long> fornecedores) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        if (!produtos.isEmpty()) {
+            produtos.forEach(id -> cache.evictEntityData(Produto.class, id));
+            cache.evictQueryRegion(ProdutoRepository.REGIAO_CACHE_CONSULTAS);
+            cache.evictDefaultQueryRegion();
+        }
+        if (!fornecedores.isEmpty()) {
+            for (Long id : fornecedores) {
+                cache.evictEntityData(Fornecedor.class, id);
+                cache.evictCollectionData(Fornecedor.class.getName() + ".telefones", id);
+            }
+            // O aviso traz só o id do fornecedor, então telefones e endereços saem todos
+            cache.evictEntityData(TelefoneFornecedor.class);
+            cache.evictEntityData(EnderecoFornecedor.class);
+            cache.evictQueryRegion(FornecedorRepository.REGIAO_CACHE_CONSULTAS);
+        }
+    }
+
+    private void descartarTudo() {
+        entityManagerFactory.getCache().evictAll();
+        estoqueProdutoCache.ifAvailable(EstoqueProdutoCache::invalidarTudo);
+        // Os índices de busca não têm como saber o que mudou, então são montados de novo
+        indiceBuscaGlobal.ifAvailable(IndiceBuscaGlobal::reconstruirEmSegundoPlano);
+        indiceProdutos.ifAvailable(IndiceProdutos::remontarEmSegundoPlano);
+    }
+
+    /**
+     * @return o produto como está no banco, ou só o id quando foi excluído
+     */
+    private Produto produtoAtual(Long idProduto) {
+        return produtoRepository.findById(idProduto).orElseGet(() -> produtoSoComId(idProduto));
+    }
+
+    private static Produto produtoSoComId(Long idProduto) {
+        Produto produto = new Produto();
+        produto.setIdProduto(idProduto);
+        return produto;
+    }
+
+    /**
+     * Publica o evento sem deixar um erro de quem o recebe parar a escuta
+     */
+    private void publicar(ApplicationEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao tratar {} vindo de outro terminal: {}", event.getClass().getSimpleName(), e.getMessage(), e);
+        }
+    }
+
+    private void fechar() {
+        Connection atual = conexao;
+        conexao = null;
+        if (atual != null) {
+            try {
+                atual.close();
+            } catch (SQLException e) {
+                log.debug("Erro ao fechar a conexão das notificações: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return false se a thread foi interrompida, ou seja, o programa está encerrando
+     */
+    private static boolean dormir(Duration tempo) {
+        try {
+            Thread.sleep(tempo);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
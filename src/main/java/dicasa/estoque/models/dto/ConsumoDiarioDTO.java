@@ -0,0 +1,16 @@
+package dicasa.estoque.models.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO com o total retirado de um produto num dia, lido do livro de movimentações
+ * @param idProduto produto consumido
+ * @param dia dia do consumo
+ * @param quantidade unidades retiradas no dia (positivo)
+ */
+public record ConsumoDiarioDTO(
+        Long idProduto,
+        LocalDate dia,
+        Long quantidade
+) {
+}
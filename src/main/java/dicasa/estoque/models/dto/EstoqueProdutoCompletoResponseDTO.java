@@ -1,5 +1,10 @@
 package dicasa.estoque.models.dto;
 
+import dicasa.estoque.models.entities.EstoqueProduto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
 /**
  * DTO que junta tabela Produto e Estoque para exibição na tela
  * @param idProduto
@@ -27,4 +32,71 @@ public record EstoqueProdutoCompletoResponseDTO(
         int status,
         String statusTexto
 ) {
+
+    /**
+     * Construtor usado pelas consultas que projetam as colunas direto no DTO (SELECT new)
+     * O estoque vem de um LEFT JOIN, então os campos dele são nulos quando o produto não tem estoque
+     * O status é calculado da mesma forma que na entidade e a data sai no mesmo formato do mapper
+     */
+    public EstoqueProdutoCompletoResponseDTO(
+            Long idProduto,
+            String nome,
+            String marca,
+            String tipo,
+            LocalDateTime dataCriacao,
+            Long id_estoque_produto,
+            Integer quantidade,
+            Integer quantidadeMinima,
+            Integer estoqueEmergencial) {
+        this(
+                idProduto,
+                nome,
+                marca,
+                tipo,
+                dataCriacao != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dataCriacao) : null,
+                id_estoque_produto,
+                quantidade != null ? quantidade : 0,
+                quantidadeMinima != null ? quantidadeMinima : 0,
+                estoqueEmergencial != null ? estoqueEmergencial : 0,
+                id_estoque_produto != null
+                        ? EstoqueProduto.calcularStatus(quantidade, quantidadeMinima, estoqueEmergencial)
+                        : 0,
+                id_estoque_produto != null
+                        ? EstoqueProduto.textoDoStatus(EstoqueProduto.calcularStatus(quantidade, quantidadeMinima, estoqueEmergencial))
+                        : "Sem estoque"
+        );
+    }
+
+    /**
+     * Cria uma cópia com os valores novos do estoque, recalculando o status
+     * Os valores nulos continuam como estão, então uma retirada que só conhece a quantidade também serve
+     * @param idEstoqueProduto id do estoque, para o produto que ainda não tinha
+     * @param quantidade quantidade atual
+     * @param quantidadeMinima quantidade mínima
+     * @param estoqueEmergencial estoque emergencial
+     * @return a linha atualizada
+     */
+    public EstoqueProdutoCompletoResponseDTO comEstoque(
+            Long idEstoqueProduto,
+            Integer quantidade,
+            Integer quantidadeMinima,
+            Integer estoqueEmergencial) {
+        int novaQuantidade = quantidade != null ? quantidade : this.quantidade;
+        int novaMinima = quantidadeMinima != null ? quantidadeMinima : this.quantidadeMinima;
+        int novoEmergencial = estoqueEmergencial != null ? estoqueEmergencial : this.estoqueEmergencial;
+        int novoStatus = EstoqueProduto.calcularStatus(novaQuantidade, novaMinima, novoEmergencial);
+        return new EstoqueProdutoCompletoResponseDTO(
+                idProduto,
+                nome,
+                marca,
+                tipo,
+                dataCriacao,
+                idEstoqueProduto != null ? idEstoqueProduto : id_estoque_produto,
+                novaQuantidade,
+                novaMinima,
+                novoEmergencial,
+                novoStatus,
+                EstoqueProduto.textoDoStatus(novoStatus)
+        );
+    }
 }
@@ -9,12 +9,14 @@ import java.time.LocalDateTime;
  * @param quantidadeMinima
  * @param estoqueEmergencial
  * @param data_atualizacao
+ * @param versao versão do estoque quando o formulário foi aberto, para o controle otimista
  */
 public record EstoqueProdutoRequestDTO (
         Long id_estoque_produto,
         int quantidade,
         int quantidadeMinima,
         int estoqueEmergencial,
-        LocalDateTime data_atualizacao
+        LocalDateTime data_atualizacao,
+        Long versao
 ){
 }
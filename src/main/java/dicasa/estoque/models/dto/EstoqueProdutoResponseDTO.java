@@ -6,11 +6,13 @@ package dicasa.estoque.models.dto;
  * @param quantidade
  * @param quantidadeMinima
  * @param estoqueEmergencial
+ * @param versao
  */
 public record EstoqueProdutoResponseDTO(
         Long id_estoque_produto,
         String quantidade,
         String quantidadeMinima,
-        String estoqueEmergencial
+        String estoqueEmergencial,
+        Long versao
 ) {
 }
@@ -0,0 +1,20 @@
+package dicasa.estoque.models.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de uma linha do pedido de compra (um produto da nota do fornecedor)
+ * @param idProduto produto comprado
+ * @param idFornecedor fornecedor da nota, pode ser nulo
+ * @param quantidade unidades recebidas, somadas ao estoque
+ * @param precoTotal valor total da linha
+ * @param desconto desconto da linha, nulo vale zero
+ */
+public record ItemPedidoRequestDTO(
+        Long idProduto,
+        Long idFornecedor,
+        Integer quantidade,
+        BigDecimal precoTotal,
+        BigDecimal desconto
+) {
+}
@@ -0,0 +1,28 @@
+package dicasa.estoque.models.dto;
+
+import dicasa.estoque.models.entities.TipoMovimentacao;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO que exibe uma linha do histórico de movimentações do estoque
+ * @param idMovimentacao
+ * @param idProduto
+ * @param nomeProduto
+ * @param tipo
+ * @param quantidade
+ * @param saldoResultante
+ * @param dataMovimentacao
+ * @param observacao
+ */
+public record MovimentacaoEstoqueResponseDTO(
+        Long idMovimentacao,
+        Long idProduto,
+        String nomeProduto,
+        TipoMovimentacao tipo,
+        int quantidade,
+        int saldoResultante,
+        LocalDateTime dataMovimentacao,
+        String observacao
+) {
+}
@@ -0,0 +1,20 @@
+package dicasa.estoque.models.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO para criar um pedido de compra com todas as suas linhas
+ * @param observacao texto livre, como o número da nota
+ * @param desconto desconto do pedido inteiro, nulo vale zero
+ * @param dataCompra data da compra, nula vale agora
+ * @param itens linhas do pedido
+ */
+public record PedidoRequestDTO(
+        String observacao,
+        BigDecimal desconto,
+        LocalDateTime dataCompra,
+        List<ItemPedidoRequestDTO> itens
+) {
+}
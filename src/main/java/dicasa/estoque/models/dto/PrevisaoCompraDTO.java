@@ -44,7 +44,7 @@ public class PrevisaoCompraDTO {
     public IntegerProperty quantidadeComprarProperty() { return quantidadeComprar; }
     public StringProperty nivelUrgenciaProperty() { return nivelUrgencia; }
 
-    // Mantenha os métodos estáticos
+    // Mantenha os métodos estáticos: são a regra usada para produtos ainda sem histórico de consumo
     public static Integer calcularQuantidadeComprar(Integer estoqueAtual, Integer estoqueMinimo) {
         if (estoqueAtual >= estoqueMinimo) {
             return 0;
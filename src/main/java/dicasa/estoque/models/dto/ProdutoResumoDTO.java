@@ -0,0 +1,12 @@
+package dicasa.estoque.models.dto;
+
+/**
+ * DTO com só o id e o nome do produto, usado nas sugestões de busca
+ * @param idProduto
+ * @param nome
+ */
+public record ProdutoResumoDTO(
+        Long idProduto,
+        String nome
+) {
+}
@@ -0,0 +1,26 @@
+package dicasa.estoque.models.dto;
+
+/**
+ * DTO com os números de uma região do cache de segundo nível desde a abertura do programa
+ * @param regiao nome da região
+ * @param acertos leituras atendidas pelo cache
+ * @param faltas leituras que precisaram ir ao banco
+ * @param gravacoes itens colocados no cache
+ * @param itensEmMemoria itens guardados agora
+ */
+public record RegiaoCacheDTO(
+        String regiao,
+        long acertos,
+        long faltas,
+        long gravacoes,
+        long itensEmMemoria
+) {
+
+    /**
+     * @return fração das leituras atendidas pelo cache, de 0 a 1
+     */
+    public double taxaAcerto() {
+        long leituras = acertos + faltas;
+        return leituras == 0 ? 0 : (double) acertos / leituras;
+    }
+}
@@ -0,0 +1,35 @@
+package dicasa.estoque.models.dto;
+
+/**
+ * DTO com um resultado da busca global, já com os textos prontos para a tela
+ * Tudo vem do índice local, sem ir ao banco
+ * @param tipo o que foi encontrado
+ * @param id id do fornecedor, produto ou pedido
+ * @param titulo texto principal do resultado
+ * @param detalhe texto secundário, como CNPJ e cidade do fornecedor
+ * @param relevancia pontuação da busca, maior é melhor
+ */
+public record ResultadoBuscaDTO(
+        Tipo tipo,
+        Long id,
+        String titulo,
+        String detalhe,
+        float relevancia
+) {
+
+    public enum Tipo {
+        FORNECEDOR("Fornecedor"),
+        PRODUTO("Produto"),
+        PEDIDO("Pedido");
+
+        private final String descricao;
+
+        Tipo(String descricao) {
+            this.descricao = descricao;
+        }
+
+        public String getDescricao() {
+            return descricao;
+        }
+    }
+}
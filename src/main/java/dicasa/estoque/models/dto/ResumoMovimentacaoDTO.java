@@ -0,0 +1,28 @@
+package dicasa.estoque.models.dto;
+
+/**
+ * DTO com o fechamento de um período por produto, somando as movimentações do livro
+ * @param idProduto
+ * @param nomeProduto
+ * @param entradas soma das entradas
+ * @param saidas soma das saídas (valor negativo)
+ * @param ajustes soma dos ajustes (positivos e negativos)
+ */
+public record ResumoMovimentacaoDTO(
+        Long idProduto,
+        String nomeProduto,
+        Long entradas,
+        Long saidas,
+        Long ajustes
+) {
+    /**
+     * @return variação total do saldo no período
+     */
+    public long saldoDoPeriodo() {
+        return valor(entradas) + valor(saidas) + valor(ajustes);
+    }
+
+    private static long valor(Long valor) {
+        return valor != null ? valor : 0L;
+    }
+}
@@ -4,15 +4,25 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "endereco_fornecedor", schema = "dicasa_estoque")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EnderecoFornecedor.REGIAO_CACHE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class EnderecoFornecedor {
+    /**
+     * Região do cache de segundo nível
+     */
+    public static final String REGIAO_CACHE = "enderecoFornecedor";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "endereco_fornecedor_seq")
+    @SequenceGenerator(name = "endereco_fornecedor_seq", sequenceName = "endereco_fornecedor_seq", allocationSize = 50)
     @Column(name = "id_endereco_fornecedor")
     private Long idEndereco;
 
@@ -38,7 +48,7 @@ public class EnderecoFornecedor {
     @Column(length = 9)
     private String cep;
 
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_fornecedor")
     private Fornecedor fornecedor;
 }
\ No newline at end of file
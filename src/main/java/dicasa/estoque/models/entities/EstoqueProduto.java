@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class EstoqueProduto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "estoque_produto_seq")
+    @SequenceGenerator(name = "estoque_produto_seq", sequenceName = "estoque_produto_seq", allocationSize = 50)
     private Long id_estoque_produto;
     @Column(nullable = false)
     private int quantidade;
@@ -29,16 +30,42 @@ public class EstoqueProduto {
     @Column(nullable = false)
     private LocalDateTime data_criacao;
     private LocalDateTime data_atualizacao;
-    @OneToOne(optional = false, fetch = FetchType.EAGER)
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "id_produto")
     private Produto produto;
+    /**
+     * Versão usada no controle otimista das edições
+     * A retirada atômica do repositório também incrementa esse valor
+     */
+    @Version
+    @Column(nullable = false)
+    private Long versao;
 
     /**
      * Função que calcula o nível de estoque baseado na quantidade atual com a quantidade mínima e emergencial
      * @return o nível de estoque de zero à 5
      */
     public int status(){
-        if(this.quantidade==0){
+        return calcularStatus(quantidade, quantidadeMinima, estoqueEmergencial);
+    }
+
+    /**
+     * Baseado na função status(), ele retorna um texto do nível do estoque
+     * @return o nível de estoque
+     */
+    public String statusTexto(){
+        return textoDoStatus(status());
+    }
+
+    /**
+     * Calcula o nível de estoque sem precisar da entidade, usado também pelas listagens projetadas direto em DTO
+     * @param quantidade quantidade atual
+     * @param quantidadeMinima quantidade mínima
+     * @param estoqueEmergencial quantidade emergencial
+     * @return o nível de estoque de zero à 5
+     */
+    public static int calcularStatus(int quantidade, int quantidadeMinima, int estoqueEmergencial){
+        if(quantidade==0){
             return 0;
         } else if (quantidade>=(quantidadeMinima*2)) {
             return 4;
@@ -54,11 +81,12 @@ public class EstoqueProduto {
     }
 
     /**
-     * Baseado na função status(), ele retorna um texto do nível do estoque
+     * Texto de um nível de estoque
+     * @param status nível calculado por calcularStatus
      * @return o nível de estoque
      */
-    public String statusTexto(){
-        return switch (status()) {
+    public static String textoDoStatus(int status){
+        return switch (status) {
             case 0 -> "Zerado";
             case 1 -> "Emergencial";
             case 2 -> "Minima";
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,12 +16,31 @@ import java.util.List;
 
 @Entity
 @Table(name = "fornecedor")
+@NamedEntityGraph(
+        name = Fornecedor.GRAFO_RELATORIO,
+        attributeNodes = {
+                @NamedAttributeNode("telefones"),
+                @NamedAttributeNode("enderecoFornecedor")
+        })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Fornecedor.REGIAO_CACHE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Fornecedor {
+    /**
+     * Relatório de fornecedores: telefones e endereço de cada um
+     */
+    public static final String GRAFO_RELATORIO = "Fornecedor.relatorio";
+    /**
+     * Regiões do cache de segundo nível: o fornecedor e a lista de telefones de cada um
+     */
+    public static final String REGIAO_CACHE = "fornecedor";
+    public static final String REGIAO_CACHE_TELEFONES = "fornecedor.telefones";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fornecedor_seq")
+    @SequenceGenerator(name = "fornecedor_seq", sequenceName = "fornecedor_seq", allocationSize = 50)
     @Column(name = "id_fornecedor")
     private Long idFornecedor;
     private String cnpj;
@@ -35,8 +56,10 @@ public class Fornecedor {
     @JoinColumn(name = "id_usuario_criador")
     private Usuario usuario;
     @OneToMany(mappedBy = "fornecedor", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Fornecedor.REGIAO_CACHE_TELEFONES)
     private List<TelefoneFornecedor> telefones;
 
+    // Lado inverso: sem bytecode enhancement o Hibernate não consegue deixar LAZY, então os grafos o incluem
     @OneToOne(mappedBy = "fornecedor")
     private EnderecoFornecedor enderecoFornecedor;
 }
@@ -0,0 +1,112 @@
+package dicasa.estoque.models.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidade que armazena cada movimentação do estoque (entrada, saída ou ajuste)
+ * O livro é somente de inserção: uma linha gravada nunca é alterada nem excluída
+ * A quantidade é sempre a variação aplicada (positiva na entrada, negativa na saída)
+ */
+@Entity
+@Immutable
+@Table(name = "movimentacao_estoque")
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentacaoEstoque {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_movimentacao")
+    private Long idMovimentacao;
+
+    @Column(name = "id_produto", nullable = false)
+    private Long idProduto;
+
+    @Column(name = "id_estoque_produto")
+    private Long idEstoqueProduto;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TipoMovimentacao tipo;
+
+    @Column(nullable = false)
+    private int quantidade;
+
+    @Column(name = "saldo_resultante", nullable = false)
+    private int saldoResultante;
+
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(length = 255)
+    private String observacao;
+
+    @Column(name = "data_movimentacao", nullable = false)
+    private LocalDateTime dataMovimentacao;
+
+    /**
+     * Cria uma nova movimentação a partir do estoque já atualizado
+     * @param estoqueProduto estoque depois da movimentação
+     * @param tipo tipo da movimentação
+     * @param quantidade variação aplicada na quantidade
+     * @param idUsuario usuário que fez a movimentação, pode ser nulo
+     * @param observacao texto livre
+     * @return a movimentação pronta para ser gravada
+     */
+    public static MovimentacaoEstoque de(
+            EstoqueProduto estoqueProduto,
+            TipoMovimentacao tipo,
+            int quantidade,
+            Long idUsuario,
+            String observacao) {
+        return de(
+                estoqueProduto.getProduto().getIdProduto(),
+                estoqueProduto.getId_estoque_produto(),
+                estoqueProduto.getQuantidade(),
+                tipo,
+                quantidade,
+                idUsuario,
+                observacao
+        );
+    }
+
+    /**
+     * Cria uma nova movimentação a partir do saldo devolvido pelo banco, sem carregar a entidade de estoque
+     * @param idProduto produto movimentado
+     * @param idEstoqueProduto estoque movimentado
+     * @param saldoResultante quantidade depois da movimentação
+     * @param tipo tipo da movimentação
+     * @param quantidade variação aplicada na quantidade
+     * @param idUsuario usuário que fez a movimentação, pode ser nulo
+     * @param observacao texto livre
+     * @return a movimentação pronta para ser gravada
+     */
+    public static MovimentacaoEstoque de(
+            Long idProduto,
+            Long idEstoqueProduto,
+            int saldoResultante,
+            TipoMovimentacao tipo,
+            int quantidade,
+            Long idUsuario,
+            String observacao) {
+        return new MovimentacaoEstoque(
+                null,
+                idProduto,
+                idEstoqueProduto,
+                tipo,
+                quantidade,
+                saldoResultante,
+                idUsuario,
+                observacao,
+                LocalDateTime.now()
+        );
+    }
+}
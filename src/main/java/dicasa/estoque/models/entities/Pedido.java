@@ -11,14 +11,44 @@ import java.util.List;
 
 /**
  * Entidade que armazena o Pedido
+ * Todas as associações são LAZY; cada tela diz o que precisa pelos grafos abaixo
  */
 
 @Entity
 @Table(name = "pedido")
+@NamedEntityGraphs({
+        @NamedEntityGraph(
+                name = Pedido.GRAFO_LISTA,
+                attributeNodes = @NamedAttributeNode("usuario")),
+        @NamedEntityGraph(
+                name = Pedido.GRAFO_DETALHE,
+                attributeNodes = {
+                        @NamedAttributeNode("usuario"),
+                        @NamedAttributeNode(value = "pedidoProdutos", subgraph = "itens")
+                },
+                subgraphs = {
+                        @NamedSubgraph(name = "itens", attributeNodes = {
+                                @NamedAttributeNode(value = "produto", subgraph = "produto"),
+                                @NamedAttributeNode(value = "fornecedor", subgraph = "fornecedor")
+                        }),
+                        // Os lados inversos dos one-to-one são sempre carregados, então entram no mesmo SELECT
+                        @NamedSubgraph(name = "produto", attributeNodes = @NamedAttributeNode("estoqueProduto")),
+                        @NamedSubgraph(name = "fornecedor", attributeNodes = @NamedAttributeNode("enderecoFornecedor"))
+                })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Pedido {
+    /**
+     * Listagem de pedidos: só o pedido e quem criou
+     */
+    public static final String GRAFO_LISTA = "Pedido.lista";
+    /**
+     * Detalhe do pedido: as linhas com produto e fornecedor
+     */
+    public static final String GRAFO_DETALHE = "Pedido.detalhe";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id_pedido")
@@ -31,7 +61,7 @@ public class Pedido {
     private LocalDateTime dataCompra;
     @Column(name = "data_atualizacao")
     private LocalDateTime data_atualizacao;
-    @OneToMany(mappedBy = "pedido", fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "pedido", fetch = FetchType.LAZY)
     private List<PedidoProduto> pedidoProdutos;
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario_criador")
@@ -32,13 +32,13 @@ public class PedidoProduto {
     private LocalDateTime dataPedido;
     @Column(name = "data_atualizacao")
     private LocalDateTime data_atualizacao;
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_fornecedor")
     private Fornecedor fornecedor;
     @JoinColumn(name = "id_produto")
-    @ManyToOne(optional = false, fetch = FetchType.EAGER)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Produto produto;
     @JoinColumn(name = "id_pedido")
-    @ManyToOne(optional = false, fetch = FetchType.EAGER)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Pedido pedido;
 }
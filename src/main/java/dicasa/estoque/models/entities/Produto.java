@@ -5,6 +5,8 @@ import javafx.beans.property.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
@@ -14,13 +16,20 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "produto")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Produto.REGIAO_CACHE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Produto {
+    /**
+     * Região do cache de segundo nível
+     */
+    public static final String REGIAO_CACHE = "produto";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produto_seq")
+    @SequenceGenerator(name = "produto_seq", sequenceName = "produto_seq", allocationSize = 50)
     @Column(name = "id_produto")
     private Long idProduto;
 
@@ -46,6 +55,7 @@ public class Produto {
     @JoinColumn(name = "id_usuario_criador")
     private Usuario usuario;
 
+    // Lado inverso: sem bytecode enhancement o Hibernate sempre carrega, então as consultas trazem com JOIN FETCH
     @OneToOne(mappedBy = "produto", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
     private EstoqueProduto estoqueProduto;
 
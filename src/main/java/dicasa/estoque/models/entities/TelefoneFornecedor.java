@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entidade que cuida dos dados de telefone do Fornecedor
@@ -11,18 +13,26 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "telefone_fornecedor")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = TelefoneFornecedor.REGIAO_CACHE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class TelefoneFornecedor {
+    /**
+     * Região do cache de segundo nível
+     */
+    public static final String REGIAO_CACHE = "telefoneFornecedor";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "telefone_fornecedor_seq")
+    @SequenceGenerator(name = "telefone_fornecedor_seq", sequenceName = "telefone_fornecedor_seq", allocationSize = 50)
     @Column(name = "id_telefone_fornecedor")
     private Long idTelefone;
     @Column(nullable = false, length = 14)
     private String telefone;
     // MUITOS Telefones para UM Fornecedor
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_fornecedor")
     private Fornecedor fornecedor;
 }
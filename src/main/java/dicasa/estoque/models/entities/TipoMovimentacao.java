@@ -0,0 +1,10 @@
+package dicasa.estoque.models.entities;
+
+/**
+ * Tipos de movimentação registrados no livro de movimentações do estoque
+ */
+public enum TipoMovimentacao {
+    ENTRADA,
+    SAIDA,
+    AJUSTE
+}
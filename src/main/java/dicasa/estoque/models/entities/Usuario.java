@@ -2,6 +2,8 @@ package dicasa.estoque.models.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -17,6 +19,8 @@ import java.util.List;
                 @UniqueConstraint(columnNames = "nome"),
                 @UniqueConstraint(columnNames = "email")
         })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Usuario.REGIAO_CACHE)
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -24,6 +28,10 @@ import java.util.List;
 @ToString
 @EqualsAndHashCode
 public class Usuario {
+    /**
+     * Região do cache de segundo nível
+     */
+    public static final String REGIAO_CACHE = "usuario";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -93,6 +93,7 @@ public interface ProdutoEstoqueMapper {
      * @param estoqueProduto
      */
     @Mapping(target = "id_estoque_produto")
+    @Mapping(target = "versao", ignore = true)
     void atualizaDoDTO(EstoqueProdutoRequestDTO dto,@MappingTarget EstoqueProduto estoqueProduto);
 
     @Named("estoqueToId")
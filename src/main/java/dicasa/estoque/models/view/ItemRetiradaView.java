@@ -0,0 +1,46 @@
+package dicasa.estoque.models.view;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/**
+ * Representa uma linha da lista de retirada da tela inicial, antes de ser confirmada.
+ */
+public class ItemRetiradaView {
+
+    private final Long idProduto;
+    private final StringProperty produto;
+    private final IntegerProperty quantidade;
+
+    public ItemRetiradaView(Long idProduto, String produto, int quantidade) {
+        this.idProduto = idProduto;
+        this.produto = new SimpleStringProperty(produto);
+        this.quantidade = new SimpleIntegerProperty(quantidade);
+    }
+
+    public Long getIdProduto() {
+        return idProduto;
+    }
+
+    public String getProduto() {
+        return produto.get();
+    }
+
+    public StringProperty produtoProperty() {
+        return produto;
+    }
+
+    public int getQuantidade() {
+        return quantidade.get();
+    }
+
+    public void setQuantidade(int quantidade) {
+        this.quantidade.set(quantidade);
+    }
+
+    public IntegerProperty quantidadeProperty() {
+        return quantidade;
+    }
+}
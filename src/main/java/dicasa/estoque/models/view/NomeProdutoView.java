@@ -0,0 +1,11 @@
+package dicasa.estoque.models.view;
+
+/**
+ * Projeção com só o id e o nome do produto
+ * Usada pelas buscas que precisam percorrer o catálogo sem carregar estoque e usuário
+ */
+public interface NomeProdutoView {
+    Long getIdProduto();
+
+    String getNome();
+}
@@ -0,0 +1,13 @@
+package dicasa.estoque.models.view;
+
+/**
+ * Projeção com o saldo do estoque devolvido pelo banco depois de uma retirada atômica
+ * Evita carregar a entidade EstoqueProduto só para saber a quantidade nova
+ */
+public interface SaldoEstoqueView {
+    Long getIdProduto();
+
+    Long getIdEstoqueProduto();
+
+    Integer getQuantidade();
+}
@@ -0,0 +1,21 @@
+package dicasa.estoque.models.view;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção com os textos de uma linha do pedido, usada para montar o índice de busca
+ * Vem uma linha por item, com o produto e o fornecedor dela; pedidos sem itens vêm com os dois nulos
+ */
+public interface TextoPedidoView {
+    Integer getIdPedido();
+
+    String getObservacao();
+
+    LocalDateTime getDataCompra();
+
+    String getNomeProduto();
+
+    String getNomeFantasia();
+
+    String getRazaoSocial();
+}
@@ -0,0 +1,190 @@
+package dicasa.estoque.navigation;
+
+import dicasa.estoque.controller.DataFormController;
+import dicasa.estoque.controller.TelaReutilizavel;
+import javafx.animation.PauseTransition;
+import javafx.scene.Parent;
+import javafx.util.Duration;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static dicasa.estoque.navigation.Rotas.*;
+
+/**
+ * Classe que guarda as telas já carregadas, chaveadas pela rota, para não ler o FXML de novo a cada clique
+ * Só entram as telas cujo controller implementa TelaReutilizavel ou, nas janelas, DataFormController,
+ * pois os controllers são singletons do Spring e cada carregamento troca os nodes ligados a eles
+ * Com o programa parado, as telas que costumam ser abertas depois da atual são carregadas antes
+ * Só o FXML é lido antes, sem consultas ao banco, pois os dados de cada tela vêm em aoReexibir ao abri-la
+ * Usada apenas na thread do JavaFX
+ */
+@Slf4j
+final class CacheTelas {
+
+    /**
+     * Tela carregada, com a raiz do FXML e o controller ligado a ela
+     */
+    record Tela(Parent raiz, Object controller) {
+    }
+
+    /**
+     * Carrega uma tela a partir do FXML
+     */
+    @FunctionalInterface
+    interface Carregador {
+        Tela carregar(String rota) throws Exception;
+    }
+
+    /**
+     * Telas abertas depois de entrar no sistema quando ainda não há histórico de navegação
+     */
+    private static final List<String> PRECARGA_PADRAO = List.of(
+            PRODUTOS_VIEW, HISTORICO_ESTOQUE_VIEW, FORNECEDORES_VIEW, RELATORIO_CONSUMO_VIEW);
+
+    /**
+     * Quanto tempo sem navegar até começar a carregar as próximas telas
+     */
+    private static final Duration ESPERA_PRECARGA = Duration.seconds(2);
+
+    /**
+     * Quantas telas são carregadas antes a cada parada
+     */
+    private static final int PRECARGA_MAXIMA = 3;
+
+    private static final Map<String, Tela> TELAS = new HashMap<>();
+
+    /**
+     * Quantas vezes cada tela foi aberta logo depois de outra
+     */
+    private static final Map<String, Map<String, Integer>> TRANSICOES = new HashMap<>();
+
+    /**
+     * Tempo de abertura de cada tela, separado entre lida do FXML e vinda do cache
+     */
+    private static final Map<String, Tempo> TEMPOS = new HashMap<>();
+
+    private static PauseTransition ociosidade;
+    private static String rotaAtual;
+
+    private CacheTelas() {
+    }
+
+    /**
+     * Soma das aberturas de uma tela
+     */
+    private record Tempo(long aberturas, long totalNanos) {
+        Tempo somar(long nanos) {
+            return new Tempo(aberturas + 1, totalNanos + nanos);
+        }
+
+        long mediaMillis() {
+            return totalNanos / aberturas / 1_000_000;
+        }
+    }
+
+    static Tela buscar(String rota) {
+        return TELAS.get(rota);
+    }
+
+    /**
+     * Guarda a tela quando o controller permite reaproveitar os nodes
+     */
+    static void guardarSeReutilizavel(String rota, Tela tela) {
+        if (tela.controller() instanceof TelaReutilizavel || tela.controller() instanceof DataFormController) {
+            TELAS.put(rota, tela);
+        }
+    }
+
+    static void remover(String rota) {
+        TELAS.remove(rota);
+    }
+
+    /**
+     * Descarta todas as telas guardadas e cancela o carregamento antecipado
+     */
+    static void limpar() {
+        TELAS.clear();
+        rotaAtual = null;
+        if (ociosidade != null) {
+            ociosidade.stop();
+        }
+    }
+
+    /**
+     * Função que registra o tempo de abertura de uma tela no log
+     * @param rota rota aberta
+     * @param nanos tempo entre o clique e a tela pronta
+     * @param doCache true quando a tela veio do cache, sem ler o FXML
+     */
+    static void registrarTempo(String rota, long nanos, boolean doCache) {
+        String origem = doCache ? "cache" : "fxml";
+        Tempo tempo = TEMPOS.merge(rota + " " + origem, new Tempo(1, nanos), (atual, novo) -> atual.somar(nanos));
+        log.info("Tela {} aberta em {} ms pelo {} (média {} ms em {} aberturas)",
+                rota, nanos / 1_000_000, origem, tempo.mediaMillis(), tempo.aberturas());
+    }
+
+    /**
+     * Função que registra a navegação até a tela e agenda o carregamento das próximas mais prováveis
+     * @param rota tela que acabou de ser aberta
+     * @param carregador usado para ler o FXML das próximas telas
+     */
+    static void navegouPara(String rota, Carregador carregador) {
+        if (rotaAtual != null && !rotaAtual.equals(rota) && TELAS.containsKey(rota)) {
+            TRANSICOES.computeIfAbsent(rotaAtual, origem -> new HashMap<>()).merge(rota, 1, Integer::sum);
+        }
+        rotaAtual = rota;
+
+        if (ociosidade == null) {
+            ociosidade = new PauseTransition(ESPERA_PRECARGA);
+        }
+        ociosidade.stop();
+        ociosidade.setOnFinished(event -> precarregarProxima(carregador, PRECARGA_MAXIMA));
+        ociosidade.playFromStart();
+    }
+
+    /**
+     * Carrega a próxima tela prevista e, se ainda houver outras, espera mais uma parada antes de seguir
+     * Assim o carregamento fica dividido e não trava a tela atual de uma vez
+     */
+    private static void precarregarProxima(Carregador carregador, int restantes) {
+        List<String> previstas = preverProximas();
+        if (restantes <= 0 || previstas.isEmpty()) {
+            return;
+        }
+        String rota = previstas.getFirst();
+        long inicio = System.nanoTime();
+        try {
+            guardarSeReutilizavel(rota, carregador.carregar(rota));
+            log.debug("Tela {} carregada antes em {} ms", rota, (System.nanoTime() - inicio) / 1_000_000);
+        } catch (Exception e) {
+            // Fica para ser carregada no clique, que mostra o erro ao usuário
+            log.warn("Não foi possível carregar antes a tela {}", rota, e);
+            return;
+        }
+        ociosidade.setOnFinished(event -> precarregarProxima(carregador, restantes - 1));
+        ociosidade.playFromStart();
+    }
+
+    /**
+     * Telas ainda fora do cache, das mais abertas depois da atual para as padrão
+     */
+    private static List<String> preverProximas() {
+        Set<String> previstas = new LinkedHashSet<>();
+        Map<String, Integer> seguintes = TRANSICOES.getOrDefault(rotaAtual, Map.of());
+        List<Map.Entry<String, Integer>> ordenadas = new ArrayList<>(seguintes.entrySet());
+        ordenadas.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        ordenadas.forEach(transicao -> previstas.add(transicao.getKey()));
+        previstas.addAll(PRECARGA_PADRAO);
+
+        previstas.remove(rotaAtual);
+        previstas.removeAll(TELAS.keySet());
+        return List.copyOf(previstas);
+    }
+}
@@ -2,11 +2,13 @@ package dicasa.estoque.navigation;
 
 import dicasa.estoque.EstoqueApplication;
 import dicasa.estoque.controller.DataFormController;
+import dicasa.estoque.controller.TelaReutilizavel;
 import dicasa.estoque.controller.error.TelaErrorController;
 import dicasa.estoque.util.SpringFXManager;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -17,12 +19,15 @@ import javafx.scene.layout.AnchorPane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
+import javafx.util.Callback;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import static dicasa.estoque.navigation.Rotas.*;
 import static dicasa.estoque.util.Alerts.showAlerts;
@@ -31,7 +36,9 @@ import static dicasa.estoque.util.Alerts.showAlerts;
 /**
  * Classe responsável por gerenciar a navegação entre telas e janelas do sistema.
  * Integra JavaFX com Spring Boot, mantendo o contexto de beans do Spring.
+ * As telas que podem ser reaproveitadas ficam guardadas no {@link CacheTelas}.
  */
+@Slf4j
 public class ScreenNavigator {
 
     @Getter
@@ -43,11 +50,22 @@ public class ScreenNavigator {
     private static ConfigurableApplicationContext springContext =
             SpringFXManager.getContext();
 
+    // Completo quando o Spring termina de subir, já que a tela de login abre antes dele
+    private static CompletableFuture<ConfigurableApplicationContext> contextoCarregado = new CompletableFuture<>();
+
     public static void initialScreen(Stage stage, ConfigurableApplicationContext springContext){
+        initialScreen(stage, springContext::getBean);
+    }
+
+    /**
+     * Abre a tela de login com os controllers criados pela fábrica informada,
+     * o que permite mostrar a tela antes do contexto do Spring existir
+     */
+    public static void initialScreen(Stage stage, Callback<Class<?>, Object> controllerFactory){
         try {
             primaryStage = stage;
             FXMLLoader fxmlLoader = loadFXML(LOGIN_VIEW);
-            fxmlLoader.setControllerFactory(springContext::getBean);
+            fxmlLoader.setControllerFactory(controllerFactory);
             AnchorPane anchorPane = fxmlLoader.load();
 
             scene = new Scene(anchorPane, 800, 650);
@@ -63,9 +81,50 @@ public class ScreenNavigator {
     // Método para configurar o contexto após inicialização
     public static void setSpringContext(ConfigurableApplicationContext context) {
         springContext = context;
+        contextoCarregado.complete(context);
+    }
+
+    /**
+     * Volta a esperar o contexto, usado ao tentar iniciar o Spring de novo depois de uma falha
+     */
+    public static void aguardarSpringContext() {
+        contextoCarregado = new CompletableFuture<>();
+    }
+
+    public static boolean isSpringContextPronto() {
+        return contextoCarregado.isDone();
+    }
+
+    /**
+     * Executa a ação na thread do JavaFX assim que o contexto do Spring estiver pronto
+     * Se ele já estiver, a ação roda na hora
+     */
+    public static void quandoSpringContextPronto(Runnable acao) {
+        if (isSpringContextPronto() && Platform.isFxApplicationThread()) {
+            acao.run();
+            return;
+        }
+        contextoCarregado.thenRun(() -> Platform.runLater(acao));
+    }
+
+    /**
+     * Descarta as telas guardadas, que voltam a ser lidas do FXML na próxima vez
+     * Usado ao entrar e sair do sistema, já que as telas mostram dados do usuário logado
+     */
+    public static void limparCacheTelas() {
+        CacheTelas.limpar();
+    }
+
+    /**
+     * Descarta uma tela guardada, para quando ela não puder mais ser reaproveitada
+     */
+    public static void limparCacheTela(String nomeRota) {
+        CacheTelas.remover(nomeRota);
     }
 
     public static void loadMainView(String nomeRota) {
+        limparCacheTelas();
+        long inicio = System.nanoTime();
         try {
             FXMLLoader fxmlLoader = loadFXML(nomeRota);
             fxmlLoader.setControllerFactory(springContext::getBean);
@@ -85,6 +144,7 @@ public class ScreenNavigator {
                 primaryStage.setResizable(true);
                 primaryStage.setMaximized(true);
             }
+            CacheTelas.registrarTempo(nomeRota, System.nanoTime() - inicio, false);
 
         } catch (IOException e) {
             messageError("Erro ao carregar a tela principal", e);
@@ -92,6 +152,9 @@ public class ScreenNavigator {
     }
 
     public static void loadLoginView(String nomeRota, ActionEvent event) {
+        if (LOGIN_VIEW.equals(nomeRota)) {
+            limparCacheTelas();
+        }
         try {
             FXMLLoader fxmlLoader = loadFXML(nomeRota);
             fxmlLoader.setControllerFactory(springContext::getBean);
@@ -120,41 +183,35 @@ public class ScreenNavigator {
 
     /**
      * Carrega uma nova tela dentro do layout principal.
-     * Se não houver permissão ou erro, ignora silenciosamente e loga no console.
+     * Se a tela já estiver guardada, reaproveita os nodes em vez de ler o FXML de novo.
      */
     public static void loadView(AnchorPane anchorPane, String nomeRota) {
+        if (nomeRota == null || nomeRota.isEmpty()) {
+            log.warn("Rota vazia ao carregar tela");
+            return;
+        }
+        long inicio = System.nanoTime();
         try {
-            System.out.println("🚀 ========== INICIANDO CARREGAMENTO DE TELA ==========");
-            System.out.println("📁 Rota solicitada: " + nomeRota);
-            System.out.println("🔧 AnchorPane: " + (anchorPane != null ? "OK" : "NULL"));
-
-            // Verifica se a rota existe
-            if (nomeRota == null || nomeRota.isEmpty()) {
-                System.err.println("❌ ERRO: Rota está vazia ou nula");
-                return;
+            CacheTelas.Tela tela = CacheTelas.buscar(nomeRota);
+            boolean doCache = tela != null;
+            if (!doCache) {
+                tela = carregarTela(nomeRota);
+                CacheTelas.guardarSeReutilizavel(nomeRota, tela);
+            }
+            // O initialize não busca dados, pois a tela pode ter sido lida antes; eles vêm aqui a cada exibição
+            if (tela.controller() instanceof TelaReutilizavel reutilizavel) {
+                reutilizavel.aoReexibir();
             }
 
-            System.out.println("🔄 Criando FXMLLoader...");
-            FXMLLoader fxmlLoader = loadFXML(nomeRota);
-
-            System.out.println("🔧 Configurando Controller Factory...");
-            fxmlLoader.setControllerFactory(springContext::getBean);
-
-            System.out.println("📦 Carregando FXML...");
-            Parent newScreen = fxmlLoader.load();
-
-            System.out.println("✅ FXML carregado com sucesso!");
-            System.out.println("🎯 Controller: " + fxmlLoader.getController().getClass().getSimpleName());
-
-            System.out.println("🖼️ Configurando layout na AnchorPane...");
+            Parent newScreen = tela.raiz();
             anchorPane.getChildren().setAll(newScreen);
             AnchorPane.setTopAnchor(newScreen, 0.0);
             AnchorPane.setBottomAnchor(newScreen, 0.0);
             AnchorPane.setLeftAnchor(newScreen, 0.0);
             AnchorPane.setRightAnchor(newScreen, 0.0);
 
-            System.out.println("🎉 Tela carregada com SUCESSO: " + nomeRota);
-            System.out.println("======================================================");
+            CacheTelas.registrarTempo(nomeRota, System.nanoTime() - inicio, doCache);
+            CacheTelas.navegouPara(nomeRota, ScreenNavigator::carregarTela);
 
         } catch (Exception e) {
             messageError("Erro ao carregar a tela", e);
@@ -162,12 +219,17 @@ public class ScreenNavigator {
     }
 
     public static void loadWindow(Stage stage, String nomeRota, String tituloWindow, Object object) {
+        long inicio = System.nanoTime();
         try {
-            FXMLLoader fxmlLoader = loadFXML(nomeRota);
-            fxmlLoader.setControllerFactory(springContext::getBean);
-            Parent pane = fxmlLoader.load();
+            CacheTelas.Tela tela = CacheTelas.buscar(nomeRota);
+            boolean doCache = tela != null;
+            if (!doCache) {
+                tela = carregarTela(nomeRota);
+                CacheTelas.guardarSeReutilizavel(nomeRota, tela);
+            }
+            Parent pane = tela.raiz();
 
-            Object controller = fxmlLoader.getController();
+            Object controller = tela.controller();
             if (controller instanceof DataFormController dataFormController) {
                 dataFormController.resetForm();
                 dataFormController.setFormData(object);
@@ -180,8 +242,12 @@ public class ScreenNavigator {
             dialogStage.initOwner(stage);
             dialogStage.initModality(Modality.APPLICATION_MODAL);
             dialogStage.centerOnScreen();
+            CacheTelas.registrarTempo(nomeRota, System.nanoTime() - inicio, doCache);
             dialogStage.showAndWait();
 
+            // Solta a tela da janela fechada para ela poder ser usada numa nova
+            dialogStage.getScene().setRoot(new Group());
+
         } catch (Exception e) {
             messageError("Erro ao carregar a janela modal", e);
         }
@@ -217,11 +283,19 @@ public class ScreenNavigator {
     }
 
     private static FXMLLoader loadFXML(String nomeRota) {
-        System.out.println("📂 Carregando FXML da rota: " + nomeRota);
-        System.out.println("🔍 Resource URL: " + ScreenNavigator.class.getResource(nomeRota));
         return new FXMLLoader(ScreenNavigator.class.getResource(nomeRota));
     }
 
+    /**
+     * Lê o FXML da rota com os controllers do Spring
+     */
+    private static CacheTelas.Tela carregarTela(String nomeRota) throws IOException {
+        FXMLLoader fxmlLoader = loadFXML(nomeRota);
+        fxmlLoader.setControllerFactory(springContext::getBean);
+        Parent raiz = fxmlLoader.load();
+        return new CacheTelas.Tela(raiz, fxmlLoader.getController());
+    }
+
     private static void messageError(String message, Exception e) {
         showAlerts(
                 "Erro de Navegação",
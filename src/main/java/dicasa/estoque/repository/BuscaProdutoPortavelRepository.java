@@ -0,0 +1,63 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.models.view.NomeProdutoView;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static dicasa.estoque.util.TextoBuscaUtil.SIMILARIDADE_MINIMA;
+import static dicasa.estoque.util.TextoBuscaUtil.normalizar;
+import static dicasa.estoque.util.TextoBuscaUtil.similaridade;
+import static dicasa.estoque.util.TextoBuscaUtil.trigramas;
+
+/**
+ * Busca de produtos que funciona em qualquer banco, como o H2 dos testes locais
+ * Lê só id e nome dos produtos e faz a comparação em memória, com as mesmas regras do pg_trgm
+ * Ativada com app.busca.trigram=false
+ */
+@Repository
+@ConditionalOnProperty(name = "app.busca.trigram", havingValue = "false")
+public class BuscaProdutoPortavelRepository implements BuscaProdutoRepository {
+
+    private final ProdutoRepository produtoRepository;
+
+    public BuscaProdutoPortavelRepository(ProdutoRepository produtoRepository) {
+        this.produtoRepository = produtoRepository;
+    }
+
+    @Override
+    public List<Long> buscarIdsPorRelevancia(String termo, int limite) {
+        String termoNormalizado = normalizar(termo);
+        Set<String> trigramasTermo = trigramas(termoNormalizado);
+
+        return produtoRepository.listarNomes().stream()
+                .map(produto -> {
+                    String nome = normalizar(produto.getNome());
+                    return new Resultado(
+                            produto,
+                            nome,
+                            nome.startsWith(termoNormalizado),
+                            nome.contains(termoNormalizado),
+                            similaridade(trigramas(nome), trigramasTermo));
+                })
+                .filter(resultado -> resultado.contem() || resultado.similaridade() >= SIMILARIDADE_MINIMA)
+                .sorted(Comparator.comparing(Resultado::comecaCom).reversed()
+                        .thenComparing(Comparator.comparingDouble(Resultado::similaridade).reversed())
+                        .thenComparing(Resultado::nome)
+                        .thenComparing(resultado -> resultado.produto().getIdProduto()))
+                .limit(limite)
+                .map(resultado -> resultado.produto().getIdProduto())
+                .toList();
+    }
+
+    private record Resultado(
+            NomeProdutoView produto,
+            String nome,
+            boolean comecaCom,
+            boolean contem,
+            double similaridade) {
+    }
+}
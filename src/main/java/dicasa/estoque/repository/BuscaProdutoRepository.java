@@ -0,0 +1,18 @@
+package dicasa.estoque.repository;
+
+import java.util.List;
+
+/**
+ * Interface da busca de produtos por trecho do nome
+ * Ignora maiúsculas e acentos, tolera pequenos erros de digitação e devolve os mais relevantes primeiro
+ * No PostgreSQL usa os índices do pg_trgm, nos demais bancos (como o H2) usa a implementação portável
+ */
+public interface BuscaProdutoRepository {
+    /**
+     * Busca os produtos cujo nome contém ou se parece com o termo
+     * @param termo texto digitado pelo usuário
+     * @param limite quantidade máxima de resultados
+     * @return ids dos produtos, do mais relevante para o menos relevante
+     */
+    List<Long> buscarIdsPorRelevancia(String termo, int limite);
+}
@@ -0,0 +1,45 @@
+package dicasa.estoque.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Busca de produtos no PostgreSQL com pg_trgm e unaccent
+ * As funções sem_acento, parecido e similaridade e o índice GIN são criados na migration V4,
+ * então tanto o "contém" quanto o "parecido" usam o índice em vez de varrer a tabela
+ */
+@Repository
+@ConditionalOnProperty(name = "app.busca.trigram", havingValue = "true", matchIfMissing = true)
+public class BuscaProdutoTrigramRepository implements BuscaProdutoRepository {
+
+    private static final String BUSCAR_IDS =
+            "SELECT p.id_produto FROM dicasa_estoque.produto p " +
+            "WHERE dicasa_estoque.sem_acento(p.nome) LIKE '%' || dicasa_estoque.sem_acento(?) || '%' " +
+            "OR dicasa_estoque.parecido(dicasa_estoque.sem_acento(p.nome), dicasa_estoque.sem_acento(?)) " +
+            "ORDER BY (dicasa_estoque.sem_acento(p.nome) LIKE dicasa_estoque.sem_acento(?) || '%') DESC, " +
+            "dicasa_estoque.similaridade(dicasa_estoque.sem_acento(p.nome), dicasa_estoque.sem_acento(?)) DESC, " +
+            "p.nome, p.id_produto " +
+            "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BuscaProdutoTrigramRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> buscarIdsPorRelevancia(String termo, int limite) {
+        String termoLike = escaparLike(termo);
+        return jdbcTemplate.queryForList(BUSCAR_IDS, Long.class, termoLike, termo, termoLike, termo, limite);
+    }
+
+    /**
+     * Escapa os curingas do LIKE, para que "%" e "_" digitados sejam procurados como texto
+     */
+    private static String escaparLike(String termo) {
+        return termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
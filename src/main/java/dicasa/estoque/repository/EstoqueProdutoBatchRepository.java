@@ -0,0 +1,27 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.models.view.SaldoEstoqueView;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fragmento do EstoqueProdutoRepository que altera vários produtos de uma vez
+ */
+public interface EstoqueProdutoBatchRepository {
+    /**
+     * Retira todas as quantidades em um único UPDATE no banco
+     * Só os produtos com saldo suficiente são alterados
+     * @param quantidadesPorProduto quantidade a retirar de cada produto
+     * @return o saldo novo de cada produto que foi alterado
+     */
+    List<SaldoEstoqueView> retirarEmLoteSeDisponivel(Map<Long, Integer> quantidadesPorProduto);
+
+    /**
+     * Soma todas as quantidades ao estoque em um único UPDATE no banco
+     * A soma é feita pelo próprio banco, então entradas e saídas simultâneas não perdem atualização
+     * @param quantidadesPorProduto quantidade a adicionar em cada produto
+     * @return o saldo novo de cada produto que tem estoque cadastrado
+     */
+    List<SaldoEstoqueView> adicionarEmLote(Map<Long, Integer> quantidadesPorProduto);
+}
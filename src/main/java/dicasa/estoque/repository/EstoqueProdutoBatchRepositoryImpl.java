@@ -0,0 +1,116 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.models.view.SaldoEstoqueView;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementação da retirada e da entrada em lote com JdbcTemplate
+ * Os pares produto/quantidade vão como dois arrays e o banco junta com unnest,
+ * então 40 itens custam uma única ida ao banco e um único UPDATE condicional
+ * Participa da mesma transação do JPA aberta pelo service
+ */
+public class EstoqueProdutoBatchRepositoryImpl implements EstoqueProdutoBatchRepository {
+
+    /**
+     * Trava as linhas do lote em ordem de produto antes do UPDATE
+     * Sem isso o UPDATE ... FROM trava na ordem do plano, e dois terminais com produtos em comum
+     * podem travar cada um uma linha que o outro espera (deadlock)
+     * O MATERIALIZED impede o banco de juntar o CTE ao UPDATE e perder a ordem
+     */
+    private static final String TRAVAR_EM_ORDEM =
+            "WITH r AS (SELECT UNNEST(?::bigint[]) AS id_produto, UNNEST(?::int[]) AS quantidade), " +
+            "travados AS MATERIALIZED (" +
+            "SELECT e.id_estoque_produto FROM dicasa_estoque.estoque_produto e " +
+            "JOIN r ON r.id_produto = e.id_produto " +
+            "ORDER BY e.id_produto " +
+            "FOR UPDATE OF e) ";
+
+    private static final String RETIRAR_EM_LOTE =
+            TRAVAR_EM_ORDEM +
+            "UPDATE dicasa_estoque.estoque_produto e " +
+            "SET quantidade = e.quantidade - r.quantidade, " +
+            "data_atualizacao = CURRENT_TIMESTAMP, " +
+            "versao = e.versao + 1 " +
+            "FROM r, travados t " +
+            "WHERE e.id_estoque_produto = t.id_estoque_produto AND e.id_produto = r.id_produto " +
+            "AND e.quantidade >= r.quantidade " +
+            "RETURNING e.id_produto, e.id_estoque_produto, e.quantidade";
+
+    private static final String ADICIONAR_EM_LOTE =
+            TRAVAR_EM_ORDEM +
+            "UPDATE dicasa_estoque.estoque_produto e " +
+            "SET quantidade = e.quantidade + r.quantidade, " +
+            "data_atualizacao = CURRENT_TIMESTAMP, " +
+            "versao = e.versao + 1 " +
+            "FROM r, travados t " +
+            "WHERE e.id_estoque_produto = t.id_estoque_produto AND e.id_produto = r.id_produto " +
+            "RETURNING e.id_produto, e.id_estoque_produto, e.quantidade";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EstoqueProdutoBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<SaldoEstoqueView> retirarEmLoteSeDisponivel(Map<Long, Integer> quantidadesPorProduto) {
+        return atualizarEmLote(RETIRAR_EM_LOTE, quantidadesPorProduto);
+    }
+
+    @Override
+    public List<SaldoEstoqueView> adicionarEmLote(Map<Long, Integer> quantidadesPorProduto) {
+        return atualizarEmLote(ADICIONAR_EM_LOTE, quantidadesPorProduto);
+    }
+
+    private List<SaldoEstoqueView> atualizarEmLote(String sql, Map<Long, Integer> quantidadesPorProduto) {
+        if (quantidadesPorProduto == null || quantidadesPorProduto.isEmpty()) {
+            return List.of();
+        }
+        Long[] idsProduto = new Long[quantidadesPorProduto.size()];
+        Integer[] quantidades = new Integer[quantidadesPorProduto.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> item : quantidadesPorProduto.entrySet()) {
+            idsProduto[i] = item.getKey();
+            quantidades[i] = item.getValue();
+            i++;
+        }
+
+        return jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(sql);
+                    ps.setArray(1, connection.createArrayOf("bigint", idsProduto));
+                    ps.setArray(2, connection.createArrayOf("integer", quantidades));
+                    return ps;
+                },
+                (rs, rowNum) -> new Saldo(
+                        rs.getLong("id_produto"),
+                        rs.getLong("id_estoque_produto"),
+                        rs.getInt("quantidade")
+                )
+        );
+    }
+
+    /**
+     * Saldo devolvido pelo RETURNING do lote
+     */
+    private record Saldo(Long idProduto, Long idEstoqueProduto, Integer quantidade) implements SaldoEstoqueView {
+        @Override
+        public Long getIdProduto() {
+            return idProduto;
+        }
+
+        @Override
+        public Long getIdEstoqueProduto() {
+            return idEstoqueProduto;
+        }
+
+        @Override
+        public Integer getQuantidade() {
+            return quantidade;
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package dicasa.estoque.repository;
 
 import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.models.view.SaldoEstoqueView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 /**
  * Inteface que conecta uma tabela do Supabase com o programa
@@ -10,5 +16,29 @@ import org.springframework.stereotype.Repository;
  */
 
 @Repository
-public interface EstoqueProdutoRepository extends JpaRepository<EstoqueProduto, Long> {
+public interface EstoqueProdutoRepository
+        extends JpaRepository<EstoqueProduto, Long>, EstoqueProdutoBatchRepository {
+
+    /**
+     * Retira a quantidade do estoque em um único UPDATE condicional
+     * O banco só aplica a retirada se houver saldo suficiente, então dois terminais
+     * retirando ao mesmo tempo nunca perdem atualização nem deixam o estoque negativo
+     * A versão também é incrementada para que edições abertas antes da retirada falhem no controle otimista
+     * @param idProduto produto do estoque
+     * @param quantidade quantidade a ser retirada
+     * @return o saldo novo, ou vazio se não existe estoque ou o saldo é insuficiente
+     */
+    @Transactional
+    @Query(value = "UPDATE dicasa_estoque.estoque_produto " +
+            "SET quantidade = quantidade - :quantidade, " +
+            "data_atualizacao = CURRENT_TIMESTAMP, " +
+            "versao = versao + 1 " +
+            "WHERE id_produto = :idProduto AND quantidade >= :quantidade " +
+            "RETURNING id_produto AS idProduto, id_estoque_produto AS idEstoqueProduto, quantidade AS quantidade",
+            nativeQuery = true)
+    Optional<SaldoEstoqueView> retirarSeDisponivel(
+            @Param("idProduto") Long idProduto,
+            @Param("quantidade") int quantidade);
+
+    boolean existsByProduto_IdProduto(Long idProduto);
 }
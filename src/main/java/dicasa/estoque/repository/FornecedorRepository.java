@@ -1,40 +1,61 @@
 package dicasa.estoque.repository;
 
 import dicasa.estoque.models.entities.Fornecedor;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 @Repository
 public interface FornecedorRepository extends JpaRepository<Fornecedor, Long> {
 
-    // Métodos de busca específica
-    List<Fornecedor> findByRazaoSocialContainingIgnoreCase(String razaoSocial);
+    /**
+     * Região do cache de consultas usada pelas listagens de fornecedores
+     */
+    String REGIAO_CACHE_CONSULTAS = "consultas.fornecedor";
+
+    // Buscas específicas: devolvem só os ids, os dados vêm depois num único SELECT com listarParaRelatorioPorIds
+    @Query("SELECT f.idFornecedor FROM Fornecedor f " +
+            "WHERE LOWER(f.razaoSocial) LIKE LOWER(CONCAT('%', :termo, '%'))")
+    List<Long> buscarIdsPorRazaoSocial(@Param("termo") String termo);
 
-    List<Fornecedor> findByNomeFantasiaContainingIgnoreCase(String nomeFantasia);
+    @Query("SELECT f.idFornecedor FROM Fornecedor f " +
+            "WHERE LOWER(f.nomeFantasia) LIKE LOWER(CONCAT('%', :termo, '%'))")
+    List<Long> buscarIdsPorNomeFantasia(@Param("termo") String termo);
 
-    List<Fornecedor> findByCnpjContaining(String cnpj);
+    @Query("SELECT f.idFornecedor FROM Fornecedor f WHERE f.cnpj LIKE CONCAT('%', :termo, '%')")
+    List<Long> buscarIdsPorCnpj(@Param("termo") String termo);
 
-    List<Fornecedor> findByEnderecoFornecedorCidadeContainingIgnoreCase(String cidade);
+    @Query("SELECT e.fornecedor.idFornecedor FROM EnderecoFornecedor e " +
+            "WHERE LOWER(e.cidade) LIKE LOWER(CONCAT('%', :termo, '%'))")
+    List<Long> buscarIdsPorCidade(@Param("termo") String termo);
 
-    List<Fornecedor> findByEnderecoFornecedorUfContainingIgnoreCase(String uf);
+    @Query("SELECT e.fornecedor.idFornecedor FROM EnderecoFornecedor e " +
+            "WHERE LOWER(e.uf) LIKE LOWER(CONCAT('%', :termo, '%'))")
+    List<Long> buscarIdsPorUf(@Param("termo") String termo);
 
     // Busca por telefone (relacionamento indireto)
-    @Query("SELECT f FROM Fornecedor f JOIN f.telefones t WHERE t.telefone LIKE %:telefone%")
-    List<Fornecedor> findByTelefonesTelefoneContaining(@Param("telefone") String telefone);
+    @Query("SELECT DISTINCT t.fornecedor.idFornecedor FROM TelefoneFornecedor t WHERE t.telefone LIKE CONCAT('%', :telefone, '%')")
+    List<Long> buscarIdsPorTelefone(@Param("telefone") String telefone);
 
-    // Método original com @Query
-    @Query("SELECT f FROM Fornecedor f WHERE " +
+    // Busca por CNPJ, nome fantasia ou razão social
+    @Query("SELECT f.idFornecedor FROM Fornecedor f WHERE " +
             "LOWER(f.cnpj) LIKE LOWER(CONCAT('%', :filtro, '%')) OR " +
             "LOWER(f.nomeFantasia) LIKE LOWER(CONCAT('%', :filtro, '%')) OR " +
             "LOWER(f.razaoSocial) LIKE LOWER(CONCAT('%', :filtro, '%'))")
-    List<Fornecedor> findByFiltro(@Param("filtro") String filtro);
+    List<Long> buscarIdsPorFiltro(@Param("filtro") String filtro);
 
     // Busca geral em múltiplos campos (incluindo endereço e telefones)
-    @Query("SELECT DISTINCT f FROM Fornecedor f " +
+    @Query("SELECT DISTINCT f.idFornecedor FROM Fornecedor f " +
             "LEFT JOIN f.enderecoFornecedor e " +
             "LEFT JOIN f.telefones t " +
             "WHERE LOWER(f.cnpj) LIKE LOWER(:termo) OR " +
@@ -43,5 +64,31 @@ public interface FornecedorRepository extends JpaRepository<Fornecedor, Long> {
             "LOWER(e.cidade) LIKE LOWER(:termo) OR " +
             "LOWER(e.uf) LIKE LOWER(:termo) OR " +
             "LOWER(t.telefone) LIKE LOWER(:termo)")
-    List<Fornecedor> findByFiltroGeral(@Param("termo") String termo);
-}
\ No newline at end of file
+    List<Long> buscarIdsPorFiltroGeral(@Param("termo") String termo);
+
+    /**
+     * Fornecedores com telefones e endereço num único SELECT, para o relatório
+     * @return os fornecedores, ordenados pelo nome fantasia
+     */
+    @EntityGraph(Fornecedor.GRAFO_RELATORIO)
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = REGIAO_CACHE_CONSULTAS)
+    })
+    @Query("SELECT f FROM Fornecedor f ORDER BY f.nomeFantasia")
+    List<Fornecedor> listarParaRelatorio();
+
+    /**
+     * Fornecedores encontrados pelas buscas, com telefones e endereço num único SELECT
+     * Buscar os dados pelos ids evita que o filtro por telefone corte a lista de telefones do fornecedor
+     * @param ids fornecedores a carregar
+     * @return os fornecedores, ordenados pelo nome fantasia
+     */
+    @EntityGraph(Fornecedor.GRAFO_RELATORIO)
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = REGIAO_CACHE_CONSULTAS)
+    })
+    @Query("SELECT f FROM Fornecedor f WHERE f.idFornecedor IN :ids ORDER BY f.nomeFantasia")
+    List<Fornecedor> listarParaRelatorioPorIds(@Param("ids") Collection<Long> ids);
+}
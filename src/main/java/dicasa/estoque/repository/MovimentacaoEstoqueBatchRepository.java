@@ -0,0 +1,16 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.models.entities.MovimentacaoEstoque;
+
+import java.util.List;
+
+/**
+ * Fragmento do MovimentacaoEstoqueRepository que grava as movimentações em lote
+ */
+public interface MovimentacaoEstoqueBatchRepository {
+    /**
+     * Insere todas as movimentações em um único lote JDBC
+     * @param movimentacoes linhas a serem gravadas
+     */
+    void inserirEmLote(List<MovimentacaoEstoque> movimentacoes);
+}
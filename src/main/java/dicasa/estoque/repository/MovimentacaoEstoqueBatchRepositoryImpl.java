@@ -0,0 +1,44 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.models.entities.MovimentacaoEstoque;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Implementação do lote de movimentações com JdbcTemplate
+ * A tabela usa IDENTITY, o que desliga o batch do Hibernate, por isso o insert é feito direto no JDBC
+ * Participa da mesma transação do JPA aberta pelo service
+ */
+public class MovimentacaoEstoqueBatchRepositoryImpl implements MovimentacaoEstoqueBatchRepository {
+
+    private static final String INSERT_MOVIMENTACAO =
+            "INSERT INTO dicasa_estoque.movimentacao_estoque " +
+            "(id_produto, id_estoque_produto, tipo, quantidade, saldo_resultante, id_usuario, observacao, data_movimentacao) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MovimentacaoEstoqueBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void inserirEmLote(List<MovimentacaoEstoque> movimentacoes) {
+        if (movimentacoes == null || movimentacoes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVIMENTACAO, movimentacoes, movimentacoes.size(), (ps, movimentacao) -> {
+            ps.setLong(1, movimentacao.getIdProduto());
+            ps.setObject(2, movimentacao.getIdEstoqueProduto(), Types.BIGINT);
+            ps.setString(3, movimentacao.getTipo().name());
+            ps.setInt(4, movimentacao.getQuantidade());
+            ps.setInt(5, movimentacao.getSaldoResultante());
+            ps.setObject(6, movimentacao.getIdUsuario(), Types.BIGINT);
+            ps.setString(7, movimentacao.getObservacao());
+            ps.setTimestamp(8, Timestamp.valueOf(movimentacao.getDataMovimentacao()));
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.models.dto.ConsumoDiarioDTO;
+import dicasa.estoque.models.dto.MovimentacaoEstoqueResponseDTO;
+import dicasa.estoque.models.dto.ResumoMovimentacaoDTO;
+import dicasa.estoque.models.entities.MovimentacaoEstoque;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inteface que conecta uma tabela do Supabase com o programa
+ * Busca a tabela movimentacao_estoque
+ * As consultas são paginadas por chave (id_movimentacao decrescente), sem OFFSET
+ */
+@Repository
+public interface MovimentacaoEstoqueRepository
+        extends JpaRepository<MovimentacaoEstoque, Long>, MovimentacaoEstoqueBatchRepository {
+
+    /**
+     * Busca a próxima página do histórico
+     * @param idProduto filtra por produto, nulo para todos
+     * @param cursor id da última movimentação da página anterior, nulo para a primeira página
+     * @param limit tamanho da página
+     * @return movimentações da mais recente para a mais antiga
+     */
+    @Query("SELECT new dicasa.estoque.models.dto.MovimentacaoEstoqueResponseDTO(" +
+            "m.idMovimentacao, m.idProduto, COALESCE(p.nome, 'Produto removido'), m.tipo, " +
+            "m.quantidade, m.saldoResultante, m.dataMovimentacao, m.observacao) " +
+            "FROM MovimentacaoEstoque m LEFT JOIN Produto p ON p.idProduto = m.idProduto " +
+            "WHERE (:idProduto IS NULL OR m.idProduto = :idProduto) " +
+            "AND (:cursor IS NULL OR m.idMovimentacao < :cursor) " +
+            "ORDER BY m.idMovimentacao DESC")
+    List<MovimentacaoEstoqueResponseDTO> buscarPagina(
+            @Param("idProduto") Long idProduto,
+            @Param("cursor") Long cursor,
+            Limit limit);
+
+    /**
+     * Soma as movimentações de cada produto dentro de um período, usado no fechamento do mês
+     * @param inicio início do período (inclusivo)
+     * @param fim fim do período (exclusivo)
+     * @return um resumo por produto movimentado
+     */
+    @Query("SELECT new dicasa.estoque.models.dto.ResumoMovimentacaoDTO(" +
+            "m.idProduto, COALESCE(p.nome, 'Produto removido'), " +
+            "SUM(CASE WHEN m.tipo = dicasa.estoque.models.entities.TipoMovimentacao.ENTRADA THEN m.quantidade ELSE 0 END), " +
+            "SUM(CASE WHEN m.tipo = dicasa.estoque.models.entities.TipoMovimentacao.SAIDA THEN m.quantidade ELSE 0 END), " +
+            "SUM(CASE WHEN m.tipo = dicasa.estoque.models.entities.TipoMovimentacao.AJUSTE THEN m.quantidade ELSE 0 END)) " +
+            "FROM MovimentacaoEstoque m LEFT JOIN Produto p ON p.idProduto = m.idProduto " +
+            "WHERE m.dataMovimentacao >= :inicio AND m.dataMovimentacao < :fim " +
+            "GROUP BY m.idProduto, p.nome " +
+            "ORDER BY p.nome")
+    List<ResumoMovimentacaoDTO> resumirPeriodo(
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fim") LocalDateTime fim);
+
+    /**
+     * Soma as saídas de cada produto por dia, usado na previsão de compras
+     * A soma é feita no banco, então volta no máximo uma linha por produto e dia
+     * @param inicio início do período (inclusivo)
+     * @param fim fim do período (exclusivo)
+     * @return consumo diário de cada produto que teve saída no período
+     */
+    @Query("SELECT new dicasa.estoque.models.dto.ConsumoDiarioDTO(" +
+            "m.idProduto, EXTRACT(DATE FROM m.dataMovimentacao), SUM(-m.quantidade)) " +
+            "FROM MovimentacaoEstoque m " +
+            "WHERE m.tipo = dicasa.estoque.models.entities.TipoMovimentacao.SAIDA " +
+            "AND m.dataMovimentacao >= :inicio AND m.dataMovimentacao < :fim " +
+            "GROUP BY m.idProduto, EXTRACT(DATE FROM m.dataMovimentacao)")
+    List<ConsumoDiarioDTO> consumoDiario(
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fim") LocalDateTime fim);
+}
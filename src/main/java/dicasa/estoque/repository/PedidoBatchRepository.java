@@ -0,0 +1,18 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.models.dto.PedidoRequestDTO;
+
+import java.util.List;
+
+/**
+ * Fragmento do PedidoRepository que grava pedidos com suas linhas de uma vez
+ */
+public interface PedidoBatchRepository {
+    /**
+     * Grava os pedidos e todas as linhas deles em lote
+     * @param pedidos pedidos já validados, com data e desconto preenchidos
+     * @param idUsuario usuário que criou os pedidos, pode ser nulo
+     * @return o id gerado de cada pedido, na mesma ordem da lista
+     */
+    List<Integer> inserirPedidosComItens(List<PedidoRequestDTO> pedidos, Long idUsuario);
+}
@@ -0,0 +1,83 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.models.dto.ItemPedidoRequestDTO;
+import dicasa.estoque.models.dto.PedidoRequestDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementação da gravação de pedidos com JdbcTemplate
+ * As tabelas usam IDENTITY, o que desliga o batch do Hibernate e faria um INSERT por linha da nota,
+ * por isso o cabeçalho volta o id com RETURNING e as linhas vão todas juntas num batch JDBC
+ * Participa da mesma transação do JPA aberta pelo service
+ */
+public class PedidoBatchRepositoryImpl implements PedidoBatchRepository {
+
+    /**
+     * Linhas enviadas por batch; com reWriteBatchedInserts o driver junta cada batch em poucos INSERTs
+     */
+    private static final int TAMANHO_LOTE = 1000;
+
+    private static final String INSERT_PEDIDO =
+            "INSERT INTO dicasa_estoque.pedido (desconto, observacao, data_compra, id_usuario_criador) " +
+            "VALUES (?, ?, ?, ?) RETURNING id_pedido";
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO dicasa_estoque.pedido_produto " +
+            "(quantidade, preco_total, desconto, data_pedido, id_fornecedor, id_produto, id_pedido) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PedidoBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Integer> inserirPedidosComItens(List<PedidoRequestDTO> pedidos, Long idUsuario) {
+        if (pedidos == null || pedidos.isEmpty()) {
+            return List.of();
+        }
+
+        // Uma semana de notas são poucas dezenas de cabeçalhos; o volume está nas linhas
+        List<Integer> idsPedido = new ArrayList<>(pedidos.size());
+        List<ItemComPedido> itens = new ArrayList<>();
+        for (PedidoRequestDTO pedido : pedidos) {
+            Integer idPedido = jdbcTemplate.queryForObject(
+                    INSERT_PEDIDO,
+                    Integer.class,
+                    pedido.desconto(),
+                    pedido.observacao(),
+                    Timestamp.valueOf(pedido.dataCompra()),
+                    idUsuario
+            );
+            idsPedido.add(idPedido);
+            for (ItemPedidoRequestDTO item : pedido.itens()) {
+                itens.add(new ItemComPedido(idPedido, pedido.dataCompra(), item));
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ITEM, itens, TAMANHO_LOTE, (ps, linha) -> {
+            ItemPedidoRequestDTO item = linha.item();
+            ps.setInt(1, item.quantidade());
+            ps.setBigDecimal(2, item.precoTotal());
+            ps.setBigDecimal(3, item.desconto());
+            ps.setTimestamp(4, Timestamp.valueOf(linha.dataPedido()));
+            ps.setObject(5, item.idFornecedor(), Types.BIGINT);
+            ps.setLong(6, item.idProduto());
+            ps.setInt(7, linha.idPedido());
+        });
+        return idsPedido;
+    }
+
+    /**
+     * Linha do pedido junto com o id do cabeçalho já gravado
+     */
+    private record ItemComPedido(Integer idPedido, LocalDateTime dataPedido, ItemPedidoRequestDTO item) {
+    }
+}
@@ -1,13 +1,60 @@
 package dicasa.estoque.repository;
 
 import dicasa.estoque.models.entities.Pedido;
+import dicasa.estoque.models.view.TextoPedidoView;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Inteface que conecta uma tabela do Supabase com o programa
  * Busca a tabela pedido
  */
 @Repository
-public interface PedidoRepository extends JpaRepository<Pedido, Long> {
+public interface PedidoRepository extends JpaRepository<Pedido, Long>, PedidoBatchRepository {
+
+    /**
+     * Textos do pedido e de cada item, projetados sem carregar as entidades
+     */
+    String CONSULTA_TEXTOS = "SELECT p.idPedido AS idPedido, p.observacao AS observacao, p.dataCompra AS dataCompra, " +
+            "pr.nome AS nomeProduto, f.nomeFantasia AS nomeFantasia, f.razaoSocial AS razaoSocial " +
+            "FROM Pedido p LEFT JOIN p.pedidoProdutos i LEFT JOIN i.produto pr LEFT JOIN i.fornecedor f ";
+
+    /**
+     * Pedidos do mais recente para o mais antigo, com o usuário que criou, num único SELECT
+     * @return os pedidos, sem as linhas
+     */
+    @EntityGraph(Pedido.GRAFO_LISTA)
+    @Query("SELECT p FROM Pedido p ORDER BY p.dataCompra DESC, p.idPedido DESC")
+    List<Pedido> listarPedidos();
+
+    /**
+     * Pedido com as linhas, o produto e o fornecedor de cada uma, num único SELECT
+     * @param idPedido pedido a buscar
+     * @return o pedido, ou vazio se não existe
+     */
+    @EntityGraph(Pedido.GRAFO_DETALHE)
+    @Query("SELECT p FROM Pedido p WHERE p.idPedido = :idPedido")
+    Optional<Pedido> buscarDetalhe(@Param("idPedido") Integer idPedido);
+
+    /**
+     * Textos de todos os pedidos, uma linha por item, para montar o índice de busca
+     * @return observação e data do pedido com o produto e o fornecedor de cada item
+     */
+    @Query(CONSULTA_TEXTOS + "ORDER BY p.idPedido")
+    List<TextoPedidoView> listarTextosParaIndice();
+
+    /**
+     * Textos só dos pedidos informados, para atualizar o índice depois de uma gravação
+     * @param ids pedidos gravados
+     * @return observação e data do pedido com o produto e o fornecedor de cada item
+     */
+    @Query(CONSULTA_TEXTOS + "WHERE p.idPedido IN :ids ORDER BY p.idPedido")
+    List<TextoPedidoView> listarTextosParaIndicePorIds(@Param("ids") Collection<Integer> ids);
 }
@@ -1,13 +1,23 @@
 package dicasa.estoque.repository;
 
+import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
 import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.view.NomeProdutoView;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Inteface que conecta uma tabela do Supabase com o programa
@@ -17,21 +27,119 @@ import java.util.Optional;
 @Repository
 public interface ProdutoRepository extends JpaRepository<Produto, Long> {
 
+    /**
+     * Região do cache de consultas usada pelas buscas de produto por nome
+     */
+    String REGIAO_CACHE_CONSULTAS = "consultas.produto";
+
+    /**
+     * Colunas do produto e do estoque projetadas direto no DTO das listagens
+     * Não carrega entidades: nada entra no contexto de persistência e não há dirty checking
+     */
+    String PROJECAO_ESTOQUE =
+            "SELECT new dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO(" +
+            "p.idProduto, p.nome, p.marca, p.tipo, p.dataCriacao, " +
+            "e.id_estoque_produto, e.quantidade, e.quantidadeMinima, e.estoqueEmergencial) " +
+            "FROM Produto p LEFT JOIN p.estoqueProduto e ";
+
     // Busca exata por nome
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = REGIAO_CACHE_CONSULTAS)
+    })
     Optional<Produto> findByNome(String nome);
 
-    // Busca por nome contendo o texto (case insensitive)
-    List<Produto> findByNomeContainingIgnoreCase(String nome);
-
-    @Query("SELECT p FROM Produto p WHERE LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))")
-    List<Produto> buscarPorNomeSimilar(@Param("nome") String nome);
+    // Id e nome de todos os produtos, para as buscas feitas em memória
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = REGIAO_CACHE_CONSULTAS)
+    })
+    @Query("SELECT p.idProduto AS idProduto, p.nome AS nome FROM Produto p")
+    List<NomeProdutoView> listarNomes();
 
     @Query("SELECT DISTINCT p FROM Produto p LEFT JOIN FETCH p.estoqueProduto LEFT JOIN FETCH p.usuario")
     List<Produto> findAllWithEstoqueAndUsuario();
 
+    @Query("SELECT DISTINCT p FROM Produto p LEFT JOIN FETCH p.estoqueProduto LEFT JOIN FETCH p.usuario WHERE p.idProduto IN :ids")
+    List<Produto> findAllByIdInWithEstoqueAndUsuario(@Param("ids") List<Long> ids);
+
     @Query("SELECT p FROM Produto p LEFT JOIN FETCH p.estoqueProduto LEFT JOIN FETCH p.usuario WHERE p.idProduto = :id")
     Optional<Produto> findByIdWithEstoqueAndUsuario(@Param("id") Long id);
 
-    @Query("SELECT DISTINCT p FROM Produto p LEFT JOIN FETCH p.estoqueProduto LEFT JOIN FETCH p.usuario WHERE LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))")
-    List<Produto> findAllByNomeContainingIgnoreCaseWithEstoqueAndUsuario(@Param("nome") String nome);
+    /**
+     * Primeira página da listagem de produtos com estoque, ordenada por nome
+     * @param limit tamanho da página
+     * @return os primeiros produtos
+     */
+    @Query("SELECT p FROM Produto p LEFT JOIN FETCH p.estoqueProduto LEFT JOIN FETCH p.usuario " +
+            "ORDER BY p.nome, p.idProduto")
+    List<Produto> buscarPrimeiraPaginaPorNome(Limit limit);
+
+    /**
+     * Próxima página da listagem por keyset: começa logo depois do último (nome, id) exibido
+     * Usa o índice (nome, id_produto), então o custo é o mesmo na primeira ou na milésima página
+     * @param nome nome do último produto exibido
+     * @param idProduto id do último produto exibido, desempata nomes iguais
+     * @param limit tamanho da página
+     * @return os produtos seguintes
+     */
+    @Query("SELECT p FROM Produto p LEFT JOIN FETCH p.estoqueProduto LEFT JOIN FETCH p.usuario " +
+            "WHERE (p.nome, p.idProduto) > (:nome, :idProduto) " +
+            "ORDER BY p.nome, p.idProduto")
+    List<Produto> buscarPaginaPorNomeApos(
+            @Param("nome") String nome,
+            @Param("idProduto") Long idProduto,
+            Limit limit);
+
+    @Query("SELECT p FROM Produto p JOIN FETCH p.estoqueProduto e LEFT JOIN FETCH p.usuario " +
+            "WHERE e.quantidade < e.quantidadeMinima")
+    List<Produto> findAllAbaixoDoMinimoWithEstoqueAndUsuario();
+
+    /**
+     * Listagem de estoque de todos os produtos, só com as colunas exibidas
+     * @return um DTO por produto, com ou sem estoque
+     */
+    @Query(PROJECAO_ESTOQUE)
+    List<EstoqueProdutoCompletoResponseDTO> listarEstoques();
+
+    /**
+     * Listagem de estoque dos produtos informados, usada para atualizar o cache
+     * @param ids produtos a buscar
+     * @return um DTO por produto encontrado
+     */
+    @Query(PROJECAO_ESTOQUE + "WHERE p.idProduto IN :ids")
+    List<EstoqueProdutoCompletoResponseDTO> listarEstoquesPorIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Primeira página da listagem de estoque, ordenada por nome
+     * @param limit tamanho da página
+     * @return os primeiros produtos
+     */
+    @Query(PROJECAO_ESTOQUE + "ORDER BY p.nome, p.idProduto")
+    List<EstoqueProdutoCompletoResponseDTO> listarPrimeiraPaginaEstoques(Limit limit);
+
+    /**
+     * Próxima página da listagem de estoque por keyset, igual à buscarPaginaPorNomeApos
+     * @param nome nome do último produto exibido
+     * @param idProduto id do último produto exibido, desempata nomes iguais
+     * @param limit tamanho da página
+     * @return os produtos seguintes
+     */
+    @Query(PROJECAO_ESTOQUE +
+            "WHERE (p.nome, p.idProduto) > (:nome, :idProduto) " +
+            "ORDER BY p.nome, p.idProduto")
+    List<EstoqueProdutoCompletoResponseDTO> listarPaginaEstoquesApos(
+            @Param("nome") String nome,
+            @Param("idProduto") Long idProduto,
+            Limit limit);
+
+    /**
+     * Listagem de estoque de todos os produtos, lida do banco aos poucos para as exportações
+     * O driver do PostgreSQL só busca em blocos dentro de uma transação, então quem chama precisa
+     * estar numa transação e fechar o Stream
+     * @return os produtos, na ordem do nome
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(PROJECAO_ESTOQUE + "ORDER BY p.nome, p.idProduto")
+    Stream<EstoqueProdutoCompletoResponseDTO> streamEstoques();
 }
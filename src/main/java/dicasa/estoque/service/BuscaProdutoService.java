@@ -0,0 +1,77 @@
+package dicasa.estoque.service;
+
+import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.repository.BuscaProdutoRepository;
+import dicasa.estoque.repository.ProdutoRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe de service para a busca de produtos pelo nome
+ * Ignora maiúsculas e acentos, tolera erros de digitação e ordena os resultados por relevância
+ */
+@Service
+public class BuscaProdutoService {
+
+    public static final int LIMITE_RESULTADOS = 200;
+
+    private final BuscaProdutoRepository buscaProdutoRepository;
+    private final ProdutoRepository produtoRepository;
+
+    public BuscaProdutoService(BuscaProdutoRepository buscaProdutoRepository, ProdutoRepository produtoRepository) {
+        this.buscaProdutoRepository = buscaProdutoRepository;
+        this.produtoRepository = produtoRepository;
+    }
+
+    /**
+     * Função que busca os produtos pelo nome, com estoque e usuário já carregados
+     * @param termo texto digitado
+     * @return produtos do mais relevante para o menos relevante
+     */
+    public List<Produto> buscar(String termo) {
+        if (termo == null || termo.isBlank()) {
+            return List.of();
+        }
+        List<Long> ids = buscaProdutoRepository.buscarIdsPorRelevancia(termo.trim(), LIMITE_RESULTADOS);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // O IN não mantém a ordem, então a relevância é reaplicada pela posição do id
+        Map<Long, Integer> posicao = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            posicao.put(ids.get(i), i);
+        }
+        return produtoRepository.findAllByIdInWithEstoqueAndUsuario(ids).stream()
+                .sorted(Comparator.comparing(produto -> posicao.get(produto.getIdProduto())))
+                .toList();
+    }
+
+    /**
+     * Função que busca os produtos pelo nome já projetados no DTO da listagem de estoque
+     * @param termo texto digitado
+     * @return estoques do produto mais relevante para o menos relevante
+     */
+    public List<EstoqueProdutoCompletoResponseDTO> buscarEstoques(String termo) {
+        if (termo == null || termo.isBlank()) {
+            return List.of();
+        }
+        List<Long> ids = buscaProdutoRepository.buscarIdsPorRelevancia(termo.trim(), LIMITE_RESULTADOS);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> posicao = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            posicao.put(ids.get(i), i);
+        }
+        return produtoRepository.listarEstoquesPorIds(ids).stream()
+                .sorted(Comparator.comparing(estoque -> posicao.get(estoque.idProduto())))
+                .toList();
+    }
+}
@@ -1,21 +1,33 @@
 package dicasa.estoque.service;
 
+import dicasa.estoque.cache.EstoqueProdutoCache;
 import dicasa.estoque.csv.CSVExporter;
 import dicasa.estoque.exception.EstoqueNaoEncotradoException;
 import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
 import dicasa.estoque.models.dto.EstoqueProdutoRequestDTO;
 import dicasa.estoque.models.dto.EstoqueProdutoResponseDTO;
 import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.models.entities.MovimentacaoEstoque;
 import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.entities.TipoMovimentacao;
 import dicasa.estoque.models.mapper.ProdutoEstoqueMapper;
+import dicasa.estoque.models.view.SaldoEstoqueView;
 import dicasa.estoque.repository.EstoqueProdutoRepository;
 import dicasa.estoque.repository.ProdutoRepository;
+import dicasa.estoque.util.EstoqueProdutoSavedEvent;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Classe de service para o estoque do produto
@@ -24,52 +36,93 @@ import java.util.List;
 
 @Slf4j
 @Service
+@Timed("dicasa.servico")
 public class EstoqueService {
     private final ProdutoRepository produtoRepository;
     private final EstoqueProdutoRepository estoqueProdutoRepository;
     private final ProdutoEstoqueMapper produtoEstoqueMapper;
     private final CSVExporter csvExporter;
     private final ApplicationEventPublisher eventPublisher;
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final EstoqueProdutoCache estoqueProdutoCache;
+    private final BuscaProdutoService buscaProdutoService;
 
     public EstoqueService(
             ProdutoRepository produtoRepository,
             EstoqueProdutoRepository estoqueProdutoRepository,
             ProdutoEstoqueMapper produtoEstoqueMapper,
             CSVExporter csvExporter,
-            ApplicationEventPublisher eventPublisher) {
+            ApplicationEventPublisher eventPublisher,
+            MovimentacaoEstoqueService movimentacaoEstoqueService,
+            EstoqueProdutoCache estoqueProdutoCache,
+            BuscaProdutoService buscaProdutoService) {
         this.produtoRepository = produtoRepository;
         this.estoqueProdutoRepository = estoqueProdutoRepository;
         this.produtoEstoqueMapper = produtoEstoqueMapper;
         this.csvExporter = csvExporter;
         this.eventPublisher = eventPublisher;
+        this.movimentacaoEstoqueService = movimentacaoEstoqueService;
+        this.estoqueProdutoCache = estoqueProdutoCache;
+        this.buscaProdutoService = buscaProdutoService;
     }
 
     /**
      * Função que lista todos o Estoque incluindo o Produto vinculado a ele
+     * Usa o cache por produto e só vai ao banco buscar o que foi alterado desde a última listagem
+     * As colunas vêm projetadas direto no DTO, sem carregar as entidades
      * @return lista de estoque com produto
      */
     public List<EstoqueProdutoCompletoResponseDTO> listarEstoques(){
-        List<Produto> produtos = produtoRepository.findAllWithEstoqueAndUsuario();
-        return produtoEstoqueMapper.toDtoList(produtos);
+        return estoqueProdutoCache.listarTodos(
+                produtoRepository::listarEstoques,
+                produtoRepository::listarEstoquesPorIds
+        );
+    }
+
+    /**
+     * Função que lista uma página do Estoque, ordenada pelo nome do produto
+     * @param ultimo último item já exibido, ou null para a primeira página
+     * @param tamanhoPagina quantidade de itens da página
+     * @return a página de estoque com produto
+     */
+    public List<EstoqueProdutoCompletoResponseDTO> listarPaginaEstoques(
+            EstoqueProdutoCompletoResponseDTO ultimo,
+            int tamanhoPagina){
+        return ultimo == null
+                ? produtoRepository.listarPrimeiraPaginaEstoques(Limit.of(tamanhoPagina))
+                : produtoRepository.listarPaginaEstoquesApos(ultimo.nome(), ultimo.idProduto(), Limit.of(tamanhoPagina));
     }
 
     /**
      * Função que lista o Produto pelo nome vinculado com o estoque
      * @param nome do produto
-     * @return lista de produtos com estoque com esse nome
+     * @return lista de produtos com estoque com esse nome, dos mais relevantes para os menos relevantes
      */
     public List<EstoqueProdutoCompletoResponseDTO> listarEstoquePorNome(String nome){
-        List<Produto> produtos = produtoRepository.findAllByNomeContainingIgnoreCaseWithEstoqueAndUsuario(nome);
-        return produtoEstoqueMapper.toDtoList(produtos);
+        return buscaProdutoService.buscarEstoques(nome);
     }
 
     /**
-     * Exporta a lista de estoque para CSV
+     * Função que busca a linha de estoque de um único produto, para atualizar só ela na tela
+     * @param idProduto id do produto
+     * @return a linha do produto, ou null se ele foi excluído
+     */
+    public EstoqueProdutoCompletoResponseDTO buscarEstoqueDoProduto(Long idProduto){
+        return produtoRepository.listarEstoquesPorIds(List.of(idProduto)).stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Exporta o estoque para CSV lendo os produtos do banco aos poucos
+     * As linhas já chegam como DTO e nada fica no contexto de persistência, então a memória não cresce com o catálogo
      * @return a mensagem de êxito ou de erro
      */
+    @Transactional(readOnly = true)
     public String exportarEstoquesEmCSV(){
-        List<EstoqueProdutoCompletoResponseDTO> produtos = listarEstoques();
-        return csvExporter.exportarEstoqueEmCSV(produtos);
+        try (Stream<EstoqueProdutoCompletoResponseDTO> estoques = produtoRepository.streamEstoques()) {
+            return csvExporter.exportarEstoqueEmCSV(estoques);
+        }
     }
 
     /**
@@ -97,47 +150,128 @@ public class EstoqueService {
 
     /**
      * Função que atualiza o Estoque
+     * Se a quantidade mudou, a diferença é registrada como ajuste no livro de movimentações
+     * Se o estoque foi alterado por outro terminal depois que o formulário foi aberto,
+     * a versão não bate e a edição é recusada em vez de sobrescrever a alteração
      * @param estoqueProdutoRequestDTO o estoque a ser atualizado
      * @return o estoque atualizado, para gerar um alert de atualização no sistema
      */
+    @Transactional
     public EstoqueProduto editarEstoque(EstoqueProdutoRequestDTO estoqueProdutoRequestDTO){
         EstoqueProduto estoqueProduto =
                 acharEstoqueProdutoPorId(
                         estoqueProdutoRequestDTO.id_estoque_produto()
                 );
+        if (estoqueProdutoRequestDTO.versao() != null
+                && !estoqueProdutoRequestDTO.versao().equals(estoqueProduto.getVersao())) {
+            throw new ObjectOptimisticLockingFailureException(
+                    EstoqueProduto.class, estoqueProduto.getId_estoque_produto());
+        }
+        int quantidadeAnterior = estoqueProduto.getQuantidade();
         produtoEstoqueMapper.atualizaDoDTO(estoqueProdutoRequestDTO, estoqueProduto);
         EstoqueProduto saved = estoqueProdutoRepository.save(estoqueProduto);
+
+        int diferenca = saved.getQuantidade() - quantidadeAnterior;
+        if (diferenca != 0) {
+            movimentacaoEstoqueService.registrar(
+                    movimentacaoEstoqueService.criarMovimentacao(
+                            saved, TipoMovimentacao.AJUSTE, diferenca, "Ajuste manual de estoque")
+            );
+        }
         return saved;
 
     }
 
     /**
      * Realiza a saída de itens do estoque de um produto específico.
+     * A validação do saldo e a subtração acontecem no mesmo UPDATE condicional no banco,
+     * então retiradas simultâneas de terminais diferentes nunca se sobrescrevem.
      *
      * @param idProduto  identificador do produto
      * @param quantidade quantidade a ser retirada
-     * @return estoque atualizado após a retirada
+     * @return saldo do estoque após a retirada
      */
-    public EstoqueProduto retirarDoEstoque(Long idProduto, int quantidade) {
+    @Transactional
+    public SaldoEstoqueView retirarDoEstoque(Long idProduto, int quantidade) {
         if (quantidade <= 0) {
             throw new IllegalArgumentException("A quantidade deve ser maior que zero.");
         }
 
-        Produto produto = produtoRepository.findByIdWithEstoqueAndUsuario(idProduto)
-                .orElseThrow(EstoqueNaoEncotradoException::new);
+        SaldoEstoqueView saldo = estoqueProdutoRepository.retirarSeDisponivel(idProduto, quantidade)
+                .orElseThrow(() -> {
+                    if (!estoqueProdutoRepository.existsByProduto_IdProduto(idProduto)) {
+                        return new EstoqueNaoEncotradoException();
+                    }
+                    return new IllegalArgumentException("Quantidade solicitada maior que o estoque disponível.");
+                });
+
+        movimentacaoEstoqueService.registrar(
+                movimentacaoEstoqueService.criarMovimentacao(saldo, TipoMovimentacao.SAIDA, -quantidade, null)
+        );
+        publicarSaldo(saldo);
+        return saldo;
+    }
 
-        EstoqueProduto estoqueProduto = produto.getEstoqueProduto();
-        if (estoqueProduto == null) {
-            throw new EstoqueNaoEncotradoException();
+    /**
+     * Realiza a saída de vários produtos de uma vez, tudo ou nada.
+     * Todas as retiradas vão em um único UPDATE e as movimentações em um único lote.
+     * Se algum produto não tiver saldo suficiente, nada é retirado.
+     *
+     * @param quantidadesPorProduto quantidade a retirar de cada produto
+     * @return saldo de cada estoque após a retirada
+     */
+    @Transactional
+    public List<SaldoEstoqueView> retirarEmLote(Map<Long, Integer> quantidadesPorProduto) {
+        if (quantidadesPorProduto == null || quantidadesPorProduto.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um produto para retirar.");
         }
+        quantidadesPorProduto.forEach((idProduto, quantidade) -> {
+            if (idProduto == null || quantidade == null || quantidade <= 0) {
+                throw new IllegalArgumentException("A quantidade deve ser maior que zero.");
+            }
+        });
+
+        List<SaldoEstoqueView> saldos = estoqueProdutoRepository.retirarEmLoteSeDisponivel(quantidadesPorProduto);
 
-        if (quantidade > estoqueProduto.getQuantidade()) {
-            throw new IllegalArgumentException("Quantidade solicitada maior que o estoque disponível.");
+        if (saldos.size() != quantidadesPorProduto.size()) {
+            Set<Long> retirados = saldos.stream()
+                    .map(SaldoEstoqueView::getIdProduto)
+                    .collect(Collectors.toSet());
+            List<Long> recusados = quantidadesPorProduto.keySet().stream()
+                    .filter(idProduto -> !retirados.contains(idProduto))
+                    .toList();
+            String nomes = produtoRepository.findAllById(recusados).stream()
+                    .map(Produto::getNome)
+                    .collect(Collectors.joining(", "));
+            // A exceção desfaz as retiradas que já tinham sido aplicadas nessa transação
+            throw new IllegalArgumentException("Estoque insuficiente ou inexistente para: " + nomes);
         }
 
-        estoqueProduto.setQuantidade(estoqueProduto.getQuantidade() - quantidade);
-        estoqueProduto.setData_atualizacao(LocalDateTime.now());
+        List<MovimentacaoEstoque> movimentacoes = saldos.stream()
+                .map(saldo -> movimentacaoEstoqueService.criarMovimentacao(
+                        saldo,
+                        TipoMovimentacao.SAIDA,
+                        -quantidadesPorProduto.get(saldo.getIdProduto()),
+                        null))
+                .toList();
+        movimentacaoEstoqueService.registrarEmLote(movimentacoes);
+        saldos.forEach(this::publicarSaldo);
+        return saldos;
+    }
 
-        return estoqueProdutoRepository.save(estoqueProduto);
+    /**
+     * Avisa o cache e as telas do saldo novo depois da retirada
+     * O mínimo e o emergencial não mudam numa retirada, então vão nulos e cada linha mantém os seus
+     * @param saldo saldo devolvido pelo banco
+     */
+    private void publicarSaldo(SaldoEstoqueView saldo) {
+        eventPublisher.publishEvent(new EstoqueProdutoSavedEvent(
+                this,
+                saldo.getIdProduto(),
+                saldo.getIdEstoqueProduto(),
+                saldo.getQuantidade(),
+                null,
+                null
+        ));
     }
 }
\ No newline at end of file
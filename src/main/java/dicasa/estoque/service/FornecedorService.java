@@ -1,7 +1,9 @@
 package dicasa.estoque.service;
 
+import dicasa.estoque.cache.IndiceBuscaGlobal;
 import dicasa.estoque.models.dto.FornecedorRequestDTO;
 import dicasa.estoque.models.dto.FornecedorResponseDTO;
+import dicasa.estoque.models.dto.ResultadoBuscaDTO;
 import dicasa.estoque.models.entities.EnderecoFornecedor;
 import dicasa.estoque.models.entities.Fornecedor;
 import dicasa.estoque.models.entities.TelefoneFornecedor;
@@ -10,38 +12,61 @@ import dicasa.estoque.models.mapper.FornecedorMapper;
 import dicasa.estoque.repository.EnderecoFornecedorRepository;
 import dicasa.estoque.repository.FornecedorRepository;
 import dicasa.estoque.repository.TelefoneFornecedorRepository;
+import dicasa.estoque.util.FornecedorSavedEvent;
 import dicasa.estoque.util.SessionManager;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed("dicasa.servico")
 public class FornecedorService {
     private final FornecedorRepository fornecedorRepository;
     private final EnderecoFornecedorRepository enderecoFornecedorRepository;
     private final TelefoneFornecedorRepository telefoneFornecedorRepository;
     private final FornecedorMapper fornecedorMapper;
+    private final IndiceBuscaGlobal indiceBusca;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Quantidade máxima de fornecedores trazidos pela busca em todos os campos
+     */
+    private static final int LIMITE_BUSCA_GERAL = 200;
 
     public FornecedorService(
             FornecedorRepository fornecedorRepository,
             EnderecoFornecedorRepository enderecoFornecedorRepository,
             TelefoneFornecedorRepository telefoneFornecedorRepository,
-            FornecedorMapper fornecedorMapper) {
+            FornecedorMapper fornecedorMapper,
+            IndiceBuscaGlobal indiceBusca,
+            ApplicationEventPublisher eventPublisher) {
         this.fornecedorRepository = fornecedorRepository;
         this.enderecoFornecedorRepository = enderecoFornecedorRepository;
         this.telefoneFornecedorRepository = telefoneFornecedorRepository;
         this.fornecedorMapper = fornecedorMapper;
+        this.indiceBusca = indiceBusca;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Fornecedor> listarFornecedores() {
         try {
-            return fornecedorRepository.findAll();
+            return fornecedorRepository.listarParaRelatorio();
         } catch (Exception e) {
             log.error("Erro ao listar fornecedores: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -90,14 +115,18 @@ public class FornecedorService {
             }
 
             if (dto.telefones() != null && !dto.telefones().isEmpty()) {
+                List<TelefoneFornecedor> telefones = new ArrayList<>(dto.telefones().size());
                 for (String telefone : dto.telefones()) {
                     TelefoneFornecedor telefoneFornecedor = new TelefoneFornecedor();
                     telefoneFornecedor.setTelefone(telefone);
                     telefoneFornecedor.setFornecedor(fornecedorSalvo);
-                    telefoneFornecedorRepository.save(telefoneFornecedor);
+                    telefones.add(telefoneFornecedor);
                 }
+                // Com ids de sequência os INSERTs dos telefones saem num único batch no flush
+                telefoneFornecedorRepository.saveAll(telefones);
             }
 
+            eventPublisher.publishEvent(new FornecedorSavedEvent(this, fornecedorSalvo.getIdFornecedor()));
             return fornecedorMapper.toDto(fornecedorSalvo);
 
         } catch (DataIntegrityViolationException e) {
@@ -111,18 +140,23 @@ public class FornecedorService {
         }
     }
 
+    /**
+     * Função que monta o relatório de fornecedores com telefones e endereço
+     * Tudo vem num único SELECT pelo grafo de relatório, sem uma consulta por fornecedor
+     * @return fornecedores ordenados pelo nome fantasia
+     */
+    @Transactional(readOnly = true)
+    public List<FornecedorResponseDTO> gerarRelatorioFornecedores() {
+        return fornecedorMapper.toDtoList(fornecedorRepository.listarParaRelatorio());
+    }
+
     @Transactional(readOnly = true)
     public List<FornecedorResponseDTO> buscarFornecedores(String filtro) {
         try {
-            List<Fornecedor> fornecedores;
-
             if (filtro == null || filtro.trim().isEmpty()) {
-                fornecedores = fornecedorRepository.findAll();
-            } else {
-                fornecedores = fornecedorRepository.findByFiltro(filtro);
+                return fornecedorMapper.toDtoList(fornecedorRepository.listarParaRelatorio());
             }
-
-            return fornecedorMapper.toDtoList(fornecedores);
+            return carregarComContatos(fornecedorRepository.buscarIdsPorFiltro(filtro));
 
         } catch (Exception e) {
             log.error("Erro ao buscar fornecedores: {}", e.getMessage(), e);
@@ -133,38 +167,28 @@ public class FornecedorService {
     @Transactional(readOnly = true)
     public List<FornecedorResponseDTO> buscarFornecedoresPorTermo(String tipo, String termo) {
         try {
-            List<Fornecedor> fornecedores;
-
             if (termo == null || termo.trim().isEmpty()) {
-                fornecedores = fornecedorRepository.findAll();
-            } else {
-                String termoLike = "%" + termo.toLowerCase() + "%";
-
-                switch (tipo) {
-                    case "Razão Social":
-                        fornecedores = fornecedorRepository.findByRazaoSocialContainingIgnoreCase(termo);
-                        break;
-                    case "Nome Fantasia":
-                        fornecedores = fornecedorRepository.findByNomeFantasiaContainingIgnoreCase(termo);
-                        break;
-                    case "CNPJ":
-                        fornecedores = fornecedorRepository.findByCnpjContaining(termo);
-                        break;
-                    case "Cidade":
-                        fornecedores = fornecedorRepository.findByEnderecoFornecedorCidadeContainingIgnoreCase(termo);
-                        break;
-                    case "Estado (UF)":
-                        fornecedores = fornecedorRepository.findByEnderecoFornecedorUfContainingIgnoreCase(termo);
-                        break;
-                    case "Telefone":
-                        fornecedores = fornecedorRepository.findByTelefonesTelefoneContaining(termo);
-                        break;
-                    default: // Qualquer outro (incluindo "Todos os campos" se você adicionar)
-                        fornecedores = fornecedorRepository.findByFiltroGeral(termoLike);
-                }
+                return fornecedorMapper.toDtoList(fornecedorRepository.listarParaRelatorio());
             }
 
-            return fornecedorMapper.toDtoList(fornecedores);
+            List<Long> ids = switch (tipo) {
+                case "Razão Social" -> fornecedorRepository.buscarIdsPorRazaoSocial(termo);
+                case "Nome Fantasia" -> fornecedorRepository.buscarIdsPorNomeFantasia(termo);
+                case "CNPJ" -> fornecedorRepository.buscarIdsPorCnpj(termo);
+                case "Cidade" -> fornecedorRepository.buscarIdsPorCidade(termo);
+                case "Estado (UF)" -> fornecedorRepository.buscarIdsPorUf(termo);
+                case "Telefone" -> fornecedorRepository.buscarIdsPorTelefone(termo);
+                default -> null;
+            };
+            if (ids != null) {
+                return carregarComContatos(ids);
+            }
+
+            // Qualquer outro, como "Todos os campos": busca pelo índice local e, sem ele, pelos LIKE no banco
+            if (indiceBusca.disponivel()) {
+                return buscarNoIndice(termo);
+            }
+            return carregarComContatos(fornecedorRepository.buscarIdsPorFiltroGeral("%" + termo.toLowerCase() + "%"));
 
         } catch (Exception e) {
             log.error("Erro ao buscar fornecedores por termo: {}", e.getMessage(), e);
@@ -172,6 +196,39 @@ public class FornecedorService {
         }
     }
 
+    /**
+     * Carrega os fornecedores encontrados por uma busca, com telefones e endereço, num único SELECT
+     * A busca devolve só os ids, então o total de consultas não cresce com o número de fornecedores
+     * @param ids fornecedores encontrados
+     * @return os fornecedores já convertidos
+     */
+    private List<FornecedorResponseDTO> carregarComContatos(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return fornecedorMapper.toDtoList(fornecedorRepository.listarParaRelatorioPorIds(ids));
+    }
+
+    /**
+     * Busca em todos os campos pelo índice local, sem os LIKE espalhados pelas tabelas
+     * O índice já devolve os ids na ordem de relevância, e a lista mantém essa ordem
+     * @param termo texto digitado
+     * @return os fornecedores encontrados, do mais relevante para o menos relevante
+     */
+    private List<FornecedorResponseDTO> buscarNoIndice(String termo) {
+        List<Long> ids = indiceBusca.buscarIds(termo, ResultadoBuscaDTO.Tipo.FORNECEDOR, LIMITE_BUSCA_GERAL);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Fornecedor> porId = fornecedorRepository.listarParaRelatorioPorIds(ids).stream()
+                .collect(Collectors.toMap(Fornecedor::getIdFornecedor, Function.identity()));
+        // Um id sem fornecedor foi excluído em outro terminal e ainda não saiu do índice
+        return fornecedorMapper.toDtoList(ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
     @Transactional
     public FornecedorResponseDTO atualizarFornecedor(Long id, FornecedorRequestDTO dto) {
         try {
@@ -198,19 +255,11 @@ public class FornecedorService {
                 enderecoFornecedorRepository.save(endereco);
             }
 
-            List<TelefoneFornecedor> telefonesExistentes = telefoneFornecedorRepository.findByFornecedorId(id);
-            telefoneFornecedorRepository.deleteAll(telefonesExistentes);
+            fornecedor.setTelefones(sincronizarTelefones(fornecedor, dto.telefones()));
 
-            if (dto.telefones() != null && !dto.telefones().isEmpty()) {
-                for (String telefone : dto.telefones()) {
-                    TelefoneFornecedor telefoneFornecedor = new TelefoneFornecedor();
-                    telefoneFornecedor.setTelefone(telefone);
-                    telefoneFornecedor.setFornecedor(fornecedor);
-                    telefoneFornecedorRepository.save(telefoneFornecedor);
-                }
-            }
-
-            Fornecedor fornecedorAtualizado = fornecedorRepository.save(fornecedor);
+            // O flush traz para cá as falhas de integridade dos INSERTs em lote, que só iriam ao banco no commit
+            Fornecedor fornecedorAtualizado = fornecedorRepository.saveAndFlush(fornecedor);
+            eventPublisher.publishEvent(new FornecedorSavedEvent(this, id));
             return fornecedorMapper.toDto(fornecedorAtualizado);
 
         } catch (DataIntegrityViolationException e) {
@@ -224,6 +273,59 @@ public class FornecedorService {
         }
     }
 
+    /**
+     * Atualiza os telefones do fornecedor mexendo só no que mudou
+     * Os números removidos saem num único DELETE e os novos entram num único lote de INSERTs;
+     * se a lista não mudou, nada é gravado
+     * @param fornecedor fornecedor em edição
+     * @param telefonesInformados números do formulário, nulo ou vazio remove todos
+     * @return os telefones do fornecedor depois da atualização
+     */
+    private List<TelefoneFornecedor> sincronizarTelefones(Fornecedor fornecedor, List<String> telefonesInformados) {
+        Set<String> desejados = new LinkedHashSet<>();
+        if (telefonesInformados != null) {
+            for (String telefone : telefonesInformados) {
+                if (telefone != null && !telefone.isBlank()) {
+                    desejados.add(telefone.trim());
+                }
+            }
+        }
+
+        List<TelefoneFornecedor> mantidos = new ArrayList<>();
+        List<Long> removidos = new ArrayList<>();
+        Set<String> existentes = new HashSet<>();
+        for (TelefoneFornecedor telefone : telefoneFornecedorRepository.findByFornecedorId(fornecedor.getIdFornecedor())) {
+            // Um número repetido no banco também é removido, só a primeira ocorrência fica
+            if (desejados.contains(telefone.getTelefone()) && existentes.add(telefone.getTelefone())) {
+                mantidos.add(telefone);
+            } else {
+                removidos.add(telefone.getIdTelefone());
+            }
+        }
+
+        List<TelefoneFornecedor> novos = new ArrayList<>();
+        for (String numero : desejados) {
+            if (!existentes.contains(numero)) {
+                TelefoneFornecedor telefone = new TelefoneFornecedor();
+                telefone.setTelefone(numero);
+                telefone.setFornecedor(fornecedor);
+                novos.add(telefone);
+            }
+        }
+
+        if (!removidos.isEmpty()) {
+            telefoneFornecedorRepository.deleteAllByIdInBatch(removidos);
+        }
+        if (!novos.isEmpty()) {
+            telefoneFornecedorRepository.saveAll(novos);
+        }
+        log.debug("Telefones do fornecedor {}: {} mantidos, {} removidos, {} novos",
+                fornecedor.getIdFornecedor(), mantidos.size(), removidos.size(), novos.size());
+
+        mantidos.addAll(novos);
+        return mantidos;
+    }
+
     @Transactional
     public void excluirFornecedor(Long id) {
         try {
@@ -237,6 +339,7 @@ public class FornecedorService {
             }
 
             fornecedorRepository.delete(fornecedor);
+            eventPublisher.publishEvent(new FornecedorSavedEvent(this, id));
 
         } catch (Exception e) {
             log.error("Erro ao excluir fornecedor: {}", e.getMessage(), e);
@@ -248,7 +351,7 @@ public class FornecedorService {
     @Transactional(readOnly = true)
     public void debugFornecedores() {
         try {
-            List<Fornecedor> fornecedores = fornecedorRepository.findAll();
+            List<Fornecedor> fornecedores = fornecedorRepository.listarParaRelatorio();
             log.info("Total de fornecedores no banco: {}", fornecedores.size());
 
             for (Fornecedor fornecedor : fornecedores) {
@@ -0,0 +1,155 @@
+package dicasa.estoque.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Modelo de demanda diária de um produto
+ * O nível é a demanda média de um dia "normal", calculado com suavização exponencial simples,
+ * e o perfil semanal diz quanto cada dia da semana consome em relação a esse nível
+ * (num restaurante, sexta e sábado costumam consumir bem mais que segunda)
+ * @param nivel demanda de um dia com perfil 1, já sem o efeito do dia da semana
+ * @param perfilSemanal fator de cada dia da semana, de segunda (0) a domingo (6); a média dos fatores é 1
+ */
+public record ModeloDemanda(double nivel, double[] perfilSemanal) {
+
+    /**
+     * Com menos dias de histórico que isso, o perfil semanal não é confiável e todos os dias pesam igual
+     */
+    private static final int DIAS_MINIMOS_PERFIL = 14;
+
+    /**
+     * Modelo de um produto sem nenhum consumo no histórico
+     */
+    public static final ModeloDemanda SEM_CONSUMO = new ModeloDemanda(0, perfilUniforme());
+
+    /**
+     * Ajusta o modelo ao histórico de consumo do produto
+     * Os dias antes do primeiro consumo são ignorados, para que um produto novo não pareça ter demanda baixa
+     * @param consumo consumo de cada dia, começando em inicio
+     * @param inicio dia da primeira posição do vetor
+     * @param alfa peso dos dias mais recentes na suavização, entre 0 e 1
+     * @return o modelo ajustado, ou SEM_CONSUMO se não houve consumo
+     */
+    public static ModeloDemanda ajustar(double[] consumo, LocalDate inicio, double alfa) {
+        int primeiro = 0;
+        while (primeiro < consumo.length && consumo[primeiro] <= 0) {
+            primeiro++;
+        }
+        int dias = consumo.length - primeiro;
+        if (dias == 0) {
+            return SEM_CONSUMO;
+        }
+
+        double[] perfil = dias >= DIAS_MINIMOS_PERFIL
+                ? calcularPerfil(consumo, primeiro, inicio)
+                : perfilUniforme();
+
+        // O nível começa na média dessazonalizada da primeira semana e vai sendo suavizado dia a dia
+        int diasIniciais = Math.min(7, dias);
+        double somaInicial = 0;
+        int diasComFator = 0;
+        for (int i = primeiro; i < primeiro + diasIniciais; i++) {
+            double fator = perfil[diaDaSemana(inicio, i)];
+            if (fator > 0) {
+                somaInicial += consumo[i] / fator;
+                diasComFator++;
+            }
+        }
+        double nivel = somaInicial / diasComFator;
+
+        for (int i = primeiro + diasIniciais; i < consumo.length; i++) {
+            double fator = perfil[diaDaSemana(inicio, i)];
+            // Um dia da semana sem consumo nenhum não diz nada sobre o nível
+            if (fator > 0) {
+                nivel = alfa * (consumo[i] / fator) + (1 - alfa) * nivel;
+            }
+        }
+        return new ModeloDemanda(nivel, perfil);
+    }
+
+    /**
+     * @return se o produto não teve consumo no histórico
+     */
+    public boolean semConsumo() {
+        return nivel <= 0;
+    }
+
+    /**
+     * Demanda prevista para um dia
+     * @param dia dia da previsão
+     * @return unidades previstas
+     */
+    public double demandaNoDia(LocalDate dia) {
+        return nivel * perfilSemanal[dia.getDayOfWeek().getValue() - 1];
+    }
+
+    /**
+     * Demanda prevista somando os dias do período
+     * @param inicio primeiro dia do período
+     * @param dias quantidade de dias
+     * @return unidades previstas no período
+     */
+    public double demandaEntre(LocalDate inicio, int dias) {
+        double total = 0;
+        for (int i = 0; i < dias; i++) {
+            total += demandaNoDia(inicio.plusDays(i));
+        }
+        return total;
+    }
+
+    /**
+     * Em quantos dias o saldo atual acaba, seguindo a demanda prevista de cada dia
+     * @param saldo quantidade em estoque
+     * @param inicio dia a partir do qual o saldo é consumido
+     * @param limite para de contar nesse número de dias
+     * @return dias até acabar, ou limite se durar mais que isso
+     */
+    public int diasAteAcabar(int saldo, LocalDate inicio, int limite) {
+        double restante = saldo;
+        for (int i = 0; i < limite; i++) {
+            restante -= demandaNoDia(inicio.plusDays(i));
+            if (restante < 0) {
+                return i;
+            }
+        }
+        return limite;
+    }
+
+    private static double[] calcularPerfil(double[] consumo, int primeiro, LocalDate inicio) {
+        double[] soma = new double[7];
+        int[] ocorrencias = new int[7];
+        double total = 0;
+        for (int i = primeiro; i < consumo.length; i++) {
+            int dia = diaDaSemana(inicio, i);
+            soma[dia] += consumo[i];
+            ocorrencias[dia]++;
+            total += consumo[i];
+        }
+        double mediaGeral = total / (consumo.length - primeiro);
+
+        double[] perfil = new double[7];
+        double somaPerfil = 0;
+        for (int dia = 0; dia < 7; dia++) {
+            perfil[dia] = ocorrencias[dia] > 0 ? (soma[dia] / ocorrencias[dia]) / mediaGeral : 1;
+            somaPerfil += perfil[dia];
+        }
+        // Normaliza para a média dos fatores ser 1, assim o nível continua sendo a média diária
+        for (int dia = 0; dia < 7; dia++) {
+            perfil[dia] = perfil[dia] * 7 / somaPerfil;
+        }
+        return perfil;
+    }
+
+    private static int diaDaSemana(LocalDate inicio, int deslocamento) {
+        DayOfWeek dia = inicio.getDayOfWeek().plus(deslocamento);
+        return dia.getValue() - 1;
+    }
+
+    private static double[] perfilUniforme() {
+        double[] perfil = new double[7];
+        Arrays.fill(perfil, 1);
+        return perfil;
+    }
+}
@@ -0,0 +1,140 @@
+package dicasa.estoque.service;
+
+import dicasa.estoque.csv.CSVExporter;
+import dicasa.estoque.models.dto.MovimentacaoEstoqueResponseDTO;
+import dicasa.estoque.models.dto.ResumoMovimentacaoDTO;
+import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.models.entities.MovimentacaoEstoque;
+import dicasa.estoque.models.entities.TipoMovimentacao;
+import dicasa.estoque.models.entities.Usuario;
+import dicasa.estoque.models.view.SaldoEstoqueView;
+import dicasa.estoque.repository.MovimentacaoEstoqueRepository;
+import dicasa.estoque.util.SessionManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Classe de service para o livro de movimentações do estoque
+ * Toda entrada, saída e ajuste de estoque passa por aqui e vira uma linha imutável
+ */
+@Service
+public class MovimentacaoEstoqueService {
+    public static final int TAMANHO_PAGINA_PADRAO = 50;
+
+    private final MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+    private final CSVExporter csvExporter;
+
+    public MovimentacaoEstoqueService(
+            MovimentacaoEstoqueRepository movimentacaoEstoqueRepository,
+            CSVExporter csvExporter) {
+        this.movimentacaoEstoqueRepository = movimentacaoEstoqueRepository;
+        this.csvExporter = csvExporter;
+    }
+
+    /**
+     * Cria a movimentação de um estoque já atualizado, com o usuário da sessão
+     * @param estoqueProduto estoque depois da alteração
+     * @param tipo tipo da movimentação
+     * @param quantidade variação aplicada
+     * @param observacao texto livre
+     * @return a movimentação, ainda não gravada
+     */
+    public MovimentacaoEstoque criarMovimentacao(
+            EstoqueProduto estoqueProduto,
+            TipoMovimentacao tipo,
+            int quantidade,
+            String observacao) {
+        Usuario usuario = SessionManager.getUsuarioLogado();
+        return MovimentacaoEstoque.de(
+                estoqueProduto,
+                tipo,
+                quantidade,
+                usuario != null ? usuario.getId() : null,
+                observacao
+        );
+    }
+
+    /**
+     * Cria a movimentação a partir do saldo devolvido pelo banco, com o usuário da sessão
+     * @param saldo saldo do estoque depois da alteração
+     * @param tipo tipo da movimentação
+     * @param quantidade variação aplicada
+     * @param observacao texto livre
+     * @return a movimentação, ainda não gravada
+     */
+    public MovimentacaoEstoque criarMovimentacao(
+            SaldoEstoqueView saldo,
+            TipoMovimentacao tipo,
+            int quantidade,
+            String observacao) {
+        Usuario usuario = SessionManager.getUsuarioLogado();
+        return MovimentacaoEstoque.de(
+                saldo.getIdProduto(),
+                saldo.getIdEstoqueProduto(),
+                saldo.getQuantidade(),
+                tipo,
+                quantidade,
+                usuario != null ? usuario.getId() : null,
+                observacao
+        );
+    }
+
+    /**
+     * Grava uma única movimentação
+     * @param movimentacao movimentação a ser gravada
+     */
+    @Transactional
+    public void registrar(MovimentacaoEstoque movimentacao) {
+        registrarEmLote(List.of(movimentacao));
+    }
+
+    /**
+     * Grava várias movimentações em um único lote
+     * @param movimentacoes movimentações a serem gravadas
+     */
+    @Transactional
+    public void registrarEmLote(List<MovimentacaoEstoque> movimentacoes) {
+        movimentacaoEstoqueRepository.inserirEmLote(movimentacoes);
+    }
+
+    /**
+     * Lista uma página do histórico de movimentações
+     * @param idProduto produto a ser filtrado, nulo para todos
+     * @param cursor id da última linha da página anterior, nulo para começar do mais recente
+     * @param tamanhoPagina quantidade de linhas por página
+     * @return movimentações da mais recente para a mais antiga
+     */
+    @Transactional(readOnly = true)
+    public List<MovimentacaoEstoqueResponseDTO> listarPagina(Long idProduto, Long cursor, int tamanhoPagina) {
+        if (tamanhoPagina <= 0) {
+            throw new IllegalArgumentException("O tamanho da página deve ser maior que zero.");
+        }
+        return movimentacaoEstoqueRepository.buscarPagina(idProduto, cursor, Limit.of(tamanhoPagina));
+    }
+
+    /**
+     * Fecha o mês somando as movimentações de cada produto
+     * @param mes mês a ser fechado
+     * @return resumo por produto
+     */
+    @Transactional(readOnly = true)
+    public List<ResumoMovimentacaoDTO> resumoDoMes(YearMonth mes) {
+        return movimentacaoEstoqueRepository.resumirPeriodo(
+                mes.atDay(1).atStartOfDay(),
+                mes.plusMonths(1).atDay(1).atStartOfDay()
+        );
+    }
+
+    /**
+     * Exporta o fechamento do mês para CSV
+     * @param mes mês a ser fechado
+     * @return a mensagem de êxito ou de erro
+     */
+    public String exportarFechamentoDoMes(YearMonth mes) {
+        return csvExporter.exportarFechamentoMensalEmCSV(mes, resumoDoMes(mes));
+    }
+}
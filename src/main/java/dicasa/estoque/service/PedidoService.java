@@ -1,32 +1,287 @@
 package dicasa.estoque.service;
 
+import dicasa.estoque.models.dto.ItemPedidoRequestDTO;
+import dicasa.estoque.models.dto.PedidoRequestDTO;
+import dicasa.estoque.models.entities.Fornecedor;
+import dicasa.estoque.models.entities.MovimentacaoEstoque;
+import dicasa.estoque.models.entities.Pedido;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.entities.TipoMovimentacao;
+import dicasa.estoque.models.entities.Usuario;
+import dicasa.estoque.models.view.SaldoEstoqueView;
 import dicasa.estoque.repository.*;
+import dicasa.estoque.util.EstoqueProdutoSavedEvent;
+import dicasa.estoque.util.PedidoSavedEvent;
+import dicasa.estoque.util.SessionManager;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Classe de service para Pedido
  * Conecta os Repositories relacionados a Pedido com os controllers de telas de pedidos
  */
-
+@Slf4j
 @Service
+@Timed("dicasa.servico")
 public class PedidoService {
     private final PedidoRepository pedidoRepository;
-    private final PedidoProdutoRepository pedidoProdutoRepository;
     private final FornecedorRepository fornecedorRepository;
     private final ProdutoRepository produtoRepository;
-    private final PedidoDetalhadoRepository pedidoDetalhadoRepository;
+    private final EstoqueProdutoRepository estoqueProdutoRepository;
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PedidoService(
             PedidoRepository pedidoRepository,
-            PedidoProdutoRepository pedidoProdutoRepository,
             FornecedorRepository fornecedorRepository,
             ProdutoRepository produtoRepository,
-            PedidoDetalhadoRepository pedidoDetalhadoRepository)
+            EstoqueProdutoRepository estoqueProdutoRepository,
+            MovimentacaoEstoqueService movimentacaoEstoqueService,
+            ApplicationEventPublisher eventPublisher)
     {
         this.pedidoRepository = pedidoRepository;
-        this.pedidoProdutoRepository = pedidoProdutoRepository;
         this.fornecedorRepository = fornecedorRepository;
         this.produtoRepository = produtoRepository;
-        this.pedidoDetalhadoRepository = pedidoDetalhadoRepository;
+        this.estoqueProdutoRepository = estoqueProdutoRepository;
+        this.movimentacaoEstoqueService = movimentacaoEstoqueService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Função que lista os pedidos, do mais recente para o mais antigo
+     * @return pedidos com o usuário que criou, sem as linhas
+     */
+    @Transactional(readOnly = true)
+    public List<Pedido> listarPedidos() {
+        return pedidoRepository.listarPedidos();
+    }
+
+    /**
+     * Função que busca o pedido com todas as linhas, para a tela de detalhe
+     * @param idPedido pedido a buscar
+     * @return o pedido com as linhas, o produto e o fornecedor de cada uma
+     */
+    @Transactional(readOnly = true)
+    public Pedido buscarPedidoDetalhado(Integer idPedido) {
+        return pedidoRepository.buscarDetalhe(idPedido)
+                .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado."));
+    }
+
+    /**
+     * Função que cria um pedido de compra com todas as linhas e dá entrada no estoque
+     * Tudo ou nada: se alguma linha for inválida, nem o pedido nem o estoque são alterados
+     * @param pedido pedido com as linhas recebidas
+     * @return id do pedido criado
+     */
+    @Transactional
+    public Integer criarPedido(PedidoRequestDTO pedido) {
+        return importarNotas(List.of(pedido)).getFirst();
+    }
+
+    /**
+     * Função que importa várias notas de fornecedor de uma vez, cada uma virando um pedido
+     * As linhas de todas as notas são gravadas num único batch, o estoque de cada produto
+     * é somado num único UPDATE e as movimentações vão num único lote,
+     * então milhares de linhas custam poucas idas ao banco em vez de um save por linha
+     * Tudo ou nada: se alguma nota for inválida, nenhuma é importada
+     * @param notas notas a importar
+     * @return id de cada pedido criado, na mesma ordem das notas
+     */
+    @Transactional
+    public List<Integer> importarNotas(List<PedidoRequestDTO> notas) {
+        if (notas == null || notas.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um pedido.");
+        }
+        long inicio = System.nanoTime();
+        List<PedidoRequestDTO> pedidos = notas.stream().map(this::validarPedido).toList();
+        validarFornecedores(pedidos);
+
+        // Cada produto recebe uma única soma, mesmo aparecendo em várias linhas e várias notas
+        Map<Long, Integer> quantidadesPorProduto = new LinkedHashMap<>();
+        for (PedidoRequestDTO pedido : pedidos) {
+            for (ItemPedidoRequestDTO item : pedido.itens()) {
+                quantidadesPorProduto.merge(item.idProduto(), item.quantidade(), Integer::sum);
+            }
+        }
+
+        List<SaldoEstoqueView> saldos = estoqueProdutoRepository.adicionarEmLote(quantidadesPorProduto);
+        if (saldos.size() != quantidadesPorProduto.size()) {
+            Set<Long> atualizados = saldos.stream()
+                    .map(SaldoEstoqueView::getIdProduto)
+                    .collect(Collectors.toSet());
+            List<Long> semEstoque = quantidadesPorProduto.keySet().stream()
+                    .filter(idProduto -> !atualizados.contains(idProduto))
+                    .toList();
+            String nomes = produtoRepository.findAllById(semEstoque).stream()
+                    .map(Produto::getNome)
+                    .collect(Collectors.joining(", "));
+            // A exceção desfaz as entradas que já tinham sido somadas nessa transação
+            throw new IllegalArgumentException("Produto sem estoque cadastrado ou inexistente: "
+                    + (nomes.isEmpty() ? semEstoque : nomes));
+        }
+
+        // Os itens só são gravados depois do estoque, para um produto inexistente
+        // cair na mensagem acima e não na chave estrangeira dos itens
+        Usuario usuario = SessionManager.getUsuarioLogado();
+        List<Integer> idsPedido = pedidoRepository.inserirPedidosComItens(
+                pedidos, usuario != null ? usuario.getId() : null);
+
+        movimentacaoEstoqueService.registrarEmLote(criarMovimentacoes(pedidos, idsPedido, saldos, quantidadesPorProduto));
+        saldos.forEach(this::publicarSaldo);
+        eventPublisher.publishEvent(new PedidoSavedEvent(this, idsPedido));
+
+        log.info("{} pedidos com {} produtos importados em {} ms",
+                pedidos.size(), quantidadesPorProduto.size(), (System.nanoTime() - inicio) / 1_000_000);
+        return idsPedido;
+    }
+
+    /**
+     * Uma movimentação de entrada por produto de cada pedido, para o histórico apontar a nota de origem
+     * O banco só devolve o saldo final, então o saldo de cada entrada é reconstruído a partir dele
+     */
+    private List<MovimentacaoEstoque> criarMovimentacoes(
+            List<PedidoRequestDTO> pedidos,
+            List<Integer> idsPedido,
+            List<SaldoEstoqueView> saldos,
+            Map<Long, Integer> quantidadesPorProduto) {
+        Map<Long, SaldoEstoqueView> saldoPorProduto = saldos.stream()
+                .collect(Collectors.toMap(SaldoEstoqueView::getIdProduto, Function.identity()));
+        Map<Long, Integer> saldoCorrente = new HashMap<>();
+        saldoPorProduto.forEach((idProduto, saldo) ->
+                saldoCorrente.put(idProduto, saldo.getQuantidade() - quantidadesPorProduto.get(idProduto)));
+
+        List<MovimentacaoEstoque> movimentacoes = new ArrayList<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            String observacao = "Pedido #" + idsPedido.get(i);
+            Map<Long, Integer> recebidoNoPedido = new LinkedHashMap<>();
+            for (ItemPedidoRequestDTO item : pedidos.get(i).itens()) {
+                recebidoNoPedido.merge(item.idProduto(), item.quantidade(), Integer::sum);
+            }
+            recebidoNoPedido.forEach((idProduto, quantidade) -> {
+                SaldoEstoqueView saldo = saldoPorProduto.get(idProduto);
+                int saldoResultante = saldoCorrente.merge(idProduto, quantidade, Integer::sum);
+                movimentacoes.add(movimentacaoEstoqueService.criarMovimentacao(
+                        new SaldoNaEntrada(idProduto, saldo.getIdEstoqueProduto(), saldoResultante),
+                        TipoMovimentacao.ENTRADA,
+                        quantidade,
+                        observacao));
+            });
+        }
+        return movimentacoes;
+    }
+
+    /**
+     * Avisa o cache e as telas do saldo novo depois da entrada, como na retirada em lote do EstoqueService
+     * O mínimo e o emergencial não mudam numa entrada, então vão nulos e cada linha mantém os seus
+     * @param saldo saldo devolvido pelo banco
+     */
+    private void publicarSaldo(SaldoEstoqueView saldo) {
+        eventPublisher.publishEvent(new EstoqueProdutoSavedEvent(
+                this,
+                saldo.getIdProduto(),
+                saldo.getIdEstoqueProduto(),
+                saldo.getQuantidade(),
+                null,
+                null
+        ));
+    }
+
+    /**
+     * Confere os dados do pedido e preenche os valores padrão
+     * @return o pedido com data e descontos preenchidos
+     */
+    private PedidoRequestDTO validarPedido(PedidoRequestDTO pedido) {
+        if (pedido == null || pedido.itens() == null || pedido.itens().isEmpty()) {
+            throw new IllegalArgumentException("O pedido deve ter ao menos um produto.");
+        }
+        List<ItemPedidoRequestDTO> itens = new ArrayList<>(pedido.itens().size());
+        for (ItemPedidoRequestDTO item : pedido.itens()) {
+            if (item == null || item.idProduto() == null) {
+                throw new IllegalArgumentException("Informe o produto de todas as linhas do pedido.");
+            }
+            if (item.quantidade() == null || item.quantidade() <= 0) {
+                throw new IllegalArgumentException("A quantidade deve ser maior que zero.");
+            }
+            if (item.precoTotal() == null || item.precoTotal().signum() < 0) {
+                throw new IllegalArgumentException("O preço total não pode ser negativo.");
+            }
+            itens.add(new ItemPedidoRequestDTO(
+                    item.idProduto(),
+                    item.idFornecedor(),
+                    item.quantidade(),
+                    item.precoTotal(),
+                    valorOuZero(item.desconto())));
+        }
+        return new PedidoRequestDTO(
+                pedido.observacao(),
+                valorOuZero(pedido.desconto()),
+                pedido.dataCompra() != null ? pedido.dataCompra() : LocalDateTime.now(),
+                itens);
+    }
+
+    /**
+     * Confere numa única consulta se todos os fornecedores das linhas existem
+     */
+    private void validarFornecedores(List<PedidoRequestDTO> pedidos) {
+        Set<Long> idsFornecedor = new HashSet<>();
+        for (PedidoRequestDTO pedido : pedidos) {
+            for (ItemPedidoRequestDTO item : pedido.itens()) {
+                if (item.idFornecedor() != null) {
+                    idsFornecedor.add(item.idFornecedor());
+                }
+            }
+        }
+        if (idsFornecedor.isEmpty()) {
+            return;
+        }
+        Set<Long> encontrados = fornecedorRepository.findAllById(idsFornecedor).stream()
+                .map(Fornecedor::getIdFornecedor)
+                .collect(Collectors.toSet());
+        List<Long> faltando = idsFornecedor.stream()
+                .filter(id -> !encontrados.contains(id))
+                .toList();
+        if (!faltando.isEmpty()) {
+            throw new IllegalArgumentException("Fornecedor não encontrado: " + faltando);
+        }
+    }
+
+    private static BigDecimal valorOuZero(BigDecimal valor) {
+        return Objects.requireNonNullElse(valor, BigDecimal.ZERO);
+    }
+
+    /**
+     * Saldo do estoque logo depois de uma entrada do pedido
+     */
+    private record SaldoNaEntrada(Long idProduto, Long idEstoqueProduto, Integer quantidade) implements SaldoEstoqueView {
+        @Override
+        public Long getIdProduto() {
+            return idProduto;
+        }
+
+        @Override
+        public Long getIdEstoqueProduto() {
+            return idEstoqueProduto;
+        }
+
+        @Override
+        public Integer getQuantidade() {
+            return quantidade;
+        }
     }
 }
@@ -0,0 +1,185 @@
+package dicasa.estoque.service;
+
+import dicasa.estoque.models.dto.ConsumoDiarioDTO;
+import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
+import dicasa.estoque.models.dto.PrevisaoCompraDTO;
+import dicasa.estoque.repository.MovimentacaoEstoqueRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Classe de service para a previsão de compras
+ * Estima a demanda diária de cada produto a partir das saídas do livro de movimentações
+ * e sugere quanto comprar para cobrir o prazo de entrega e o período até a próxima compra
+ */
+@Slf4j
+@Service
+public class PrevisaoDemandaService {
+
+    /**
+     * Abaixo dessa quantidade de produtos a previsão é feita direto, sem dividir mais a tarefa
+     */
+    private static final int LIMIAR_DIVISAO = 128;
+
+    private final MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+    private final EstoqueService estoqueService;
+    private final int diasHistorico;
+    private final double suavizacao;
+    private final int prazoEntregaDias;
+    private final int coberturaDias;
+
+    public PrevisaoDemandaService(
+            MovimentacaoEstoqueRepository movimentacaoEstoqueRepository,
+            EstoqueService estoqueService,
+            @Value("${app.previsao.historico-dias:84}") int diasHistorico,
+            @Value("${app.previsao.suavizacao:0.3}") double suavizacao,
+            @Value("${app.previsao.prazo-entrega-dias:3}") int prazoEntregaDias,
+            @Value("${app.previsao.cobertura-dias:7}") int coberturaDias) {
+        this.movimentacaoEstoqueRepository = movimentacaoEstoqueRepository;
+        this.estoqueService = estoqueService;
+        this.diasHistorico = diasHistorico;
+        this.suavizacao = suavizacao;
+        this.prazoEntregaDias = prazoEntregaDias;
+        this.coberturaDias = coberturaDias;
+    }
+
+    /**
+     * Função que calcula a previsão de compra de todos os produtos
+     * Cada produto é independente, então a previsão é dividida entre as threads com fork/join
+     * @return produtos que precisam ser comprados, com a quantidade sugerida e a urgência
+     */
+    public List<PrevisaoCompraDTO> preverCompras() {
+        long inicio = System.nanoTime();
+        LocalDate hoje = LocalDate.now();
+        LocalDate inicioHistorico = hoje.minusDays(diasHistorico);
+
+        List<EstoqueProdutoCompletoResponseDTO> estoques = estoqueService.listarEstoques();
+        Map<Long, double[]> consumoPorProduto = carregarConsumo(inicioHistorico, hoje);
+
+        List<PrevisaoCompraDTO> previsoes = ForkJoinPool.commonPool().invoke(
+                new PrevisaoPorProdutos(estoques, 0, estoques.size(), consumoPorProduto, inicioHistorico, hoje));
+
+        log.debug("Previsão de compras de {} produtos calculada em {} ms",
+                estoques.size(), (System.nanoTime() - inicio) / 1_000_000);
+        return previsoes;
+    }
+
+    /**
+     * Monta o consumo de cada produto como um vetor com um valor por dia, com zero nos dias sem saída
+     * Hoje fica de fora, porque o dia ainda não terminou
+     */
+    private Map<Long, double[]> carregarConsumo(LocalDate inicio, LocalDate hoje) {
+        int dias = (int) ChronoUnit.DAYS.between(inicio, hoje);
+        Map<Long, double[]> consumoPorProduto = new HashMap<>();
+        for (ConsumoDiarioDTO consumo : movimentacaoEstoqueRepository.consumoDiario(inicio.atStartOfDay(), hoje.atStartOfDay())) {
+            int dia = (int) ChronoUnit.DAYS.between(inicio, consumo.dia());
+            consumoPorProduto.computeIfAbsent(consumo.idProduto(), id -> new double[dias])[dia] += consumo.quantidade();
+        }
+        return consumoPorProduto;
+    }
+
+    /**
+     * Calcula a previsão de um produto
+     * Sem histórico de consumo, volta para a regra antiga de completar o estoque mínimo
+     */
+    private PrevisaoCompraDTO preverProduto(EstoqueProdutoCompletoResponseDTO estoque, double[] consumo,
+                                            LocalDate inicioHistorico, LocalDate hoje) {
+        ModeloDemanda modelo = consumo != null
+                ? ModeloDemanda.ajustar(consumo, inicioHistorico, suavizacao)
+                : ModeloDemanda.SEM_CONSUMO;
+
+        int quantidadeComprar;
+        String urgencia;
+        if (modelo.semConsumo()) {
+            quantidadeComprar = PrevisaoCompraDTO.calcularQuantidadeComprar(estoque.quantidade(), estoque.quantidadeMinima());
+            urgencia = PrevisaoCompraDTO.determinarUrgencia(estoque.quantidade(), estoque.quantidadeMinima());
+        } else {
+            // O pedido precisa cobrir o consumo até chegar e até a próxima compra, sem furar o estoque mínimo
+            double demanda = modelo.demandaEntre(hoje, prazoEntregaDias + coberturaDias);
+            quantidadeComprar = (int) Math.max(0, Math.ceil(demanda + estoque.quantidadeMinima() - estoque.quantidade()));
+            urgencia = urgencia(estoque.quantidade(), modelo.diasAteAcabar(estoque.quantidade(), hoje, prazoEntregaDias + coberturaDias));
+        }
+
+        return new PrevisaoCompraDTO(
+                estoque.idProduto(),
+                estoque.nome(),
+                estoque.tipo(),
+                estoque.quantidade(),
+                estoque.quantidadeMinima(),
+                quantidadeComprar,
+                urgencia,
+                "Fornecedores disponíveis" // Placeholder - pode ser expandido
+        );
+    }
+
+    /**
+     * A urgência vem de quantos dias o estoque ainda dura comparado ao prazo de entrega:
+     * se acaba antes de uma compra feita hoje chegar, é crítico
+     */
+    private String urgencia(int saldo, int diasAteAcabar) {
+        if (saldo == 0 || diasAteAcabar < prazoEntregaDias) {
+            return "CRÍTICO";
+        } else if (diasAteAcabar < prazoEntregaDias + 2) {
+            return "ALTO";
+        } else if (diasAteAcabar < prazoEntregaDias + coberturaDias) {
+            return "MÉDIO";
+        }
+        return "BAIXO";
+    }
+
+    /**
+     * Tarefa de fork/join que divide a lista de produtos ao meio até ficar pequena o bastante
+     */
+    private class PrevisaoPorProdutos extends RecursiveTask<List<PrevisaoCompraDTO>> {
+        private final List<EstoqueProdutoCompletoResponseDTO> estoques;
+        private final int de;
+        private final int ate;
+        private final Map<Long, double[]> consumoPorProduto;
+        private final LocalDate inicioHistorico;
+        private final LocalDate hoje;
+
+        private PrevisaoPorProdutos(List<EstoqueProdutoCompletoResponseDTO> estoques, int de, int ate,
+                                    Map<Long, double[]> consumoPorProduto, LocalDate inicioHistorico, LocalDate hoje) {
+            this.estoques = estoques;
+            this.de = de;
+            this.ate = ate;
+            this.consumoPorProduto = consumoPorProduto;
+            this.inicioHistorico = inicioHistorico;
+            this.hoje = hoje;
+        }
+
+        @Override
+        protected List<PrevisaoCompraDTO> compute() {
+            if (ate - de <= LIMIAR_DIVISAO) {
+                List<PrevisaoCompraDTO> previsoes = new ArrayList<>();
+                for (EstoqueProdutoCompletoResponseDTO estoque : estoques.subList(de, ate)) {
+                    PrevisaoCompraDTO previsao = preverProduto(
+                            estoque, consumoPorProduto.get(estoque.idProduto()), inicioHistorico, hoje);
+                    if (previsao.getQuantidadeComprar() > 0) {
+                        previsoes.add(previsao);
+                    }
+                }
+                return previsoes;
+            }
+
+            int meio = (de + ate) >>> 1;
+            PrevisaoPorProdutos esquerda = new PrevisaoPorProdutos(estoques, de, meio, consumoPorProduto, inicioHistorico, hoje);
+            PrevisaoPorProdutos direita = new PrevisaoPorProdutos(estoques, meio, ate, consumoPorProduto, inicioHistorico, hoje);
+            esquerda.fork();
+            List<PrevisaoCompraDTO> daDireita = direita.compute();
+            List<PrevisaoCompraDTO> previsoes = new ArrayList<>(esquerda.join());
+            previsoes.addAll(daDireita);
+            return previsoes;
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package dicasa.estoque.service;
 
+import dicasa.estoque.models.dto.ProdutoResumoDTO;
 import dicasa.estoque.repository.EstoqueProdutoRepository;
 import dicasa.estoque.repository.PedidoProdutoRepository;
 import dicasa.estoque.repository.ProdutoRepository;
+import dicasa.estoque.util.ProductSavedEvent;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
+import dicasa.estoque.models.entities.EstoqueProduto;
 import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.entities.TipoMovimentacao;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,24 +26,47 @@ import java.util.Optional;
  */
 
 @Service
+@Timed("dicasa.servico")
 public class ProdutoService {
 
     private final ProdutoRepository produtoRepository;
     private final PedidoProdutoRepository pedidoProdutoRepository;
     private final EstoqueProdutoRepository estoqueProdutoRepository;
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BuscaProdutoService buscaProdutoService;
 
     public ProdutoService(
             ProdutoRepository produtoRepository,
             PedidoProdutoRepository pedidoProdutoRepository,
-            EstoqueProdutoRepository estoqueProdutoRepository) {
+            EstoqueProdutoRepository estoqueProdutoRepository,
+            MovimentacaoEstoqueService movimentacaoEstoqueService,
+            ApplicationEventPublisher eventPublisher,
+            BuscaProdutoService buscaProdutoService) {
         this.produtoRepository = produtoRepository;
         this.pedidoProdutoRepository = pedidoProdutoRepository;
         this.estoqueProdutoRepository = estoqueProdutoRepository;
+        this.movimentacaoEstoqueService = movimentacaoEstoqueService;
+        this.eventPublisher = eventPublisher;
+        this.buscaProdutoService = buscaProdutoService;
     }
 
     // CREATE - Salvar produto
+    // Produto novo com estoque inicial gera a entrada no livro de movimentações
+    @Transactional
     public Produto salvarProduto(Produto produto) {
-        return produtoRepository.save(produto);
+        boolean produtoNovo = produto.getIdProduto() == null;
+        Produto salvo = produtoRepository.save(produto);
+
+        EstoqueProduto estoque = salvo.getEstoqueProduto();
+        if (produtoNovo && estoque != null && estoque.getQuantidade() > 0) {
+            movimentacaoEstoqueService.registrar(
+                    movimentacaoEstoqueService.criarMovimentacao(
+                            estoque, TipoMovimentacao.ENTRADA, estoque.getQuantidade(), "Estoque inicial")
+            );
+        }
+        eventPublisher.publishEvent(new ProductSavedEvent(this, salvo));
+        return salvo;
     }
 
     // READ - Buscar todos os produtos
@@ -42,6 +74,34 @@ public class ProdutoService {
         return produtoRepository.findAllWithEstoqueAndUsuario();
     }
 
+    // READ - Buscar uma página, ordenada por nome, a partir do último produto exibido
+    public List<Produto> buscarPagina(Produto ultimo, int tamanhoPagina) {
+        if (ultimo == null) {
+            return produtoRepository.buscarPrimeiraPaginaPorNome(Limit.of(tamanhoPagina));
+        }
+        return produtoRepository.buscarPaginaPorNomeApos(ultimo.getNome(), ultimo.getIdProduto(), Limit.of(tamanhoPagina));
+    }
+
+    // READ - Id e nome de todos os produtos, em ordem alfabética, para os filtros das telas
+    public List<ProdutoResumoDTO> listarNomes() {
+        return produtoRepository.listarNomes().stream()
+                .filter(produto -> produto.getNome() != null)
+                .map(produto -> new ProdutoResumoDTO(produto.getIdProduto(), produto.getNome()))
+                .sorted(Comparator.comparing(ProdutoResumoDTO::nome, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(ProdutoResumoDTO::idProduto))
+                .toList();
+    }
+
+    // READ - Total de produtos cadastrados
+    public long contarProdutos() {
+        return produtoRepository.count();
+    }
+
+    // READ - Produtos com estoque abaixo do mínimo
+    public List<Produto> buscarAbaixoDoMinimo() {
+        return produtoRepository.findAllAbaixoDoMinimoWithEstoqueAndUsuario();
+    }
+
     // READ - Buscar por ID
     public Optional<Produto> buscarPorId(Long id) {
         return produtoRepository.findByIdWithEstoqueAndUsuario(id);
@@ -50,15 +110,14 @@ public class ProdutoService {
     public Optional<Produto> buscarPorNome(String nome) {
         return produtoRepository.findByNome(nome);
     }
-    // Busca por nome (parcial, case insensitive)
-    //Pesquisa mapstruck
+    // Busca por nome (parcial, sem diferenciar maiúsculas e acentos), ordenada por relevância
     public List<Produto> buscarPorNomeParcial(String nome) {
-        return produtoRepository.findByNomeContainingIgnoreCase(nome);
+        return buscaProdutoService.buscar(nome);
     }
 
-    // Busca personalizada
+    // Busca tolerante a erros de digitação, ordenada por relevância
     public List<Produto> buscarPorNomeSimilar(String nome) {
-        return produtoRepository.buscarPorNomeSimilar(nome);
+        return buscaProdutoService.buscar(nome);
     }
 
     // UPDATE - Atualizar produto
@@ -70,7 +129,9 @@ public class ProdutoService {
                     produto.setTipo(produtoAtualizado.getTipo());
                     produto.setDataAtualizacao(java.time.LocalDateTime.now());
                     produto.setUsuario(produtoAtualizado.getUsuario());
-                    return produtoRepository.save(produto);
+                    Produto salvo = produtoRepository.save(produto);
+                    eventPublisher.publishEvent(new ProductSavedEvent(this, salvo));
+                    return salvo;
                 })
                 .orElse(null);
     }
@@ -88,6 +149,7 @@ public class ProdutoService {
                         estoqueProdutoRepository.delete(produto.getEstoqueProduto());
                     }
                     produtoRepository.delete(produto);
+                    eventPublisher.publishEvent(new ProductSavedEvent(this, produto));
                 });
     }
 }
\ No newline at end of file
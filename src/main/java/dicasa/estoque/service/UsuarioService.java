@@ -5,6 +5,7 @@ import dicasa.estoque.models.entities.UsuarioDeletado;
 import dicasa.estoque.repository.UsuarioDeletadoRepository;
 import dicasa.estoque.repository.UsuarioRepository;
 import dicasa.estoque.util.PasswordUtil;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +21,7 @@ import java.util.Optional;
  * transações.</p>
  */
 @Service
+@Timed("dicasa.servico")
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
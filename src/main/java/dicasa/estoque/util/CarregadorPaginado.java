@@ -0,0 +1,260 @@
+package dicasa.estoque.util;
+
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.Control;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Classe que carrega uma lista grande aos poucos, página por página, para TableView e ListView
+ * A primeira página aparece logo e as próximas são buscadas quando o usuário rola até o fim
+ * As páginas são buscadas por keyset: cada busca recebe o último item carregado e devolve os seguintes,
+ * então o custo de cada página não cresce com o tamanho da lista
+ * Cada página é buscada fora da thread do JavaFX e só entra na lista quando chega, então a rolagem não trava
+ * Usada apenas na thread do JavaFX
+ * @param <T> tipo do item da lista
+ */
+public class CarregadorPaginado<T> {
+
+    public static final int TAMANHO_PAGINA_PADRAO = 100;
+
+    /**
+     * Quanto falta da rolagem para buscar a próxima página, de 0 a 1
+     */
+    private static final double LIMITE_ROLAGEM = 0.9;
+
+    private final ObservableList<T> itens = FXCollections.observableArrayList();
+    private final int tamanhoPagina;
+    private final BiFunction<T, Integer, List<T>> buscarPaginaApos;
+    private final TarefasEmSegundoPlano tarefas;
+
+    private T ultimoCarregado;
+    private boolean fim;
+    /**
+     * Fica ligado do pedido da página até ela entrar na lista, para a rolagem não pedir a mesma página de novo
+     */
+    private boolean carregando;
+    private Task<List<T>> proximaPagina;
+    /**
+     * Muda a cada vez que a lista recomeça, para descartar uma página pedida antes disso
+     */
+    private long geracao;
+
+    /**
+     * @param tamanhoPagina quantidade de itens por página
+     * @param buscarPaginaApos recebe o último item carregado (null na primeira página) e o tamanho da página
+     * @param tarefas executa a busca das páginas fora da thread do JavaFX
+     */
+    public CarregadorPaginado(
+            int tamanhoPagina,
+            BiFunction<T, Integer, List<T>> buscarPaginaApos,
+            TarefasEmSegundoPlano tarefas) {
+        this.tamanhoPagina = tamanhoPagina;
+        this.buscarPaginaApos = buscarPaginaApos;
+        this.tarefas = tarefas;
+    }
+
+    public ObservableList<T> getItens() {
+        return itens;
+    }
+
+    public boolean isFim() {
+        return fim;
+    }
+
+    /**
+     * Descarta o que foi carregado e busca a primeira página de novo
+     */
+    public void recarregar() {
+        descartarPaginaPendente();
+        itens.clear();
+        ultimoCarregado = null;
+        fim = false;
+        carregarProximaPagina();
+    }
+
+    /**
+     * Busca a primeira página sem mexer na lista, para rodar fora da thread do JavaFX
+     * O resultado vai depois para exibirPrimeiraPagina, já na thread do JavaFX
+     * @return a primeira página
+     */
+    public List<T> buscarPrimeiraPagina() {
+        return buscarPaginaApos.apply(null, tamanhoPagina);
+    }
+
+    /**
+     * Troca o que foi carregado pela primeira página já buscada
+     * @param pagina resultado de buscarPrimeiraPagina
+     */
+    public void exibirPrimeiraPagina(List<T> pagina) {
+        descartarPaginaPendente();
+        ultimoCarregado = pagina.isEmpty() ? null : pagina.getLast();
+        fim = pagina.size() < tamanhoPagina;
+        itens.setAll(pagina);
+    }
+
+    /**
+     * Pede a próxima página em segundo plano; ela é adicionada no fim da lista quando chega
+     * Não faz nada se a lista já acabou ou se outra página ainda está a caminho
+     */
+    public void carregarProximaPagina() {
+        if (fim || carregando) {
+            return;
+        }
+        carregando = true;
+        T aPartirDe = ultimoCarregado;
+        long geracaoDoPedido = geracao;
+        proximaPagina = tarefas.executar(
+                "carregar próxima página",
+                () -> buscarPaginaApos.apply(aPartirDe, tamanhoPagina),
+                pagina -> {
+                    if (geracaoDoPedido == geracao) {
+                        adicionarPagina(pagina);
+                    }
+                },
+                // O erro já fica no log; a próxima rolagem tenta de novo
+                erro -> {
+                    if (geracaoDoPedido == geracao) {
+                        carregando = false;
+                    }
+                });
+    }
+
+    /**
+     * Uma página pedida antes da lista recomeçar não entra mais nela
+     */
+    private void descartarPaginaPendente() {
+        geracao++;
+        TarefasEmSegundoPlano.cancelar(proximaPagina);
+        carregando = false;
+    }
+
+    /**
+     * O estado é atualizado antes de mexer na lista, pois os ouvintes dela já podem pedir a página seguinte
+     */
+    private void adicionarPagina(List<T> pagina) {
+        carregando = false;
+        if (pagina.size() < tamanhoPagina) {
+            fim = true;
+        }
+        if (pagina.isEmpty()) {
+            return;
+        }
+        ultimoCarregado = pagina.getLast();
+        itens.addAll(pagina);
+    }
+
+    /**
+     * Passa a buscar a próxima página quando a rolagem da tabela chega perto do fim
+     * Só age enquanto a tabela estiver exibindo a lista deste carregador (e não o resultado de uma busca, por exemplo)
+     * @param tabela tabela que exibe os itens
+     */
+    public void observarRolagem(TableView<T> tabela) {
+        observarRolagem(tabela, () -> tabela.getItems() == itens);
+    }
+
+    /**
+     * Passa a buscar a próxima página quando a rolagem da lista chega perto do fim
+     * @param lista lista que exibe os itens, como a lista aberta por um ComboBox
+     */
+    public void observarRolagem(ListView<T> lista) {
+        observarRolagem(lista, () -> lista.getItems() == itens);
+    }
+
+    private void observarRolagem(Control controle, BooleanSupplier exibindoItens) {
+        LigacaoRolagem ligacao = new LigacaoRolagem(exibindoItens);
+        if (controle.getSkin() != null) {
+            Platform.runLater(() -> ligacao.ligar(controle));
+        }
+        controle.skinProperty().addListener((obs, antiga, nova) -> {
+            ligacao.desligar();
+            if (nova != null) {
+                Platform.runLater(() -> ligacao.ligar(controle));
+            }
+        });
+    }
+
+    /**
+     * Se a página não enche o controle, não aparece barra de rolagem e o usuário não teria como pedir mais,
+     * então continua buscando até a barra aparecer ou a lista acabar
+     */
+    private void preencherControle(ScrollBar barra, BooleanSupplier exibindoItens) {
+        if (!barra.isVisible() && !fim && !carregando && !itens.isEmpty() && exibindoItens.getAsBoolean()) {
+            Platform.runLater(() -> {
+                if (!barra.isVisible() && exibindoItens.getAsBoolean()) {
+                    carregarProximaPagina();
+                }
+            });
+        }
+    }
+
+    /**
+     * Ouvintes ligados à barra de rolagem vertical de um controle
+     * Ficam guardados para serem retirados da barra antiga quando o skin do controle é trocado,
+     * senão cada troca somaria mais ouvintes na lista de itens
+     */
+    private class LigacaoRolagem {
+
+        private final BooleanSupplier exibindoItens;
+        private ScrollBar barra;
+
+        private final ChangeListener<Number> aoRolar = (obs, antigo, novo) -> rolar(novo.doubleValue());
+        private final ChangeListener<Boolean> aoMudarVisibilidade = (obs, antigo, visivel) -> preencher();
+        private final ListChangeListener<T> aoMudarItens = mudanca -> preencher();
+
+        private LigacaoRolagem(BooleanSupplier exibindoItens) {
+            this.exibindoItens = exibindoItens;
+        }
+
+        /**
+         * Liga os ouvintes na barra de rolagem atual do controle, desligando antes os da barra anterior
+         */
+        void ligar(Control controle) {
+            desligar();
+            for (Node node : controle.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar vertical && vertical.getOrientation() == Orientation.VERTICAL) {
+                    barra = vertical;
+                    barra.valueProperty().addListener(aoRolar);
+                    barra.visibleProperty().addListener(aoMudarVisibilidade);
+                    itens.addListener(aoMudarItens);
+                    preencher();
+                    return;
+                }
+            }
+        }
+
+        void desligar() {
+            if (barra == null) {
+                return;
+            }
+            barra.valueProperty().removeListener(aoRolar);
+            barra.visibleProperty().removeListener(aoMudarVisibilidade);
+            itens.removeListener(aoMudarItens);
+            barra = null;
+        }
+
+        private void rolar(double posicao) {
+            if (barra != null && exibindoItens.getAsBoolean() && posicao >= barra.getMax() * LIMITE_ROLAGEM) {
+                carregarProximaPagina();
+            }
+        }
+
+        private void preencher() {
+            if (barra != null) {
+                preencherControle(barra, exibindoItens);
+            }
+        }
+    }
+}
@@ -6,13 +6,48 @@ import org.springframework.context.ApplicationEvent;
 
 /**
  * Classe que avisa ao controller que um EstoqueProduto foi alterado
+ * Leva o id do produto e os valores gravados, para que as telas e o cache troquem só aquela linha sem consultar o banco
+ * Os valores que quem publicou não conhece ficam nulos
  */
 
 @Getter
 public class EstoqueProdutoSavedEvent extends ApplicationEvent {
-    private final EstoqueProduto estoqueProduto;
+    private final Long idProduto;
+    private final Long idEstoqueProduto;
+    private final Integer quantidade;
+    private final Integer quantidadeMinima;
+    private final Integer estoqueEmergencial;
+
     public EstoqueProdutoSavedEvent(Object source, EstoqueProduto estoqueProduto) {
+        this(
+                source,
+                estoqueProduto.getProduto().getIdProduto(),
+                estoqueProduto.getId_estoque_produto(),
+                estoqueProduto.getQuantidade(),
+                estoqueProduto.getQuantidadeMinima(),
+                estoqueProduto.getEstoqueEmergencial()
+        );
+    }
+
+    public EstoqueProdutoSavedEvent(
+            Object source,
+            Long idProduto,
+            Long idEstoqueProduto,
+            Integer quantidade,
+            Integer quantidadeMinima,
+            Integer estoqueEmergencial) {
         super(source);
-        this.estoqueProduto = estoqueProduto;
+        this.idProduto = idProduto;
+        this.idEstoqueProduto = idEstoqueProduto;
+        this.quantidade = quantidade;
+        this.quantidadeMinima = quantidadeMinima;
+        this.estoqueEmergencial = estoqueEmergencial;
+    }
+
+    /**
+     * @return true se o evento traz a quantidade nova; sem ela quem recebe precisa consultar o banco
+     */
+    public boolean temValores() {
+        return quantidade != null;
     }
 }
@@ -0,0 +1,75 @@
+package dicasa.estoque.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Classe que mede as etapas da abertura do programa e escreve no log quanto tempo cada uma levou
+ * O total é contado desde o início da JVM, então inclui também a subida do JavaFX
+ * O resumo compara o total com o orçamento de app.inicializacao.orcamento
+ */
+@Slf4j
+public final class EtapasInicializacao {
+
+    /**
+     * Duração de cada etapa, na ordem em que terminaram
+     */
+    private static final Map<String, Duration> ETAPAS = new LinkedHashMap<>();
+
+    private EtapasInicializacao() {
+    }
+
+    /**
+     * Trecho da abertura que pode ser medido
+     */
+    @FunctionalInterface
+    public interface Etapa<T> {
+        T executar() throws Exception;
+    }
+
+    /**
+     * Função que executa uma etapa e registra a duração, mesmo quando ela falha
+     * @param nome nome da etapa no log
+     * @param etapa trecho a ser executado
+     * @return o resultado da etapa
+     */
+    public static <T> T medir(String nome, Etapa<T> etapa) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            return etapa.executar();
+        } finally {
+            Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+            synchronized (ETAPAS) {
+                ETAPAS.put(nome, duracao);
+            }
+            log.info("Inicialização: {} em {} ms", nome, duracao.toMillis());
+        }
+    }
+
+    /**
+     * Função que escreve no log o tempo total até o login estar pronto
+     * e avisa quando passou do orçamento
+     * @param orcamento tempo máximo esperado desde o início da JVM
+     */
+    public static void registrarResumo(Duration orcamento) {
+        Duration total = Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime());
+        String etapas;
+        synchronized (ETAPAS) {
+            etapas = ETAPAS.entrySet().stream()
+                    .map(etapa -> etapa.getKey() + " " + etapa.getValue().toMillis() + " ms")
+                    .collect(Collectors.joining(", "));
+        }
+        if (total.compareTo(orcamento) > 0) {
+            log.warn("Login pronto em {} ms, acima do orçamento de {} ms ({})",
+                    total.toMillis(), orcamento.toMillis(), etapas);
+        } else {
+            log.info("Login pronto em {} ms, dentro do orçamento de {} ms ({})",
+                    total.toMillis(), orcamento.toMillis(), etapas);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dicasa.estoque.util;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Classe que avisa que um Fornecedor foi cadastrado, alterado ou excluído
+ * Leva só o id: quem recebe consulta o banco para saber se ele ainda existe e como ficou
+ */
+
+@Getter
+public class FornecedorSavedEvent extends ApplicationEvent {
+    private final Long idFornecedor;
+    public FornecedorSavedEvent(Object source, Long idFornecedor) {
+        super(source);
+        this.idFornecedor = idFornecedor;
+    }
+}
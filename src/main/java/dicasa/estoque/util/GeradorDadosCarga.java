@@ -0,0 +1,444 @@
+package dicasa.estoque.util;
+
+import dicasa.estoque.cache.IndiceBuscaGlobal;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Classe que preenche o schema dicasa_estoque com dados sintéticos para os testes de carga
+ * Os volumes de app.carga.* representam o tamanho atual e são multiplicados por app.carga.escala,
+ * então 10 e 100 medem o programa com 10x e 100x os dados de hoje
+ * As linhas vão pelo COPY do PostgreSQL, sem passar pelo Hibernate, com os ids definidos aqui para ligar as tabelas
+ * Só roda no perfil carga com app.carga.gerar=true, e recusa bancos fora da máquina local
+ */
+@Slf4j
+@Component
+@Profile("carga")
+@ConditionalOnProperty(name = "app.carga.gerar", havingValue = "true")
+public class GeradorDadosCarga implements CommandLineRunner {
+
+    private static final String USUARIO_CARGA = "carga";
+
+    /**
+     * Tabelas apagadas antes da geração quando app.carga.limpar=true
+     */
+    private static final List<String> TABELAS = List.of(
+            "movimentacao_estoque", "pedido_produto", "pedido", "telefone_fornecedor",
+            "endereco_fornecedor", "fornecedor", "estoque_produto", "produto");
+
+    private static final String[] ITENS = {
+            "Muçarela", "Molho de tomate", "Farinha de trigo", "Calabresa", "Presunto", "Azeitona preta",
+            "Orégano", "Catupiry", "Tomate", "Cebola", "Pimentão", "Bacon", "Frango desfiado", "Palmito",
+            "Champignon", "Milho", "Ervilha", "Atum", "Parmesão", "Provolone", "Gorgonzola", "Manjericão",
+            "Rúcula", "Fermento", "Azeite", "Caixa de pizza", "Guardanapo", "Refrigerante", "Água mineral", "Cerveja"
+    };
+    private static final String[] FORMATOS = {"1 kg", "500 g", "2 kg", "5 kg", "cx 12", "2 L", "lata", "pct 100"};
+    private static final String[] TIPOS = {"Carne", "Massa", "Preparo", "Legume", "Vegetai", "Embalagem", "Revenda", "Grão"};
+    private static final String[] MARCAS = {
+            "Tirolez", "Quatá", "Fugini", "Quero", "Dona Benta", "Sadia", "Seara", "Perdigão", "Gomes da Costa",
+            "Gallo", "Bonare", "Predilecta", "Coca-Cola", "Ambev", "Genérica"
+    };
+    private static final String[] RAMOS = {
+            "Distribuidora", "Laticínios", "Frigorífico", "Atacadão", "Embalagens", "Hortifruti", "Bebidas", "Empório"
+    };
+    private static final String[] CIDADES = {
+            "Campinas", "São Paulo", "Sumaré", "Hortolândia", "Valinhos", "Jundiaí", "Americana", "Indaiatuba"
+    };
+    private static final String[] BAIRROS = {"Centro", "Jardim Paulista", "Vila Industrial", "Cambuí", "Taquaral", "Barão Geraldo"};
+    private static final String[] RUAS = {"Rua das Flores", "Avenida Brasil", "Rua XV de Novembro", "Rodovia Anhanguera", "Rua do Comércio"};
+    private static final int[] DDDS = {19, 11, 19, 19, 11, 13};
+
+    private final DataSource dataSource;
+    private final ObjectProvider<IndiceBuscaGlobal> indiceBuscaGlobal;
+    private final Volumes volumes;
+    private final long semente;
+    private final boolean limpar;
+    private final boolean permitirRemoto;
+
+    /**
+     * Quantidade de linhas geradas, já multiplicada pela escala
+     */
+    record Volumes(int produtos, int fornecedores, int telefonesPorFornecedor, int pedidos,
+                   int itensPorPedido, int movimentacoesPorProduto) {
+    }
+
+    public GeradorDadosCarga(DataSource dataSource,
+                             ObjectProvider<IndiceBuscaGlobal> indiceBuscaGlobal,
+                             @Value("${app.carga.escala:1}") int escala,
+                             @Value("${app.carga.produtos:2000}") int produtos,
+                             @Value("${app.carga.fornecedores:150}") int fornecedores,
+                             @Value("${app.carga.telefones-por-fornecedor:2}") int telefonesPorFornecedor,
+                             @Value("${app.carga.pedidos:3000}") int pedidos,
+                             @Value("${app.carga.itens-por-pedido:8}") int itensPorPedido,
+                             @Value("${app.carga.movimentacoes-por-produto:20}") int movimentacoesPorProduto,
+                             @Value("${app.carga.semente:42}") long semente,
+                             @Value("${app.carga.limpar:true}") boolean limpar,
+                             @Value("${app.carga.permitir-remoto:false}") boolean permitirRemoto) {
+        if (escala < 1) {
+            throw new IllegalArgumentException("app.carga.escala deve ser pelo menos 1: " + escala);
+        }
+        this.dataSource = dataSource;
+        this.indiceBuscaGlobal = indiceBuscaGlobal;
+        // Só as tabelas crescem com a escala; as proporções por produto, fornecedor e pedido ficam iguais
+        this.volumes = new Volumes(produtos * escala, fornecedores * escala, telefonesPorFornecedor,
+                pedidos * escala, itensPorPedido, movimentacoesPorProduto);
+        this.semente = semente;
+        this.limpar = limpar;
+        this.permitirRemoto = permitirRemoto;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        long inicio = System.nanoTime();
+        log.info("Gerando dados de carga: {}", volumes);
+
+        try (Connection conexao = dataSource.getConnection()) {
+            verificarBancoLocal(conexao);
+            boolean gatilhosDesligados = desligarGatilhos(conexao, true);
+            conexao.setAutoCommit(false);
+            try {
+                gerar(conexao);
+                conexao.commit();
+            } catch (Exception e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(true);
+                if (gatilhosDesligados) {
+                    desligarGatilhos(conexao, false);
+                }
+            }
+            // Atualiza as estatísticas para os planos das consultas refletirem o volume novo
+            try (Statement statement = conexao.createStatement()) {
+                for (String tabela : TABELAS) {
+                    statement.execute("ANALYZE dicasa_estoque." + tabela);
+                }
+            }
+        }
+
+        // O índice da busca global foi montado com os dados antigos
+        indiceBuscaGlobal.ifAvailable(IndiceBuscaGlobal::reconstruir);
+        log.info("Dados de carga gerados em {} ms", (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void gerar(Connection conexao) throws SQLException, IOException {
+        if (limpar) {
+            try (Statement statement = conexao.createStatement()) {
+                statement.execute("TRUNCATE " + String.join(", ",
+                        TABELAS.stream().map(tabela -> "dicasa_estoque." + tabela).toList()));
+            }
+        }
+        SplittableRandom random = new SplittableRandom(semente);
+        LocalDateTime agora = LocalDateTime.now().withNano(0);
+        long idUsuario = usuarioCarga(conexao);
+
+        long primeiroProduto = proximoId(conexao, "produto", "id_produto");
+        long primeiroEstoque = proximoId(conexao, "estoque_produto", "id_estoque_produto");
+        long primeiroFornecedor = proximoId(conexao, "fornecedor", "id_fornecedor");
+        long primeiroPedido = proximoId(conexao, "pedido", "id_pedido");
+        int[] quantidades = new int[volumes.produtos()];
+
+        copiar(conexao, "produto",
+                "id_produto, nome, marca, tipo, observacao, data_criacao, id_usuario_criador", copia -> {
+                    for (int i = 0; i < volumes.produtos(); i++) {
+                        copia.linha(primeiroProduto + i, nomeProduto(i), MARCAS[random.nextInt(MARCAS.length)],
+                                TIPOS[random.nextInt(TIPOS.length)], random.nextInt(10) == 0 ? "Manter refrigerado" : null,
+                                agora.minusDays(random.nextInt(730)), idUsuario);
+                    }
+                });
+
+        copiar(conexao, "estoque_produto",
+                "id_estoque_produto, quantidade, quantidade_minima, estoque_emergencial, data_criacao, id_produto", copia -> {
+                    for (int i = 0; i < volumes.produtos(); i++) {
+                        int minima = 5 + random.nextInt(46);
+                        // Um em cada dez produtos zerado, o resto espalhado entre todos os níveis de estoque
+                        quantidades[i] = random.nextInt(10) == 0 ? 0 : random.nextInt(minima * 3);
+                        copia.linha(primeiroEstoque + i, quantidades[i], minima, minima / 4,
+                                agora.minusDays(random.nextInt(730)), primeiroProduto + i);
+                    }
+                });
+
+        copiar(conexao, "fornecedor",
+                "id_fornecedor, cnpj, nome_fantasia, razao_social, data_criacao, id_usuario_criador", copia -> {
+                    for (int i = 0; i < volumes.fornecedores(); i++) {
+                        String nome = RAMOS[i % RAMOS.length] + " " + CIDADES[(i / RAMOS.length) % CIDADES.length]
+                                + " " + (i + 1);
+                        String razaoSocial = nome.length() > 40 ? nome.substring(0, 40) : nome;
+                        copia.linha(primeiroFornecedor + i, cnpj(random), nome, razaoSocial + " LTDA",
+                                agora.minusDays(random.nextInt(730)), idUsuario);
+                    }
+                });
+
+        long primeiroTelefone = proximoId(conexao, "telefone_fornecedor", "id_telefone_fornecedor");
+        copiar(conexao, "telefone_fornecedor", "id_telefone_fornecedor, telefone, id_fornecedor", copia -> {
+            long id = primeiroTelefone;
+            for (int i = 0; i < volumes.fornecedores(); i++) {
+                for (int t = 0; t < volumes.telefonesPorFornecedor(); t++) {
+                    copia.linha(id++, telefone(random, t == 0), primeiroFornecedor + i);
+                }
+            }
+        });
+
+        long primeiroEndereco = proximoId(conexao, "endereco_fornecedor", "id_endereco_fornecedor");
+        copiar(conexao, "endereco_fornecedor",
+                "id_endereco_fornecedor, logradouro, complemento, bairro, cidade, uf, cep, id_fornecedor", copia -> {
+                    for (int i = 0; i < volumes.fornecedores(); i++) {
+                        copia.linha(primeiroEndereco + i, RUAS[random.nextInt(RUAS.length)] + ", " + (1 + random.nextInt(2000)),
+                                random.nextInt(3) == 0 ? "Galpão " + (1 + random.nextInt(9)) : null,
+                                BAIRROS[random.nextInt(BAIRROS.length)], CIDADES[random.nextInt(CIDADES.length)], "SP",
+                                String.format("%08d", 13_000_000 + random.nextInt(1_000_000)), primeiroFornecedor + i);
+                    }
+                });
+
+        LocalDateTime[] datasPedido = new LocalDateTime[volumes.pedidos()];
+        copiar(conexao, "pedido", "id_pedido, desconto, observacao, data_compra, id_usuario_criador", copia -> {
+            for (int i = 0; i < volumes.pedidos(); i++) {
+                // Os mais recentes primeiro nos ids, como se tivessem sido lançados em ordem
+                datasPedido[i] = agora.minusMinutes((long) (volumes.pedidos() - i) * 730 * 24 * 60 / volumes.pedidos());
+                copia.linha(primeiroPedido + i, random.nextInt(5) == 0 ? dinheiro(random.nextInt(2000)) : BigDecimal.ZERO,
+                        random.nextInt(4) == 0 ? "Entrega " + BAIRROS[random.nextInt(BAIRROS.length)] : null,
+                        datasPedido[i], idUsuario);
+            }
+        });
+
+        copiar(conexao, "pedido_produto",
+                "quantidade, preco_total, desconto, data_pedido, id_fornecedor, id_produto, id_pedido", copia -> {
+                    for (int i = 0; i < volumes.pedidos(); i++) {
+                        int itens = 1 + random.nextInt(volumes.itensPorPedido() * 2);
+                        for (int item = 0; item < itens; item++) {
+                            int produto = produtoPopular(random);
+                            int quantidade = 1 + random.nextInt(50);
+                            // Preço unitário fixo por produto, entre R$ 2 e R$ 200
+                            BigDecimal total = dinheiro((200 + (produto * 7919L) % 19_800) * quantidade);
+                            copia.linha(quantidade, total, random.nextInt(10) == 0 ? dinheiro(quantidade * 50L) : BigDecimal.ZERO,
+                                    datasPedido[i], primeiroFornecedor + random.nextInt(volumes.fornecedores()),
+                                    primeiroProduto + produto, primeiroPedido + i);
+                        }
+                    }
+                });
+
+        copiar(conexao, "movimentacao_estoque",
+                "id_produto, id_estoque_produto, tipo, quantidade, saldo_resultante, id_usuario, observacao, data_movimentacao",
+                copia -> {
+                    for (int i = 0; i < volumes.produtos(); i++) {
+                        // Montado de trás para frente, para o último saldo ser a quantidade atual do estoque
+                        int saldo = quantidades[i];
+                        LocalDateTime data = agora;
+                        for (int m = 0; m < volumes.movimentacoesPorProduto(); m++) {
+                            int quantidade = 1 + random.nextInt(20);
+                            boolean entrada = saldo >= quantidade && random.nextInt(3) == 0;
+                            copia.linha(primeiroProduto + i, primeiroEstoque + i, entrada ? "ENTRADA" : "SAIDA",
+                                    quantidade, saldo, idUsuario, null, data);
+                            saldo = entrada ? saldo - quantidade : saldo + quantidade;
+                            data = data.minusHours(1 + random.nextInt(72));
+                        }
+                    }
+                });
+
+        acertarSequencias(conexao);
+    }
+
+    /**
+     * Só permite apagar e gerar dados num banco da própria máquina, a não ser que app.carga.permitir-remoto=true
+     */
+    private void verificarBancoLocal(Connection conexao) throws SQLException {
+        String url = conexao.getMetaData().getURL();
+        boolean local = url.contains("//localhost") || url.contains("//127.0.0.1") || url.contains("//[::1]");
+        if (!local && !permitirRemoto) {
+            throw new IllegalStateException("A geração de dados de carga só roda em banco local: " + url);
+        }
+    }
+
+    /**
+     * Desliga os gatilhos na conexão, para a carga não mandar um aviso de alteração por linha aos outros terminais
+     * Precisa de superusuário, o que é o normal num PostgreSQL local; sem permissão a carga segue com os gatilhos
+     */
+    private boolean desligarGatilhos(Connection conexao, boolean desligar) {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute(desligar ? "SET session_replication_role = replica" : "RESET session_replication_role");
+            return true;
+        } catch (SQLException e) {
+            log.warn("Não foi possível desligar os gatilhos, cada linha vai gerar um aviso de alteração: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private long usuarioCarga(Connection conexao) throws SQLException {
+        try (PreparedStatement insert = conexao.prepareStatement(
+                "INSERT INTO dicasa_estoque.usuario (nome, email, senha, is_admin, created_at) " +
+                "VALUES (?, ?, ?, TRUE, now()) ON CONFLICT (nome) DO NOTHING")) {
+            insert.setString(1, USUARIO_CARGA);
+            insert.setString(2, "carga@dicasa.local");
+            insert.setString(3, PasswordUtil.hashPassword(USUARIO_CARGA));
+            insert.executeUpdate();
+        }
+        try (PreparedStatement select = conexao.prepareStatement(
+                "SELECT id_usuario FROM dicasa_estoque.usuario WHERE nome = ?")) {
+            select.setString(1, USUARIO_CARGA);
+            try (ResultSet resultado = select.executeQuery()) {
+                resultado.next();
+                return resultado.getLong(1);
+            }
+        }
+    }
+
+    private static long proximoId(Connection conexao, String tabela, String coluna) throws SQLException {
+        try (Statement statement = conexao.createStatement();
+             ResultSet resultado = statement.executeQuery(
+                     "SELECT COALESCE(MAX(" + coluna + "), 0) + 1 FROM dicasa_estoque." + tabela)) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+
+    /**
+     * Leva as sequências ao maior id gravado
+     * Nas de incremento 50 (migration V5) o próximo nextval reserva o bloco logo acima, como o Hibernate espera
+     */
+    private static void acertarSequencias(Connection conexao) throws SQLException {
+        String[][] colunas = {
+                {"produto", "id_produto"}, {"estoque_produto", "id_estoque_produto"},
+                {"fornecedor", "id_fornecedor"}, {"telefone_fornecedor", "id_telefone_fornecedor"},
+                {"endereco_fornecedor", "id_endereco_fornecedor"}, {"pedido", "id_pedido"}
+        };
+        try (Statement statement = conexao.createStatement()) {
+            for (String[] coluna : colunas) {
+                statement.execute(String.format(
+                        "SELECT setval(pg_get_serial_sequence('dicasa_estoque.%1$s', '%2$s'), MAX(%2$s)) " +
+                        "FROM dicasa_estoque.%1$s", coluna[0], coluna[1]));
+            }
+        }
+    }
+
+    /**
+     * Função que grava as linhas geradas numa tabela pelo COPY, em CSV
+     * @param tabela tabela do schema dicasa_estoque
+     * @param colunas colunas na ordem dos valores de cada linha
+     * @param gerador escreve as linhas
+     */
+    private static void copiar(Connection conexao, String tabela, String colunas, Gerador gerador)
+            throws SQLException, IOException {
+        long inicio = System.nanoTime();
+        String sql = "COPY dicasa_estoque." + tabela + " (" + colunas + ") FROM STDIN WITH (FORMAT csv)";
+        Copia copia;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(conexao.unwrap(PGConnection.class), sql), StandardCharsets.UTF_8), 1 << 16)) {
+            copia = new Copia(writer);
+            gerador.gerar(copia);
+        }
+        log.info("Carga: {} linhas em {} em {} ms", copia.linhas, tabela, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface Gerador {
+        void gerar(Copia copia) throws IOException;
+    }
+
+    /**
+     * Escreve as linhas no formato CSV do COPY; null vira campo vazio, que o COPY lê como NULL
+     */
+    private static final class Copia {
+        private final Writer writer;
+        private long linhas;
+
+        private Copia(Writer writer) {
+            this.writer = writer;
+        }
+
+        void linha(Object... valores) throws IOException {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object valor = valores[i];
+                if (valor instanceof String texto) {
+                    writer.write('"');
+                    writer.write(texto.replace("\"", "\"\""));
+                    writer.write('"');
+                } else if (valor != null) {
+                    writer.write(valor.toString());
+                }
+            }
+            writer.write('\n');
+            linhas++;
+        }
+    }
+
+    private static String nomeProduto(int indice) {
+        String nome = ITENS[indice % ITENS.length] + " " + FORMATOS[(indice / ITENS.length) % FORMATOS.length];
+        int repeticao = indice / (ITENS.length * FORMATOS.length);
+        return repeticao == 0 ? nome : nome + " " + (repeticao + 1);
+    }
+
+    /**
+     * Poucos produtos aparecem na maior parte dos pedidos, como acontece na pizzaria
+     */
+    private int produtoPopular(SplittableRandom random) {
+        double sorteio = random.nextDouble();
+        return (int) (volumes.produtos() * sorteio * sorteio);
+    }
+
+    private static BigDecimal dinheiro(long centavos) {
+        return BigDecimal.valueOf(centavos).movePointLeft(2).setScale(2, RoundingMode.UNNECESSARY);
+    }
+
+    private static String telefone(SplittableRandom random, boolean celular) {
+        int ddd = DDDS[random.nextInt(DDDS.length)];
+        return celular
+                ? String.format("%d9%08d", ddd, random.nextInt(100_000_000))
+                : String.format("%d3%07d", ddd, random.nextInt(10_000_000));
+    }
+
+    /**
+     * CNPJ só com números e dígitos verificadores válidos
+     */
+    private static String cnpj(SplittableRandom random) {
+        int[] digitos = new int[14];
+        for (int i = 0; i < 8; i++) {
+            digitos[i] = random.nextInt(10);
+        }
+        digitos[11] = 1;
+        digitos[12] = digitoCnpj(digitos, 12);
+        digitos[13] = digitoCnpj(digitos, 13);
+        StringBuilder cnpj = new StringBuilder(14);
+        for (int digito : digitos) {
+            cnpj.append(digito);
+        }
+        return cnpj.toString();
+    }
+
+    private static int digitoCnpj(int[] digitos, int posicao) {
+        int soma = 0;
+        int peso = posicao - 7;
+        for (int i = 0; i < posicao; i++) {
+            soma += digitos[i] * peso;
+            peso = peso == 2 ? 9 : peso - 1;
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
@@ -0,0 +1,20 @@
+package dicasa.estoque.util;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Classe que avisa que pedidos foram gravados, como os de uma importação de notas
+ * Leva só os ids: quem recebe consulta o banco para ver como ficaram
+ */
+
+@Getter
+public class PedidoSavedEvent extends ApplicationEvent {
+    private final List<Integer> idsPedido;
+    public PedidoSavedEvent(Object source, List<Integer> idsPedido) {
+        super(source);
+        this.idsPedido = idsPedido;
+    }
+}
@@ -2,12 +2,15 @@ package dicasa.estoque.util;
 
 import lombok.Getter;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 /**
  * Classe auxiliar para mandar o context da tela atual
+ * Não pode ser lazy, senão o context só seria guardado quando alguém pedisse este bean
  */
 
+@Lazy(false)
 @Component
 public class SpringFXManager {
     @Getter
@@ -0,0 +1,171 @@
+package dicasa.estoque.util;
+
+import jakarta.annotation.PreDestroy;
+import javafx.concurrent.Task;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.ProgressIndicator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Executa as chamadas aos services fora da thread do JavaFX, cada uma numa thread virtual
+ * Assim a tela não congela enquanto espera a ida e volta ao banco
+ * O resultado e o erro são entregues de volta na thread do JavaFX (o Task usa Platform.runLater),
+ * então os callbacks podem mexer na tela normalmente
+ */
+@Slf4j
+@Component
+public class TarefasEmSegundoPlano {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("tarefa-fx-", 0).factory());
+
+    /**
+     * Interface do trabalho que informa o andamento enquanto roda
+     * @param <T> tipo do resultado
+     */
+    @FunctionalInterface
+    public interface Trabalho<T> {
+        T executar(Progresso progresso) throws Exception;
+    }
+
+    /**
+     * Interface usada pelo trabalho para informar o andamento, que a tela mostra na barra ou no indicador
+     */
+    public interface Progresso {
+        void atualizar(long feito, long total);
+
+        void mensagem(String mensagem);
+
+        boolean cancelado();
+    }
+
+    /**
+     * Executa a chamada em segundo plano
+     * @param descricao nome da tarefa, usado no log
+     * @param chamada chamada ao service
+     * @param aoConcluir recebe o resultado, na thread do JavaFX
+     * @param aoFalhar recebe o erro, na thread do JavaFX
+     * @return a tarefa, para cancelar ou acompanhar o progresso
+     */
+    public <T> Task<T> executar(
+            String descricao,
+            Callable<T> chamada,
+            Consumer<T> aoConcluir,
+            Consumer<Throwable> aoFalhar) {
+        return executar(descricao, progresso -> chamada.call(), aoConcluir, aoFalhar);
+    }
+
+    /**
+     * Executa o trabalho em segundo plano, com progresso
+     * Cancelar a tarefa não interrompe a thread, só descarta o resultado, e nenhum dos callbacks é chamado
+     * @param descricao nome da tarefa, usado no log
+     * @param trabalho trabalho que pode informar o andamento
+     * @param aoConcluir recebe o resultado, na thread do JavaFX
+     * @param aoFalhar recebe o erro, na thread do JavaFX
+     * @return a tarefa, para cancelar ou acompanhar o progresso
+     */
+    public <T> Task<T> executar(
+            String descricao,
+            Trabalho<T> trabalho,
+            Consumer<T> aoConcluir,
+            Consumer<Throwable> aoFalhar) {
+        Tarefa<T> tarefa = new Tarefa<>(descricao, trabalho);
+        tarefa.setOnSucceeded(event -> aoConcluir.accept(tarefa.getValue()));
+        tarefa.setOnFailed(event -> {
+            log.error("Falha na tarefa {}", descricao, tarefa.getException());
+            aoFalhar.accept(tarefa.getException());
+        });
+        tarefa.setOnCancelled(event -> log.debug("Tarefa {} cancelada", descricao));
+        executor.execute(tarefa);
+        return tarefa;
+    }
+
+    /**
+     * Cancela a tarefa anterior da tela, se ainda não terminou, mesmo que ainda esteja na fila
+     * Usado quando o usuário pede outra carga antes da primeira terminar
+     * @param tarefa tarefa anterior, pode ser null
+     */
+    public static void cancelar(Task<?> tarefa) {
+        if (tarefa != null && !tarefa.isDone()) {
+            tarefa.cancel();
+        }
+    }
+
+    /**
+     * Mostra o andamento da tarefa no botão que a iniciou, que fica desabilitado até ela terminar
+     * @param tarefa tarefa em execução
+     * @param botao botão ou label que mostra o progresso
+     * @param textoEmAndamento texto exibido enquanto a tarefa roda
+     */
+    public static void mostrarProgresso(Task<?> tarefa, Labeled botao, String textoEmAndamento) {
+        String textoOriginal = botao.getText();
+        ProgressIndicator indicador = new ProgressIndicator();
+        indicador.progressProperty().bind(tarefa.progressProperty());
+        indicador.setPrefSize(16, 16);
+
+        botao.setDisable(true);
+        botao.setText(textoEmAndamento);
+        botao.setGraphic(indicador);
+        tarefa.runningProperty().addListener((obs, rodava, rodando) -> {
+            if (!rodando) {
+                botao.setDisable(false);
+                botao.setText(textoOriginal);
+                botao.setGraphic(null);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private static class Tarefa<T> extends Task<T> implements Progresso {
+        private final String descricao;
+        private final Trabalho<T> trabalho;
+
+        private Tarefa(String descricao, Trabalho<T> trabalho) {
+            this.descricao = descricao;
+            this.trabalho = trabalho;
+        }
+
+        @Override
+        protected T call() throws Exception {
+            long inicio = System.nanoTime();
+            T resultado = trabalho.executar(this);
+            log.debug("Tarefa {} concluída em {} ms", descricao, (System.nanoTime() - inicio) / 1_000_000);
+            return resultado;
+        }
+
+        /**
+         * Nunca interrompe a thread: no JDK 21 a interrupção de uma thread virtual fecha o socket do JDBC
+         * no meio da consulta e a conexão volta estragada para o pool
+         * A consulta termina normalmente e o resultado é descartado, pois a tarefa já está cancelada
+         */
+        @Override
+        public boolean cancel(boolean interromper) {
+            return super.cancel(false);
+        }
+
+        @Override
+        public void atualizar(long feito, long total) {
+            updateProgress(feito, total);
+        }
+
+        @Override
+        public void mensagem(String mensagem) {
+            updateMessage(mensagem);
+        }
+
+        @Override
+        public boolean cancelado() {
+            return isCancelled();
+        }
+    }
+}
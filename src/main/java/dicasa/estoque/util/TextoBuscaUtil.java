@@ -0,0 +1,198 @@
+package dicasa.estoque.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Classe com as funções de texto usadas nas buscas por nome
+ * Segue as mesmas regras do pg_trgm e do unaccent do PostgreSQL, para que a busca em memória
+ * e a busca no banco encontrem os mesmos produtos
+ */
+public class TextoBuscaUtil {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Similaridade mínima para considerar dois textos parecidos, igual ao padrão do pg_trgm
+     */
+    public static final double SIMILARIDADE_MINIMA = 0.3;
+
+    /**
+     * Função que deixa o texto em minúsculas e sem acentos
+     * @param texto texto original
+     * @return texto normalizado, ou vazio se for nulo
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        if (ehAscii(texto)) {
+            return texto.toLowerCase(Locale.ROOT).trim();
+        }
+        String semAcento = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcento.toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Função que normaliza o texto pelo som, para tolerar as grafias mais comuns do português
+     * Assim "muçarela", "mussarela" e "mozzarela" viram "musarela" (ou ficam a uma letra de distância)
+     * @param texto texto original, ainda com acentos (o ç precisa ser lido antes de remover acentos)
+     * @return texto normalizado pelo som
+     */
+    public static String normalizarFonetica(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String base = normalizar(texto.toLowerCase(Locale.ROOT).replace('ç', 's'));
+        StringBuilder fonetica = new StringBuilder(base.length());
+        int i = 0;
+        while (i < base.length()) {
+            char letra = base.charAt(i);
+            char proxima = i + 1 < base.length() ? base.charAt(i + 1) : ' ';
+            char depois = i + 2 < base.length() ? base.charAt(i + 2) : ' ';
+            boolean antesDeEouI = proxima == 'e' || proxima == 'i';
+            int consumidas = 1;
+            char som = letra;
+
+            switch (letra) {
+                case 'p' -> {
+                    if (proxima == 'h') {
+                        som = 'f';
+                        consumidas = 2;
+                    }
+                }
+                case 'c', 's' -> {
+                    if (proxima == 'h') {
+                        som = 'x';
+                        consumidas = 2;
+                    } else if (letra == 's' && proxima == 'c' && (depois == 'e' || depois == 'i')) {
+                        consumidas = 2;
+                    } else if (letra == 'c') {
+                        som = antesDeEouI ? 's' : 'k';
+                    }
+                }
+                case 'l', 'n' -> {
+                    // "lh" e "nh" soam como "li" e "ni"
+                    if (proxima == 'h') {
+                        adicionarSom(fonetica, letra);
+                        som = 'i';
+                        consumidas = 2;
+                    }
+                }
+                case 'q' -> {
+                    som = 'k';
+                    if (proxima == 'u' && (depois == 'e' || depois == 'i')) {
+                        consumidas = 2;
+                    }
+                }
+                case 'g' -> {
+                    if (antesDeEouI) {
+                        som = 'j';
+                    } else if (proxima == 'u' && (depois == 'e' || depois == 'i')) {
+                        consumidas = 2;
+                    }
+                }
+                case 'z' -> som = 's';
+                case 'y' -> som = 'i';
+                case 'w' -> som = 'v';
+                default -> {
+                }
+            }
+
+            if (letra != 'h') {
+                adicionarSom(fonetica, som);
+            }
+            i += consumidas;
+        }
+        return fonetica.toString();
+    }
+
+    /**
+     * Letras repetidas ("ss", "rr", "ll") contam como uma só
+     */
+    private static void adicionarSom(StringBuilder fonetica, char som) {
+        int ultima = fonetica.length() - 1;
+        if (ultima >= 0 && fonetica.charAt(ultima) == som && Character.isLetter(som)) {
+            return;
+        }
+        fonetica.append(som);
+    }
+
+    private static boolean ehAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Função que separa o texto em palavras, descartando pontuação e espaços
+     * @param texto texto em qualquer formato
+     * @return palavras do texto
+     */
+    public static List<String> palavras(String texto) {
+        if (texto == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARADORES.split(texto.trim()))
+                .filter(palavra -> !palavra.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Função que quebra o texto em trigramas, do mesmo jeito que o pg_trgm
+     * Cada palavra ganha dois espaços no começo e um no fim, então "sal" vira "  s", " sa", "sal" e "al "
+     * @param texto texto já normalizado
+     * @return conjunto de trigramas
+     */
+    public static Set<String> trigramas(String texto) {
+        Set<String> trigramas = new HashSet<>();
+        for (String palavra : SEPARADORES.split(texto)) {
+            if (palavra.isEmpty()) {
+                continue;
+            }
+            String comEspacos = "  " + palavra + " ";
+            for (int i = 0; i + 3 <= comEspacos.length(); i++) {
+                trigramas.add(comEspacos.substring(i, i + 3));
+            }
+        }
+        return trigramas;
+    }
+
+    /**
+     * Função que calcula a similaridade entre dois textos, de 0 a 1, como o similarity() do pg_trgm
+     * @param a texto já normalizado
+     * @param b texto já normalizado
+     * @return trigramas em comum divididos pelo total de trigramas distintos
+     */
+    public static double similaridade(String a, String b) {
+        return similaridade(trigramas(a), trigramas(b));
+    }
+
+    /**
+     * Mesma similaridade, para quando os trigramas já foram calculados
+     * @param a trigramas do primeiro texto
+     * @param b trigramas do segundo texto
+     * @return similaridade de 0 a 1
+     */
+    public static double similaridade(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int emComum = 0;
+        for (String trigrama : a) {
+            if (b.contains(trigrama)) {
+                emComum++;
+            }
+        }
+        return (double) emComum / (a.size() + b.size() - emComum);
+    }
+}
@@ -0,0 +1,112 @@
+-- Schema original do Supabase, que existia antes do Flyway e por isso não tem migration
+-- Usado só pelo perfil carga, para montar um banco local vazio; as migrations V1 em diante rodam depois deste
+-- As colunas de id nascem como IDENTITY, como no Supabase, e a V5 troca as das entidades por sequência
+CREATE TABLE IF NOT EXISTS dicasa_estoque.usuario (
+    id_usuario BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome       VARCHAR(100) NOT NULL UNIQUE,
+    email      VARCHAR(150) NOT NULL UNIQUE,
+    senha      VARCHAR(255) NOT NULL,
+    is_admin   BOOLEAN      NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP    NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS dicasa_estoque.usuario_deletado (
+    id_usuario_deletado BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id_original         BIGINT,
+    nome                VARCHAR(50)  NOT NULL,
+    email               VARCHAR(100) NOT NULL,
+    is_admin            BOOLEAN      NOT NULL DEFAULT FALSE,
+    data_exclusao       TIMESTAMP    NOT NULL DEFAULT now(),
+    motivo_exclusao     VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS dicasa_estoque.produto (
+    id_produto         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome               VARCHAR(50) NOT NULL,
+    marca              VARCHAR(50),
+    tipo               VARCHAR(30) NOT NULL,
+    observacao         VARCHAR(255),
+    data_criacao       TIMESTAMP   NOT NULL DEFAULT now(),
+    data_atualizacao   TIMESTAMP,
+    id_usuario_criador BIGINT REFERENCES dicasa_estoque.usuario (id_usuario)
+);
+
+CREATE TABLE IF NOT EXISTS dicasa_estoque.estoque_produto (
+    id_estoque_produto  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    quantidade          INTEGER   NOT NULL DEFAULT 0,
+    quantidade_minima   INTEGER   NOT NULL DEFAULT 0,
+    estoque_emergencial INTEGER   NOT NULL DEFAULT 0,
+    data_criacao        TIMESTAMP NOT NULL DEFAULT now(),
+    data_atualizacao    TIMESTAMP,
+    id_produto          BIGINT    NOT NULL UNIQUE REFERENCES dicasa_estoque.produto (id_produto) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS dicasa_estoque.fornecedor (
+    id_fornecedor      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cnpj               VARCHAR(18),
+    nome_fantasia      VARCHAR(100) NOT NULL,
+    razao_social       VARCHAR(45)  NOT NULL,
+    data_criacao       TIMESTAMP    NOT NULL DEFAULT now(),
+    data_atualizacao   TIMESTAMP,
+    id_usuario_criador BIGINT REFERENCES dicasa_estoque.usuario (id_usuario)
+);
+
+CREATE TABLE IF NOT EXISTS dicasa_estoque.telefone_fornecedor (
+    id_telefone_fornecedor BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    telefone               VARCHAR(14) NOT NULL,
+    id_fornecedor          BIGINT      NOT NULL REFERENCES dicasa_estoque.fornecedor (id_fornecedor) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS dicasa_estoque.endereco_fornecedor (
+    id_endereco_fornecedor BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    logradouro             VARCHAR(100) NOT NULL,
+    complemento            VARCHAR(30),
+    bairro                 VARCHAR(50),
+    cidade                 VARCHAR(50),
+    uf                     VARCHAR(2),
+    cep                    VARCHAR(9),
+    id_fornecedor          BIGINT UNIQUE REFERENCES dicasa_estoque.fornecedor (id_fornecedor) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS dicasa_estoque.pedido (
+    id_pedido          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    desconto           NUMERIC(10, 2) NOT NULL DEFAULT 0,
+    observacao         VARCHAR(255),
+    data_compra        TIMESTAMP      NOT NULL DEFAULT now(),
+    data_atualizacao   TIMESTAMP,
+    id_usuario_criador BIGINT REFERENCES dicasa_estoque.usuario (id_usuario)
+);
+
+CREATE TABLE IF NOT EXISTS dicasa_estoque.pedido_produto (
+    id_pedido_produto BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    quantidade        INTEGER        NOT NULL,
+    preco_total       NUMERIC(10, 2) NOT NULL,
+    desconto          NUMERIC(10, 2) NOT NULL DEFAULT 0,
+    data_pedido       TIMESTAMP      NOT NULL DEFAULT now(),
+    data_atualizacao  TIMESTAMP,
+    id_fornecedor     BIGINT REFERENCES dicasa_estoque.fornecedor (id_fornecedor),
+    id_produto        BIGINT  NOT NULL REFERENCES dicasa_estoque.produto (id_produto),
+    id_pedido         INTEGER NOT NULL REFERENCES dicasa_estoque.pedido (id_pedido) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_pedido_produto_pedido ON dicasa_estoque.pedido_produto (id_pedido);
+CREATE INDEX IF NOT EXISTS idx_telefone_fornecedor_fornecedor ON dicasa_estoque.telefone_fornecedor (id_fornecedor);
+
+-- Totais de cada pedido, lidos pela entidade PedidoDetalhadoView
+CREATE OR REPLACE VIEW dicasa_estoque.pedido_detalhado AS
+SELECT p.id_pedido::BIGINT                                            AS id_pedido,
+       p.data_compra,
+       p.observacao,
+       p.desconto                                                     AS desconto_pedido,
+       u.nome                                                         AS usuario,
+       COUNT(i.id_pedido_produto)::INTEGER                            AS total_itens,
+       COALESCE(SUM(i.quantidade), 0)::INTEGER                        AS total_quantidade,
+       COALESCE(SUM(i.preco_total), 0)                                AS subtotal,
+       COALESCE(SUM(i.desconto), 0)                                   AS total_descontos_itens,
+       COALESCE(SUM(i.preco_total - i.desconto), 0)                   AS total_liquido_itens,
+       COALESCE(SUM(i.preco_total - i.desconto), 0) - p.desconto      AS valor_final
+FROM dicasa_estoque.pedido p
+         LEFT JOIN dicasa_estoque.usuario u ON u.id_usuario = p.id_usuario_criador
+         LEFT JOIN dicasa_estoque.pedido_produto i ON i.id_pedido = p.id_pedido
+GROUP BY p.id_pedido, u.nome;
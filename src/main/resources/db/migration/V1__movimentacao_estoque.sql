@@ -0,0 +1,33 @@
+-- Livro de movimentações do estoque: somente inserção
+CREATE TABLE IF NOT EXISTS dicasa_estoque.movimentacao_estoque (
+    id_movimentacao    BIGSERIAL PRIMARY KEY,
+    id_produto         BIGINT       NOT NULL,
+    id_estoque_produto BIGINT,
+    tipo               VARCHAR(10)  NOT NULL CHECK (tipo IN ('ENTRADA', 'SAIDA', 'AJUSTE')),
+    quantidade         INTEGER      NOT NULL,
+    saldo_resultante   INTEGER      NOT NULL,
+    id_usuario         BIGINT,
+    observacao         VARCHAR(255),
+    data_movimentacao  TIMESTAMP    NOT NULL DEFAULT now()
+);
+
+-- Paginação por chave do histórico, geral e por produto
+CREATE INDEX IF NOT EXISTS idx_movimentacao_produto_id
+    ON dicasa_estoque.movimentacao_estoque (id_produto, id_movimentacao DESC);
+
+-- Fechamento mensal por período
+CREATE INDEX IF NOT EXISTS idx_movimentacao_data
+    ON dicasa_estoque.movimentacao_estoque (data_movimentacao);
+
+-- Garante no banco que nenhuma linha do livro seja alterada ou excluída
+CREATE OR REPLACE FUNCTION dicasa_estoque.bloquear_alteracao_movimentacao()
+RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'movimentacao_estoque aceita apenas inserções';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_movimentacao_estoque_imutavel ON dicasa_estoque.movimentacao_estoque;
+CREATE TRIGGER trg_movimentacao_estoque_imutavel
+    BEFORE UPDATE OR DELETE ON dicasa_estoque.movimentacao_estoque
+    FOR EACH ROW EXECUTE FUNCTION dicasa_estoque.bloquear_alteracao_movimentacao();
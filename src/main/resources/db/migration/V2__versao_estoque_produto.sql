@@ -0,0 +1,7 @@
+-- Coluna de versão para o controle otimista das edições de estoque
+ALTER TABLE dicasa_estoque.estoque_produto
+    ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+
+-- A retirada atômica filtra por produto
+CREATE INDEX IF NOT EXISTS idx_estoque_produto_produto
+    ON dicasa_estoque.estoque_produto (id_produto);
@@ -0,0 +1,4 @@
+-- Índice da paginação por keyset das listagens de produto e estoque
+-- As telas ordenam por (nome, id_produto) e buscam a próxima página a partir do último item exibido
+CREATE INDEX IF NOT EXISTS idx_produto_nome_id
+    ON dicasa_estoque.produto (nome, id_produto);
@@ -0,0 +1,45 @@
+-- Busca de produtos por trecho do nome sem diferenciar maiúsculas e acentos
+-- O LIKE '%x%' antigo sempre varria a tabela inteira; com o índice GIN de trigramas o banco usa o índice
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- As extensões podem estar instaladas em outro schema (no Supabase ficam em "extensions"),
+-- então as funções abaixo são criadas apontando para o schema onde cada extensão está
+DO $$
+DECLARE
+    schema_unaccent TEXT;
+    schema_trgm TEXT;
+BEGIN
+    SELECT n.nspname INTO schema_unaccent
+    FROM pg_extension e JOIN pg_namespace n ON n.oid = e.extnamespace
+    WHERE e.extname = 'unaccent';
+
+    SELECT n.nspname INTO schema_trgm
+    FROM pg_extension e JOIN pg_namespace n ON n.oid = e.extnamespace
+    WHERE e.extname = 'pg_trgm';
+
+    -- unaccent() sozinho é STABLE; com o dicionário explícito o resultado não muda e pode ir para o índice
+    EXECUTE format(
+        'CREATE OR REPLACE FUNCTION dicasa_estoque.sem_acento(texto TEXT) RETURNS TEXT ' ||
+        'LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT ' ||
+        'AS $f$ SELECT lower(%1$I.unaccent(%2$L::regdictionary, texto)) $f$',
+        schema_unaccent, schema_unaccent || '.unaccent');
+
+    EXECUTE format(
+        'CREATE OR REPLACE FUNCTION dicasa_estoque.similaridade(a TEXT, b TEXT) RETURNS REAL ' ||
+        'LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT ' ||
+        'AS $f$ SELECT %I.similarity(a, b) $f$',
+        schema_trgm);
+
+    -- Operador % do pg_trgm; a função é simples para o planner expandir e usar o índice GIN
+    EXECUTE format(
+        'CREATE OR REPLACE FUNCTION dicasa_estoque.parecido(a TEXT, b TEXT) RETURNS BOOLEAN ' ||
+        'LANGUAGE sql STABLE PARALLEL SAFE ' ||
+        'AS $f$ SELECT a OPERATOR(%I.%%) b $f$',
+        schema_trgm);
+
+    EXECUTE format(
+        'CREATE INDEX IF NOT EXISTS idx_produto_nome_trgm ON dicasa_estoque.produto ' ||
+        'USING gin (dicasa_estoque.sem_acento(nome) %I.gin_trgm_ops)',
+        schema_trgm);
+END $$;
@@ -0,0 +1,39 @@
+-- Ids gerados por sequência com incremento 50, para o otimizador pooled do Hibernate
+-- Com IDENTITY o Hibernate precisa executar cada INSERT na hora para saber o id e não agrupa em lote;
+-- com a sequência ele reserva 50 ids numa única chamada e manda os INSERTs juntos
+-- As tabelas gravadas direto no JDBC (pedido, pedido_produto, movimentacao_estoque) continuam com IDENTITY
+DO $$
+DECLARE
+    alvo     RECORD;
+    maior_id BIGINT;
+BEGIN
+    FOR alvo IN
+        SELECT * FROM (VALUES
+            ('produto',             'id_produto',             'produto_seq'),
+            ('estoque_produto',     'id_estoque_produto',     'estoque_produto_seq'),
+            ('fornecedor',          'id_fornecedor',          'fornecedor_seq'),
+            ('telefone_fornecedor', 'id_telefone_fornecedor', 'telefone_fornecedor_seq'),
+            ('endereco_fornecedor', 'id_endereco_fornecedor', 'endereco_fornecedor_seq')
+        ) AS t (tabela, coluna, sequencia)
+    LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS dicasa_estoque.%I INCREMENT BY 50', alvo.sequencia);
+
+        -- O Hibernate passa a enviar o id no INSERT, o que uma coluna GENERATED ALWAYS recusaria
+        EXECUTE format('ALTER TABLE dicasa_estoque.%I ALTER COLUMN %I DROP IDENTITY IF EXISTS',
+                       alvo.tabela, alvo.coluna);
+
+        -- O próximo nextval devolve maior_id + 50 e o bloco reservado começa logo acima do maior id existente
+        EXECUTE format('SELECT MAX(%I) FROM dicasa_estoque.%I', alvo.coluna, alvo.tabela) INTO maior_id;
+        IF maior_id IS NOT NULL THEN
+            PERFORM setval(format('dicasa_estoque.%I', alvo.sequencia), maior_id);
+        END IF;
+
+        -- Inserts feitos fora da aplicação continuam ganhando id: cada nextval reserva um bloco inteiro,
+        -- então o id usado nunca cai num bloco que o Hibernate já reservou
+        EXECUTE format('ALTER TABLE dicasa_estoque.%I ALTER COLUMN %I SET DEFAULT nextval(%L)',
+                       alvo.tabela, alvo.coluna, 'dicasa_estoque.' || alvo.sequencia);
+        EXECUTE format('ALTER SEQUENCE dicasa_estoque.%I OWNED BY dicasa_estoque.%I.%I',
+                       alvo.sequencia, alvo.tabela, alvo.coluna);
+    END LOOP;
+END;
+$$;
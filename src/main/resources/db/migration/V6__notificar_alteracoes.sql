@@ -0,0 +1,48 @@
+-- Avisa os outros terminais quando um produto, um estoque ou um fornecedor muda
+-- Cada linha alterada manda pelo canal dicasa_estoque_alteracoes um JSON com a tabela, a operação, o id
+-- e o application_name da conexão, que o programa usa para ignorar as alterações feitas por ele mesmo
+-- O PostgreSQL só entrega os avisos depois do commit e junta os avisos iguais de uma mesma transação
+CREATE OR REPLACE FUNCTION dicasa_estoque.notificar_alteracao() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    linha JSONB;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        linha := to_jsonb(OLD);
+    ELSE
+        linha := to_jsonb(NEW);
+    END IF;
+
+    PERFORM pg_notify('dicasa_estoque_alteracoes', json_build_object(
+        'tabela',   TG_TABLE_NAME,
+        'operacao', TG_OP,
+        'id',       (linha ->> TG_ARGV[0])::BIGINT,
+        'origem',   current_setting('application_name', true)
+    )::TEXT);
+    RETURN NULL;
+END;
+$$;
+
+-- O argumento do gatilho é a coluna com o id que o programa recebe:
+-- o estoque avisa pelo id do produto, e telefones e endereço avisam pelo id do fornecedor
+DO $$
+DECLARE
+    alvo RECORD;
+BEGIN
+    FOR alvo IN
+        SELECT * FROM (VALUES
+            ('produto',             'id_produto'),
+            ('estoque_produto',     'id_produto'),
+            ('fornecedor',          'id_fornecedor'),
+            ('telefone_fornecedor', 'id_fornecedor'),
+            ('endereco_fornecedor', 'id_fornecedor')
+        ) AS t (tabela, coluna)
+    LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON dicasa_estoque.%I',
+                       'notificar_alteracao_' || alvo.tabela, alvo.tabela);
+        EXECUTE format('CREATE TRIGGER %I AFTER INSERT OR UPDATE OR DELETE ON dicasa_estoque.%I '
+                       'FOR EACH ROW EXECUTE FUNCTION dicasa_estoque.notificar_alteracao(%L)',
+                       'notificar_alteracao_' || alvo.tabela, alvo.tabela, alvo.coluna);
+    END LOOP;
+END;
+$$;
@@ -0,0 +1,34 @@
+-- Os avisos de estoque passam a levar os valores gravados,
+-- para que os outros terminais troquem a linha na tela sem consultar o banco
+-- Na exclusão os valores não vão e o programa busca a linha do produto
+CREATE OR REPLACE FUNCTION dicasa_estoque.notificar_alteracao() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    linha JSONB;
+    aviso JSONB;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        linha := to_jsonb(OLD);
+    ELSE
+        linha := to_jsonb(NEW);
+    END IF;
+
+    aviso := jsonb_build_object(
+        'tabela',   TG_TABLE_NAME,
+        'operacao', TG_OP,
+        'id',       (linha ->> TG_ARGV[0])::BIGINT,
+        'origem',   current_setting('application_name', true)
+    );
+    IF TG_TABLE_NAME = 'estoque_produto' AND TG_OP <> 'DELETE' THEN
+        aviso := aviso || jsonb_build_object(
+            'idEstoqueProduto',   linha -> 'id_estoque_produto',
+            'quantidade',         linha -> 'quantidade',
+            'quantidadeMinima',   linha -> 'quantidade_minima',
+            'estoqueEmergencial', linha -> 'estoque_emergencial'
+        );
+    END IF;
+
+    PERFORM pg_notify('dicasa_estoque_alteracoes', aviso::TEXT);
+    RETURN NULL;
+END;
+$$;
@@ -0,0 +1,20 @@
+-- Pedidos também avisam os outros terminais, para a busca global de cada um incluir os pedidos novos
+-- Os itens avisam pelo id do pedido, então um pedido gravado com vários itens chega como um aviso só
+DO $$
+DECLARE
+    alvo RECORD;
+BEGIN
+    FOR alvo IN
+        SELECT * FROM (VALUES
+            ('pedido',         'id_pedido'),
+            ('pedido_produto', 'id_pedido')
+        ) AS t (tabela, coluna)
+    LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON dicasa_estoque.%I',
+                       'notificar_alteracao_' || alvo.tabela, alvo.tabela);
+        EXECUTE format('CREATE TRIGGER %I AFTER INSERT OR UPDATE OR DELETE ON dicasa_estoque.%I '
+                       'FOR EACH ROW EXECUTE FUNCTION dicasa_estoque.notificar_alteracao(%L)',
+                       'notificar_alteracao_' || alvo.tabela, alvo.tabela, alvo.coluna);
+    END LOOP;
+END;
+$$;
@@ -0,0 +1,73 @@
+package dicasa.estoque;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base dos testes que usam um PostgreSQL de verdade
+ * O schema é montado pelas migrations do Flyway, como no banco de produção, com os gatilhos, as funções
+ * de busca e as sequências; db/local cria antes as tabelas que no Supabase já existiam sem migration
+ * Um único container atende todas as classes, então as tabelas são esvaziadas antes de cada teste
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/local,classpath:db/migration",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class BancoDeDadosTest {
+
+    /**
+     * Sem @Container: o container fica ligado até o fim da JVM,
+     * pois os contextos do Spring ficam em cache e são reaproveitados entre as classes
+     */
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String TABELAS = String.join(", ",
+            "dicasa_estoque.movimentacao_estoque",
+            "dicasa_estoque.pedido_produto",
+            "dicasa_estoque.pedido",
+            "dicasa_estoque.telefone_fornecedor",
+            "dicasa_estoque.endereco_fornecedor",
+            "dicasa_estoque.fornecedor",
+            "dicasa_estoque.estoque_produto",
+            "dicasa_estoque.produto",
+            "dicasa_estoque.usuario_deletado",
+            "dicasa_estoque.usuario");
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    /**
+     * Esvazia as tabelas e descarta o cache de segundo nível, que não vê o TRUNCATE
+     * As sequências não voltam ao início, pois os contextos em cache ainda guardam blocos de ids reservados
+     * O TRUNCATE não dispara os gatilhos por linha, então o livro de movimentações aceita a limpeza
+     */
+    @BeforeEach
+    void limparBanco() {
+        jdbcTemplate.execute("TRUNCATE " + TABELAS + " CASCADE");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,35 @@
+package dicasa.estoque.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Roda os benchmarks deste pacote e grava o resultado em JSON, para comparar uma versão com a outra
+ * Chamada pelo perfil benchmark do Maven: mvn -Pbenchmark verify
+ * Argumentos: filtro dos benchmarks (regex do JMH) e arquivo do resultado
+ */
+public class Benchmarks {
+
+    private static final String FILTRO_PADRAO = Benchmarks.class.getPackageName();
+    private static final String RESULTADO_PADRAO = "target/jmh/resultados.json";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String filtro = args.length > 0 && !args[0].isBlank() ? args[0] : FILTRO_PADRAO;
+        Path resultado = Path.of(args.length > 1 && !args[1].isBlank() ? args[1] : RESULTADO_PADRAO);
+        if (resultado.getParent() != null) {
+            Files.createDirectories(resultado.getParent());
+        }
+
+        new Runner(new OptionsBuilder()
+                .include(filtro)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultado.toString())
+                .build()).run();
+    }
+}
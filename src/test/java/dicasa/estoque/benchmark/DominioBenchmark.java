@@ -0,0 +1,111 @@
+package dicasa.estoque.benchmark;
+
+import dicasa.estoque.models.dto.PrevisaoCompraDTO;
+import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.util.EmailValidator;
+import dicasa.estoque.utils.CnpjValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede as regras chamadas a cada linha das listagens e a cada campo dos formulários:
+ * status do estoque, montagem da previsão de compras e validação de e-mail e CNPJ
+ * Cada operação percorre um lote de entradas variadas, para o JIT não otimizar um único caso
+ * mvn -Pbenchmark verify -Djmh.incluir=DominioBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DominioBenchmark {
+
+    private static final int LOTE = 1024;
+
+    private EstoqueProduto[] estoques;
+    private String[] emails;
+    private String[] cnpjs;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        estoques = new EstoqueProduto[LOTE];
+        emails = new String[LOTE];
+        cnpjs = new String[LOTE];
+        for (int i = 0; i < LOTE; i++) {
+            // Passa por todos os níveis: zerado, emergencial, mínima, bom e ideal
+            estoques[i] = new EstoqueProduto((long) i, i % 60, 20, 5,
+                    LocalDateTime.of(2025, 1, 1, 10, 0), null, null, 0L);
+            emails[i] = switch (i % 4) {
+                case 0 -> "compras" + i + "@dicasa.com.br";
+                case 1 -> "fornecedor.laticinios" + i + "@gmail.com";
+                case 2 -> "sem-arroba" + i + ".com.br";
+                default -> " Contato." + i + "@Distribuidora-SP.com ";
+            };
+            cnpjs[i] = i % 2 == 0
+                    ? String.format("%02d.%03d.%03d/0001-%02d", i % 100, i % 1000, (i * 7) % 1000, i % 100)
+                    : String.format("%014d", i * 7919L);
+        }
+    }
+
+    @Benchmark
+    public void statusEstoque(Blackhole blackhole) {
+        for (EstoqueProduto estoque : estoques) {
+            blackhole.consume(estoque.status());
+        }
+    }
+
+    @Benchmark
+    public void statusTextoEstoque(Blackhole blackhole) {
+        for (EstoqueProduto estoque : estoques) {
+            blackhole.consume(estoque.statusTexto());
+        }
+    }
+
+    /**
+     * Monta as linhas da previsão como o serviço faz, com as propriedades do JavaFX de cada coluna
+     */
+    @Benchmark
+    public void previsaoCompra(Blackhole blackhole) {
+        for (EstoqueProduto estoque : estoques) {
+            int atual = estoque.getQuantidade();
+            int minimo = estoque.getQuantidadeMinima();
+            blackhole.consume(new PrevisaoCompraDTO(
+                    estoque.getId_estoque_produto(),
+                    "Muçarela fatiada",
+                    "Laticínio",
+                    atual,
+                    minimo,
+                    PrevisaoCompraDTO.calcularQuantidadeComprar(atual, minimo),
+                    PrevisaoCompraDTO.determinarUrgencia(atual, minimo),
+                    "Laticínios Campinas, Distribuidora São Paulo"));
+        }
+    }
+
+    @Benchmark
+    public void validarEmail(Blackhole blackhole) {
+        for (String email : emails) {
+            blackhole.consume(EmailValidator.isValid(email));
+        }
+    }
+
+    @Benchmark
+    public void validarCnpj(Blackhole blackhole) {
+        for (String cnpj : cnpjs) {
+            blackhole.consume(CnpjValidator.isValid(cnpj));
+        }
+    }
+}
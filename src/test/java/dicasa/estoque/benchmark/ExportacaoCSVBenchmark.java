@@ -0,0 +1,135 @@
+package dicasa.estoque.benchmark;
+
+import dicasa.estoque.csv.CSVExporter;
+import dicasa.estoque.csv.ExportadorCSV;
+import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Compara a exportação antiga (lista inteira em memória, FileWriter sem buffer e uma String por célula)
+ * com o motor de exportação em Stream, com e sem gzip
+ * Rode com -prof gc para ver a alocação por operação: no modo em Stream ela não cresce com o número de linhas
+ * mvn -Pbenchmark verify -Djmh.incluir=ExportacaoCSVBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+public class ExportacaoCSVBenchmark {
+
+    @Param({"10000", "500000"})
+    private int linhas;
+
+    private Path diretorio;
+    private List<EstoqueProdutoCompletoResponseDTO> produtosEmLista;
+    private CSVExporter exportador;
+    private CSVExporter exportadorGzip;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        diretorio = Files.createTempDirectory("benchmark-csv");
+        produtosEmLista = produtos().toList();
+        exportador = new CSVExporter(new ExportadorCSV(false));
+        exportadorGzip = new CSVExporter(new ExportadorCSV(true));
+    }
+
+    @TearDown(Level.Trial)
+    public void limpar() throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+        }
+        // Os exportadores escrevem em relatorios/ no diretório atual
+        try (Stream<Path> arquivos = Files.walk(Path.of("relatorios", "estoque_atual"))) {
+            arquivos.filter(Files::isRegularFile).forEach(arquivo -> arquivo.toFile().delete());
+        }
+    }
+
+    /**
+     * Exportação como era antes: lista materializada, FileWriter com o charset da plataforma e concatenação por célula
+     */
+    @Benchmark
+    public Path legado() throws IOException {
+        Path arquivo = diretorio.resolve("legado.csv");
+        try (FileWriter writer = new FileWriter(arquivo.toFile())) {
+            writer.append("ID Produto,Nome,Marca,Tipo,Data Criacao, Quantidade,Minima,Emergencial,Status Texto\n");
+            for (EstoqueProdutoCompletoResponseDTO produto : produtosEmLista) {
+                writer.append(String.valueOf(produto.idProduto())).append(",")
+                        .append(escape(produto.nome())).append(",")
+                        .append(escape(produto.marca())).append(",")
+                        .append(escape(produto.tipo())).append(",")
+                        .append(escape(produto.dataCriacao())).append(",")
+                        .append(String.valueOf(produto.quantidade())).append(",")
+                        .append(String.valueOf(produto.quantidadeMinima())).append(",")
+                        .append(String.valueOf(produto.estoqueEmergencial())).append(",")
+                        .append(escape(produto.statusTexto())).append("\n");
+            }
+        }
+        return arquivo;
+    }
+
+    /**
+     * Motor novo lendo de um Stream, como no Stream do repositório: nenhuma linha fica guardada
+     */
+    @Benchmark
+    public String emStream() {
+        return exportador.exportarEstoqueEmCSV(produtos());
+    }
+
+    @Benchmark
+    public String emStreamGzip() {
+        return exportadorGzip.exportarEstoqueEmCSV(produtos());
+    }
+
+    private Stream<EstoqueProdutoCompletoResponseDTO> produtos() {
+        return LongStream.rangeClosed(1, linhas).mapToObj(id -> new EstoqueProdutoCompletoResponseDTO(
+                id,
+                "Produto \"" + id + "\" muçarela",
+                "Marca " + (id % 50),
+                "Laticínio",
+                "2025-01-01T10:00",
+                id,
+                (int) (id % 100),
+                20,
+                5,
+                2,
+                "Abaixo do mínimo"));
+    }
+
+    private static String escape(String s) {
+        if (s == null) return "";
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExportacaoCSVBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package dicasa.estoque.benchmark;
+
+import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
+import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.mapper.ProdutoEstoqueMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a conversão das entidades de produto nos DTOs da tela de estoque, feita pelo mapper do MapStruct
+ * Uma parte dos produtos fica sem estoque, como os cadastrados e ainda não recebidos
+ * mvn -Pbenchmark verify -Djmh.incluir=MapeamentoBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeamentoBenchmark {
+
+    @Param({"100", "10000"})
+    private int produtos;
+
+    private ProdutoEstoqueMapper mapper;
+    private List<Produto> entidades;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        mapper = Mappers.getMapper(ProdutoEstoqueMapper.class);
+        entidades = new ArrayList<>(produtos);
+        for (long id = 1; id <= produtos; id++) {
+            Produto produto = new Produto();
+            produto.setIdProduto(id);
+            produto.setNome("Produto " + id);
+            produto.setMarca("Marca " + (id % 50));
+            produto.setTipo("Laticínio");
+            produto.setDataCriacao(LocalDateTime.of(2025, 1, 1, 10, 0));
+            if (id % 10 != 0) {
+                EstoqueProduto estoque = new EstoqueProduto();
+                estoque.setId_estoque_produto(id);
+                estoque.setQuantidade((int) (id % 60));
+                estoque.setQuantidadeMinima(20);
+                estoque.setEstoqueEmergencial(5);
+                estoque.setProduto(produto);
+                produto.setEstoqueProduto(estoque);
+            }
+            entidades.add(produto);
+        }
+    }
+
+    @Benchmark
+    public List<EstoqueProdutoCompletoResponseDTO> toDtoList() {
+        return mapper.toDtoList(entidades);
+    }
+}
@@ -0,0 +1,49 @@
+package dicasa.estoque.benchmark;
+
+import dicasa.estoque.util.PasswordUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a conferência da senha no login, que usa BCrypt com custo 10 e é lenta de propósito
+ * Serve para perceber se o custo mudar, já que ele entra inteiro no tempo do login
+ * mvn -Pbenchmark verify -Djmh.incluir=SenhaBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SenhaBenchmark {
+
+    private static final String SENHA = "Dicasa@2025";
+
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        hash = PasswordUtil.hashPassword(SENHA);
+    }
+
+    @Benchmark
+    public boolean senhaCorreta() {
+        return PasswordUtil.verifyPassword(SENHA, hash);
+    }
+
+    @Benchmark
+    public boolean senhaErrada() {
+        return PasswordUtil.verifyPassword("dicasa@2025", hash);
+    }
+}
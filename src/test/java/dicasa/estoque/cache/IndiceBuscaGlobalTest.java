@@ -0,0 +1,189 @@
+package dicasa.estoque.cache;
+
+import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
+import dicasa.estoque.models.dto.ResultadoBuscaDTO;
+import dicasa.estoque.models.dto.ResultadoBuscaDTO.Tipo;
+import dicasa.estoque.models.entities.EnderecoFornecedor;
+import dicasa.estoque.models.entities.Fornecedor;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.entities.TelefoneFornecedor;
+import dicasa.estoque.models.view.TextoPedidoView;
+import dicasa.estoque.repository.FornecedorRepository;
+import dicasa.estoque.repository.PedidoRepository;
+import dicasa.estoque.repository.ProdutoRepository;
+import dicasa.estoque.util.FornecedorSavedEvent;
+import dicasa.estoque.util.ProductSavedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa a busca global no índice local, montado com os dados dos repositories simulados
+ */
+class IndiceBuscaGlobalTest {
+
+    @TempDir
+    Path pasta;
+
+    private FornecedorRepository fornecedorRepository;
+    private ProdutoRepository produtoRepository;
+    private PedidoRepository pedidoRepository;
+    private IndiceBuscaGlobal indice;
+
+    @BeforeEach
+    void setUp() {
+        fornecedorRepository = mock(FornecedorRepository.class);
+        produtoRepository = mock(ProdutoRepository.class);
+        pedidoRepository = mock(PedidoRepository.class);
+
+        when(fornecedorRepository.listarParaRelatorio()).thenReturn(List.of(
+                fornecedor(1L, "Distribuidora São Paulo", "12.345.678/0001-90", "(11) 98765-4321", "Campinas"),
+                fornecedor(2L, "Laticínios Campinas", "98.765.432/0001-10", "(19) 3333-4444", "São Paulo")
+        ));
+        when(produtoRepository.listarEstoques()).thenReturn(List.of(
+                produto(10L, "Muçarela fatiada", "Laticínios Campinas"),
+                produto(11L, "Molho de tomate", "Fugini")
+        ));
+        // As linhas são mocks, então são criadas antes de simular o repository
+        List<TextoPedidoView> linhas = List.of(
+                linhaPedido(100, "Entrega na segunda", "Muçarela fatiada", "Laticínios Campinas"),
+                linhaPedido(100, "Entrega na segunda", "Molho de tomate", "Distribuidora São Paulo"));
+        when(pedidoRepository.listarTextosParaIndice()).thenReturn(linhas);
+
+        indice = novoIndice();
+        indice.abrir();
+        indice.reconstruir();
+    }
+
+    @AfterEach
+    void tearDown() {
+        indice.fechar();
+    }
+
+    @Test
+    void encontraSemAcentoEPeloComecoDaPalavra() {
+        List<ResultadoBuscaDTO> resultados = indice.buscar("sao pau", Tipo.FORNECEDOR, 10);
+
+        // Os dois têm "São Paulo", mas no nome pesa mais do que na cidade
+        assertEquals(List.of(1L, 2L), resultados.stream().map(ResultadoBuscaDTO::id).toList());
+    }
+
+    @Test
+    void encontraCnpjETelefoneDigitadosComPontuacao() {
+        assertEquals(List.of(1L), indice.buscarIds("12.345.678", Tipo.FORNECEDOR, 10));
+        assertEquals(List.of(1L), indice.buscarIds("98765-4321", Tipo.FORNECEDOR, 10));
+        assertEquals(List.of(2L), indice.buscarIds("(19) 3333", Tipo.FORNECEDOR, 10));
+    }
+
+    @Test
+    void buscaEmTodosOsTiposComONomePrimeiro() {
+        List<ResultadoBuscaDTO> resultados = indice.buscar("mucarela", null, 10);
+
+        assertEquals(2, resultados.size());
+        assertEquals(Tipo.PRODUTO, resultados.get(0).tipo());
+        assertEquals(10L, resultados.get(0).id());
+        assertEquals(Tipo.PEDIDO, resultados.get(1).tipo());
+        assertEquals(100L, resultados.get(1).id());
+    }
+
+    @Test
+    void exigeTodasAsPalavrasEToleraErroDeDigitacao() {
+        assertEquals(List.of(11L), indice.buscarIds("molho tom", Tipo.PRODUTO, 10));
+        assertTrue(indice.buscarIds("molho queijo", Tipo.PRODUTO, 10).isEmpty());
+        assertEquals(List.of(2L), indice.buscarIds("laticinos", Tipo.FORNECEDOR, 10));
+    }
+
+    @Test
+    void atualizaComEventosDeProdutoEFornecedor() {
+        Produto renomeado = new Produto();
+        renomeado.setIdProduto(11L);
+        renomeado.setNome("Extrato de tomate");
+        when(produtoRepository.existsById(11L)).thenReturn(true);
+        indice.handleProdutoSalvo(new ProductSavedEvent(this, renomeado));
+
+        assertEquals(List.of(11L), indice.buscarIds("extrato", Tipo.PRODUTO, 10));
+        assertTrue(indice.buscarIds("molho", Tipo.PRODUTO, 10).isEmpty());
+
+        when(produtoRepository.existsById(11L)).thenReturn(false);
+        indice.handleProdutoSalvo(new ProductSavedEvent(this, renomeado));
+        assertTrue(indice.buscarIds("extrato", Tipo.PRODUTO, 10).isEmpty());
+
+        when(fornecedorRepository.listarParaRelatorioPorIds(List.of(2L))).thenReturn(List.of());
+        indice.handleFornecedorSalvo(new FornecedorSavedEvent(this, 2L));
+        assertEquals(List.of(1L), indice.buscarIds("campinas", Tipo.FORNECEDOR, 10));
+    }
+
+    @Test
+    void continuaMontadoDepoisDeFecharEAbrir() {
+        indice.fechar();
+
+        indice = novoIndice();
+        indice.abrir();
+        assertEquals(List.of(10L), indice.buscarIds("fatiada", Tipo.PRODUTO, 10));
+    }
+
+    @Test
+    void indiceNuncaMontadoFicaIndisponivelAteAPrimeiraMontagem() {
+        IndiceBuscaGlobal vazio = new IndiceBuscaGlobal(
+                fornecedorRepository, produtoRepository, pedidoRepository, true, pasta.resolve("vazio").toString());
+        vazio.abrir();
+        try {
+            // Indisponível, a busca de fornecedores usa as consultas no banco em vez de não achar nada
+            assertFalse(vazio.disponivel());
+
+            vazio.reconstruir();
+            assertTrue(vazio.disponivel());
+            assertEquals(List.of(11L), vazio.buscarIds("molho", Tipo.PRODUTO, 10));
+        } finally {
+            vazio.fechar();
+        }
+    }
+
+    private IndiceBuscaGlobal novoIndice() {
+        return new IndiceBuscaGlobal(fornecedorRepository, produtoRepository, pedidoRepository, true, pasta.toString());
+    }
+
+    private static Fornecedor fornecedor(Long id, String nome, String cnpj, String telefone, String cidade) {
+        Fornecedor fornecedor = new Fornecedor();
+        fornecedor.setIdFornecedor(id);
+        fornecedor.setNomeFantasia(nome);
+        fornecedor.setRazaoSocial(nome + " LTDA");
+        fornecedor.setCnpj(cnpj);
+
+        TelefoneFornecedor telefoneFornecedor = new TelefoneFornecedor();
+        telefoneFornecedor.setTelefone(telefone);
+        fornecedor.setTelefones(List.of(telefoneFornecedor));
+
+        EnderecoFornecedor endereco = new EnderecoFornecedor();
+        endereco.setCidade(cidade);
+        endereco.setUf("SP");
+        fornecedor.setEnderecoFornecedor(endereco);
+        return fornecedor;
+    }
+
+    private static EstoqueProdutoCompletoResponseDTO produto(Long id, String nome, String marca) {
+        return new EstoqueProdutoCompletoResponseDTO(id, nome, marca, "Revenda", null, null, 0, 0, 0, 0, "Sem estoque");
+    }
+
+    private static TextoPedidoView linhaPedido(Integer idPedido, String observacao, String produto, String fornecedor) {
+        TextoPedidoView linha = mock(TextoPedidoView.class);
+        when(linha.getIdPedido()).thenReturn(idPedido);
+        when(linha.getObservacao()).thenReturn(observacao);
+        when(linha.getDataCompra()).thenReturn(LocalDateTime.of(2025, 3, 10, 9, 0));
+        when(linha.getNomeProduto()).thenReturn(produto);
+        when(linha.getNomeFantasia()).thenReturn(fornecedor);
+        when(linha.getRazaoSocial()).thenReturn(fornecedor + " LTDA");
+        return linha;
+    }
+}
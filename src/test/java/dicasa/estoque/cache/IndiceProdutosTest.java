@@ -0,0 +1,119 @@
+package dicasa.estoque.cache;
+
+import dicasa.estoque.models.dto.ProdutoResumoDTO;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.view.NomeProdutoView;
+import dicasa.estoque.repository.ProdutoRepository;
+import dicasa.estoque.util.ProductSavedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa as sugestões do índice em memória usado na retirada de produtos
+ */
+class IndiceProdutosTest {
+
+    private ProdutoRepository produtoRepository;
+    private IndiceProdutos indice;
+
+    @BeforeEach
+    void setUp() {
+        produtoRepository = mock(ProdutoRepository.class);
+        when(produtoRepository.listarNomes()).thenReturn(List.of(
+                nome(1L, "Muçarela fatiada"),
+                nome(2L, "Molho de tomate"),
+                nome(3L, "Queijo parmesão"),
+                nome(4L, "Açúcar refinado"),
+                nome(5L, "Arroz branco")
+        ));
+        indice = new IndiceProdutos(produtoRepository);
+        indice.montar();
+    }
+
+    @Test
+    void encontraPelaGrafiaFonetica() {
+        assertEquals(1L, primeiroId("mussa"));
+        assertEquals(1L, primeiroId("mozzarela"));
+        assertEquals(4L, primeiroId("assucar"));
+    }
+
+    @Test
+    void toleraErroDeDigitacao() {
+        assertEquals(3L, primeiroId("qeijo"));
+        assertEquals(5L, primeiroId("aroz bran"));
+    }
+
+    @Test
+    void exigeTodasAsPalavrasDigitadas() {
+        List<ProdutoResumoDTO> sugestoes = indice.buscar("molho tomate", 5);
+        assertEquals(List.of(2L), sugestoes.stream().map(ProdutoResumoDTO::idProduto).toList());
+    }
+
+    @Test
+    void termoVazioListaEmOrdemAlfabetica() {
+        List<ProdutoResumoDTO> sugestoes = indice.buscar("", 2);
+        assertEquals(List.of(4L, 5L), sugestoes.stream().map(ProdutoResumoDTO::idProduto).toList());
+    }
+
+    @Test
+    void atualizaComEventoDeProdutoSalvo() {
+        Produto renomeado = new Produto();
+        renomeado.setIdProduto(2L);
+        renomeado.setNome("Extrato de tomate");
+        when(produtoRepository.existsById(2L)).thenReturn(true);
+        indice.handleProdutoSalvo(new ProductSavedEvent(this, renomeado));
+
+        assertEquals(2L, primeiroId("extrato"));
+        assertTrue(indice.buscar("molho", 5).isEmpty());
+
+        when(produtoRepository.existsById(2L)).thenReturn(false);
+        indice.handleProdutoSalvo(new ProductSavedEvent(this, renomeado));
+        assertNull(indice.buscarPorNome("Extrato de tomate"));
+    }
+
+    @Test
+    void produtoSalvoDuranteAMontagemNaoSePerde() {
+        Produto renomeado = new Produto();
+        renomeado.setIdProduto(2L);
+        renomeado.setNome("Extrato de tomate");
+        when(produtoRepository.existsById(2L)).thenReturn(true);
+        // O evento chega depois de a montagem ter lido a lista, que ainda tem o nome antigo
+        when(produtoRepository.listarNomes()).thenAnswer(invocacao -> {
+            indice.handleProdutoSalvo(new ProductSavedEvent(this, renomeado));
+            return List.of(nome(2L, "Molho de tomate"));
+        });
+
+        indice.montar();
+
+        assertEquals(2L, primeiroId("extrato"));
+        assertTrue(indice.buscar("molho", 5).isEmpty());
+    }
+
+    private Long primeiroId(String termo) {
+        List<ProdutoResumoDTO> sugestoes = indice.buscar(termo, 5);
+        assertTrue(!sugestoes.isEmpty(), "nenhuma sugestão para " + termo);
+        return sugestoes.get(0).idProduto();
+    }
+
+    private static NomeProdutoView nome(Long id, String nome) {
+        return new NomeProdutoView() {
+            @Override
+            public Long getIdProduto() {
+                return id;
+            }
+
+            @Override
+            public String getNome() {
+                return nome;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package dicasa.estoque.csv;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Testa o formato das linhas, a compactação e que um erro no meio não deixa arquivo pela metade
+ */
+class ExportadorCSVTest {
+
+    @TempDir
+    Path diretorio;
+
+    private record Linha(long id, String nome) {
+    }
+
+    @Test
+    void escreveUtf8ComAspasEscapadas() throws IOException {
+        Path arquivo = new ExportadorCSV(false).exportar(
+                diretorio, "produtos", "ID,Nome",
+                Stream.of(new Linha(1, "Muçarela \"fatiada\""), new Linha(2, null)),
+                (linha, escritor) -> escritor.campo(linha.id()).campo(linha.nome()));
+
+        String conteudo = Files.readString(arquivo, StandardCharsets.UTF_8);
+        assertEquals("\uFEFFID,Nome\n1,\"Muçarela \"\"fatiada\"\"\"\n2,\n", conteudo);
+    }
+
+    @Test
+    void compactaComGzip() throws IOException {
+        Path arquivo = new ExportadorCSV(true).exportar(
+                diretorio, "produtos", "ID,Nome",
+                Stream.of(new Linha(1, "Arroz")),
+                (linha, escritor) -> escritor.campo(linha.id()).campo(linha.nome()));
+
+        assertEquals("produtos.csv.gz", arquivo.getFileName().toString());
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(arquivo))) {
+            String conteudo = new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(List.of("\uFEFFID,Nome", "1,\"Arroz\""), conteudo.lines().toList());
+        }
+    }
+
+    @Test
+    void erroNoMeioNaoDeixaArquivo() throws IOException {
+        ExportadorCSV exportador = new ExportadorCSV(false);
+        Stream<Linha> linhas = Stream.of(new Linha(1, "Arroz"), new Linha(2, "Feijão"));
+
+        assertThrows(IllegalStateException.class, () -> exportador.exportar(
+                diretorio, "produtos", "ID,Nome", linhas,
+                (linha, escritor) -> {
+                    if (linha.id() == 2) {
+                        throw new IllegalStateException("falha na leitura");
+                    }
+                    escritor.campo(linha.id()).campo(linha.nome());
+                }));
+
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertFalse(arquivos.findAny().isPresent());
+        }
+    }
+}
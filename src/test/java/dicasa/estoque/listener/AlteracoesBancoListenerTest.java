@@ -0,0 +1,202 @@
+package dicasa.estoque.listener;
+
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.config.SegundoNivelCacheConfig;
+import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.models.entities.Fornecedor;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.entities.TelefoneFornecedor;
+import dicasa.estoque.repository.ProdutoRepository;
+import dicasa.estoque.util.EstoqueProdutoSavedEvent;
+import dicasa.estoque.util.FornecedorSavedEvent;
+import dicasa.estoque.util.PedidoSavedEvent;
+import dicasa.estoque.util.ProductSavedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static dicasa.estoque.config.NotificacaoAlteracoesConfig.NOME_CONEXAO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Simula outro terminal alterando o banco e confere que os avisos dos gatilhos viram os eventos do Spring
+ * As alterações são feitas pelo pool do teste, que não tem o nome deste terminal, então contam como de fora
+ */
+@TestPropertySource(properties = {
+        "app.notificacoes.espera=PT0.1S"
+})
+@Import({AlteracoesBancoListener.class, SegundoNivelCacheConfig.class, AlteracoesBancoListenerTest.EventosRecebidos.class})
+class AlteracoesBancoListenerTest extends BancoDeDadosTest {
+
+    private static final Duration ESPERA = Duration.ofSeconds(10);
+
+    @Autowired
+    private AlteracoesBancoListener alteracoesBancoListener;
+    @Autowired
+    private EventosRecebidos eventosRecebidos;
+    @Autowired
+    private ProdutoRepository produtoRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transacao;
+
+    /**
+     * Guarda os eventos publicados pelo listener, que chegam na thread dele
+     */
+    static class EventosRecebidos {
+        final BlockingQueue<ApplicationEvent> fila = new LinkedBlockingQueue<>();
+
+        @EventListener
+        public void receber(ApplicationEvent event) {
+            if (event.getSource() instanceof AlteracoesBancoListener) {
+                fila.add(event);
+            }
+        }
+    }
+
+    @BeforeEach
+    void iniciarListener() {
+        transacao = new TransactionTemplate(transactionManager);
+        // Os gatilhos das migrations V6, V7 e V8 já foram criados pelo Flyway
+        alteracoesBancoListener.iniciar();
+        eventosRecebidos.fila.clear();
+    }
+
+    @Test
+    void alteracaoDeOutroTerminalChegaComOValorNovo() throws InterruptedException {
+        Long idProduto = cadastrarProdutos("Molho de tomate").getFirst();
+        esperar(ProductSavedEvent.class, event -> idProduto.equals(event.getProduto().getIdProduto()));
+        // Carrega o produto no cache de segundo nível antes da alteração
+        assertEquals("Molho de tomate", produtoRepository.findById(idProduto).orElseThrow().getNome());
+
+        jdbcTemplate.update("UPDATE dicasa_estoque.produto SET nome = ? WHERE id_produto = ?", "Extrato de tomate", idProduto);
+
+        ProductSavedEvent renomeado = esperar(ProductSavedEvent.class,
+                event -> idProduto.equals(event.getProduto().getIdProduto()));
+        assertEquals("Extrato de tomate", renomeado.getProduto().getNome());
+        assertEquals("Extrato de tomate", produtoRepository.findById(idProduto).orElseThrow().getNome());
+
+        jdbcTemplate.update("UPDATE dicasa_estoque.estoque_produto SET quantidade = 3 WHERE id_produto = ?", idProduto);
+        EstoqueProdutoSavedEvent estoque = esperar(EstoqueProdutoSavedEvent.class,
+                event -> idProduto.equals(event.getIdProduto()));
+        // Os valores vêm no aviso, então a tela troca a linha sem consultar o banco
+        assertEquals(3, estoque.getQuantidade());
+        assertEquals(0, estoque.getQuantidadeMinima());
+    }
+
+    @Test
+    void telefoneAlteradoAvisaOFornecedor() throws InterruptedException {
+        Long idFornecedor = transacao.execute(status -> {
+            Fornecedor fornecedor = new Fornecedor();
+            fornecedor.setNomeFantasia("Laticínios Campinas");
+            fornecedor.setRazaoSocial("Laticínios Campinas LTDA");
+            fornecedor.setDataCriacao(LocalDateTime.now());
+            entityManager.persist(fornecedor);
+
+            TelefoneFornecedor telefone = new TelefoneFornecedor();
+            telefone.setTelefone("1933334444");
+            telefone.setFornecedor(fornecedor);
+            entityManager.persist(telefone);
+            return fornecedor.getIdFornecedor();
+        });
+        esperar(FornecedorSavedEvent.class, event -> idFornecedor.equals(event.getIdFornecedor()));
+        eventosRecebidos.fila.clear();
+
+        jdbcTemplate.update("DELETE FROM dicasa_estoque.telefone_fornecedor WHERE id_fornecedor = ?", idFornecedor);
+
+        esperar(FornecedorSavedEvent.class, event -> idFornecedor.equals(event.getIdFornecedor()));
+    }
+
+    @Test
+    void pedidoGravadoPorOutroTerminalChegaComoUmAvisoSo() throws InterruptedException {
+        Long idProduto = cadastrarProdutos("Molho de tomate").getFirst();
+        esperar(ProductSavedEvent.class, event -> idProduto.equals(event.getProduto().getIdProduto()));
+
+        Integer idPedido = transacao.execute(status -> {
+            Integer id = jdbcTemplate.queryForObject(
+                    "INSERT INTO dicasa_estoque.pedido (observacao) VALUES ('NF 1') RETURNING id_pedido", Integer.class);
+            for (int i = 0; i < 3; i++) {
+                jdbcTemplate.update("INSERT INTO dicasa_estoque.pedido_produto (quantidade, preco_total, id_produto, id_pedido) " +
+                        "VALUES (1, 10, ?, ?)", idProduto, id);
+            }
+            return id;
+        });
+
+        PedidoSavedEvent pedido = esperar(PedidoSavedEvent.class, event -> true);
+        assertEquals(List.of(idPedido), pedido.getIdsPedido());
+    }
+
+    @Test
+    void alteracoesDesteTerminalSaoIgnoradas() throws InterruptedException {
+        List<Long> ids = cadastrarProdutos("Produto deste terminal", "Produto de outro terminal");
+        esperar(ProductSavedEvent.class, event -> ids.get(1).equals(event.getProduto().getIdProduto()));
+        Thread.sleep(500);
+        eventosRecebidos.fila.clear();
+
+        transacao.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT set_config('application_name', ?, true)", String.class, NOME_CONEXAO);
+            jdbcTemplate.update("UPDATE dicasa_estoque.produto SET observacao = 'a' WHERE id_produto = ?", ids.get(0));
+        });
+        jdbcTemplate.update("UPDATE dicasa_estoque.produto SET observacao = 'b' WHERE id_produto = ?", ids.get(1));
+
+        // Os avisos chegam na ordem dos commits, então o primeiro evento já tem que ser o de outro terminal
+        ProductSavedEvent primeiro = esperar(ProductSavedEvent.class, event -> true);
+        assertEquals(ids.get(1), primeiro.getProduto().getIdProduto());
+    }
+
+    private List<Long> cadastrarProdutos(String... nomes) {
+        return transacao.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (String nome : nomes) {
+                Produto produto = new Produto();
+                produto.setNome(nome);
+                produto.setTipo("Revenda");
+                EstoqueProduto estoque = new EstoqueProduto();
+                estoque.setQuantidade(10);
+                estoque.setData_criacao(LocalDateTime.now());
+                estoque.setProduto(produto);
+                produto.setEstoqueProduto(estoque);
+                entityManager.persist(produto);
+                ids.add(produto.getIdProduto());
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Espera um evento do tipo que atenda a condição, descartando os outros que chegarem antes
+     */
+    private <T extends ApplicationEvent> T esperar(Class<T> tipo, Predicate<T> condicao) throws InterruptedException {
+        long limite = System.nanoTime() + ESPERA.toNanos();
+        while (true) {
+            ApplicationEvent event = eventosRecebidos.fila.poll(
+                    Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (event == null) {
+                fail("Nenhum " + tipo.getSimpleName() + " recebido em " + ESPERA.toSeconds() + "s");
+            }
+            if (tipo.isInstance(event) && condicao.test(tipo.cast(event))) {
+                return tipo.cast(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.cache.EstatisticasSegundoNivel;
+import dicasa.estoque.config.SegundoNivelCacheConfig;
+import dicasa.estoque.models.dto.RegiaoCacheDTO;
+import dicasa.estoque.models.entities.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara os comandos SQL de um ciclo de navegação pelas telas com o cache de segundo nível vazio e cheio
+ * O ciclo lê o usuário logado, o relatório de fornecedores e os produtos, como acontece ao trocar de tela
+ * Na segunda passada o que é cadastro vem do cache; só o estoque, que não é guardado, volta ao banco
+ */
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({SegundoNivelCacheConfig.class, EstatisticasSegundoNivel.class})
+class CacheSegundoNivelTest extends BancoDeDadosTest {
+
+    private static final int FORNECEDORES = 5;
+    private static final int PRODUTOS = 8;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    @Autowired
+    private FornecedorRepository fornecedorRepository;
+    @Autowired
+    private ProdutoRepository produtoRepository;
+    @Autowired
+    private EstatisticasSegundoNivel estatisticasSegundoNivel;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transacao;
+    private Statistics estatisticas;
+    private Long idUsuario;
+    private List<Long> idsProduto;
+
+    @BeforeEach
+    void cadastrar() {
+        transacao = new TransactionTemplate(transactionManager);
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        String sufixo = String.valueOf(System.nanoTime());
+
+        idUsuario = transacao.execute(status -> {
+            Usuario usuario = new Usuario();
+            usuario.setNome("Comprador " + sufixo);
+            usuario.setEmail("comprador" + sufixo + "@dicasa.com");
+            usuario.setSenha("x");
+            entityManager.persist(usuario);
+
+            for (int f = 0; f < FORNECEDORES; f++) {
+                Fornecedor fornecedor = new Fornecedor();
+                fornecedor.setNomeFantasia("Fornecedor " + f);
+                fornecedor.setRazaoSocial("Fornecedor " + f + " LTDA");
+                fornecedor.setDataCriacao(LocalDateTime.now());
+                fornecedor.setUsuario(usuario);
+                entityManager.persist(fornecedor);
+
+                EnderecoFornecedor endereco = new EnderecoFornecedor();
+                endereco.setLogradouro("Rua " + f);
+                endereco.setCidade("São Paulo");
+                endereco.setUf("SP");
+                endereco.setFornecedor(fornecedor);
+                entityManager.persist(endereco);
+
+                for (int t = 0; t < 2; t++) {
+                    TelefoneFornecedor telefone = new TelefoneFornecedor();
+                    telefone.setTelefone("1199999000" + t);
+                    telefone.setFornecedor(fornecedor);
+                    entityManager.persist(telefone);
+                }
+            }
+            return usuario.getId();
+        });
+
+        idsProduto = transacao.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int p = 0; p < PRODUTOS; p++) {
+                Produto produto = new Produto();
+                produto.setNome("Produto " + sufixo + " " + p);
+                produto.setTipo("Revenda");
+                EstoqueProduto estoque = new EstoqueProduto();
+                estoque.setQuantidade(10);
+                estoque.setData_criacao(LocalDateTime.now());
+                estoque.setProduto(produto);
+                produto.setEstoqueProduto(estoque);
+                entityManager.persist(produto);
+                ids.add(produto.getIdProduto());
+            }
+            return ids;
+        });
+        // O cadastro já coloca as entidades no cache; o ciclo deve começar do zero
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void segundoCicloDeNavegacaoVaiMenosAoBanco() {
+        long primeiro = contarComandos(this::navegar);
+        long segundo = contarComandos(this::navegar);
+
+        assertTrue(segundo < primeiro, "sem cache: " + primeiro + ", com cache: " + segundo);
+    }
+
+    @Test
+    void relatorioDeFornecedoresRepetidoNaoVaiAoBanco() {
+        contarComandos(this::abrirRelatorioDeFornecedores);
+
+        assertEquals(0, contarComandos(this::abrirRelatorioDeFornecedores));
+        RegiaoCacheDTO consultas = estatisticasSegundoNivel.listarRegioes().stream()
+                .filter(regiao -> regiao.regiao().equals(FornecedorRepository.REGIAO_CACHE_CONSULTAS))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(consultas.acertos() > 0, consultas.toString());
+    }
+
+    @Test
+    void alteracaoInvalidaAConsultaGuardada() {
+        contarComandos(this::abrirRelatorioDeFornecedores);
+        transacao.executeWithoutResult(status -> {
+            Fornecedor fornecedor = fornecedorRepository.listarParaRelatorio().get(0);
+            fornecedor.setNomeFantasia("Fornecedor renomeado");
+        });
+
+        List<String> nomes = transacao.execute(status -> fornecedorRepository.listarParaRelatorio().stream()
+                .map(Fornecedor::getNomeFantasia)
+                .toList());
+        assertTrue(nomes.contains("Fornecedor renomeado"), nomes.toString());
+    }
+
+    /**
+     * Percorre o que as telas leem ao serem abertas: usuário logado, fornecedores e produtos
+     */
+    private void navegar() {
+        usuarioRepository.findById(idUsuario).orElseThrow().getNome();
+        abrirRelatorioDeFornecedores();
+        produtoRepository.listarNomes().forEach(produto -> produto.getNome());
+        for (Long id : idsProduto) {
+            Produto produto = produtoRepository.findById(id).orElseThrow();
+            produtoRepository.findByNome(produto.getNome()).orElseThrow();
+        }
+    }
+
+    private void abrirRelatorioDeFornecedores() {
+        for (Fornecedor fornecedor : fornecedorRepository.listarParaRelatorio()) {
+            assertEquals(2, fornecedor.getTelefones().size());
+            fornecedor.getEnderecoFornecedor().getCidade();
+        }
+    }
+
+    /**
+     * Executa o ciclo numa transação nova, com o contexto de persistência vazio, e conta os comandos preparados
+     */
+    private long contarComandos(Runnable ciclo) {
+        estatisticas.clear();
+        transacao.executeWithoutResult(status -> ciclo.run());
+        return estatisticas.getPrepareStatementCount();
+    }
+}
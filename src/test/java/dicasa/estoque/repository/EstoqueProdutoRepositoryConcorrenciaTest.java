@@ -0,0 +1,192 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.models.entities.Produto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de estresse da retirada de estoque com vários terminais ao mesmo tempo
+ * Compara a retirada atômica do repositório com o antigo ler-alterar-salvar (findByIdWithEstoqueAndUsuario + save),
+ * que com a coluna de versão recusa as retiradas simultâneas e obriga o terminal a tentar de novo
+ */
+class EstoqueProdutoRepositoryConcorrenciaTest extends BancoDeDadosTest {
+
+    private static final int TERMINAIS = 8;
+    private static final int RETIRADAS_POR_TERMINAL = 50;
+    private static final int ESTOQUE_INICIAL = TERMINAIS * RETIRADAS_POR_TERMINAL;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+    @Autowired
+    private EstoqueProdutoRepository estoqueProdutoRepository;
+
+    private Long idProduto;
+    private Long idEstoque;
+
+    @BeforeEach
+    void criarProdutoComEstoque() {
+        Produto produto = new Produto();
+        produto.setNome("Muçarela " + System.nanoTime());
+        produto.setTipo("Revenda");
+        produto.setDataCriacao(LocalDateTime.now());
+
+        EstoqueProduto estoque = new EstoqueProduto();
+        estoque.setQuantidade(ESTOQUE_INICIAL);
+        estoque.setData_criacao(LocalDateTime.now());
+        estoque.setProduto(produto);
+        produto.setEstoqueProduto(estoque);
+
+        Produto salvo = produtoRepository.save(produto);
+        idProduto = salvo.getIdProduto();
+        idEstoque = salvo.getEstoqueProduto().getId_estoque_produto();
+    }
+
+    @Test
+    void retiradaAtomicaNaoPerdeAtualizacoes() throws Exception {
+        AtomicInteger sucesso = new AtomicInteger();
+        executarEmParalelo(() -> {
+            if (estoqueProdutoRepository.retirarSeDisponivel(idProduto, 1).isPresent()) {
+                sucesso.incrementAndGet();
+            }
+        });
+
+        assertEquals(ESTOQUE_INICIAL, sucesso.get());
+        assertEquals(0, quantidadeAtual());
+    }
+
+    @Test
+    void retiradaAtomicaNuncaDeixaEstoqueNegativo() throws Exception {
+        AtomicInteger sucesso = new AtomicInteger();
+        executarEmParalelo(() -> {
+            if (estoqueProdutoRepository.retirarSeDisponivel(idProduto, 3).isPresent()) {
+                sucesso.incrementAndGet();
+            }
+        });
+
+        int saldoFinal = quantidadeAtual();
+        assertTrue(saldoFinal >= 0);
+        assertEquals(ESTOQUE_INICIAL, sucesso.get() * 3 + saldoFinal);
+    }
+
+    @Test
+    void lerAlterarSalvarRecusaRetiradasSimultaneas() throws Exception {
+        AtomicInteger sucesso = new AtomicInteger();
+        AtomicInteger conflitos = new AtomicInteger();
+
+        executarEmParalelo(() -> {
+            try {
+                if (lerAlterarSalvar()) {
+                    sucesso.incrementAndGet();
+                }
+            } catch (OptimisticLockingFailureException e) {
+                conflitos.incrementAndGet();
+            }
+        });
+
+        // Com a versão nenhuma atualização se perde, mas as retiradas simultâneas passam a ser recusadas
+        assertEquals(TERMINAIS * RETIRADAS_POR_TERMINAL, sucesso.get() + conflitos.get());
+        assertTrue(conflitos.get() > 0);
+        assertEquals(ESTOQUE_INICIAL, sucesso.get() + quantidadeAtual());
+    }
+
+    @Test
+    void retiradaAtomicaTemMaisVazaoQueLerAlterarSalvar() throws Exception {
+        // Aquece as duas formas antes de medir
+        for (int i = 0; i < 20; i++) {
+            estoqueProdutoRepository.retirarSeDisponivel(idProduto, 1);
+            lerAlterarSalvar();
+        }
+
+        criarProdutoComEstoque();
+        long duracaoAtomica = executarEmParalelo(() ->
+                assertTrue(estoqueProdutoRepository.retirarSeDisponivel(idProduto, 1).isPresent()));
+        assertEquals(0, quantidadeAtual());
+
+        // Para retirar o mesmo total pelo caminho antigo, o terminal que perde o conflito lê e tenta de novo
+        criarProdutoComEstoque();
+        AtomicInteger tentativas = new AtomicInteger();
+        long duracaoLerAlterarSalvar = executarEmParalelo(() -> {
+            while (true) {
+                tentativas.incrementAndGet();
+                try {
+                    assertTrue(lerAlterarSalvar());
+                    return;
+                } catch (OptimisticLockingFailureException e) {
+                    // Outro terminal gravou antes
+                }
+            }
+        });
+        assertEquals(0, quantidadeAtual());
+
+        assertTrue(duracaoAtomica < duracaoLerAlterarSalvar, String.format(
+                "Retirada atômica: %d retiradas em %d ms; ler-alterar-salvar: %d tentativas em %d ms",
+                ESTOQUE_INICIAL, duracaoAtomica, tentativas.get(), duracaoLerAlterarSalvar));
+    }
+
+    /**
+     * Retirada de uma unidade como era antes da retirada atômica:
+     * lê o produto com o estoque, confere a quantidade em Java e salva o estoque
+     * @return false se não havia estoque
+     */
+    private boolean lerAlterarSalvar() {
+        EstoqueProduto estoque = produtoRepository.findByIdWithEstoqueAndUsuario(idProduto)
+                .orElseThrow()
+                .getEstoqueProduto();
+        if (estoque.getQuantidade() < 1) {
+            return false;
+        }
+        estoque.setQuantidade(estoque.getQuantidade() - 1);
+        estoque.setData_atualizacao(LocalDateTime.now());
+        estoqueProdutoRepository.save(estoque);
+        return true;
+    }
+
+    private int quantidadeAtual() {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantidade FROM dicasa_estoque.estoque_produto WHERE id_estoque_produto = ?",
+                Integer.class, idEstoque);
+    }
+
+    /**
+     * Roda a retirada em vários terminais ao mesmo tempo, todos começando juntos
+     * @param retirada ação de um terminal
+     * @return duração total em milissegundos
+     */
+    private long executarEmParalelo(Runnable retirada) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(TERMINAIS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> terminais = new ArrayList<>();
+        try {
+            for (int t = 0; t < TERMINAIS; t++) {
+                terminais.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < RETIRADAS_POR_TERMINAL; i++) {
+                        retirada.run();
+                    }
+                    return null;
+                }));
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            for (Future<?> terminal : terminais) {
+                terminal.get(2, TimeUnit.MINUTES);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.models.entities.Fornecedor;
+import dicasa.estoque.models.entities.TelefoneFornecedor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark do cadastro em massa de fornecedores com telefones
+ * Compara um INSERT por linha (como era com IDENTITY) com os ids de sequência e o batch do Hibernate
+ * Cada comando preparado é uma ida ao banco, então a contagem mostra quantas idas cada modo faz
+ */
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class InsercaoEmLoteTest extends BancoDeDadosTest {
+
+    private static final int FORNECEDORES = 200;
+    private static final int TELEFONES_POR_FORNECEDOR = 3;
+    private static final int LINHAS = FORNECEDORES * (1 + TELEFONES_POR_FORNECEDOR);
+
+    @Autowired
+    private FornecedorRepository fornecedorRepository;
+    @Autowired
+    private TelefoneFornecedorRepository telefoneFornecedorRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void batchReduzAsIdasAoBanco() {
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Aquece o pool e a primeira reserva de ids das sequências
+        cadastrar(null, "aquecimento");
+
+        estatisticas.clear();
+        cadastrar(1, "um-por-linha");
+        long comandosUmPorLinha = estatisticas.getPrepareStatementCount();
+
+        estatisticas.clear();
+        cadastrar(null, "em-lote");
+        long comandosEmLote = estatisticas.getPrepareStatementCount();
+
+        assertEquals(3L * FORNECEDORES, fornecedorRepository.count());
+        assertEquals(3L * FORNECEDORES * TELEFONES_POR_FORNECEDOR, telefoneFornecedorRepository.count());
+        assertTrue(comandosUmPorLinha >= LINHAS);
+        // Os INSERTs saem em lotes de 50 e cada chamada à sequência reserva 50 ids
+        assertTrue(comandosEmLote * 10 < comandosUmPorLinha,
+                "esperava ao menos 10x menos comandos com batch, foram " + comandosEmLote);
+    }
+
+    /**
+     * Cadastra os fornecedores e telefones numa transação, como o salvarFornecedor faz para cada um
+     * @param tamanhoLote tamanho do batch da sessão, nulo para usar o configurado
+     * @param prefixo diferencia os nomes de cada rodada
+     */
+    private void cadastrar(Integer tamanhoLote, String prefixo) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(tamanhoLote);
+            for (int f = 0; f < FORNECEDORES; f++) {
+                Fornecedor fornecedor = new Fornecedor();
+                fornecedor.setNomeFantasia(prefixo + " " + f);
+                fornecedor.setRazaoSocial(prefixo + " " + f + " LTDA");
+                fornecedor.setDataCriacao(LocalDateTime.now());
+                Fornecedor salvo = fornecedorRepository.save(fornecedor);
+
+                List<TelefoneFornecedor> telefones = new ArrayList<>(TELEFONES_POR_FORNECEDOR);
+                for (int t = 0; t < TELEFONES_POR_FORNECEDOR; t++) {
+                    TelefoneFornecedor telefone = new TelefoneFornecedor();
+                    telefone.setTelefone(String.format("119%04d%04d", f, t));
+                    telefone.setFornecedor(salvo);
+                    telefones.add(telefone);
+                }
+                telefoneFornecedorRepository.saveAll(telefones);
+            }
+        });
+    }
+}
@@ -0,0 +1,175 @@
+package dicasa.estoque.repository;
+
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.models.dto.FornecedorResponseDTO;
+import dicasa.estoque.models.entities.*;
+import dicasa.estoque.models.mapper.FornecedorMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Confere quantos comandos SQL cada plano de busca faz
+ * As telas percorrem as associações dentro da transação, então qualquer LAZY esquecido fora do grafo
+ * aparece como um comando a mais na contagem
+ */
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PlanosDeBuscaTest extends BancoDeDadosTest {
+
+    private static final int FORNECEDORES = 4;
+    private static final int PRODUTOS = 6;
+    private static final int PEDIDOS = 5;
+    private static final int ITENS_POR_PEDIDO = 6;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+    @Autowired
+    private FornecedorRepository fornecedorRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final FornecedorMapper fornecedorMapper = Mappers.getMapper(FornecedorMapper.class);
+
+    private TransactionTemplate transacao;
+    private Statistics estatisticas;
+    private Integer idPedido;
+
+    @BeforeEach
+    void criarPedidos() {
+        transacao = new TransactionTemplate(transactionManager);
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        idPedido = transacao.execute(status -> {
+            Usuario usuario = new Usuario();
+            usuario.setNome("Comprador " + System.nanoTime());
+            usuario.setEmail(usuario.getNome() + "@dicasa.com");
+            usuario.setSenha("x");
+            entityManager.persist(usuario);
+
+            List<Fornecedor> fornecedores = new ArrayList<>();
+            for (int f = 0; f < FORNECEDORES; f++) {
+                Fornecedor fornecedor = new Fornecedor();
+                fornecedor.setNomeFantasia("Fornecedor " + f);
+                fornecedor.setRazaoSocial("Fornecedor " + f + " LTDA");
+                fornecedor.setDataCriacao(LocalDateTime.now());
+                fornecedor.setUsuario(usuario);
+                entityManager.persist(fornecedor);
+
+                EnderecoFornecedor endereco = new EnderecoFornecedor();
+                endereco.setLogradouro("Rua " + f);
+                endereco.setCidade("São Paulo");
+                endereco.setUf("SP");
+                endereco.setFornecedor(fornecedor);
+                entityManager.persist(endereco);
+
+                for (int t = 0; t < 2; t++) {
+                    TelefoneFornecedor telefone = new TelefoneFornecedor();
+                    telefone.setTelefone("1199999000" + t);
+                    telefone.setFornecedor(fornecedor);
+                    entityManager.persist(telefone);
+                }
+                fornecedores.add(fornecedor);
+            }
+
+            List<Produto> produtos = new ArrayList<>();
+            for (int p = 0; p < PRODUTOS; p++) {
+                Produto produto = new Produto();
+                produto.setNome("Produto " + p);
+                produto.setTipo("Revenda");
+                EstoqueProduto estoque = new EstoqueProduto();
+                estoque.setQuantidade(10);
+                estoque.setData_criacao(LocalDateTime.now());
+                estoque.setProduto(produto);
+                produto.setEstoqueProduto(estoque);
+                entityManager.persist(produto);
+                produtos.add(produto);
+            }
+
+            Integer ultimo = null;
+            for (int n = 0; n < PEDIDOS; n++) {
+                Pedido pedido = new Pedido();
+                pedido.setDesconto(BigDecimal.ZERO);
+                pedido.setDataCompra(LocalDateTime.now().minusDays(n));
+                pedido.setUsuario(usuario);
+                entityManager.persist(pedido);
+                for (int i = 0; i < ITENS_POR_PEDIDO; i++) {
+                    PedidoProduto item = new PedidoProduto();
+                    item.setQuantidade(i + 1);
+                    item.setPrecoTotal(BigDecimal.TEN);
+                    item.setDesconto(BigDecimal.ZERO);
+                    item.setDataPedido(pedido.getDataCompra());
+                    item.setPedido(pedido);
+                    item.setProduto(produtos.get(i % PRODUTOS));
+                    item.setFornecedor(fornecedores.get(i % FORNECEDORES));
+                    entityManager.persist(item);
+                }
+                ultimo = pedido.getIdPedido();
+            }
+            return ultimo;
+        });
+    }
+
+    @Test
+    void listaDePedidosUsaUmComando() {
+        long comandos = contarComandos(() -> {
+            for (Pedido pedido : pedidoRepository.listarPedidos()) {
+                pedido.getUsuario().getNome();
+            }
+        });
+        assertEquals(1, comandos);
+    }
+
+    @Test
+    void detalheDoPedidoUsaUmComando() {
+        long comandos = contarComandos(() -> {
+            Pedido pedido = pedidoRepository.buscarDetalhe(idPedido).orElseThrow();
+            pedido.getUsuario().getNome();
+            assertEquals(ITENS_POR_PEDIDO, pedido.getPedidoProdutos().size());
+            for (PedidoProduto item : pedido.getPedidoProdutos()) {
+                item.getProduto().getNome();
+                item.getProduto().getEstoqueProduto().getQuantidade();
+                item.getFornecedor().getNomeFantasia();
+                item.getFornecedor().getEnderecoFornecedor().getCidade();
+            }
+        });
+        assertEquals(1, comandos);
+    }
+
+    @Test
+    void relatorioDeFornecedoresUsaUmComando() {
+        long comandos = contarComandos(() -> {
+            List<FornecedorResponseDTO> relatorio = fornecedorMapper.toDtoList(fornecedorRepository.listarParaRelatorio());
+            relatorio.forEach(fornecedor -> assertEquals(2, fornecedor.telefones().size()));
+        });
+        assertEquals(1, comandos);
+    }
+
+    /**
+     * Executa a busca numa transação nova, com o contexto de persistência vazio, e conta os comandos preparados
+     */
+    private long contarComandos(Runnable busca) {
+        estatisticas.clear();
+        transacao.executeWithoutResult(status -> busca.run());
+        return estatisticas.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,129 @@
+package dicasa.estoque.repository;
+
+import com.sun.management.ThreadMXBean;
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.models.dto.EstoqueProdutoCompletoResponseDTO;
+import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.mapper.ProdutoEstoqueMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara a listagem de estoque projetada direto no DTO com a antiga, que carregava as entidades e usava o mapper
+ * Confere que o resultado é o mesmo e que a projeção aloca menos memória, pois não monta entidades nem snapshots
+ */
+class ProdutoRepositoryProjecaoTest extends BancoDeDadosTest {
+
+    private static final int PRODUTOS = 5000;
+    private static final Comparator<EstoqueProdutoCompletoResponseDTO> POR_ID =
+            Comparator.comparing(EstoqueProdutoCompletoResponseDTO::idProduto);
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ProdutoEstoqueMapper mapper = Mappers.getMapper(ProdutoEstoqueMapper.class);
+
+    @BeforeEach
+    void criarCatalogo() {
+        List<Produto> produtos = new ArrayList<>(PRODUTOS);
+        for (int i = 0; i < PRODUTOS; i++) {
+            Produto produto = new Produto();
+            produto.setNome("Produto " + i);
+            produto.setMarca(i % 3 == 0 ? null : "Marca " + (i % 20));
+            produto.setTipo("Revenda");
+            produto.setDataCriacao(LocalDateTime.of(2025, 1, 1, 8, 0).plusMinutes(i));
+
+            // Alguns produtos ficam sem estoque para cobrir o LEFT JOIN
+            if (i % 10 != 0) {
+                EstoqueProduto estoque = new EstoqueProduto();
+                estoque.setQuantidade(i % 50);
+                estoque.setQuantidadeMinima(10);
+                estoque.setEstoqueEmergencial(5);
+                estoque.setData_criacao(LocalDateTime.now());
+                estoque.setProduto(produto);
+                produto.setEstoqueProduto(estoque);
+            }
+            produtos.add(produto);
+        }
+        produtoRepository.saveAll(produtos);
+    }
+
+    @Test
+    void projecaoDevolveOMesmoQueOMapper() {
+        List<EstoqueProdutoCompletoResponseDTO> comEntidades = emTransacao(this::listarComEntidades);
+        List<EstoqueProdutoCompletoResponseDTO> projetados = emTransacao(produtoRepository::listarEstoques);
+
+        assertEquals(PRODUTOS, projetados.size());
+        assertEquals(
+                comEntidades.stream().sorted(POR_ID).toList(),
+                projetados.stream().sorted(POR_ID).toList());
+    }
+
+    @Test
+    void projecaoAlocaMenosQueEntidadesEMapper() {
+        long comEntidades = bytesAlocados(this::listarComEntidades);
+        long projetados = bytesAlocados(produtoRepository::listarEstoques);
+
+        assertTrue(projetados < comEntidades,
+                "projeção: " + projetados / 1024 + " KiB, entidades + mapper: " + comEntidades / 1024 + " KiB");
+    }
+
+    @Test
+    void paginasProjetadasSeguemONome() {
+        List<EstoqueProdutoCompletoResponseDTO> primeira =
+                produtoRepository.listarPrimeiraPaginaEstoques(Limit.of(50));
+        EstoqueProdutoCompletoResponseDTO ultimo = primeira.getLast();
+        List<EstoqueProdutoCompletoResponseDTO> segunda =
+                produtoRepository.listarPaginaEstoquesApos(ultimo.nome(), ultimo.idProduto(), Limit.of(50));
+
+        List<EstoqueProdutoCompletoResponseDTO> esperado = mapper.toDtoList(
+                produtoRepository.buscarPaginaPorNomeApos(ultimo.nome(), ultimo.idProduto(), Limit.of(50)));
+        assertEquals(esperado, segunda);
+    }
+
+    private List<EstoqueProdutoCompletoResponseDTO> listarComEntidades() {
+        return mapper.toDtoList(produtoRepository.findAllWithEstoqueAndUsuario());
+    }
+
+    /**
+     * Roda a listagem numa transação somente leitura, como o service faz
+     */
+    private List<EstoqueProdutoCompletoResponseDTO> emTransacao(Supplier<List<EstoqueProdutoCompletoResponseDTO>> listagem) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        return transacao.execute(status -> listagem.get());
+    }
+
+    /**
+     * Bytes alocados pela thread numa listagem, depois de uma rodada de aquecimento
+     */
+    private long bytesAlocados(Supplier<List<EstoqueProdutoCompletoResponseDTO>> listagem) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        emTransacao(listagem);
+
+        long antes = threads.getCurrentThreadAllocatedBytes();
+        List<EstoqueProdutoCompletoResponseDTO> resultado = emTransacao(listagem);
+        long alocado = threads.getCurrentThreadAllocatedBytes() - antes;
+
+        assertEquals(PRODUTOS, resultado.size());
+        return alocado;
+    }
+}
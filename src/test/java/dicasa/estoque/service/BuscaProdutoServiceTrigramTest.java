@@ -0,0 +1,82 @@
+package dicasa.estoque.service;
+
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.repository.BuscaProdutoTrigramRepository;
+import dicasa.estoque.repository.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testa a busca de produtos com pg_trgm e unaccent criada na migration V4, passando pelo service como as telas
+ */
+@Import({BuscaProdutoService.class, BuscaProdutoTrigramRepository.class})
+class BuscaProdutoServiceTrigramTest extends BancoDeDadosTest {
+
+    @Autowired
+    private BuscaProdutoService buscaProdutoService;
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @BeforeEach
+    void cadastrarProdutos() {
+        for (String nome : List.of(
+                "Queijo Muçarela", "Muçarela fatiada", "Muçarela", "Orégano",
+                "Desconto 50%", "Caixa_pizza", "Caixa de pizza", "Calabresa")) {
+            Produto produto = new Produto();
+            produto.setNome(nome);
+            produto.setTipo("Revenda");
+            produto.setDataCriacao(LocalDateTime.now());
+            produtoRepository.save(produto);
+        }
+    }
+
+    @Test
+    void migrationCriaAsFuncoesDeBusca() {
+        List<String> funcoes = jdbcTemplate.queryForList(
+                "SELECT p.proname FROM pg_proc p JOIN pg_namespace n ON n.oid = p.pronamespace " +
+                "WHERE n.nspname = 'dicasa_estoque' AND p.proname IN ('sem_acento', 'parecido', 'similaridade') " +
+                "ORDER BY p.proname",
+                String.class);
+
+        assertEquals(List.of("parecido", "sem_acento", "similaridade"), funcoes);
+        assertEquals("mucarela oregano", jdbcTemplate.queryForObject(
+                "SELECT dicasa_estoque.sem_acento('Muçarela ORÉGANO')", String.class));
+    }
+
+    @Test
+    void ignoraAcentosEMaiusculas() {
+        assertEquals(List.of("Orégano"), nomes(buscaProdutoService.buscar("OREGANO")));
+        assertTrue(nomes(buscaProdutoService.buscar("mucarela")).contains("Muçarela"));
+    }
+
+    @Test
+    void comecoDoNomeVemAntesDoTrechoNoMeio() {
+        assertEquals(
+                List.of("Muçarela", "Muçarela fatiada", "Queijo Muçarela"),
+                nomes(buscaProdutoService.buscar("muçarela")));
+    }
+
+    @Test
+    void toleraErroDeDigitacao() {
+        assertEquals("Muçarela", nomes(buscaProdutoService.buscar("mussarela")).get(0));
+    }
+
+    @Test
+    void curingasDoLikeSaoProcuradosComoTexto() {
+        assertEquals(List.of("Desconto 50%"), nomes(buscaProdutoService.buscar("%")));
+        assertEquals(List.of("Caixa_pizza"), nomes(buscaProdutoService.buscar("_")));
+    }
+
+    private static List<String> nomes(List<Produto> produtos) {
+        return produtos.stream().map(Produto::getNome).toList();
+    }
+}
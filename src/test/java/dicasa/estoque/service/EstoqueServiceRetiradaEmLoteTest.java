@@ -0,0 +1,153 @@
+package dicasa.estoque.service;
+
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.cache.EstoqueProdutoCache;
+import dicasa.estoque.config.CacheConfig;
+import dicasa.estoque.csv.CSVExporter;
+import dicasa.estoque.csv.ExportadorCSV;
+import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.models.mapper.ProdutoEstoqueMapperImpl;
+import dicasa.estoque.models.view.SaldoEstoqueView;
+import dicasa.estoque.repository.BuscaProdutoTrigramRepository;
+import dicasa.estoque.repository.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testa a retirada em lote: ou todos os itens saem do estoque com as movimentações registradas, ou nenhum sai
+ * Também confere que dois terminais retirando os mesmos produtos em ordens diferentes não travam um ao outro
+ */
+@Import({
+        EstoqueService.class, MovimentacaoEstoqueService.class, BuscaProdutoService.class,
+        BuscaProdutoTrigramRepository.class, EstoqueProdutoCache.class, CacheConfig.class,
+        CSVExporter.class, ExportadorCSV.class, ProdutoEstoqueMapperImpl.class
+})
+class EstoqueServiceRetiradaEmLoteTest extends BancoDeDadosTest {
+
+    @Autowired
+    private EstoqueService estoqueService;
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    private Long muzzarela;
+    private Long calabresa;
+    private Long oregano;
+
+    @BeforeEach
+    void cadastrarProdutos() {
+        muzzarela = cadastrar("Muçarela", 10);
+        calabresa = cadastrar("Calabresa", 5);
+        oregano = cadastrar("Orégano", 2);
+    }
+
+    @Test
+    void loteCompletoRetiraTodosERegistraAsSaidas() {
+        List<SaldoEstoqueView> saldos = estoqueService.retirarEmLote(Map.of(muzzarela, 3, calabresa, 5));
+
+        assertEquals(2, saldos.size());
+        assertEquals(7, quantidade(muzzarela));
+        assertEquals(0, quantidade(calabresa));
+        assertEquals(2, movimentacoes());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT saldo_resultante FROM dicasa_estoque.movimentacao_estoque WHERE id_produto = ? AND tipo = 'SAIDA'",
+                Integer.class, calabresa));
+    }
+
+    @Test
+    void faltaDeEstoqueEmUmItemDesfazOLoteInteiro() {
+        Map<Long, Integer> lote = new LinkedHashMap<>();
+        lote.put(muzzarela, 3);
+        lote.put(calabresa, 4);
+        lote.put(oregano, 5);
+
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> estoqueService.retirarEmLote(lote));
+
+        assertTrue(erro.getMessage().contains("Orégano"), erro.getMessage());
+        assertEquals(10, quantidade(muzzarela));
+        assertEquals(5, quantidade(calabresa));
+        assertEquals(2, quantidade(oregano));
+        assertEquals(0, movimentacoes());
+    }
+
+    @Test
+    void lotesCruzadosNaoTravamUmAoOutro() throws Exception {
+        jdbcTemplate.update("UPDATE dicasa_estoque.estoque_produto SET quantidade = 1000");
+        Map<Long, Integer> emOrdem = new LinkedHashMap<>();
+        emOrdem.put(muzzarela, 1);
+        emOrdem.put(calabresa, 1);
+        emOrdem.put(oregano, 1);
+        Map<Long, Integer> invertido = new LinkedHashMap<>();
+        invertido.put(oregano, 1);
+        invertido.put(calabresa, 1);
+        invertido.put(muzzarela, 1);
+
+        int retiradas = 100;
+        ExecutorService terminais = Executors.newFixedThreadPool(2);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<?>> execucoes = List.of(
+                    terminais.submit(() -> retirarVezes(largada, emOrdem, retiradas)),
+                    terminais.submit(() -> retirarVezes(largada, invertido, retiradas)));
+            largada.countDown();
+            // Um deadlock faria o PostgreSQL abortar uma das transações, e a exceção chegaria aqui
+            for (Future<?> execucao : execucoes) {
+                execucao.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            terminais.shutdownNow();
+        }
+
+        assertEquals(1000 - 2 * retiradas, quantidade(muzzarela));
+        assertEquals(1000 - 2 * retiradas, quantidade(oregano));
+        assertEquals(3 * 2 * retiradas, movimentacoes());
+    }
+
+    private Void retirarVezes(CountDownLatch largada, Map<Long, Integer> lote, int vezes) throws InterruptedException {
+        largada.await();
+        for (int i = 0; i < vezes; i++) {
+            estoqueService.retirarEmLote(lote);
+        }
+        return null;
+    }
+
+    private Long cadastrar(String nome, int quantidade) {
+        Produto produto = new Produto();
+        produto.setNome(nome);
+        produto.setTipo("Revenda");
+        produto.setDataCriacao(LocalDateTime.now());
+
+        EstoqueProduto estoque = new EstoqueProduto();
+        estoque.setQuantidade(quantidade);
+        estoque.setData_criacao(LocalDateTime.now());
+        estoque.setProduto(produto);
+        produto.setEstoqueProduto(estoque);
+        return produtoRepository.save(produto).getIdProduto();
+    }
+
+    private int quantidade(Long idProduto) {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantidade FROM dicasa_estoque.estoque_produto WHERE id_produto = ?", Integer.class, idProduto);
+    }
+
+    private int movimentacoes() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM dicasa_estoque.movimentacao_estoque", Integer.class);
+    }
+}
@@ -0,0 +1,180 @@
+package dicasa.estoque.service;
+
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.cache.IndiceBuscaGlobal;
+import dicasa.estoque.models.dto.FornecedorRequestDTO;
+import dicasa.estoque.models.dto.FornecedorResponseDTO;
+import dicasa.estoque.models.entities.EnderecoFornecedor;
+import dicasa.estoque.models.entities.Fornecedor;
+import dicasa.estoque.models.entities.TelefoneFornecedor;
+import dicasa.estoque.models.mapper.FornecedorMapperImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Garante que a listagem e as buscas de fornecedores fazem sempre o mesmo número de consultas,
+ * não importa quantos fornecedores existam
+ * Se alguma delas voltar a carregar telefones ou endereço um por um, a contagem cresce e o teste falha
+ * Também confere que a edição só grava os telefones que mudaram
+ */
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.busca.indice.habilitado=false"
+})
+@Import({FornecedorService.class, FornecedorMapperImpl.class, IndiceBuscaGlobal.class})
+class FornecedorServiceConsultasTest extends BancoDeDadosTest {
+
+    private static final int TELEFONES_POR_FORNECEDOR = 2;
+
+    @Autowired
+    private FornecedorService fornecedorService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int criados;
+
+    @Test
+    void consultasNaoCrescemComONumeroDeFornecedores() {
+        cadastrar(3);
+        Map<String, Long> comPoucos = contarTodas();
+
+        cadastrar(30);
+        Map<String, Long> comMuitos = contarTodas();
+
+        assertEquals(comPoucos, comMuitos);
+        comMuitos.values().forEach(comandos -> assertTrue(comandos <= 2, "consultas: " + comMuitos));
+    }
+
+    @Test
+    void buscaPorTelefoneTrazTodosOsTelefonesDoFornecedor() {
+        cadastrar(2);
+        List<FornecedorResponseDTO> encontrados = fornecedorService.buscarFornecedoresPorTermo("Telefone", "-1");
+
+        assertFalse(encontrados.isEmpty());
+        encontrados.forEach(fornecedor -> assertEquals(TELEFONES_POR_FORNECEDOR, fornecedor.telefones().size()));
+    }
+
+    @Test
+    void edicaoSoGravaOsTelefonesQueMudaram() {
+        Long id = cadastrar(1);
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<Long, String> originais = telefonesNoBanco(id);
+        List<String> numeros = List.copyOf(originais.values());
+
+        estatisticas.clear();
+        FornecedorResponseDTO semMudanca = fornecedorService.atualizarFornecedor(id, edicao(numeros));
+        assertEquals(0, estatisticas.getEntityInsertCount());
+        assertEquals(originais, semMudanca.telefones());
+        assertEquals(originais, telefonesNoBanco(id));
+
+        estatisticas.clear();
+        FornecedorResponseDTO trocado = fornecedorService.atualizarFornecedor(id, edicao(List.of(numeros.get(0), "1130000000")));
+        assertEquals(1, estatisticas.getEntityInsertCount());
+        Map<Long, String> depois = telefonesNoBanco(id);
+        assertEquals(depois, trocado.telefones());
+        assertEquals(2, depois.size());
+        assertTrue(depois.containsValue("1130000000"));
+        assertFalse(depois.containsValue(numeros.get(1)));
+        // O número que ficou continua com o mesmo id, ou seja, não foi apagado e inserido de novo
+        originais.forEach((idTelefone, numero) -> {
+            if (numero.equals(numeros.get(0))) {
+                assertEquals(numero, depois.get(idTelefone));
+            }
+        });
+
+        fornecedorService.atualizarFornecedor(id, edicao(null));
+        assertTrue(telefonesNoBanco(id).isEmpty());
+    }
+
+    private Map<String, Long> contarTodas() {
+        Map<String, Long> comandos = new LinkedHashMap<>();
+        comandos.put("listagem", contarComandos(fornecedorService::listarFornecedoresCompleto));
+        comandos.put("filtro", contarComandos(() -> fornecedorService.buscarFornecedores("Fornecedor")));
+        comandos.put("razao social", contarComandos(() -> fornecedorService.buscarFornecedoresPorTermo("Razão Social", "LTDA")));
+        comandos.put("cidade", contarComandos(() -> fornecedorService.buscarFornecedoresPorTermo("Cidade", "Paulo")));
+        comandos.put("telefone", contarComandos(() -> fornecedorService.buscarFornecedoresPorTermo("Telefone", "11")));
+        comandos.put("todos os campos", contarComandos(() -> fornecedorService.buscarFornecedoresPorTermo("Todos", "sp")));
+        return comandos;
+    }
+
+    /**
+     * Conta os comandos preparados por uma chamada ao service, que abre a própria transação
+     */
+    private long contarComandos(Supplier<List<FornecedorResponseDTO>> consulta) {
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+        List<FornecedorResponseDTO> resultado = consulta.get();
+        assertFalse(resultado.isEmpty());
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    private FornecedorRequestDTO edicao(List<String> telefones) {
+        return new FornecedorRequestDTO("00000000000100", "Fornecedor editado", "Fornecedor editado LTDA",
+                null, telefones, null, null);
+    }
+
+    private Map<Long, String> telefonesNoBanco(Long idFornecedor) {
+        return new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("SELECT t FROM TelefoneFornecedor t WHERE t.fornecedor.idFornecedor = :id", TelefoneFornecedor.class)
+                .setParameter("id", idFornecedor)
+                .getResultStream()
+                .collect(Collectors.toMap(TelefoneFornecedor::getIdTelefone, TelefoneFornecedor::getTelefone)));
+    }
+
+    /**
+     * Cadastra os fornecedores, cada um com endereço e telefones
+     * @return id do último fornecedor cadastrado
+     */
+    private Long cadastrar(int quantidade) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Long ultimo = null;
+            for (int i = 0; i < quantidade; i++) {
+                int numero = criados++;
+                Fornecedor fornecedor = new Fornecedor();
+                fornecedor.setNomeFantasia("Fornecedor " + numero);
+                fornecedor.setRazaoSocial("Fornecedor " + numero + " LTDA");
+                fornecedor.setDataCriacao(LocalDateTime.now());
+                entityManager.persist(fornecedor);
+
+                EnderecoFornecedor endereco = new EnderecoFornecedor();
+                endereco.setLogradouro("Rua " + numero);
+                endereco.setCidade("São Paulo");
+                endereco.setUf("SP");
+                endereco.setFornecedor(fornecedor);
+                entityManager.persist(endereco);
+
+                for (int t = 0; t < TELEFONES_POR_FORNECEDOR; t++) {
+                    TelefoneFornecedor telefone = new TelefoneFornecedor();
+                    telefone.setTelefone("11" + numero + "-" + t);
+                    telefone.setFornecedor(fornecedor);
+                    entityManager.persist(telefone);
+                }
+                ultimo = fornecedor.getIdFornecedor();
+            }
+            return ultimo;
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package dicasa.estoque.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testa se o modelo aprende o perfil da semana e o nível de consumo a partir do histórico diário
+ */
+class ModeloDemandaTest {
+
+    // Uma segunda-feira, para facilitar a leitura dos dias da semana
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 6);
+
+    @Test
+    void aprendeOPerfilDaSemana() {
+        // Oito semanas com 5 unidades por dia e 20 no sábado
+        double[] consumo = new double[56];
+        for (int i = 0; i < consumo.length; i++) {
+            consumo[i] = INICIO.plusDays(i).getDayOfWeek() == DayOfWeek.SATURDAY ? 20 : 5;
+        }
+
+        ModeloDemanda modelo = ModeloDemanda.ajustar(consumo, INICIO, 0.3);
+        LocalDate proximaSegunda = INICIO.plusDays(56);
+
+        assertEquals(5, modelo.demandaNoDia(proximaSegunda), 0.01);
+        assertEquals(20, modelo.demandaNoDia(proximaSegunda.plusDays(5)), 0.01);
+        assertEquals(50, modelo.demandaEntre(proximaSegunda, 7), 0.01);
+        // 30 unidades duram de segunda a sexta (25) e acabam no sábado
+        assertEquals(5, modelo.diasAteAcabar(30, proximaSegunda, 10));
+    }
+
+    @Test
+    void acompanhaAMudancaRecenteDeConsumo() {
+        // Quatro semanas com 10 por dia e mais duas com 20: o nível sobe na direção do consumo novo
+        double[] consumo = new double[42];
+        for (int i = 0; i < consumo.length; i++) {
+            consumo[i] = i < 28 ? 10 : 20;
+        }
+
+        ModeloDemanda modelo = ModeloDemanda.ajustar(consumo, INICIO, 0.3);
+
+        assertTrue(modelo.nivel() > 19 && modelo.nivel() <= 20);
+    }
+
+    @Test
+    void ignoraOsDiasAntesDoPrimeiroConsumo() {
+        // Produto cadastrado há pouco: só os últimos sete dias têm consumo
+        double[] consumo = new double[84];
+        for (int i = 77; i < consumo.length; i++) {
+            consumo[i] = 8;
+        }
+
+        ModeloDemanda modelo = ModeloDemanda.ajustar(consumo, INICIO, 0.3);
+
+        assertEquals(8, modelo.nivel(), 0.01);
+    }
+
+    @Test
+    void semConsumoNaoPreveDemanda() {
+        ModeloDemanda modelo = ModeloDemanda.ajustar(new double[28], INICIO, 0.3);
+
+        assertSame(ModeloDemanda.SEM_CONSUMO, modelo);
+        assertTrue(modelo.semConsumo());
+        assertEquals(10, modelo.diasAteAcabar(0, INICIO, 10));
+    }
+}
@@ -0,0 +1,138 @@
+package dicasa.estoque.service;
+
+import dicasa.estoque.BancoDeDadosTest;
+import dicasa.estoque.csv.CSVExporter;
+import dicasa.estoque.csv.ExportadorCSV;
+import dicasa.estoque.models.dto.ItemPedidoRequestDTO;
+import dicasa.estoque.models.dto.PedidoRequestDTO;
+import dicasa.estoque.models.entities.EstoqueProduto;
+import dicasa.estoque.models.entities.Produto;
+import dicasa.estoque.repository.ProdutoRepository;
+import dicasa.estoque.util.EstoqueProdutoSavedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Testa a importação de notas em lote: pedidos, linhas, entradas no estoque e movimentações
+ * gravados juntos, ou nada gravado quando alguma linha aponta para um produto sem estoque
+ */
+@RecordApplicationEvents
+@Import({PedidoService.class, MovimentacaoEstoqueService.class, CSVExporter.class, ExportadorCSV.class})
+class PedidoServiceImportacaoTest extends BancoDeDadosTest {
+
+    @Autowired
+    private PedidoService pedidoService;
+    @Autowired
+    private ProdutoRepository produtoRepository;
+    @Autowired
+    private ApplicationEvents eventos;
+
+    private Long muzzarela;
+    private Long calabresa;
+
+    @BeforeEach
+    void cadastrarProdutos() {
+        muzzarela = cadastrar("Muçarela", 10);
+        calabresa = cadastrar("Calabresa", 0);
+    }
+
+    @Test
+    void importaAsNotasESomaOEstoqueDeCadaProduto() {
+        List<Integer> idsPedido = pedidoService.importarNotas(List.of(
+                nota("NF 1", item(muzzarela, 5), item(calabresa, 2)),
+                nota("NF 2", item(muzzarela, 3))));
+
+        assertEquals(2, idsPedido.size());
+        assertEquals(18, quantidade(muzzarela));
+        assertEquals(2, quantidade(calabresa));
+        assertEquals(3, contar("dicasa_estoque.pedido_produto"));
+        assertEquals(List.of(15, 18), jdbcTemplate.queryForList(
+                "SELECT saldo_resultante FROM dicasa_estoque.movimentacao_estoque " +
+                "WHERE id_produto = ? AND tipo = 'ENTRADA' ORDER BY saldo_resultante",
+                Integer.class, muzzarela));
+
+        // Um aviso por produto, com o saldo final, para o cache e as telas não voltarem ao banco
+        Map<Long, Integer> avisados = eventos.stream(EstoqueProdutoSavedEvent.class)
+                .collect(Collectors.toMap(EstoqueProdutoSavedEvent::getIdProduto, EstoqueProdutoSavedEvent::getQuantidade));
+        assertEquals(Map.of(muzzarela, 18, calabresa, 2), avisados);
+    }
+
+    @Test
+    void produtoSemEstoqueDesfazTodasAsNotas() {
+        Long semEstoque = cadastrar("Orégano", null);
+
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class, () -> pedidoService.importarNotas(List.of(
+                nota("NF 1", item(muzzarela, 5)),
+                nota("NF 2", item(calabresa, 2), item(semEstoque, 1)))));
+
+        assertEquals("Produto sem estoque cadastrado ou inexistente: Orégano", erro.getMessage());
+        assertEquals(10, quantidade(muzzarela));
+        assertEquals(0, quantidade(calabresa));
+        assertEquals(0, contar("dicasa_estoque.pedido"));
+        assertEquals(0, contar("dicasa_estoque.pedido_produto"));
+        assertEquals(0, contar("dicasa_estoque.movimentacao_estoque"));
+        assertEquals(0, eventos.stream(EstoqueProdutoSavedEvent.class).count());
+    }
+
+    @Test
+    void produtoInexistenteDaAMesmaMensagemSemGravarNada() {
+        Long inexistente = calabresa + 1000;
+
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class, () -> pedidoService.importarNotas(List.of(
+                nota("NF 1", item(muzzarela, 5), item(inexistente, 1)))));
+
+        assertEquals("Produto sem estoque cadastrado ou inexistente: [" + inexistente + "]", erro.getMessage());
+        assertEquals(10, quantidade(muzzarela));
+        assertEquals(0, contar("dicasa_estoque.pedido"));
+        assertEquals(0, contar("dicasa_estoque.pedido_produto"));
+    }
+
+    private static PedidoRequestDTO nota(String observacao, ItemPedidoRequestDTO... itens) {
+        return new PedidoRequestDTO(observacao, null, null, List.of(itens));
+    }
+
+    private static ItemPedidoRequestDTO item(Long idProduto, int quantidade) {
+        return new ItemPedidoRequestDTO(idProduto, null, quantidade, BigDecimal.TEN, null);
+    }
+
+    /**
+     * @param quantidade estoque inicial, ou null para o produto ficar sem estoque cadastrado
+     */
+    private Long cadastrar(String nome, Integer quantidade) {
+        Produto produto = new Produto();
+        produto.setNome(nome);
+        produto.setTipo("Revenda");
+        produto.setDataCriacao(LocalDateTime.now());
+
+        if (quantidade != null) {
+            EstoqueProduto estoque = new EstoqueProduto();
+            estoque.setQuantidade(quantidade);
+            estoque.setData_criacao(LocalDateTime.now());
+            estoque.setProduto(produto);
+            produto.setEstoqueProduto(estoque);
+        }
+        return produtoRepository.save(produto).getIdProduto();
+    }
+
+    private int quantidade(Long idProduto) {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantidade FROM dicasa_estoque.estoque_produto WHERE id_produto = ?", Integer.class, idProduto);
+    }
+
+    private int contar(String tabela) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabela, Integer.class);
+    }
+}
@@ -0,0 +1,36 @@
+package dicasa.estoque.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testa se a normalização e a similaridade em memória seguem as regras do unaccent e do pg_trgm
+ */
+class TextoBuscaUtilTest {
+
+    @Test
+    void normalizarRemoveAcentosEMaiusculas() {
+        assertEquals("mucarela de bufala", TextoBuscaUtil.normalizar("  Muçarela de Búfala "));
+        assertEquals("", TextoBuscaUtil.normalizar(null));
+    }
+
+    @Test
+    void trigramasSeguemOPgTrgm() {
+        // SELECT show_trgm('sal') => {"  s"," sa","al ",sal}
+        assertEquals(Set.of("  s", " sa", "sal", "al "), TextoBuscaUtil.trigramas("sal"));
+    }
+
+    @Test
+    void similaridadeToleraErroDeDigitacao() {
+        double parecido = TextoBuscaUtil.similaridade("mussarela", "mucarela");
+        double diferente = TextoBuscaUtil.similaridade("mussarela", "feijao");
+
+        assertTrue(parecido >= TextoBuscaUtil.SIMILARIDADE_MINIMA);
+        assertTrue(diferente < TextoBuscaUtil.SIMILARIDADE_MINIMA);
+        assertEquals(1.0, TextoBuscaUtil.similaridade("arroz", "arroz"));
+    }
+}